@@ -0,0 +1,166 @@
+package com.ucoruh.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ucoruh.controller.DrawioExporter;
+import com.ucoruh.controller.DrawioExporter.PageExportResult;
+import com.ucoruh.option.ControllerOptions;
+import com.ucoruh.utils.SvgRasterizer;
+
+/**
+ *
+ * @class DrawioExportBenchmark
+ * @brief Measures the export of a multi-page Draw.IO file with three draw.io
+ *        runs per page against one SVG run per page and Batik rasterized PNG
+ *        and JPEG images. draw.io must be in PATH or set with DRAWIO_PATH.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class DrawioExportBenchmark {
+
+	/**
+	 * The raster backend, drawio or batik.
+	 */
+	@Param({ ControllerOptions.DRAWIO_BACKEND, ControllerOptions.BATIK_BACKEND })
+	public String rasterBackend;
+
+	/**
+	 * The number of pages of the Draw.IO file.
+	 */
+	@Param({ "4" })
+	public int pages;
+
+	/**
+	 * The number of draw.io processes.
+	 */
+	@Param({ "4" })
+	public int processes;
+
+	/**
+	 * The folder of the Draw.IO file.
+	 */
+	private Path root;
+
+	/**
+	 * The Draw.IO file.
+	 */
+	private List<String> files;
+
+	/**
+	 * The exporter.
+	 */
+	private DrawioExporter exporter;
+
+	/**
+	 * Creates the Draw.IO file and the exporter.
+	 *
+	 * @throws IOException If the file can't be created
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+
+		root = Files.createTempDirectory("drawio-export-benchmark");
+
+		Path file = root.resolve("diagram.drawio");
+		Files.write(file, createDiagram(pages).getBytes(StandardCharsets.UTF_8));
+		files = Collections.singletonList(file.toString());
+
+		SvgRasterizer rasterizer = rasterBackend.equals(ControllerOptions.BATIK_BACKEND)
+				? new SvgRasterizer(SvgRasterizer.DEFAULT_DPI, SvgRasterizer.DEFAULT_JPEG_QUALITY)
+				: null;
+
+		exporter = new DrawioExporter(processes, rasterizer, false);
+	}
+
+	/**
+	 * Deletes the Draw.IO file and its images.
+	 *
+	 * @throws IOException If the folder can't be deleted
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(new File(root.toString()));
+	}
+
+	/**
+	 * Exports all pages in all formats.
+	 *
+	 * @return the page results
+	 */
+	@Benchmark
+	public List<PageExportResult> export() {
+
+		List<PageExportResult> results = exporter.export(files);
+
+		for (PageExportResult result : results) {
+			if (!result.isSuccess()) {
+				throw new IllegalStateException("export failed : " + result.getErrors());
+			}
+		}
+
+		return results;
+	}
+
+	/**
+	 * Creates an uncompressed Draw.IO file with labeled boxes and edges on every
+	 * page.
+	 *
+	 * @param pageCount The number of pages
+	 *
+	 * @return the file content
+	 */
+	private static String createDiagram(int pageCount) {
+
+		StringBuilder builder = new StringBuilder("<mxfile host=\"benchmark\">\n");
+
+		for (int page = 0; page < pageCount; page++) {
+
+			builder.append("<diagram id=\"page-").append(page).append("\" name=\"page-").append(page).append("\">");
+			builder.append("<mxGraphModel><root><mxCell id=\"0\"/><mxCell id=\"1\" parent=\"0\"/>");
+
+			for (int box = 0; box < 10; box++) {
+				builder.append("<mxCell id=\"box-").append(box).append("\" value=\"Step ").append(box)
+						.append("\" style=\"rounded=1;whiteSpace=wrap;html=1;\" vertex=\"1\" parent=\"1\">")
+						.append("<mxGeometry x=\"").append(40 + (box % 5) * 160).append("\" y=\"")
+						.append(40 + (box / 5) * 160).append("\" width=\"120\" height=\"60\" as=\"geometry\"/></mxCell>");
+
+				if (box > 0) {
+					builder.append("<mxCell id=\"edge-").append(box).append("\" edge=\"1\" parent=\"1\" source=\"box-")
+							.append(box - 1).append("\" target=\"box-").append(box)
+							.append("\"><mxGeometry relative=\"1\" as=\"geometry\"/></mxCell>");
+				}
+			}
+
+			builder.append("</root></mxGraphModel></diagram>\n");
+		}
+
+		return builder.append("</mxfile>\n").toString();
+	}
+
+}
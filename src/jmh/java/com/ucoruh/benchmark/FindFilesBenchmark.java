@@ -0,0 +1,108 @@
+package com.ucoruh.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ucoruh.utils.Utils;
+
+/**
+ *
+ * @class FindFilesBenchmark
+ * @brief Measures Markdown file discovery on deep folder trees. Every folder has
+ *        two sub folders and a few Markdown, image and Draw.IO files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindFilesBenchmark {
+
+	/**
+	 * The depth of the folder tree.
+	 */
+	@Param({ "4", "8" })
+	public int depth;
+
+	/**
+	 * The root of the folder tree.
+	 */
+	private Path root;
+
+	/**
+	 * Creates the folder tree.
+	 *
+	 * @throws IOException If the tree can't be created
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		root = Files.createTempDirectory("find-files-benchmark");
+		createTree(root, depth);
+	}
+
+	/**
+	 * Deletes the folder tree.
+	 *
+	 * @throws IOException If the tree can't be deleted
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(new File(root.toString()));
+	}
+
+	/**
+	 * Finds the Markdown files of the tree.
+	 *
+	 * @return the found files
+	 * @throws IOException If the tree can't be walked
+	 */
+	@Benchmark
+	public List<String> findFiles() throws IOException {
+		return Utils.findFiles(root, new String[] { "md" });
+	}
+
+	/**
+	 * Creates a folder level with files and two sub folders.
+	 *
+	 * @param folder The folder to fill
+	 * @param levels The remaining levels
+	 * @throws IOException If a file can't be created
+	 */
+	private static void createTree(Path folder, int levels) throws IOException {
+
+		Files.createFile(folder.resolve("week.md"));
+		Files.createFile(folder.resolve("mkdocs_week.md"));
+		Files.createFile(folder.resolve("diagram.drawio"));
+		Files.createFile(folder.resolve("diagram.png"));
+
+		if (levels == 0) {
+			return;
+		}
+
+		for (int i = 0; i < 2; i++) {
+			Path child = Files.createDirectory(folder.resolve("folder-" + i));
+			createTree(child, levels - 1);
+		}
+	}
+
+}
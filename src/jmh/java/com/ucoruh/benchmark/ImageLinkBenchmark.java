@@ -0,0 +1,63 @@
+package com.ucoruh.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.ucoruh.utils.Utils;
+
+/**
+ *
+ * @class ImageLinkBenchmark
+ * @brief Measures the Marp to pandoc image link rewriting on image heavy lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImageLinkBenchmark {
+
+	/**
+	 * Image lines in the format expected by convertImageStringToPandoc.
+	 */
+	private final String[] imageStrings = {
+			"![insertion sort algorithm](assets/ce100-week-1-intro-ins_sort_2.drawio.svg height:500px center)",
+			"![merge sort](assets/ce100-week-3-merge_sort.drawio.svg height:400px)",
+			"![recurrence tree](assets/ce100-week-2-recurrence.png center height:300px)" };
+
+	/**
+	 * Rewrites every Marp image link to pandoc format.
+	 *
+	 * @param blackhole Consumes the results
+	 */
+	@Benchmark
+	public void convertMarpToPandoc(Blackhole blackhole) {
+		for (String link : SyntheticDeck.IMAGE_LINKS) {
+			blackhole.consume(Utils.convertMarpToPandoc(link));
+		}
+	}
+
+	/**
+	 * Rewrites every image string to pandoc format.
+	 *
+	 * @param blackhole Consumes the results
+	 */
+	@Benchmark
+	public void convertImageStringToPandoc(Blackhole blackhole) {
+		for (String imageString : imageStrings) {
+			blackhole.consume(Utils.convertImageStringToPandoc(imageString));
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+package com.ucoruh.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.batik.transcoder.TranscoderException;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.NullWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ucoruh.controller.MarkdownController;
+import com.ucoruh.controller.MarkdownMergeEngine;
+import com.ucoruh.option.ControllerOptions;
+import com.ucoruh.option.OptionType;
+
+/**
+ *
+ * @class MergeBenchmark
+ * @brief Measures the slide merge on synthetic decks from 10 to 10,000 slides.
+ *        mergeLines measures the classification only, mergeFile the file merge
+ *        with reading the deck and writing the mkdocs_, pandoc_ and panppt_
+ *        outputs like MarkdownController, and mergePages the whole merge pages
+ *        operation, the file merge followed by the pandoc image check of the
+ *        SVG images of the deck. The synthetic deck links images that don't
+ *        exist, so mergePages also looks them up on every call. Time per slide
+ *        should stay flat as the deck grows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeBenchmark {
+
+	/**
+	 * The number of slides of the deck.
+	 */
+	@Param({ "10", "100", "1000", "10000" })
+	public int slides;
+
+	/**
+	 * The deck lines.
+	 */
+	private List<String> lines;
+
+	/**
+	 * The folder of the deck file and outputs.
+	 */
+	private Path folder;
+
+	/**
+	 * The deck file.
+	 */
+	private Path deckFile;
+
+	/**
+	 * The controller merging the deck file.
+	 */
+	private MarkdownController controller;
+
+	/**
+	 * Generates the deck and writes it to a temporary folder.
+	 *
+	 * @throws IOException If the deck can't be written
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+
+		SyntheticDeck.quietLogging();
+
+		lines = SyntheticDeck.generateLines(slides);
+
+		folder = Files.createTempDirectory("merge-benchmark");
+		deckFile = folder.resolve("ce100-week-1.md");
+		SyntheticDeck.writeDeck(deckFile, slides);
+
+		ControllerOptions options = new ControllerOptions();
+		options.setOptionType(OptionType.MERGEPAGES);
+		options.setFileInputPath(deckFile.toString());
+
+		controller = new MarkdownController();
+		controller.setOptions(options);
+	}
+
+	/**
+	 * Deletes the temporary folder.
+	 *
+	 * @throws IOException If the folder can't be deleted
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(new File(folder.toString()));
+	}
+
+	/**
+	 * Classifies the deck lines and discards the outputs.
+	 *
+	 * @throws IOException never, outputs are discarded
+	 */
+	@Benchmark
+	public void mergeLines() throws IOException {
+
+		try (MarkdownMergeEngine engine = new MarkdownMergeEngine("ce100-week-1.md", NullWriter.NULL_WRITER,
+				NullWriter.NULL_WRITER, NullWriter.NULL_WRITER)) {
+
+			for (String line : lines) {
+				engine.accept(line);
+			}
+
+			engine.finish();
+		}
+	}
+
+	/**
+	 * Reads the deck file, classifies its lines and writes the three outputs,
+	 * the file merge of MarkdownController without the image stages.
+	 *
+	 * @throws IOException If the deck can't be read or written
+	 */
+	@Benchmark
+	public void mergeFile() throws IOException {
+
+		try (BufferedReader reader = Files.newBufferedReader(deckFile, StandardCharsets.UTF_8);
+				Writer mkdocsWebWriter = Files.newBufferedWriter(
+						folder.resolve(ControllerOptions.MKDOCS_WEB_PREFIX + "ce100-week-1.md"), StandardCharsets.UTF_8);
+				Writer pandocPdfWriter = Files.newBufferedWriter(
+						folder.resolve(ControllerOptions.PANDOCS_DOC_PREFIX + "ce100-week-1.md"), StandardCharsets.UTF_8);
+				Writer pandocSlideWriter = Files.newBufferedWriter(
+						folder.resolve(ControllerOptions.PANDOCS_PPT_PREFIX + "ce100-week-1.md"),
+						StandardCharsets.UTF_8);
+				MarkdownMergeEngine engine = new MarkdownMergeEngine(deckFile.toString(), mkdocsWebWriter,
+						pandocPdfWriter, pandocSlideWriter)) {
+
+			String line;
+			while ((line = reader.readLine()) != null) {
+				engine.accept(line);
+			}
+
+			engine.finish();
+		}
+	}
+
+	/**
+	 * Runs the merge pages operation of MarkdownController on the deck file, the
+	 * file merge and the pandoc image check.
+	 *
+	 * @return the merge result
+	 * @throws IOException         If the deck can't be read or written
+	 * @throws TranscoderException If an image can't be converted
+	 */
+	@Benchmark
+	public boolean mergePages() throws IOException, TranscoderException {
+		return controller.mergePages();
+	}
+
+}
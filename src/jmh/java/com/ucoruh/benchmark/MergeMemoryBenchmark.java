@@ -0,0 +1,150 @@
+package com.ucoruh.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.batik.transcoder.TranscoderException;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ucoruh.controller.MarkdownController;
+import com.ucoruh.option.ControllerOptions;
+import com.ucoruh.option.OptionType;
+
+/**
+ *
+ * @class MergeMemoryBenchmark
+ * @brief Merges a very large generated deck in a small heap and reports the
+ *        peak heap usage of the merge. The deck file is larger than the heap,
+ *        so the merge only completes if the outputs are streamed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx64m" })
+public class MergeMemoryBenchmark {
+
+	/**
+	 * The number of slides of the deck.
+	 */
+	@Param({ "200000" })
+	public int slides;
+
+	/**
+	 * The folder of the deck file and outputs.
+	 */
+	private Path folder;
+
+	/**
+	 * The controller merging the deck file.
+	 */
+	private MarkdownController controller;
+
+	/**
+	 *
+	 * @brief Peak heap usage counter reported next to the merge time.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class HeapCounters {
+
+		/**
+		 * Peak heap usage of the iteration in megabytes.
+		 */
+		public long peakHeapMegabytes;
+
+		/**
+		 * Resets the peak usage of the heap pools before the iteration.
+		 */
+		@Setup(Level.Iteration)
+		public void reset() {
+			System.gc();
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (pool.getType() == MemoryType.HEAP) {
+					pool.resetPeakUsage();
+				}
+			}
+		}
+
+		/**
+		 * Records the peak usage of the heap pools after the iteration.
+		 */
+		@TearDown(Level.Iteration)
+		public void record() {
+			long peak = 0;
+			for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+				if (pool.getType() == MemoryType.HEAP) {
+					peak += pool.getPeakUsage().getUsed();
+				}
+			}
+			peakHeapMegabytes = peak / (1024 * 1024);
+		}
+	}
+
+	/**
+	 * Writes the deck to a temporary folder.
+	 *
+	 * @throws IOException If the deck can't be written
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+
+		SyntheticDeck.quietLogging();
+
+		folder = Files.createTempDirectory("merge-memory-benchmark");
+		Path deckFile = folder.resolve("ce100-week-1.md");
+		SyntheticDeck.writeDeck(deckFile, slides);
+
+		ControllerOptions options = new ControllerOptions();
+		options.setOptionType(OptionType.MERGEPAGES);
+		options.setFileInputPath(deckFile.toString());
+
+		controller = new MarkdownController();
+		controller.setOptions(options);
+	}
+
+	/**
+	 * Deletes the temporary folder.
+	 *
+	 * @throws IOException If the folder can't be deleted
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(new File(folder.toString()));
+	}
+
+	/**
+	 * Merges the deck file through MarkdownController.
+	 *
+	 * @param counters The heap counters of the iteration
+	 * @return the merge result
+	 * @throws IOException         If the deck can't be read or written
+	 * @throws TranscoderException If an image can't be converted
+	 */
+	@Benchmark
+	public boolean mergeLargeDeck(HeapCounters counters) throws IOException, TranscoderException {
+		return controller.mergePages();
+	}
+
+}
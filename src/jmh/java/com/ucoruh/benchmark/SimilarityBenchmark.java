@@ -0,0 +1,79 @@
+package com.ucoruh.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ucoruh.utils.Utils;
+
+/**
+ *
+ * @class SimilarityBenchmark
+ * @brief Measures the header similarity kernel. Run with "-prof gc" to see the
+ *        allocation rate, gc.alloc.rate.norm should be close to zero.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimilarityBenchmark {
+
+	/**
+	 * The compared header pair.
+	 */
+	@Param({ "ascii", "turkish", "different" })
+	public String pair;
+
+	/**
+	 * The first normalized header.
+	 */
+	private String previous;
+
+	/**
+	 * The second normalized header.
+	 */
+	private String current;
+
+	/**
+	 * Selects the compared headers.
+	 */
+	@org.openjdk.jmh.annotations.Setup
+	public void setup() {
+		switch (pair) {
+		case "turkish":
+			previous = "ağaç yapıları ve dengeleme";
+			current = "ağaç yapıları ve dengeleme ";
+			break;
+		case "different":
+			previous = "introduction to algorithms";
+			current = "recurrence çözümleri";
+			break;
+		default:
+			previous = "introduction to algorithms";
+			current = "introduction to algorithms";
+			break;
+		}
+	}
+
+	/**
+	 * Calculates the similarity of the headers.
+	 *
+	 * @return the similarity
+	 */
+	@Benchmark
+	public double calculateJaccardSimilarity() {
+		return Utils.calculateJaccardSimilarity(previous, current);
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.ucoruh.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ *
+ * @class SyntheticDeck
+ * @brief Generates Marp slide decks for benchmarks. Decks contain a front
+ *        matter, Marp directives, repeated and numbered headers, image links
+ *        and text lines, like the weekly course decks.
+ */
+public class SyntheticDeck {
+
+	/**
+	 * Headers cycled through the generated slides, repeated headers are removed
+	 * by the merge.
+	 */
+	private static final String[] HEADERS = { "## Introduction to Algorithms", "## Introduction to Algorithms (2)",
+			"## Insertion Sort", "## Insertion Sort (3)", "### Ağaç Yapıları ve Dengeleme",
+			"## Asymptotic Notation", "## Merge Sort Analysis", "## Recurrence Çözümleri (4)" };
+
+	/**
+	 * Marp image links with attributes rewritten for pandoc.
+	 */
+	public static final String[] IMAGE_LINKS = {
+			"![alt:\"insertion sort algorithm\" height:500px center](assets/ce100-week-1-intro-ins_sort_2.drawio.svg)",
+			"![width:600px h:300px](assets/ce100-week-2-recurrence.png)",
+			"![alt:\"merge sort\" w:400px center](assets/ce100-week-3-merge_sort.drawio.svg)",
+			"![center h:450px](https://www.plantuml.com/plantuml/svg/SoWkIImgAStDuV9DB2fGqBLJ24ZCIybFLh1IyCjNyCnDJ4zLSCilpKlXSaZDIm6g0m00)" };
+
+	/**
+	 * Utility class, not instantiated.
+	 */
+	private SyntheticDeck() {
+	}
+
+	/**
+	 * Generates the lines of a deck.
+	 *
+	 * @param slides The number of slides
+	 * @return The deck lines
+	 */
+	public static List<String> generateLines(int slides) {
+
+		List<String> lines = new ArrayList<String>(slides * 12 + 8);
+
+		lines.add("---");
+		lines.add("marp: true");
+		lines.add("theme: default");
+		lines.add("paginate: true");
+		lines.add("---");
+		lines.add("");
+
+		for (int i = 0; i < slides; i++) {
+			lines.add("---");
+			lines.add("");
+			if (i % 5 == 0) {
+				lines.add("<!-- _backgroundColor: aqua -->");
+				lines.add("<!-- paginate: false -->");
+			}
+			lines.add(HEADERS[(i / 3) % HEADERS.length]);
+			lines.add("");
+			lines.add("- Slide " + i + " first bullet with some explanation text");
+			lines.add("- Slide " + i + " second bullet $O(n^2)$ complexity");
+			if (i % 2 == 0) {
+				lines.add(IMAGE_LINKS[i % IMAGE_LINKS.length]);
+			}
+			lines.add("");
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Writes a deck to a file in UTF-8.
+	 *
+	 * @param file   The deck file
+	 * @param slides The number of slides
+	 * @throws IOException If the file can't be written
+	 */
+	public static void writeDeck(Path file, int slides) throws IOException {
+		Files.write(file, generateLines(slides), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Limits logging to warnings, merge and file operations log every step at
+	 * info level.
+	 */
+	public static void quietLogging() {
+		Logger.getLogger("").setLevel(Level.WARNING);
+		Logger.getLogger("com.ucoruh").setLevel(Level.WARNING);
+	}
+
+}
@@ -0,0 +1,321 @@
+package com.ucoruh.controller;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.ucoruh.controller.FolderTaskRunner.FileTaskStatus;
+import com.ucoruh.controller.FolderTaskRunner.TaskResult;
+import com.ucoruh.utils.PhaseTimer;
+import com.ucoruh.utils.RunReport;
+import com.ucoruh.utils.ToolLauncher;
+import com.ucoruh.utils.ToolLauncher.Tool;
+import com.ucoruh.utils.ToolLauncher.ToolResult;
+import com.ucoruh.utils.Utils;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class BuildScheduler
+ * @brief Runs Marp and Pandoc render jobs on a bounded worker pool. Every
+ *        (deck, format) render is a job, jobs of all decks share the pool so a
+ *        folder build keeps all workers busy until the last job. Every job is
+ *        waited for and its exit code and duration are reported, a failing job
+ *        does not stop the other jobs.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * BuildScheduler scheduler = new BuildScheduler(4);
+ * List<RenderJobResult> results = scheduler.run(jobs);
+ * boolean result = scheduler.logReport(results);
+ * }
+ *        </pre>
+ */
+public class BuildScheduler {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the BuildScheduler
+	 *        class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(BuildScheduler.class.getName());
+
+	/**
+	 *
+	 * @brief An in-process render of a deck.
+	 */
+	public interface RenderTask {
+
+		/**
+		 * Renders the output of the job.
+		 *
+		 * @throws Exception If the render fails.
+		 */
+		void render() throws Exception;
+	}
+
+	/**
+	 *
+	 * @brief A render of a deck to a single output format, with an external tool
+	 *        command or an in-process render task.
+	 */
+	@Getter
+	public static class RenderJob {
+
+		/**
+		 * The path of the rendered deck
+		 */
+		private final String deck;
+
+		/**
+		 * The output format name used in logs, like "marp-pdf"
+		 */
+		private final String format;
+
+		/**
+		 * The tool that runs the command, null for in-process jobs
+		 */
+		private final Tool tool;
+
+		/**
+		 * The command and its arguments, null for in-process jobs
+		 */
+		private final String[] command;
+
+		/**
+		 * The in-process render task, null for command jobs
+		 */
+		private final RenderTask task;
+
+		/**
+		 * The folder in which the command runs
+		 */
+		private final String workingFolder;
+
+		/**
+		 * The output file of the job, null if the job has several outputs
+		 */
+		private final String outputFile;
+
+		/**
+		 * Creates a render job.
+		 *
+		 * @param deck          The path of the rendered deck
+		 * @param format        The output format name used in logs
+		 * @param tool          The tool that runs the command
+		 * @param command       The command and its arguments
+		 * @param workingFolder The folder in which the command runs
+		 * @param outputFile    The output file of the job, null if the job has
+		 *                      several outputs
+		 */
+		public RenderJob(String deck, String format, Tool tool, String[] command, String workingFolder,
+				String outputFile) {
+			this.deck = deck;
+			this.format = format;
+			this.tool = tool;
+			this.command = command;
+			this.task = null;
+			this.workingFolder = workingFolder;
+			this.outputFile = outputFile;
+		}
+
+		/**
+		 * Creates an in-process render job.
+		 *
+		 * @param deck       The path of the rendered deck
+		 * @param format     The output format name used in logs
+		 * @param task       The render task
+		 * @param outputFile The output file of the job
+		 */
+		public RenderJob(String deck, String format, RenderTask task, String outputFile) {
+			this.deck = deck;
+			this.format = format;
+			this.tool = null;
+			this.command = null;
+			this.task = task;
+			this.workingFolder = null;
+			this.outputFile = outputFile;
+		}
+	}
+
+	/**
+	 *
+	 * @brief The result of a render job.
+	 */
+	@Getter
+	public static class RenderJobResult implements TaskResult {
+
+		/**
+		 * The executed job
+		 */
+		private final RenderJob job;
+
+		/**
+		 * The exit code of the command, -1 if it couldn't be run
+		 */
+		private final int exitCode;
+
+		/**
+		 * The run duration in milliseconds
+		 */
+		private final long durationMillis;
+
+		/**
+		 * The output of the command
+		 */
+		private final String output;
+
+		/**
+		 * The error of a job that couldn't be run, null otherwise
+		 */
+		private final Exception error;
+
+		/**
+		 * Creates a job result.
+		 *
+		 * @param job            The executed job
+		 * @param exitCode       The exit code of the command
+		 * @param durationMillis The run duration in milliseconds
+		 * @param output         The output of the command
+		 * @param error          The error of a job that couldn't be run
+		 */
+		public RenderJobResult(RenderJob job, int exitCode, long durationMillis, String output, Exception error) {
+			this.job = job;
+			this.exitCode = exitCode;
+			this.durationMillis = durationMillis;
+			this.output = output;
+			this.error = error;
+		}
+
+		/**
+		 * Checks whether the job completed with exit code 0.
+		 *
+		 * @return true if the job succeeded, false otherwise
+		 */
+		public boolean isSuccess() {
+			return error == null && exitCode == 0;
+		}
+
+		@Override
+		public FileTaskStatus getStatus() {
+			return isSuccess() ? FileTaskStatus.SUCCESS : FileTaskStatus.FAILED;
+		}
+
+		@Override
+		public boolean isFailed() {
+			return !isSuccess();
+		}
+
+		@Override
+		public String getReportLine() {
+			return job.getFormat() + " " + job.getDeck() + " (exit " + exitCode + ")";
+		}
+	}
+
+	/**
+	 *
+	 * @brief The maximum number of jobs running at the same time.
+	 */
+	@Getter
+	private final int parallelism;
+
+	/**
+	 *
+	 * @brief The runner of the jobs.
+	 */
+	private final FolderTaskRunner runner;
+
+	/**
+	 *
+	 * @brief Creates a scheduler with the given parallelism level.
+	 *
+	 * @param parallelism The maximum number of jobs running at the same time,
+	 *                    values lower than 2 run jobs one after another
+	 */
+	public BuildScheduler(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+		this.runner = new FolderTaskRunner(this.parallelism);
+	}
+
+	/**
+	 *
+	 * Runs all jobs and waits for them.
+	 *
+	 * @param jobs The render jobs
+	 *
+	 * @return The results of the jobs in job order
+	 */
+	public List<RenderJobResult> run(List<RenderJob> jobs) {
+
+		LOGGER.info("Running " + jobs.size() + " render jobs");
+
+		return runner.runAll(jobs, RenderJob::getDeck, this::runJob,
+				(job, durationMillis, error) -> new RenderJobResult(job, -1, durationMillis, "", error));
+	}
+
+	/**
+	 *
+	 * Logs the result of every job and the summary of the build. The output of
+	 * failed jobs is logged to show the tool error.
+	 *
+	 * @param results The results of the jobs
+	 *
+	 * @return true if all jobs succeeded, false otherwise
+	 */
+	public boolean logReport(List<RenderJobResult> results) {
+
+		boolean result = runner.logReport("Build", results);
+
+		for (RenderJobResult jobResult : results) {
+			if (jobResult.isFailed() && !Utils.checkStringNullOrEmpty(jobResult.getOutput())) {
+				LOGGER.severe("Build " + jobResult.getJob().getFormat() + " output : " + jobResult.getJob().getDeck()
+						+ System.lineSeparator() + jobResult.getOutput());
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 *
+	 * Runs a single job and converts errors to a failed result.
+	 *
+	 * @param job The render job
+	 *
+	 * @return The result of the job
+	 */
+	private RenderJobResult runJob(RenderJob job) {
+
+		long start = System.currentTimeMillis();
+
+		try {
+			// a failed render must not leave the previous output behind
+			if (job.getOutputFile() != null) {
+				Files.deleteIfExists(Paths.get(job.getOutputFile()));
+			}
+
+			if (job.getTask() != null) {
+				PhaseTimer.time(RunReport.Phase.RENDER, job.getDeck(), job.getFormat(), () -> {
+					job.getTask().render();
+					return null;
+				});
+				return new RenderJobResult(job, 0, System.currentTimeMillis() - start, "", null);
+			}
+
+			ToolResult result = ToolLauncher.execute(job.getTool(), job.getCommand(), job.getWorkingFolder());
+			return new RenderJobResult(job, result.getExitCode(), result.getDurationMillis(), result.getOutput(), null);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return new RenderJobResult(job, -1, System.currentTimeMillis() - start, "", e);
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "Render Job Failed : " + job.getFormat() + " " + job.getDeck(), e);
+			return new RenderJobResult(job, -1, System.currentTimeMillis() - start, "", e);
+		}
+	}
+
+}
@@ -0,0 +1,362 @@
+package com.ucoruh.controller;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import com.ucoruh.controller.DrawioReader.DrawioPage;
+
+/**
+ *
+ * @class DrawioExportManifest
+ * @brief Persistent manifest of the exported Draw.IO pages of a folder. For
+ *        every page the manifest stores the content hash of the page and the
+ *        export settings, so pages that didn't change since their last export
+ *        are skipped and the images of deleted or renamed pages are removed.
+ *
+ *        The manifest is saved as a properties file in the assets folder with
+ *        the following keys for each page, keyed by the index of the page in
+ *        its file because page names don't have to be unique. The name is only
+ *        recorded to find the images of the page:
+ *
+ *        <pre>
+ * ce100-week-1.drawio/0.hash=&lt;sha-256&gt;
+ * ce100-week-1.drawio/0.settings=0.0.1-SNAPSHOT batik 96.0 0.9
+ * ce100-week-1.drawio/0.name=insertion_sort
+ *        </pre>
+ */
+public class DrawioExportManifest {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the
+	 *        DrawioExportManifest class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(DrawioExportManifest.class.getName());
+
+	/**
+	 *
+	 * @brief File name of the manifest in the assets folder.
+	 */
+	public static final String MANIFEST_FILE_NAME = ".drawio-manifest.properties";
+
+	/**
+	 *
+	 * @brief Key suffix for the page hash entry.
+	 */
+	private static final String HASH_KEY = ".hash";
+
+	/**
+	 *
+	 * @brief Key suffix for the export settings entry.
+	 */
+	private static final String SETTINGS_KEY = ".settings";
+
+	/**
+	 *
+	 * @brief Key suffix for the page name entry, the name of the images of the
+	 *        page.
+	 */
+	private static final String NAME_KEY = ".name";
+
+	/**
+	 *
+	 * @brief The folder of the Draw.IO files.
+	 */
+	private final String folderPath;
+
+	/**
+	 *
+	 * @brief Path of the manifest file.
+	 */
+	private final File manifestFile;
+
+	/**
+	 *
+	 * @brief The export settings, pages exported with other settings are
+	 *        exported again.
+	 */
+	private final String settings;
+
+	/**
+	 *
+	 * @brief Manifest entries.
+	 */
+	private final Properties entries = new Properties();
+
+	/**
+	 *
+	 * @brief Creates a manifest for the Draw.IO files of a folder.
+	 *
+	 * @param folderPath The folder of the Draw.IO files
+	 * @param settings   The export settings like the tool version and raster
+	 *                   backend
+	 */
+	public DrawioExportManifest(String folderPath, String settings) {
+		this.folderPath = folderPath;
+		this.manifestFile = Paths.get(folderPath, DrawioExporter.ASSETS_FOLDER, MANIFEST_FILE_NAME).toFile();
+		this.settings = settings;
+	}
+
+	/**
+	 *
+	 * Loads the manifest entries from the manifest file if it exists.
+	 *
+	 * @throws IOException If there is an error reading the manifest file.
+	 */
+	public void load() throws IOException {
+
+		if (!manifestFile.exists()) {
+			LOGGER.info("Draw.io export manifest not found, all pages will be exported : " + manifestFile);
+			return;
+		}
+
+		try (InputStream inputStream = new FileInputStream(manifestFile)) {
+			entries.load(inputStream);
+		}
+	}
+
+	/**
+	 *
+	 * Saves the manifest entries to the manifest file.
+	 *
+	 * @throws IOException If there is an error writing the manifest file.
+	 */
+	public void save() throws IOException {
+
+		Files.createDirectories(manifestFile.getParentFile().toPath());
+
+		try (OutputStream outputStream = new FileOutputStream(manifestFile)) {
+			entries.store(outputStream, "markdown-slide-converter drawio export manifest");
+		}
+	}
+
+	/**
+	 *
+	 * Checks whether the images of a page are up to date. A page is up to date if
+	 * it was exported with the same settings and name, its content did not change
+	 * and all its images exist.
+	 *
+	 * @param filePath The path of the Draw.IO file
+	 * @param page     The page
+	 *
+	 * @return true if the page does not need to be exported, false otherwise
+	 */
+	public boolean isUpToDate(String filePath, DrawioPage page) {
+
+		String key = toKey(filePath, page);
+
+		if (!page.getHash().equals(entries.getProperty(key + HASH_KEY))
+				|| !settings.equals(entries.getProperty(key + SETTINGS_KEY))
+				|| !page.getName().equals(entries.getProperty(key + NAME_KEY))) {
+			return false;
+		}
+
+		for (String format : DrawioExporter.EXPORT_FORMATS) {
+			if (!new File(DrawioExporter.getImagePath(filePath, page.getName(), format)).exists()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 *
+	 * Records a successful export of a page.
+	 *
+	 * @param filePath The path of the Draw.IO file
+	 * @param page     The page
+	 */
+	public void update(String filePath, DrawioPage page) {
+		String key = toKey(filePath, page);
+		entries.setProperty(key + HASH_KEY, page.getHash());
+		entries.setProperty(key + SETTINGS_KEY, settings);
+		entries.setProperty(key + NAME_KEY, page.getName());
+	}
+
+	/**
+	 *
+	 * Removes the entry of a page, so it is exported on the next run.
+	 *
+	 * @param filePath The path of the Draw.IO file
+	 * @param page     The page
+	 */
+	public void remove(String filePath, DrawioPage page) {
+		removeEntry(toKey(filePath, page));
+	}
+
+	/**
+	 *
+	 * Deletes the images and entries of the recorded pages of a file that are not
+	 * in its current pages, like deleted and renamed pages. The images of a
+	 * recorded page are kept if a current page has the same name, they are the
+	 * images of that page.
+	 *
+	 * @param filePath The path of the Draw.IO file
+	 * @param pages    The current pages of the file
+	 *
+	 * @throws IOException If an image can't be deleted.
+	 *
+	 * @return The number of removed pages
+	 */
+	public int removeDeletedPages(String filePath, List<DrawioPage> pages) throws IOException {
+
+		String fileName = new File(filePath).getName();
+		Map<String, String> pageNames = new HashMap<String, String>();
+
+		for (DrawioPage page : pages) {
+			pageNames.put(toKey(filePath, page), page.getName());
+		}
+
+		int removedCount = 0;
+
+		for (String key : getPageKeys(fileName)) {
+
+			String recordedName = getRecordedName(key);
+
+			if (recordedName.equals(pageNames.get(key))) {
+				continue;
+			}
+
+			if (!pageNames.containsValue(recordedName)) {
+				deleteImages(filePath, recordedName);
+			}
+
+			removeEntry(key);
+			removedCount++;
+		}
+
+		return removedCount;
+	}
+
+	/**
+	 *
+	 * Deletes the images and entries of the Draw.IO files of the folder that no
+	 * longer exist.
+	 *
+	 * @throws IOException If an image can't be deleted.
+	 *
+	 * @return The number of removed pages
+	 */
+	public int removeDeletedFiles() throws IOException {
+
+		Set<String> fileNames = new HashSet<String>();
+
+		for (String key : entries.stringPropertyNames()) {
+			fileNames.add(key.substring(0, key.indexOf('/')));
+		}
+
+		int removedCount = 0;
+
+		for (String fileName : fileNames) {
+
+			String filePath = Paths.get(folderPath, fileName).toString();
+
+			if (new File(filePath).exists()) {
+				continue;
+			}
+
+			for (String key : getPageKeys(fileName)) {
+				deleteImages(filePath, getRecordedName(key));
+				removeEntry(key);
+				removedCount++;
+			}
+		}
+
+		return removedCount;
+	}
+
+	/**
+	 *
+	 * Gets the keys of the recorded pages of a file.
+	 *
+	 * @param fileName The name of the Draw.IO file
+	 *
+	 * @return The page keys
+	 */
+	private List<String> getPageKeys(String fileName) {
+
+		List<String> pageKeys = new ArrayList<String>();
+		String prefix = fileName + "/";
+
+		for (String key : entries.stringPropertyNames()) {
+			if (key.startsWith(prefix) && key.endsWith(HASH_KEY)) {
+				pageKeys.add(key.substring(0, key.length() - HASH_KEY.length()));
+			}
+		}
+
+		return pageKeys;
+	}
+
+	/**
+	 *
+	 * Gets the recorded name of a page. Manifests written before the pages were
+	 * keyed by index have no name entry, their keys end with the page name.
+	 *
+	 * @param key The manifest key of the page
+	 *
+	 * @return The page name
+	 */
+	private String getRecordedName(String key) {
+		return entries.getProperty(key + NAME_KEY, key.substring(key.indexOf('/') + 1));
+	}
+
+	/**
+	 *
+	 * Deletes the images of a page.
+	 *
+	 * @param filePath The path of the Draw.IO file
+	 * @param pageName The name of the page
+	 *
+	 * @throws IOException If an image can't be deleted.
+	 */
+	private static void deleteImages(String filePath, String pageName) throws IOException {
+
+		for (String format : DrawioExporter.EXPORT_FORMATS) {
+			String imagePath = DrawioExporter.getImagePath(filePath, pageName, format);
+			if (Files.deleteIfExists(Paths.get(imagePath))) {
+				LOGGER.info("Deleted image of removed page [" + pageName + "] : " + imagePath);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Removes the entries of a page.
+	 *
+	 * @param key The manifest key of the page
+	 */
+	private void removeEntry(String key) {
+		entries.remove(key + HASH_KEY);
+		entries.remove(key + SETTINGS_KEY);
+		entries.remove(key + NAME_KEY);
+	}
+
+	/**
+	 *
+	 * Converts a page to a manifest key.
+	 *
+	 * @param filePath The path of the Draw.IO file
+	 * @param page     The page
+	 *
+	 * @return The manifest key
+	 */
+	private static String toKey(String filePath, DrawioPage page) {
+		return new File(filePath).getName() + "/" + page.getIndex();
+	}
+
+}
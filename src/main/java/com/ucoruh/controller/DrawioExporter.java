@@ -0,0 +1,745 @@
+package com.ucoruh.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FilenameUtils;
+
+import com.ucoruh.controller.DrawioReader.DrawioPage;
+import com.ucoruh.controller.FolderTaskRunner.TaskResult;
+import com.ucoruh.utils.PhaseTimer;
+import com.ucoruh.utils.RunReport.Phase;
+import com.ucoruh.utils.SvgRasterizer;
+import com.ucoruh.utils.ToolLauncher;
+import com.ucoruh.utils.ToolLauncher.Tool;
+import com.ucoruh.utils.ToolLauncher.ToolResult;
+import com.ucoruh.utils.Utils;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class DrawioExporter
+ * @brief Exports every page of Draw.IO files to SVG, PNG and JPEG images in
+ *        the assets folder next to each file. The pages are read from the
+ *        files by DrawioReader without draw.io, the exports of all files share
+ *        one FolderTaskRunner, every worker runs one draw.io process at a
+ *        time, so the worker count is the limit of concurrent Electron
+ *        processes. Pages and formats are independent exports, a failed export
+ *        is reported for its page and does not stop the other pages or files.
+ *
+ *        With a rasterizer draw.io exports only the SVG image of a page, the
+ *        PNG and JPEG images are converted from the SVG in-process by the same
+ *        worker right after it, which saves two of three draw.io runs. A page
+ *        whose SVG can't be rasterized is exported by draw.io in that format.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * DrawioExporter exporter = new DrawioExporter(4, new SvgRasterizer(96, 0.9f), true);
+ * List<PageExportResult> results = exporter.export(files);
+ * boolean result = exporter.logReport(results);
+ * }
+ *        </pre>
+ */
+public class DrawioExporter {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the DrawioExporter
+	 *        class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(DrawioExporter.class.getName());
+
+	/**
+	 * The exported image formats
+	 */
+	public static final String[] EXPORT_FORMATS = { "svg", "png", "jpeg" };
+
+	/**
+	 * The name of the folder the images are exported to, next to the Draw.IO
+	 * file
+	 */
+	public static final String ASSETS_FOLDER = "assets";
+
+	/**
+	 *
+	 * @brief The export status of a Draw.IO page.
+	 */
+	public enum ExportStatus {
+		EXPORTED, UP_TO_DATE, FAILED
+	}
+
+	/**
+	 *
+	 * @brief The export result of a Draw.IO page in all formats.
+	 */
+	@Getter
+	public static class PageExportResult implements TaskResult {
+
+		/**
+		 * The path of the Draw.IO file
+		 */
+		private final String file;
+
+		/**
+		 * The index of the page, -1 if the pages of the file couldn't be listed
+		 */
+		private final int pageIndex;
+
+		/**
+		 * The name of the page, null if the pages of the file couldn't be listed
+		 */
+		private final String pageName;
+
+		/**
+		 * Whether the images of the page were up to date and not exported
+		 */
+		private boolean upToDate;
+
+		/**
+		 * The formats that failed to export
+		 */
+		private final List<String> failedFormats = new ArrayList<String>();
+
+		/**
+		 * The total duration of the exports of the page in milliseconds
+		 */
+		private long durationMillis;
+
+		/**
+		 * The failure messages of the page
+		 */
+		private final List<String> errors = new ArrayList<String>();
+
+		/**
+		 * Creates a page result.
+		 *
+		 * @param file      The path of the Draw.IO file
+		 * @param pageIndex The index of the page
+		 * @param pageName  The name of the page
+		 */
+		public PageExportResult(String file, int pageIndex, String pageName) {
+			this.file = file;
+			this.pageIndex = pageIndex;
+			this.pageName = pageName;
+		}
+
+		/**
+		 * Checks whether all formats of the page were exported.
+		 *
+		 * @return true if no export of the page failed, false otherwise
+		 */
+		public boolean isSuccess() {
+			return failedFormats.isEmpty() && errors.isEmpty();
+		}
+
+		@Override
+		public ExportStatus getStatus() {
+			if (!isSuccess()) {
+				return ExportStatus.FAILED;
+			}
+			return upToDate ? ExportStatus.UP_TO_DATE : ExportStatus.EXPORTED;
+		}
+
+		@Override
+		public boolean isFailed() {
+			return !isSuccess();
+		}
+
+		@Override
+		public String getReportLine() {
+			String page = pageIndex < 0 ? "" : " page-" + pageIndex + " [" + pageName + "]";
+			return file + page + (isSuccess() ? "" : " " + errors);
+		}
+	}
+
+	/**
+	 *
+	 * @brief The pages of a Draw.IO file, or the error of the file.
+	 */
+	private static class FileListing {
+
+		/**
+		 * The pages of the file, null if they couldn't be listed
+		 */
+		private final List<DrawioPage> pages;
+
+		/**
+		 * The listing error, null on success
+		 */
+		private final Exception error;
+
+		/**
+		 * Creates a listing.
+		 *
+		 * @param pages The pages of the file
+		 * @param error The listing error
+		 */
+		private FileListing(List<DrawioPage> pages, Exception error) {
+			this.pages = pages;
+			this.error = error;
+		}
+	}
+
+	/**
+	 *
+	 * @brief Formats of a page exported one after another by a worker.
+	 */
+	private static class PageExport {
+
+		/**
+		 * The exported page
+		 */
+		private final Page page;
+
+		/**
+		 * The exported formats, the first one is exported by draw.io
+		 */
+		private final String[] formats;
+
+		/**
+		 * Creates a page export.
+		 *
+		 * @param page    The exported page
+		 * @param formats The exported formats
+		 */
+		private PageExport(Page page, String... formats) {
+			this.page = page;
+			this.formats = formats;
+		}
+	}
+
+	/**
+	 *
+	 * @brief A Draw.IO page with its export result.
+	 */
+	private static class Page {
+
+		/**
+		 * The path of the Draw.IO file
+		 */
+		private final String file;
+
+		/**
+		 * The page read from the file
+		 */
+		private final DrawioPage page;
+
+		/**
+		 * The index of the page
+		 */
+		private final int index;
+
+		/**
+		 * The name of the page
+		 */
+		private final String name;
+
+		/**
+		 * The export result of the page
+		 */
+		private final PageExportResult result;
+
+		/**
+		 * Creates a page.
+		 *
+		 * @param file The path of the Draw.IO file
+		 * @param page The page read from the file
+		 */
+		private Page(String file, DrawioPage page) {
+			this.file = file;
+			this.page = page;
+			this.index = page.getIndex();
+			this.name = page.getName();
+			this.result = new PageExportResult(file, index, name);
+		}
+	}
+
+	/**
+	 *
+	 * @brief The outcome of a single draw.io run.
+	 */
+	private static class ExportOutcome {
+
+		/**
+		 * Whether the export succeeded
+		 */
+		private final boolean success;
+
+		/**
+		 * The duration of the export in milliseconds
+		 */
+		private final long durationMillis;
+
+		/**
+		 * The failure message, null on success
+		 */
+		private final String error;
+
+		/**
+		 * Creates an outcome.
+		 *
+		 * @param success        Whether the export succeeded
+		 * @param durationMillis The duration of the export
+		 * @param error          The failure message
+		 */
+		private ExportOutcome(boolean success, long durationMillis, String error) {
+			this.success = success;
+			this.durationMillis = durationMillis;
+			this.error = error;
+		}
+	}
+
+	/**
+	 * The maximum number of draw.io processes running at the same time
+	 */
+	private final int processLimit;
+
+	/**
+	 * The runner of the listings and exports, one worker per draw.io process
+	 */
+	private final FolderTaskRunner runner;
+
+	/**
+	 * The rasterizer of the PNG and JPEG images, null if draw.io exports all
+	 * formats
+	 */
+	private final SvgRasterizer rasterizer;
+
+	/**
+	 * Whether unchanged pages are skipped by using the export manifests
+	 */
+	private final boolean incremental;
+
+	/**
+	 * The export settings recorded in the export manifests
+	 */
+	private final String settings;
+
+	/**
+	 * Creates an exporter.
+	 *
+	 * @param processLimit The maximum number of draw.io processes running at the
+	 *                     same time, values lower than 2 export one image after
+	 *                     another
+	 *
+	 * @param rasterizer   The rasterizer of the PNG and JPEG images, null to
+	 *                     export every format with draw.io
+	 *
+	 * @param incremental  Whether pages that didn't change since their last
+	 *                     export are skipped, false exports all pages
+	 */
+	public DrawioExporter(int processLimit, SvgRasterizer rasterizer, boolean incremental) {
+		this.processLimit = Math.max(1, processLimit);
+		this.runner = new FolderTaskRunner(this.processLimit);
+		this.rasterizer = rasterizer;
+		this.incremental = incremental;
+		this.settings = Utils.getToolVersion() + " " + (rasterizer == null ? "drawio"
+				: "batik " + rasterizer.getDpi() + " " + rasterizer.getJpegQuality());
+	}
+
+	/**
+	 *
+	 * Exports all pages of the files in all formats. The pages of every file are
+	 * listed first, then all page and format exports are run on the pool. In
+	 * incremental exports only new and changed pages are exported, the images
+	 * of deleted pages and of deleted files in the folders are removed.
+	 *
+	 * @param files The paths of the Draw.IO files
+	 *
+	 * @return The page results ordered by file path and page index, a file whose
+	 *         pages can't be listed has a single result with page index -1
+	 */
+	public List<PageExportResult> export(List<String> files) {
+
+		List<String> sortedFiles = new ArrayList<String>(files);
+		Collections.sort(sortedFiles);
+
+		List<PageExportResult> results = new ArrayList<PageExportResult>();
+
+		if (sortedFiles.isEmpty()) {
+			return results;
+		}
+
+		LOGGER.info("Exporting " + sortedFiles.size() + " Draw.IO files with up to " + processLimit
+				+ " draw.io processes");
+
+		// the export manifests by folder
+		Map<String, DrawioExportManifest> manifests = new LinkedHashMap<String, DrawioExportManifest>();
+
+		// list the pages of all files
+		List<FileListing> listings = runner.runAll(sortedFiles, file -> file,
+				file -> new FileListing(listPages(file), null),
+				(file, durationMillis, error) -> new FileListing(null, error));
+
+		List<Page> pages = new ArrayList<Page>();
+
+		for (int fileIndex = 0; fileIndex < sortedFiles.size(); fileIndex++) {
+
+			String file = sortedFiles.get(fileIndex);
+			FileListing listing = listings.get(fileIndex);
+
+			if (listing.error != null) {
+				PageExportResult result = new PageExportResult(file, -1, null);
+				result.errors.add("page listing failed: " + listing.error);
+				results.add(result);
+				continue;
+			}
+
+			try {
+				DrawioExportManifest manifest = getManifest(manifests, file);
+
+				if (manifest != null) {
+					manifest.removeDeletedPages(file, listing.pages);
+				}
+
+				for (DrawioPage filePage : listing.pages) {
+
+					if (manifest != null && manifest.isUpToDate(file, filePage)) {
+						PageExportResult result = new PageExportResult(file, filePage.getIndex(), filePage.getName());
+						result.upToDate = true;
+						results.add(result);
+						continue;
+					}
+
+					pages.add(new Page(file, filePage));
+				}
+			} catch (IOException e) {
+				LOGGER.log(Level.SEVERE, "Draw.io export manifest update failed : " + file, e);
+				PageExportResult result = new PageExportResult(file, -1, null);
+				result.errors.add("removing deleted pages failed: " + e);
+				results.add(result);
+			}
+		}
+
+		// with a rasterizer every page is one export starting with svg, otherwise
+		// every format of a page is a separate draw.io export
+		List<PageExport> exports = new ArrayList<PageExport>();
+
+		for (Page page : pages) {
+			if (rasterizer != null) {
+				exports.add(new PageExport(page, EXPORT_FORMATS));
+				continue;
+			}
+			for (String format : EXPORT_FORMATS) {
+				exports.add(new PageExport(page, format));
+			}
+		}
+
+		List<ExportOutcome[]> outcomes = runner.runAll(exports, export -> export.page.file, this::exportFormats,
+				(export, durationMillis, error) -> failedOutcomes(export, durationMillis, String.valueOf(error)));
+
+		for (int exportIndex = 0; exportIndex < exports.size(); exportIndex++) {
+
+			PageExport export = exports.get(exportIndex);
+
+			for (int formatIndex = 0; formatIndex < export.formats.length; formatIndex++) {
+
+				ExportOutcome outcome = outcomes.get(exportIndex)[formatIndex];
+
+				export.page.result.durationMillis += outcome.durationMillis;
+
+				if (!outcome.success) {
+					export.page.result.failedFormats.add(export.formats[formatIndex]);
+					export.page.result.errors.add(export.formats[formatIndex] + ": " + outcome.error);
+				}
+			}
+		}
+
+		for (Page page : pages) {
+
+			DrawioExportManifest manifest = getManifest(manifests, page.file);
+
+			if (manifest != null && page.result.isSuccess()) {
+				manifest.update(page.file, page.page);
+			} else if (manifest != null) {
+				manifest.remove(page.file, page.page);
+			}
+
+			results.add(page.result);
+		}
+
+		for (Map.Entry<String, DrawioExportManifest> manifest : manifests.entrySet()) {
+			try {
+				manifest.getValue().removeDeletedFiles();
+				manifest.getValue().save();
+			} catch (IOException e) {
+				LOGGER.log(Level.SEVERE, "Draw.io export manifest save failed : " + manifest.getKey(), e);
+			}
+		}
+
+		Collections.sort(results, (first, second) -> first.getFile().equals(second.getFile())
+				? Integer.compare(first.getPageIndex(), second.getPageIndex())
+				: first.getFile().compareTo(second.getFile()));
+
+		return results;
+	}
+
+	/**
+	 *
+	 * Gets the export manifest of the folder of a file, loading it on first use.
+	 *
+	 * @param manifests The loaded manifests by folder
+	 *
+	 * @param file      The path of the Draw.IO file
+	 *
+	 * @return The manifest, null if the export isn't incremental
+	 */
+	private DrawioExportManifest getManifest(Map<String, DrawioExportManifest> manifests, String file) {
+
+		if (!incremental) {
+			return null;
+		}
+
+		String folderPath = FilenameUtils.getFullPath(file);
+		DrawioExportManifest manifest = manifests.get(folderPath);
+
+		if (manifest == null) {
+
+			manifest = new DrawioExportManifest(folderPath, settings);
+
+			try {
+				manifest.load();
+			} catch (IOException e) {
+				LOGGER.log(Level.WARNING, "Draw.io export manifest can't be read, all pages will be exported : "
+						+ folderPath, e);
+				manifest = new DrawioExportManifest(folderPath, settings);
+			}
+
+			manifests.put(folderPath, manifest);
+		}
+
+		return manifest;
+	}
+
+	/**
+	 *
+	 * Logs the failed pages and the summary of the export.
+	 *
+	 * @param results The page results
+	 *
+	 * @return true if all pages of all files were exported, false otherwise
+	 */
+	public boolean logReport(List<PageExportResult> results) {
+		return runner.logReport("Draw.io export", results);
+	}
+
+	/**
+	 *
+	 * Lists the pages of a Draw.IO file.
+	 *
+	 * @param inputFilePath The path of the Draw.IO file
+	 *
+	 * @throws IOException If the file can't be read or isn't a valid Draw.IO
+	 *                     file.
+	 *
+	 * @return The pages in page order
+	 */
+	public static List<DrawioPage> listPages(String inputFilePath) throws IOException {
+
+		List<DrawioPage> pages = DrawioReader.read(new File(inputFilePath));
+
+		for (DrawioPage page : pages) {
+			LOGGER.info("Draw.io Pagename-" + page.getIndex() + " : [" + page.getName() + "]");
+		}
+
+		return pages;
+	}
+
+	/**
+	 *
+	 * Gets the path of the exported image of a page.
+	 *
+	 * @param inputFilePath The path of the Draw.IO file
+	 *
+	 * @param pageName      The name of the page
+	 *
+	 * @param format        The image format
+	 *
+	 * @return The image path, "assets/<file name>-<page name>.<format>" next to
+	 *         the Draw.IO file
+	 */
+	public static String getImagePath(String inputFilePath, String pageName, String format) {
+		return Paths.get(FilenameUtils.getFullPath(inputFilePath), ASSETS_FOLDER,
+				FilenameUtils.getBaseName(inputFilePath) + "-" + pageName + "." + format).toString();
+	}
+
+	/**
+	 *
+	 * Exports a page in a format.
+	 *
+	 * @param page   The page
+	 *
+	 * @param format The image format
+	 *
+	 * @return The outcome of the export
+	 */
+	private static ExportOutcome exportPage(Page page, String format) {
+
+		String outputFile = getImagePath(page.file, page.name, format);
+
+		try {
+			Files.createDirectories(Paths.get(outputFile).getParent());
+
+			ExportOutcome outcome = runDrawioExport(page.file, "--page-index", String.valueOf(page.index), "--format",
+					format, "--output", outputFile, page.file);
+
+			if (outcome.success) {
+				LOGGER.info("Exported page-" + page.index + " [" + page.name + "] "
+						+ format.toUpperCase(Locale.ENGLISH) + " : " + outputFile);
+			}
+
+			return outcome;
+
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "Draw.io export failed : " + outputFile, e);
+			return new ExportOutcome(false, 0, String.valueOf(e));
+		}
+	}
+
+	/**
+	 *
+	 * Exports the formats of a page one after another. The first format is
+	 * exported by draw.io, with a rasterizer the other formats are converted
+	 * from the exported SVG image and exported by draw.io if that fails.
+	 *
+	 * @param export The page export
+	 *
+	 * @return The outcomes in the order of the formats
+	 */
+	private ExportOutcome[] exportFormats(PageExport export) {
+
+		Page page = export.page;
+		ExportOutcome[] outcomes = new ExportOutcome[export.formats.length];
+
+		for (int formatIndex = 0; formatIndex < export.formats.length; formatIndex++) {
+
+			String format = export.formats[formatIndex];
+
+			if (formatIndex == 0 || rasterizer == null) {
+				outcomes[formatIndex] = exportPage(page, format);
+				continue;
+			}
+
+			if (!outcomes[0].success) {
+				outcomes[formatIndex] = new ExportOutcome(false, 0, export.formats[0] + " export failed");
+				continue;
+			}
+
+			ExportOutcome outcome = rasterizePage(page, format);
+
+			if (!outcome.success) {
+				LOGGER.warning("Rasterizing failed, exporting page-" + page.index + " [" + page.name + "] "
+						+ format.toUpperCase(Locale.ENGLISH) + " with draw.io : " + page.file);
+				outcome = exportPage(page, format);
+			}
+
+			outcomes[formatIndex] = outcome;
+		}
+
+		return outcomes;
+	}
+
+	/**
+	 *
+	 * Creates the failed outcomes of all formats of a page export.
+	 *
+	 * @param export         The page export
+	 *
+	 * @param durationMillis The duration until the failure
+	 *
+	 * @param error          The failure message
+	 *
+	 * @return The outcomes in the order of the formats
+	 */
+	private static ExportOutcome[] failedOutcomes(PageExport export, long durationMillis, String error) {
+
+		ExportOutcome[] outcomes = new ExportOutcome[export.formats.length];
+
+		for (int formatIndex = 0; formatIndex < outcomes.length; formatIndex++) {
+			outcomes[formatIndex] = new ExportOutcome(false, formatIndex == 0 ? durationMillis : 0, error);
+		}
+
+		return outcomes;
+	}
+
+	/**
+	 *
+	 * Converts the exported SVG image of a page to a raster format.
+	 *
+	 * @param page   The page
+	 *
+	 * @param format The raster format
+	 *
+	 * @return The outcome of the conversion
+	 */
+	private ExportOutcome rasterizePage(Page page, String format) {
+
+		String svgFile = getImagePath(page.file, page.name, "svg");
+		String outputFile = getImagePath(page.file, page.name, format);
+
+		long startNanos = System.nanoTime();
+
+		try {
+
+			PhaseTimer.time(Phase.RENDER, page.file, "batik", () -> {
+				rasterizer.rasterize(new File(svgFile), new File(outputFile), format);
+				return outputFile;
+			});
+
+			LOGGER.info("Rasterized page-" + page.index + " [" + page.name + "] " + format.toUpperCase(Locale.ENGLISH)
+					+ " : " + outputFile);
+
+			return new ExportOutcome(true, (System.nanoTime() - startNanos) / 1000000, null);
+
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "Rasterizing failed : " + svgFile, e);
+			return new ExportOutcome(false, (System.nanoTime() - startNanos) / 1000000, String.valueOf(e));
+		}
+	}
+
+	/**
+	 *
+	 * Runs a draw.io export and waits for it.
+	 *
+	 * @param inputFilePath The path of the exported Draw.IO file, used in logs
+	 *
+	 * @param arguments     The export arguments after "--export"
+	 *
+	 * @throws Exception If draw.io can't be started or the thread is
+	 *                   interrupted.
+	 *
+	 * @return The outcome of the export, failed if draw.io timed out or exited
+	 *         with a non-zero exit code
+	 */
+	private static ExportOutcome runDrawioExport(String inputFilePath, String... arguments) throws Exception {
+
+		String[] exportArguments = new String[arguments.length + 1];
+		exportArguments[0] = "--export";
+		System.arraycopy(arguments, 0, exportArguments, 1, arguments.length);
+
+		ToolResult result = ToolLauncher.run(Tool.DRAWIO, null, exportArguments);
+
+		if (!result.isSuccess()) {
+			String error = (result.isTimedOut() ? "timed out" : "exit " + result.getExitCode()) + " "
+					+ result.getOutput().trim();
+			LOGGER.severe("Draw.io export failed (" + error + ") " + inputFilePath);
+			return new ExportOutcome(false, result.getDurationMillis(), error);
+		}
+
+		return new ExportOutcome(true, result.getDurationMillis(), null);
+	}
+
+}
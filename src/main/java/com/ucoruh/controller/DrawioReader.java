@@ -0,0 +1,349 @@
+package com.ucoruh.controller;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import com.ucoruh.utils.Utils;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class DrawioReader
+ * @brief Reads the pages of a Draw.IO file without draw.io. The file is
+ *        streamed with StAX, a page is a diagram element whose content is an
+ *        mxGraphModel element or, in compressed files, the base64 of the
+ *        deflated and URL encoded mxGraphModel. Both forms of a page have the
+ *        same content hash, which changes only when the diagram of the page
+ *        changes.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * for (DrawioPage page : DrawioReader.read(new File("diagram.drawio"))) {
+ * 	System.out.println(page.getIndex() + " " + page.getName() + " " + page.getHash());
+ * }
+ * }
+ *        </pre>
+ */
+public class DrawioReader {
+
+	/**
+	 *
+	 * @brief A page of a Draw.IO file.
+	 */
+	@Getter
+	public static class DrawioPage {
+
+		/**
+		 * The index of the page
+		 */
+		private final int index;
+
+		/**
+		 * The id of the page
+		 */
+		private final String id;
+
+		/**
+		 * The name of the page
+		 */
+		private final String name;
+
+		/**
+		 * The SHA-256 hash of the page diagram
+		 */
+		private final String hash;
+
+		/**
+		 * Creates a page.
+		 *
+		 * @param index The index of the page
+		 * @param id    The id of the page
+		 * @param name  The name of the page
+		 * @param hash  The SHA-256 hash of the page diagram
+		 */
+		public DrawioPage(int index, String id, String name, String hash) {
+			this.index = index;
+			this.id = id;
+			this.name = name;
+			this.hash = hash;
+		}
+	}
+
+	/**
+	 * The StAX factory, DTDs and external entities are disabled
+	 */
+	private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+	/**
+	 *
+	 * Reads the pages of a Draw.IO file.
+	 *
+	 * @param file The Draw.IO file
+	 *
+	 * @throws IOException If the file can't be read or isn't a valid Draw.IO
+	 *                     file.
+	 *
+	 * @return The pages in page order, a page without a name is named like draw.io
+	 *         names it, "Page-" and its number
+	 */
+	public static List<DrawioPage> read(File file) throws IOException {
+
+		List<DrawioPage> pages = new ArrayList<DrawioPage>();
+
+		try (InputStream input = new BufferedInputStream(Files.newInputStream(file.toPath()))) {
+
+			XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(input);
+
+			try {
+				while (reader.hasNext()) {
+					if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("diagram")) {
+						pages.add(readPage(reader, pages.size()));
+					}
+				}
+			} finally {
+				reader.close();
+			}
+
+		} catch (XMLStreamException e) {
+			throw new IOException("Invalid Draw.IO file " + file + " : " + e.getMessage(), e);
+		}
+
+		return pages;
+	}
+
+	/**
+	 *
+	 * Reads a diagram element, the reader is at its start and is moved to its
+	 * end.
+	 *
+	 * @param reader The reader
+	 *
+	 * @param index  The index of the page
+	 *
+	 * @throws XMLStreamException If the diagram isn't valid XML.
+	 *
+	 * @throws IOException        If the compressed diagram can't be decoded.
+	 *
+	 * @return The page
+	 */
+	private static DrawioPage readPage(XMLStreamReader reader, int index) throws XMLStreamException, IOException {
+
+		String id = reader.getAttributeValue(null, "id");
+		String name = reader.getAttributeValue(null, "name");
+
+		if (Utils.checkStringNullOrEmpty(name)) {
+			name = "Page-" + (index + 1);
+		}
+
+		MessageDigest digest = createDigest();
+		StringBuilder text = new StringBuilder();
+		boolean plain = false;
+
+		while (true) {
+
+			int event = reader.next();
+
+			if (event == XMLStreamConstants.END_ELEMENT) {
+				break;
+			}
+
+			if (event == XMLStreamConstants.START_ELEMENT) {
+				plain = true;
+				digestElement(reader, digest);
+			} else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+				text.append(reader.getText());
+			}
+		}
+
+		String payload = text.toString().trim();
+
+		if (!plain && !payload.isEmpty()) {
+
+			// some editors write the uncompressed model as escaped text
+			String model = payload.startsWith("<") ? payload : decode(payload);
+
+			XMLStreamReader modelReader = INPUT_FACTORY.createXMLStreamReader(new StringReader(model));
+
+			try {
+				while (modelReader.hasNext()) {
+					if (modelReader.next() == XMLStreamConstants.START_ELEMENT) {
+						digestElement(modelReader, digest);
+					}
+				}
+			} finally {
+				modelReader.close();
+			}
+		}
+
+		return new DrawioPage(index, id, name, Utils.toHexString(digest.digest()));
+	}
+
+	/**
+	 *
+	 * Adds an element with its attributes, text and child elements to a digest,
+	 * the reader is at its start and is moved to its end. Whitespace between
+	 * elements is ignored.
+	 *
+	 * @param reader The reader
+	 *
+	 * @param digest The digest
+	 *
+	 * @throws XMLStreamException If the element isn't valid XML.
+	 */
+	private static void digestElement(XMLStreamReader reader, MessageDigest digest) throws XMLStreamException {
+
+		int depth = 0;
+
+		do {
+			switch (reader.getEventType()) {
+
+			case XMLStreamConstants.START_ELEMENT:
+				depth++;
+				update(digest, "<" + reader.getLocalName());
+				for (int i = 0; i < reader.getAttributeCount(); i++) {
+					update(digest, " " + reader.getAttributeLocalName(i) + "=" + reader.getAttributeValue(i));
+				}
+				update(digest, ">");
+				break;
+
+			case XMLStreamConstants.END_ELEMENT:
+				depth--;
+				update(digest, "</>");
+				break;
+
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.CDATA:
+				if (!reader.isWhiteSpace()) {
+					update(digest, reader.getText());
+				}
+				break;
+
+			default:
+				break;
+			}
+
+			if (depth > 0) {
+				reader.next();
+			}
+
+		} while (depth > 0);
+	}
+
+	/**
+	 *
+	 * Decodes a compressed diagram, the base64 of the raw deflated and URL
+	 * encoded XML.
+	 *
+	 * @param payload The compressed diagram
+	 *
+	 * @throws IOException If the diagram can't be decoded.
+	 *
+	 * @return The diagram XML
+	 */
+	private static String decode(String payload) throws IOException {
+
+		byte[] deflated;
+
+		try {
+			deflated = Base64.getMimeDecoder().decode(payload);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid compressed diagram : " + e.getMessage(), e);
+		}
+
+		Inflater inflater = new Inflater(true);
+		ByteArrayOutputStream output = new ByteArrayOutputStream(deflated.length * 4);
+
+		try {
+			inflater.setInput(deflated);
+
+			byte[] buffer = new byte[8192];
+
+			while (!inflater.finished()) {
+
+				int count = inflater.inflate(buffer);
+
+				if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+
+				output.write(buffer, 0, count);
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Invalid compressed diagram : " + e.getMessage(), e);
+		} finally {
+			inflater.end();
+		}
+
+		try {
+			return URLDecoder.decode(new String(output.toByteArray(), StandardCharsets.UTF_8), "UTF-8");
+		} catch (UnsupportedEncodingException | IllegalArgumentException e) {
+			throw new IOException("Invalid compressed diagram : " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 *
+	 * Creates a SHA-256 digest.
+	 *
+	 * @throws IOException If SHA-256 isn't supported.
+	 *
+	 * @return The digest
+	 */
+	private static MessageDigest createDigest() throws IOException {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("SHA-256 not supported", e);
+		}
+	}
+
+	/**
+	 *
+	 * Adds a string to a digest.
+	 *
+	 * @param digest The digest
+	 *
+	 * @param value  The string
+	 */
+	private static void update(MessageDigest digest, String value) {
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 *
+	 * Creates the StAX factory.
+	 *
+	 * @return The factory
+	 */
+	private static XMLInputFactory createInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		return factory;
+	}
+
+}
@@ -0,0 +1,395 @@
+package com.ucoruh.controller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.ucoruh.utils.RunReport;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class FolderTaskRunner
+ * @brief Runs an operation for every file of a folder, or every item of a
+ *        stage, on a bounded worker pool. Each item produces its own typed
+ *        result with a status, a failing item does not stop the other items.
+ *        Results are returned in item order and the report counts them by
+ *        status.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * FolderTaskRunner runner = new FolderTaskRunner(4);
+ * List<FileTaskResult> results = runner.run(files, file -> cleanSelectedFileOutputs(file)
+ * 		? FileTaskStatus.SUCCESS
+ * 		: FileTaskStatus.FAILED);
+ * runner.logReport("Clean", results);
+ *
+ * List<RenderJobResult> jobResults = runner.runAll(jobs, RenderJob::getDeck, job -> runJob(job),
+ * 		(job, durationMillis, error) -> new RenderJobResult(job, -1, durationMillis, "", error));
+ * runner.logReport("Build", jobResults);
+ * }
+ *        </pre>
+ */
+public class FolderTaskRunner {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the FolderTaskRunner
+	 *        class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(FolderTaskRunner.class.getName());
+
+	/**
+	 *
+	 * @brief The status of a processed file.
+	 */
+	public enum FileTaskStatus {
+		SUCCESS, SKIPPED, FAILED
+	}
+
+	/**
+	 *
+	 * @brief The result of a processed item, counted by its status in the
+	 *        report of the runner.
+	 */
+	public interface TaskResult {
+
+		/**
+		 * Gets the status of the item, one constant of the status enum of the
+		 * result type.
+		 *
+		 * @return The status
+		 */
+		Enum<?> getStatus();
+
+		/**
+		 * Checks whether processing the item failed.
+		 *
+		 * @return true if the item failed, false otherwise
+		 */
+		boolean isFailed();
+
+		/**
+		 * Gets the processing duration.
+		 *
+		 * @return The duration in milliseconds
+		 */
+		long getDurationMillis();
+
+		/**
+		 * Describes the item in the report, with the failure message of a failed
+		 * item.
+		 *
+		 * @return The description
+		 */
+		String getReportLine();
+	}
+
+	/**
+	 *
+	 * @brief An operation executed for a single item.
+	 */
+	public interface Task<I, R> {
+
+		/**
+		 * Processes a single item.
+		 *
+		 * @param item The item
+		 *
+		 * @throws Exception If the item processing fails
+		 *
+		 * @return The result of the item
+		 */
+		R run(I item) throws Exception;
+	}
+
+	/**
+	 *
+	 * @brief Creates the result of an item whose task threw an exception.
+	 */
+	public interface FailedResultFactory<I, R> {
+
+		/**
+		 * Creates a failed result.
+		 *
+		 * @param item           The item
+		 * @param durationMillis The processing duration until the failure
+		 * @param error          The error of the item
+		 *
+		 * @return The failed result
+		 */
+		R create(I item, long durationMillis, Exception error);
+	}
+
+	/**
+	 *
+	 * @brief An operation executed for a single file.
+	 */
+	public interface FileTask {
+
+		/**
+		 * Processes a single file.
+		 *
+		 * @param file The path of the file
+		 *
+		 * @throws Exception If the file processing fails
+		 *
+		 * @return The status of the processed file
+		 */
+		FileTaskStatus run(String file) throws Exception;
+	}
+
+	/**
+	 *
+	 * @brief The result of a processed file.
+	 */
+	@Getter
+	public static class FileTaskResult implements TaskResult {
+
+		/**
+		 * The path of the processed file
+		 */
+		private final String file;
+
+		/**
+		 * The status of the processed file
+		 */
+		private final FileTaskStatus status;
+
+		/**
+		 * The processing duration in milliseconds
+		 */
+		private final long durationMillis;
+
+		/**
+		 * The error of a failed file, null otherwise
+		 */
+		private final Exception error;
+
+		/**
+		 * Creates a file result.
+		 *
+		 * @param file           The path of the processed file
+		 * @param status         The status of the processed file
+		 * @param durationMillis The processing duration in milliseconds
+		 * @param error          The error of a failed file, null otherwise
+		 */
+		public FileTaskResult(String file, FileTaskStatus status, long durationMillis, Exception error) {
+			this.file = file;
+			this.status = status;
+			this.durationMillis = durationMillis;
+			this.error = error;
+		}
+
+		@Override
+		public boolean isFailed() {
+			return status == FileTaskStatus.FAILED;
+		}
+
+		@Override
+		public String getReportLine() {
+			return file;
+		}
+	}
+
+	/**
+	 *
+	 * @brief The maximum number of items processed at the same time.
+	 */
+	@Getter
+	private final int parallelism;
+
+	/**
+	 *
+	 * @brief Creates a runner with the given parallelism level.
+	 *
+	 * @param parallelism The maximum number of items processed at the same time,
+	 *                    values lower than 2 process items one after another
+	 */
+	public FolderTaskRunner(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 *
+	 * Runs the task for every file. Files are sorted so results and logs are in
+	 * file order for every parallelism level.
+	 *
+	 * @param files The paths of the files
+	 *
+	 * @param task  The operation executed for each file
+	 *
+	 * @return The results of the files, ordered by file path
+	 */
+	public List<FileTaskResult> run(List<String> files, FileTask task) {
+
+		List<String> sortedFiles = new ArrayList<String>(files);
+		Collections.sort(sortedFiles);
+
+		return runAll(sortedFiles, file -> file, file -> {
+			long start = System.currentTimeMillis();
+			FileTaskStatus status = task.run(file);
+			return new FileTaskResult(file, status, System.currentTimeMillis() - start, null);
+		}, (file, durationMillis, error) -> new FileTaskResult(file, FileTaskStatus.FAILED, durationMillis, error));
+	}
+
+	/**
+	 *
+	 * Runs the task for every item. An exception of the task, or an interrupt
+	 * while waiting for the items, is converted to the failed result of the
+	 * item.
+	 *
+	 * @param items        The items
+	 *
+	 * @param fileOf       Gets the file of an item, recorded as the current
+	 *                     file of the run report while the item is processed
+	 *
+	 * @param task         The operation executed for each item
+	 *
+	 * @param failedResult Creates the result of a failed item
+	 *
+	 * @return The results of the items in item order
+	 */
+	public <I, R> List<R> runAll(List<I> items, Function<I, String> fileOf, Task<I, R> task,
+			FailedResultFactory<I, R> failedResult) {
+
+		List<R> results = new ArrayList<R>();
+
+		int workerCount = Math.min(parallelism, items.size());
+
+		if (workerCount <= 1) {
+			for (I item : items) {
+				results.add(runTask(item, fileOf, task, failedResult));
+			}
+			return results;
+		}
+
+		LOGGER.info("Processing " + items.size() + " items with " + workerCount + " workers");
+
+		ExecutorService executor = Executors.newFixedThreadPool(workerCount);
+
+		try {
+			List<Future<R>> futures = new ArrayList<Future<R>>();
+
+			for (I item : items) {
+				Callable<R> callable = () -> runTask(item, fileOf, task, failedResult);
+				futures.add(executor.submit(callable));
+			}
+
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				} catch (ExecutionException e) {
+					results.add(failedResult.create(items.get(i), 0, e));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					results.add(failedResult.create(items.get(i), 0, e));
+				}
+			}
+
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return results;
+	}
+
+	/**
+	 *
+	 * Logs the result of every item and the summary of the operation, with the
+	 * number of items of every status.
+	 *
+	 * @param operation The name of the operation for the log messages
+	 *
+	 * @param results   The results of the items
+	 *
+	 * @return true if no item failed, false otherwise
+	 */
+	public boolean logReport(String operation, List<? extends TaskResult> results) {
+
+		Map<Enum<?>, Integer> statusCounts = new LinkedHashMap<Enum<?>, Integer>();
+		int failedCount = 0;
+		long totalMillis = 0;
+
+		for (TaskResult result : results) {
+
+			Enum<?> status = result.getStatus();
+
+			for (Enum<?> constant : status.getDeclaringClass().getEnumConstants()) {
+				statusCounts.putIfAbsent(constant, 0);
+			}
+
+			statusCounts.put(status, statusCounts.get(status) + 1);
+			totalMillis += result.getDurationMillis();
+
+			String message = operation + " " + status + " (" + result.getDurationMillis() + " ms) : "
+					+ result.getReportLine();
+
+			if (result.isFailed()) {
+				failedCount++;
+				LOGGER.severe(message);
+			} else {
+				LOGGER.info(message);
+			}
+		}
+
+		StringBuilder summary = new StringBuilder(operation + " summary:");
+
+		for (Map.Entry<Enum<?>, Integer> statusCount : statusCounts.entrySet()) {
+			summary.append(" ").append(statusCount.getValue()).append(" ")
+					.append(statusCount.getKey().name().toLowerCase(Locale.ENGLISH).replace('_', ' ')).append(",");
+		}
+
+		LOGGER.info(summary.append(" ").append(totalMillis).append(" ms total time").toString());
+
+		return failedCount == 0;
+	}
+
+	/**
+	 *
+	 * Runs the task for a single item and converts errors to a failed result.
+	 *
+	 * @param item         The item
+	 *
+	 * @param fileOf       Gets the file of the item
+	 *
+	 * @param task         The operation executed for the item
+	 *
+	 * @param failedResult Creates the result of a failed item
+	 *
+	 * @return The result of the item
+	 */
+	private <I, R> R runTask(I item, Function<I, String> fileOf, Task<I, R> task,
+			FailedResultFactory<I, R> failedResult) {
+
+		long start = System.currentTimeMillis();
+
+		String file = fileOf.apply(item);
+
+		RunReport.setCurrentFile(file);
+
+		try {
+			return task.run(item);
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "Processing Failed : " + file, e);
+			return failedResult.create(item, System.currentTimeMillis() - start, e);
+		} finally {
+			RunReport.setCurrentFile(null);
+		}
+	}
+
+}
@@ -0,0 +1,261 @@
+package com.ucoruh.controller;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.ucoruh.option.ControllerOptions;
+
+/**
+ *
+ * @class FolderWatcher
+ * @brief Watches a folder tree for changed Markdown and Draw.IO files. Bursts
+ *        of file system events are collected until the folder is quiet for the
+ *        debounce period, then the changed files are passed to the listener
+ *        once.
+ *
+ *        Generated files (mkdocs_, pandoc_ and panppt_ prefixes) are ignored,
+ *        so outputs written by the listener don't trigger new changes.
+ */
+public class FolderWatcher {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the FolderWatcher
+	 *        class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(FolderWatcher.class.getName());
+
+	/**
+	 *
+	 * @brief Default quiet period in milliseconds before changes are processed.
+	 */
+	public static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+
+	/**
+	 *
+	 * @brief File extensions processed by the watcher.
+	 */
+	private static final String[] WATCHED_EXTENSIONS = { ".md", ".drawio" };
+
+	/**
+	 *
+	 * @brief Listener for changed files.
+	 */
+	public interface ChangeListener {
+
+		/**
+		 * Called with the files changed during a burst of events.
+		 *
+		 * @param changedFiles The changed files in the order of their first event
+		 */
+		void onChange(List<Path> changedFiles);
+	}
+
+	/**
+	 *
+	 * @brief The root folder of the watched tree.
+	 */
+	private final Path rootPath;
+
+	/**
+	 *
+	 * @brief Quiet period in milliseconds before changes are processed.
+	 */
+	private final long debounceMillis;
+
+	/**
+	 *
+	 * @brief Watched directories by watch key.
+	 */
+	private final Map<WatchKey, Path> watchedDirectories = new HashMap<WatchKey, Path>();
+
+	/**
+	 *
+	 * @brief Creates a watcher for the given folder.
+	 *
+	 * @param rootPath       The root folder of the watched tree
+	 *
+	 * @param debounceMillis Quiet period in milliseconds before changes are
+	 *                       processed
+	 */
+	public FolderWatcher(Path rootPath, long debounceMillis) {
+		this.rootPath = rootPath;
+		this.debounceMillis = debounceMillis;
+	}
+
+	/**
+	 *
+	 * Watches the folder tree until the thread is interrupted.
+	 *
+	 * @param listener The listener called for every burst of changes
+	 *
+	 * @throws IOException If there is an error registering the folders.
+	 */
+	public void watch(ChangeListener listener) throws IOException {
+
+		try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+
+			registerTree(watchService, rootPath);
+
+			LOGGER.info("Watching " + rootPath + " for changes, press Ctrl+C to stop");
+
+			Set<Path> changedFiles = new LinkedHashSet<Path>();
+
+			while (!Thread.currentThread().isInterrupted()) {
+
+				WatchKey key;
+
+				if (changedFiles.isEmpty()) {
+					key = watchService.take();
+				} else {
+					key = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS);
+				}
+
+				if (key == null) {
+					// folder is quiet, process collected changes
+					List<Path> files = new ArrayList<Path>(changedFiles);
+					changedFiles.clear();
+					notifyListener(listener, files);
+					continue;
+				}
+
+				collectChanges(watchService, key, changedFiles);
+			}
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.info("Watching " + rootPath + " stopped");
+		} catch (ClosedWatchServiceException e) {
+			LOGGER.info("Watching " + rootPath + " stopped");
+		}
+	}
+
+	/**
+	 *
+	 * Collects the changed files of a watch key and registers new directories.
+	 *
+	 * @param watchService The watch service of the tree
+	 *
+	 * @param key          The signalled watch key
+	 *
+	 * @param changedFiles The collected changed files
+	 *
+	 * @throws IOException If there is an error registering a new directory.
+	 */
+	private void collectChanges(WatchService watchService, WatchKey key, Set<Path> changedFiles)
+			throws IOException {
+
+		Path directory = watchedDirectories.get(key);
+
+		for (WatchEvent<?> event : key.pollEvents()) {
+
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW || directory == null) {
+				LOGGER.warning("Watch events lost for " + directory);
+				continue;
+			}
+
+			Path changedPath = directory.resolve((Path) event.context());
+
+			if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(changedPath)) {
+				registerTree(watchService, changedPath);
+			} else if (event.kind() != StandardWatchEventKinds.ENTRY_DELETE && isWatchedFile(changedPath)) {
+				changedFiles.add(changedPath);
+			}
+		}
+
+		if (!key.reset()) {
+			watchedDirectories.remove(key);
+		}
+	}
+
+	/**
+	 *
+	 * Calls the listener, errors are logged so the watcher keeps running.
+	 *
+	 * @param listener The listener to call
+	 *
+	 * @param files    The changed files
+	 */
+	private void notifyListener(ChangeListener listener, List<Path> files) {
+
+		LOGGER.info(files.size() + " changed files detected");
+
+		try {
+			listener.onChange(files);
+		} catch (RuntimeException e) {
+			LOGGER.log(Level.SEVERE, "Processing changed files failed", e);
+		}
+	}
+
+	/**
+	 *
+	 * Registers a directory and all its sub directories.
+	 *
+	 * @param watchService The watch service of the tree
+	 *
+	 * @param start        The directory to register
+	 *
+	 * @throws IOException If there is an error registering the directories.
+	 */
+	private void registerTree(WatchService watchService, Path start) throws IOException {
+
+		Files.walkFileTree(start, new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+						StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+				watchedDirectories.put(key, dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	/**
+	 *
+	 * Checks whether a file is a source Markdown or Draw.IO file.
+	 *
+	 * @param path The path of the file
+	 *
+	 * @return true if the file is watched, false otherwise
+	 */
+	private static boolean isWatchedFile(Path path) {
+
+		String fileName = path.getFileName().toString();
+
+		if (fileName.startsWith(ControllerOptions.MKDOCS_WEB_PREFIX)
+				|| fileName.startsWith(ControllerOptions.PANDOCS_DOC_PREFIX)
+				|| fileName.startsWith(ControllerOptions.PANDOCS_PPT_PREFIX)) {
+			return false;
+		}
+
+		String lowerFileName = fileName.toLowerCase();
+
+		for (String extension : WATCHED_EXTENSIONS) {
+			if (lowerFileName.endsWith(extension)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+}
@@ -0,0 +1,315 @@
+package com.ucoruh.controller;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.ucoruh.controller.FolderTaskRunner.TaskResult;
+import com.ucoruh.utils.ImageOptimizer;
+import com.ucoruh.utils.ImageOptimizer.OptimizedImage;
+import com.ucoruh.utils.PhaseTimer;
+import com.ucoruh.utils.RunReport.Phase;
+import com.ucoruh.utils.Utils;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class ImageOptimizationStage
+ * @brief Writes the optimized images linked by the pandoc outputs of merged
+ *        decks. The images are optimized in parallel on a FolderTaskRunner and
+ *        cached in
+ *        {@link #DEFAULT_CACHE_FOLDER} by the hash of the image and the
+ *        optimization settings, so an unchanged image is restored from the
+ *        cache instead of being decoded and encoded again.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * ImageOptimizationStage stage = new ImageOptimizationStage(new ImageOptimizer(150f, 0.9f), 4, true);
+ * stage.addReferences("week-1/ce100-week-1.md", engine.getOptimizedImageUrls());
+ * boolean result = stage.logReport(stage.optimize());
+ * }
+ *        </pre>
+ */
+public class ImageOptimizationStage {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the
+	 *        ImageOptimizationStage class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(ImageOptimizationStage.class.getName());
+
+	/**
+	 *
+	 * @brief Default cache folder of optimized images in the user home.
+	 */
+	public static final String DEFAULT_CACHE_FOLDER = Paths
+			.get(System.getProperty("user.home"), ".markdown-slide-converter", "image-cache").toString();
+
+	/**
+	 *
+	 * @brief Default maximum size of the optimized image cache in bytes.
+	 */
+	public static final long DEFAULT_MAX_CACHE_BYTES = 512L * 1024 * 1024;
+
+	/**
+	 *
+	 * @brief The status of an optimized image.
+	 */
+	public enum OptimizeStatus {
+		OPTIMIZED, COPIED, CACHED, FAILED
+	}
+
+	/**
+	 *
+	 * @brief The result of writing an optimized image.
+	 */
+	@Getter
+	public static class OptimizeResult implements TaskResult {
+
+		/**
+		 * The path of the optimized image
+		 */
+		private final String outputFile;
+
+		/**
+		 * The status of the optimization
+		 */
+		private final OptimizeStatus status;
+
+		/**
+		 * The size of the image in bytes
+		 */
+		private final long sourceBytes;
+
+		/**
+		 * The size of the optimized image in bytes
+		 */
+		private final long outputBytes;
+
+		/**
+		 * The duration of the optimization in milliseconds
+		 */
+		private final long durationMillis;
+
+		/**
+		 * The failure message, null unless failed
+		 */
+		private final String error;
+
+		/**
+		 * Creates a result.
+		 *
+		 * @param outputFile     The path of the optimized image
+		 * @param status         The status of the optimization
+		 * @param sourceBytes    The size of the image
+		 * @param outputBytes    The size of the optimized image
+		 * @param durationMillis The duration of the optimization
+		 * @param error          The failure message
+		 */
+		public OptimizeResult(String outputFile, OptimizeStatus status, long sourceBytes, long outputBytes,
+				long durationMillis, String error) {
+			this.outputFile = outputFile;
+			this.status = status;
+			this.sourceBytes = sourceBytes;
+			this.outputBytes = outputBytes;
+			this.durationMillis = durationMillis;
+			this.error = error;
+		}
+
+		@Override
+		public boolean isFailed() {
+			return status == OptimizeStatus.FAILED;
+		}
+
+		@Override
+		public String getReportLine() {
+			return outputFile + (error == null ? "" : " " + error);
+		}
+	}
+
+	/**
+	 * The optimizer shared by the workers
+	 */
+	private final ImageOptimizer optimizer;
+
+	/**
+	 * The runner of the optimizations
+	 */
+	private final FolderTaskRunner runner;
+
+	/**
+	 * Whether optimized images are restored from the cache
+	 */
+	private final boolean restoreFromCache;
+
+	/**
+	 * The cache of optimized images
+	 */
+	private final RenderCache cache = new RenderCache(DEFAULT_CACHE_FOLDER, DEFAULT_MAX_CACHE_BYTES);
+
+	/**
+	 * The optimized images by output path
+	 */
+	private final Map<String, OptimizedImage> images = new LinkedHashMap<String, OptimizedImage>();
+
+	/**
+	 * Creates a stage.
+	 *
+	 * @param optimizer        The optimizer shared by the workers
+	 *
+	 * @param parallelism      The number of images optimized in parallel
+	 *
+	 * @param restoreFromCache Whether optimized images are restored from the
+	 *                         cache
+	 */
+	public ImageOptimizationStage(ImageOptimizer optimizer, int parallelism, boolean restoreFromCache) {
+		this.optimizer = optimizer;
+		this.runner = new FolderTaskRunner(parallelism);
+		this.restoreFromCache = restoreFromCache;
+	}
+
+	/**
+	 *
+	 * Adds the optimized image URLs linked by the pandoc outputs of a deck,
+	 * relative URLs are resolved against the folder of the deck.
+	 *
+	 * @param deckFilePath The path of the source Markdown file
+	 *
+	 * @param imageUrls    The optimized image URLs
+	 */
+	public synchronized void addReferences(String deckFilePath, List<String> imageUrls) {
+
+		File deckFolder = new File(deckFilePath).getAbsoluteFile().getParentFile();
+
+		for (String imageUrl : imageUrls) {
+
+			File outputFile = new File(imageUrl);
+			if (!outputFile.isAbsolute()) {
+				outputFile = new File(deckFolder, imageUrl);
+			}
+
+			String outputPath = outputFile.toPath().normalize().toString();
+			OptimizedImage image = ImageOptimizer.getOptimizedImage(outputPath);
+
+			if (image != null) {
+				images.put(outputPath, image);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Writes the optimized images in parallel.
+	 *
+	 * @return The results ordered by optimized image path
+	 */
+	public synchronized List<OptimizeResult> optimize() {
+
+		List<String> outputFiles = new ArrayList<String>(images.keySet());
+		Collections.sort(outputFiles);
+
+		List<OptimizedImage> outputImages = new ArrayList<OptimizedImage>();
+
+		for (String outputFile : outputFiles) {
+			outputImages.add(images.get(outputFile));
+		}
+
+		List<OptimizeResult> results = runner.runAll(outputImages, OptimizedImage::getSourceFile, this::optimize,
+				(image, durationMillis, error) -> new OptimizeResult(image.getOutputFile(), OptimizeStatus.FAILED, 0,
+						0, durationMillis, String.valueOf(error)));
+
+		if (!results.isEmpty()) {
+			cache.evict();
+		}
+
+		return results;
+	}
+
+	/**
+	 *
+	 * Logs the result of every image and the summary of the optimization with
+	 * the size reduction.
+	 *
+	 * @param results The results
+	 *
+	 * @return true if no image failed, false otherwise
+	 */
+	public boolean logReport(List<OptimizeResult> results) {
+
+		long sourceBytes = 0;
+		long outputBytes = 0;
+
+		for (OptimizeResult result : results) {
+			if (!result.isFailed()) {
+				sourceBytes += result.getSourceBytes();
+				outputBytes += result.getOutputBytes();
+			}
+		}
+
+		boolean result = runner.logReport("Image optimization", results);
+
+		LOGGER.info("Image optimization size: " + sourceBytes + " bytes reduced to " + outputBytes + " bytes");
+
+		return result;
+	}
+
+	/**
+	 *
+	 * Restores an optimized image from the cache or writes and caches it.
+	 *
+	 * @param image The optimized image
+	 *
+	 * @return The result
+	 */
+	private OptimizeResult optimize(OptimizedImage image) {
+
+		File source = new File(image.getSourceFile());
+		File output = new File(image.getOutputFile());
+
+		if (!source.isFile()) {
+			return new OptimizeResult(image.getOutputFile(), OptimizeStatus.FAILED, 0, 0, 0,
+					"image not found " + image.getSourceFile());
+		}
+
+		long startNanos = System.nanoTime();
+
+		try {
+
+			return PhaseTimer.time(Phase.RENDER, image.getSourceFile(), "imageio", () -> {
+
+				// the image content and the settings, renamed and shared images use one entry
+				String key = Utils.calculateFileHash(image.getSourceFile()) + "-" + image.getMaxWidth() + "x"
+						+ image.getMaxHeight() + "-q" + Math.round(optimizer.getJpegQuality() * 100);
+
+				if (restoreFromCache && cache.restore(key, image.getOutputFile())) {
+					return new OptimizeResult(image.getOutputFile(), OptimizeStatus.CACHED, source.length(),
+							output.length(), (System.nanoTime() - startNanos) / 1000000, null);
+				}
+
+				boolean optimized = optimizer.optimize(image);
+
+				cache.store(key, image.getOutputFile());
+
+				return new OptimizeResult(image.getOutputFile(),
+						optimized ? OptimizeStatus.OPTIMIZED : OptimizeStatus.COPIED, source.length(), output.length(),
+						(System.nanoTime() - startNanos) / 1000000, null);
+			});
+
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "Image optimization failed : " + image.getSourceFile(), e);
+			return new OptimizeResult(image.getOutputFile(), OptimizeStatus.FAILED, source.length(), 0,
+					(System.nanoTime() - startNanos) / 1000000, String.valueOf(e));
+		}
+	}
+
+}
@@ -2,23 +2,45 @@ package com.ucoruh.controller;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.batik.transcoder.TranscoderException;
 
+import com.ucoruh.controller.BuildScheduler.RenderJob;
+import com.ucoruh.controller.BuildScheduler.RenderJobResult;
+import com.ucoruh.controller.FolderTaskRunner.FileTaskResult;
+import com.ucoruh.controller.FolderTaskRunner.FileTaskStatus;
+import com.ucoruh.document.DocxDocumentRenderer;
+import com.ucoruh.document.FoPdfRenderer;
+import com.ucoruh.document.MarkdownDocumentParser;
+import com.ucoruh.document.PptxSlideRenderer;
 import com.ucoruh.mkdocs.LicenseTypes;
+import com.ucoruh.mkdocs.MarkdownHeader;
 import com.ucoruh.mkdocs.MkdocsBuilder;
 import com.ucoruh.option.ControllerOptions;
+import com.ucoruh.utils.ImageOptimizer;
+import com.ucoruh.utils.PhaseTimer;
+import com.ucoruh.utils.RunReport;
+import com.ucoruh.utils.RunReport.Phase;
+import com.ucoruh.utils.SvgRasterizer;
+import com.ucoruh.utils.TimedWriter;
+import com.ucoruh.utils.ToolLauncher;
+import com.ucoruh.utils.ToolLauncher.Tool;
+import com.ucoruh.utils.ToolLauncher.ToolResult;
 import com.ucoruh.utils.Utils;
 
 import lombok.Getter;
@@ -41,43 +63,25 @@ public class MarkdownController {
 
 	/**
 	 * 
-	 * @brief A regular expression used to find the last index in a string
-	 *        containing parentheses and digits.
-	 */
-	private static final String FIND_ALL_LAST_INDEXES = "\\((\\d+)\\)[^()]*$";
-
-	/**
-	 * 
-	 * @brief The similarity threshold used when comparing strings for similarity.
-	 */
-	private static final double SIMILARITY_THRESHOLD = 0.999;
-
-	/**
-	 * 
-	 * @brief The separator used to separate pages in a multi-page Markdown
-	 *        document.
-	 */
-	private static final String PAGE_SEPERATOR = "---";
-
-	/**
-	 * 
-	 * @brief The character used to indicate the start of a Markdown header.
+	 * Getter and setter for the command-line options used by the controller.
 	 */
-	private static final String HEADER_CHAR = "#";
+	@Getter
+	@Setter
+	private ControllerOptions options;
 
 	/**
 	 * 
-	 * @brief The prefix used for image links in a Markdown document.
+	 * @brief The SVG image references of the merged decks whose pandoc links
+	 *        were rewritten to JPEG images, keyed by deck path.
 	 */
-	private static final String IMAGE_LINK_PREFIX = "![";
+	private final Map<String, List<String>> pandocImageUrls = new ConcurrentHashMap<String, List<String>>();
 
 	/**
 	 * 
-	 * Getter and setter for the command-line options used by the controller.
+	 * @brief The optimized image references of the pandoc outputs of the merged
+	 *        decks, keyed by deck path.
 	 */
-	@Getter
-	@Setter
-	private ControllerOptions options;
+	private final Map<String, List<String>> optimizedImageUrls = new ConcurrentHashMap<String, List<String>>();
 
 	/**
 	 * 
@@ -140,19 +144,17 @@ public class MarkdownController {
 		 * Logs that the folder outputs are being cleaned.
 		 */
 		LOGGER.info("Cleaning folder outputs at " + inputFolderPath);
-		boolean result = true;
 
 		// Find all Markdown files within the input folder
 		String[] extensions = { "md" };
 		List<String> files = Utils.findFiles(Paths.get(inputFolderPath), extensions);
 
 		// Clean each file within the folder
-		for (String file : files) {
-			boolean returnVal = cleanSelectedFileOutputs(file);
-			if (result) {
-				result = returnVal;
-			}
-		}
+		FolderTaskRunner runner = new FolderTaskRunner(options.getParallelism());
+		List<FileTaskResult> results = runner.run(files,
+				file -> cleanSelectedFileOutputs(file) ? FileTaskStatus.SUCCESS : FileTaskStatus.FAILED);
+
+		boolean result = runner.logReport("Clean", results);
 
 		// Log the results of the cleaning
 		if (result) {
@@ -295,6 +297,9 @@ public class MarkdownController {
 
 		boolean result = true;
 
+		pandocImageUrls.clear();
+		optimizedImageUrls.clear();
+
 		if (options.isFileSet()) {
 			LOGGER.info("Merging selected file...");
 			result = mergeSelectedFile(options.getFileInputPath(), options.getFileOutputPath());
@@ -317,6 +322,19 @@ public class MarkdownController {
 
 		}
 
+		boolean build = options.isBuildIsSet() || options.isRebuildIsSet();
+
+		if (!materializePandocImages(new ArrayList<String>(pandocImageUrls.keySet())) && build) {
+			LOGGER.severe("Pandoc Image References Unresolved, Terminating Operation!!");
+			return false;
+		}
+
+		if (options.isOptimizeImagesIsSet()
+				&& !optimizePandocImages(new ArrayList<String>(optimizedImageUrls.keySet())) && build) {
+			LOGGER.severe("Image Optimization Failed, Terminating Operation!!");
+			return false;
+		}
+
 		if (options.isRebuildIsSet()) {
 			LOGGER.info("Rebuild Set, Cleaning generated files...");
 			result = clean();
@@ -327,7 +345,7 @@ public class MarkdownController {
 			}
 		}
 
-		if (options.isBuildIsSet() || options.isRebuildIsSet()) {
+		if (build) {
 			LOGGER.info("Building pages...");
 			result = buildPages();
 
@@ -351,6 +369,11 @@ public class MarkdownController {
 	 * 
 	 * Merges all Markdown files within the specified folder.
 	 * 
+	 * Files whose content and outputs did not change since the last merge are
+	 * skipped by using the merge manifest of the folder, unless the force option
+	 * is set. Files are merged in parallel when a parallelism level is set, a
+	 * failed file marks the operation as failed without stopping the others.
+	 * 
 	 * @throws IOException if an I/O error occurs while attempting to merge the
 	 *                     files
 	 * 
@@ -360,29 +383,53 @@ public class MarkdownController {
 
 		LOGGER.info("Merging Selected Folder Files");
 
-		boolean result = true;
+		MergeManifest manifest = new MergeManifest(options.getFolderInputPath(), getMergeSettings());
+
+		if (options.isForceIsSet()) {
+			LOGGER.info("Force Set, all folder files will be merged");
+		} else {
+			manifest.load();
+		}
 
 		// Find all Markdown files within the input folder
 		String[] extensions = { "md" };
-		List<String> files = Utils.findFiles(Paths.get(options.getFolderInputPath()), extensions);
-
-		// Clean each file within the folder
-		for (String file : files) {
+		List<String> files = new ArrayList<String>();
 
+		for (String file : Utils.findFiles(Paths.get(options.getFolderInputPath()), extensions)) {
 			File f = new File(file);
-			if (!f.getName().startsWith(ControllerOptions.MKDOCS_WEB_PREFIX)) {
-				try {
-					boolean returnVal = mergeSelectedFile(file, null);
-					if (result) {
-						result = returnVal;
-					}
-					LOGGER.info("Merged file: " + file);
-				} catch (IOException | TranscoderException e) {
-					LOGGER.log(Level.SEVERE, "Merge Folder Operation Failed", e);
-				}
+			if (!f.getName().startsWith(ControllerOptions.MKDOCS_WEB_PREFIX)
+					&& !f.getName().startsWith(ControllerOptions.PANDOCS_DOC_PREFIX)
+					&& !f.getName().startsWith(ControllerOptions.PANDOCS_PPT_PREFIX) && !Utils.isIgnoredFile(file)) {
+				files.add(file);
 			}
 		}
 
+		// Merge each file within the folder, a failed file doesn't stop the others
+		FolderTaskRunner runner = new FolderTaskRunner(options.getParallelism());
+		List<FileTaskResult> results = runner.run(files, file -> {
+
+			List<String> outputFiles = getMergeOutputFiles(file);
+
+			if (!options.isForceIsSet() && manifest.isUpToDate(file, outputFiles)) {
+				pandocImageUrls.put(file, manifest.getRasterImages(file));
+				optimizedImageUrls.put(file, manifest.getOptimizedImages(file));
+				return FileTaskStatus.SKIPPED;
+			}
+
+			if (!mergeSelectedFile(file, null)) {
+				return FileTaskStatus.FAILED;
+			}
+
+			manifest.update(file, outputFiles);
+			manifest.setRasterImages(file, pandocImageUrls.get(file));
+			manifest.setOptimizedImages(file, optimizedImageUrls.get(file));
+			return FileTaskStatus.SUCCESS;
+		});
+
+		manifest.save();
+
+		boolean result = runner.logReport("Merge", results);
+
 		// Log cleaning results
 		if (result) {
 			LOGGER.info("Folder files merged successfully.");
@@ -394,6 +441,26 @@ public class MarkdownController {
 
 	}
 
+	/**
+	 * 
+	 * Gets the mkdocs-web, pandoc-pdf and pandoc-slide output paths of an input
+	 * Markdown file.
+	 * 
+	 * @param fileInputPath The path of the input Markdown file
+	 * 
+	 * @return The output file paths
+	 */
+	private List<String> getMergeOutputFiles(String fileInputPath) {
+
+		List<String> outputFiles = new ArrayList<String>();
+
+		outputFiles.add(Utils.generateFilePath(fileInputPath, ControllerOptions.MKDOCS_WEB_PREFIX, "", "", false));
+		outputFiles.add(Utils.generateFilePath(fileInputPath, ControllerOptions.PANDOCS_DOC_PREFIX, "", "", false));
+		outputFiles.add(Utils.generateFilePath(fileInputPath, ControllerOptions.PANDOCS_PPT_PREFIX, "", "", false));
+
+		return outputFiles;
+	}
+
 	/**
 	 * 
 	 * Merges the input Markdown file into three different formats: mkdocs-web,
@@ -402,11 +469,15 @@ public class MarkdownController {
 	 * Any lines starting with "<!-- _backgroundColor:", "<!-- _color:", and "<!--
 	 * paginate:" are excluded.
 	 * 
-	 * Lines starting with MarkdownController.HEADER_CHAR are checked for similarity
-	 * and duplicates are removed.
+	 * Lines starting with a header character are checked for similarity with the
+	 * previous header and duplicates are removed.
+	 * 
+	 * Lines starting with an image link prefix are converted to pandoc format.
 	 * 
-	 * Lines starting with MarkdownController.IMAGE_LINK_PREFIX are converted to
-	 * pandoc format.
+	 * The lines are classified in a single pass by MarkdownMergeEngine and
+	 * streamed to the three outputs. The SVG images replaced by JPEG images in the
+	 * pandoc outputs are recorded for the pandoc image check, and the optimized
+	 * images linked instead of the deck images for the image optimization.
 	 * 
 	 * @param fileInputPath  The path of the input Markdown file
 	 * 
@@ -425,187 +496,176 @@ public class MarkdownController {
 			return true;
 		}
 
-		ArrayList<String> markdownlinesMarp = new ArrayList<String>();
-		ArrayList<Integer> markdownExludedlines = new ArrayList<Integer>();
+		String mkdocsWebFile = Utils.generateFilePath(fileInputPath, ControllerOptions.MKDOCS_WEB_PREFIX, "", "", false);
+		String pandocPdfFile = Utils.generateFilePath(fileInputPath, ControllerOptions.PANDOCS_DOC_PREFIX, "", "", false);
+		String pandocSlideFile = Utils.generateFilePath(fileInputPath, ControllerOptions.PANDOCS_PPT_PREFIX, "", "",
+				false);
+
+		// Phases are interleaved in a single pass, writes are excluded from classify
+		PhaseTimer readTimer = RunReport.timer(Phase.READ, fileInputPath, null);
+		PhaseTimer classifyTimer = RunReport.timer(Phase.CLASSIFY, fileInputPath, null);
+		PhaseTimer writeTimer = RunReport.timer(Phase.WRITE, fileInputPath, null);
+
+		// Read, classify and write the input Markdown file in a single pass
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get(fileInputPath), StandardCharsets.UTF_8);
+				Writer mkdocsWebWriter = Files.newBufferedWriter(Paths.get(mkdocsWebFile), StandardCharsets.UTF_8);
+				Writer pandocPdfWriter = Files.newBufferedWriter(Paths.get(pandocPdfFile), StandardCharsets.UTF_8);
+				Writer pandocSlideWriter = Files.newBufferedWriter(Paths.get(pandocSlideFile),
+						StandardCharsets.UTF_8);
+				MarkdownMergeEngine engine = new MarkdownMergeEngine(fileInputPath,
+						new TimedWriter(mkdocsWebWriter, writeTimer), new TimedWriter(pandocPdfWriter, writeTimer),
+						new TimedWriter(pandocSlideWriter, writeTimer))) {
+
+			if (options.isOptimizeImagesIsSet()) {
+				engine.setImageDpi(options.getImageDpi());
+			}
+
+			while (true) {
 
-		ArrayList<String> markdownlinesMkdocsWeb = new ArrayList<String>();
-		ArrayList<String> markdownlinesPandocPdf = new ArrayList<String>();
-		ArrayList<String> markdownlinesPandocSlide = new ArrayList<String>();
+				readTimer.resume();
+				String line = reader.readLine();
+				readTimer.pause();
 
-		int lastSeperatorIndex = 0;
-		int lastTitleIndex = 0;
+				if (line == null) {
+					break;
+				}
 
-		// Read the input Markdown file
-		BufferedReader reader = new BufferedReader(new FileReader(fileInputPath));
+				classifyTimer.resume();
+				engine.accept(line);
+				classifyTimer.pause();
+			}
 
-		String line;
+			classifyTimer.resume();
+			engine.finish();
+			classifyTimer.pause();
 
-		while ((line = reader.readLine()) != null) {
-			markdownlinesMarp.add(line);
+			pandocImageUrls.put(fileInputPath, engine.getRasterImageUrls());
+			optimizedImageUrls.put(fileInputPath, engine.getOptimizedImageUrls());
 		}
-		reader.close();
-
-		boolean repeatedItems = true;
 
-		int firstPageSeperatorIndex = 0;
+		if (RunReport.isEnabled()) {
+			classifyTimer.exclude(writeTimer);
+			readTimer.addBytesIn(new File(fileInputPath).length());
+			writeTimer.addBytesOut(new File(mkdocsWebFile).length() + new File(pandocPdfFile).length()
+					+ new File(pandocSlideFile).length());
+			readTimer.close();
+			classifyTimer.close();
+			writeTimer.close();
+		}
 
-		while (repeatedItems) {
+		return true;
 
-			int counter = 0;
-			boolean seperator = false;
+	}
 
-			for (int i = 0; i < markdownlinesMarp.size(); i++) {
+	/**
+	 * 
+	 * Watches the configured folder and merges changed decks. Changed decks are
+	 * built too if the build or rebuild option is set, changed Draw.IO files are
+	 * exported. Bursts of changes are processed once after the folder is quiet.
+	 * 
+	 * @throws IOException If there is an error watching the folder.
+	 * 
+	 * @return true if the watch stopped normally, false if no folder is set
+	 */
+	public boolean watchPages() throws IOException {
 
-				if (markdownlinesMarp.get(i).contains("<!-- _backgroundColor:")
-						|| markdownlinesMarp.get(i).contains("<!-- _color:")
-						|| markdownlinesMarp.get(i).contains("<!-- paginate:")) {
-					if (!markdownExludedlines.contains(i)) {
-						markdownExludedlines.add(i);
-					}
-				}
+		if (!options.isFolderSet()) {
+			LOGGER.severe("There is no folder path configured for watch operation, Terminating Operation");
+			return false;
+		}
 
-				seperator = false;
-				if (markdownlinesMarp.get(i).trim().toLowerCase().equals(MarkdownController.PAGE_SEPERATOR)) {
-					seperator = true;
-					counter++;
-				}
+		MergeManifest manifest = new MergeManifest(options.getFolderInputPath(), getMergeSettings());
+		manifest.load();
 
-				// first two seperator for configuration
-				if (counter > 2 && seperator) {
-					markdownExludedlines.add(i);
-					lastSeperatorIndex = i;
-				}
+		FolderWatcher watcher = new FolderWatcher(Paths.get(options.getFolderInputPath()),
+				FolderWatcher.DEFAULT_DEBOUNCE_MILLIS);
 
-				// get first page seperator index
-				if (firstPageSeperatorIndex == 0 && counter == 3) {
-					firstPageSeperatorIndex = i;
-				}
+		watcher.watch(changedFiles -> processChangedFiles(changedFiles, manifest));
 
-				if (markdownlinesMarp.get(i).trim().toLowerCase().startsWith(MarkdownController.HEADER_CHAR)) {
-					if (lastSeperatorIndex > 0) {
+		return true;
+	}
 
-						String prev = markdownlinesMarp.get(lastTitleIndex).replace(MarkdownController.HEADER_CHAR, "")
-								.toLowerCase().trim().replaceFirst(FIND_ALL_LAST_INDEXES, "");
-						String curr = markdownlinesMarp.get(i).replace(MarkdownController.HEADER_CHAR, "").toLowerCase()
-								.trim().replaceFirst(FIND_ALL_LAST_INDEXES, "");
+	/**
+	 * 
+	 * Merges and builds changed decks and exports changed Draw.IO files. A failed
+	 * file is logged and doesn't stop the others.
+	 * 
+	 * @param changedFiles The changed files
+	 * 
+	 * @param manifest     The merge manifest of the watched folder
+	 */
+	private void processChangedFiles(List<Path> changedFiles, MergeManifest manifest) {
 
-						double similarity = Utils.calculateJaccardSimilarity(prev, curr);
-						if (similarity > SIMILARITY_THRESHOLD) {
-							markdownExludedlines.add(i);
-						}
-					}
+		for (Path changedFile : changedFiles) {
 
-					lastTitleIndex = i;
-				}
+			String file = changedFile.toString();
 
-				repeatedItems = false;
-				for (int j = lastTitleIndex + 1; j < markdownlinesMarp.size(); j++) {
-					if (markdownlinesMarp.get(j).trim().toLowerCase().startsWith(MarkdownController.HEADER_CHAR)) {
-						String prev = markdownlinesMarp.get(lastTitleIndex).replace(MarkdownController.HEADER_CHAR, "")
-								.toLowerCase().trim().replaceFirst(FIND_ALL_LAST_INDEXES, "");
-						String curr = markdownlinesMarp.get(j).replace(MarkdownController.HEADER_CHAR, "").toLowerCase()
-								.trim().replaceFirst(FIND_ALL_LAST_INDEXES, "");
-						double similarity = Utils.calculateJaccardSimilarity(prev, curr);
-						if (similarity >= SIMILARITY_THRESHOLD) {
-							repeatedItems = true;
-							break;
-						}
-					}
-				}
+			if (!Files.exists(changedFile)) {
+				continue;
 			}
 
-			if (!repeatedItems)
-				break;
-
-		}
-
-		for (int i = 0; i < markdownlinesMarp.size(); i++) {
-
-			String markdownline = markdownlinesMarp.get(i);
-
-			boolean converted = false;
-
-			//add download links and iframe
-			if (i == firstPageSeperatorIndex) {
-				markdownlinesMkdocsWeb.add(Utils.generateDownloadAndIframeLinksforMkDocs(fileInputPath));
-			}
+			try {
 
-			if (!markdownExludedlines.contains(i)) {
+				RunReport.setCurrentFile(file);
 
-				if (markdownline.trim().startsWith(MarkdownController.HEADER_CHAR)) {
-					markdownline = markdownline.replaceFirst(FIND_ALL_LAST_INDEXES, "");
+				if (file.toLowerCase().endsWith(".drawio")) {
+					LOGGER.info(file + " Drawio Exporting...");
+					DrawioExporter exporter = createDrawioExporter();
+					if (!exporter.logReport(exporter.export(Collections.singletonList(file)))) {
+						LOGGER.severe(file + " Drawio Export Failed!!");
+					}
+					continue;
 				}
 
-				markdownlinesMkdocsWeb.add(markdownline);
-
-				if (markdownline.trim().startsWith(MarkdownController.IMAGE_LINK_PREFIX)) {
-					String[] result;
-					result = Utils.convertMarpToPandoc(markdownline);
-					markdownline = result[0];
-
-					converted = true;
+				if (Utils.isIgnoredFile(file)) {
+					continue;
 				}
 
-				markdownlinesPandocPdf.add(markdownline);
-
-				// outputBuilder.append(markdownline).append(System.lineSeparator());
-			}
+				List<String> outputFiles = getMergeOutputFiles(file);
 
-			if (converted == false) {
-				if (markdownline.trim().startsWith(MarkdownController.IMAGE_LINK_PREFIX)) {
-					String[] result;
-					result = Utils.convertMarpToPandoc(markdownline);
-					markdownline = result[0];
+				if (!options.isForceIsSet() && manifest.isUpToDate(file, outputFiles)) {
+					LOGGER.info("Skipped unchanged file: " + file);
+					continue;
+				}
 
+				if (!mergeSelectedFile(file, null)) {
+					LOGGER.severe(file + " Merge Failed!!");
+					continue;
 				}
-			}
 
-			markdownlinesPandocSlide.add(markdownline);
-		}
+				manifest.update(file, outputFiles);
+				manifest.setRasterImages(file, pandocImageUrls.get(file));
+				manifest.setOptimizedImages(file, optimizedImageUrls.get(file));
+				manifest.save();
 
-		StringBuilder outputBuilder = new StringBuilder();
-		for (int i = 0; i < markdownlinesMkdocsWeb.size(); i++) {
-			String markdownline = markdownlinesMkdocsWeb.get(i);
-			outputBuilder.append(markdownline).append(System.lineSeparator());
-		}
+				LOGGER.info("Merged file: " + file);
 
-		String outputMarkdownMkdocsWeb = outputBuilder.toString();
+				if (!materializePandocImages(Collections.singletonList(file))) {
+					LOGGER.severe(file + " Pandoc Image References Unresolved!!");
+					continue;
+				}
 
-		outputBuilder = new StringBuilder();
-		for (int i = 0; i < markdownlinesPandocPdf.size(); i++) {
-			String markdownline = markdownlinesPandocPdf.get(i);
-			outputBuilder.append(markdownline).append(System.lineSeparator());
-		}
+				if (options.isOptimizeImagesIsSet() && !optimizePandocImages(Collections.singletonList(file))) {
+					LOGGER.severe(file + " Image Optimization Failed!!");
+					continue;
+				}
 
-		String outputMarkdownPandocPdf = outputBuilder.toString();
+				if (options.isBuildIsSet() || options.isRebuildIsSet()) {
+					List<String> buildFiles = new ArrayList<String>();
+					buildFiles.add(file);
+					buildFiles.add(outputFiles.get(1));
+					buildFiles.add(outputFiles.get(2));
+					if (!buildFiles(buildFiles)) {
+						LOGGER.severe(file + " Build Failed!!");
+					}
+				}
 
-		outputBuilder = new StringBuilder();
-		for (int i = 0; i < markdownlinesPandocSlide.size(); i++) {
-			String markdownline = markdownlinesPandocSlide.get(i);
-			outputBuilder.append(markdownline).append(System.lineSeparator());
+			} catch (Exception e) {
+				LOGGER.log(Level.SEVERE, file + " Processing Failed", e);
+			} finally {
+				RunReport.setCurrentFile(null);
+			}
 		}
-
-		String outputMarkdownPandocSlide = outputBuilder.toString();
-
-		// Generate Output File Name with Path
-
-		String outputFile = Utils.generateFilePath(fileInputPath, ControllerOptions.MKDOCS_WEB_PREFIX, "", "", false);
-		OutputStreamWriter osw = new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8);
-		osw.write(outputMarkdownMkdocsWeb);
-		osw.close();
-
-		outputFile = Utils.generateFilePath(fileInputPath, ControllerOptions.PANDOCS_DOC_PREFIX, "", "", false);
-		osw = new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8);
-		osw.write(outputMarkdownPandocPdf);
-		osw.close();
-
-		outputFile = Utils.generateFilePath(fileInputPath, ControllerOptions.PANDOCS_PPT_PREFIX, "", "", false);
-		osw = new OutputStreamWriter(new FileOutputStream(outputFile), StandardCharsets.UTF_8);
-		osw.write(outputMarkdownPandocSlide);
-		osw.close();
-
-		return true;
-
 	}
 
 	/**
@@ -811,7 +871,9 @@ public class MarkdownController {
 
 	/**
 	 * 
-	 * Builds all Markdown files within the given input folder path.
+	 * Builds all Markdown files within the given input folder path. The render
+	 * jobs of all files are scheduled together, so the build finishes in about
+	 * the total job time divided by the worker count.
 	 * 
 	 * @param inputFolderPath The path of the folder containing Markdown files to be
 	 *                        built.
@@ -824,24 +886,13 @@ public class MarkdownController {
 
 		LOGGER.info("Building Selected Folder Files");
 
-		boolean result = true;
-
 		String[] extensions = { "md" };
 
 		List<String> files = Utils.findFiles(Paths.get(inputFolderPath), extensions);
 
-		// Clean each file within the folder
-		for (String file : files) {
-			boolean returnVal = buildSelectedFile(file);
-			if (!returnVal) {
-				LOGGER.severe(file + " Building Failed!!");
-				result = returnVal;
-			} else {
-				LOGGER.info(file + " Building Success..");
-			}
-		}
+		boolean result = buildFiles(files);
 
-		// Log cleaning results
+		// Log building results
 		if (result) {
 			LOGGER.info("Building files completed successfully.");
 		} else {
@@ -863,125 +914,226 @@ public class MarkdownController {
 	 */
 	private boolean buildSelectedFile(String inputFilePath) {
 
-		boolean concatenate = true;
-		String pandocExec = "cmd /c start cmd.exe /c pandoc";
-		String marpExec = "cmd /c start cmd.exe /c marp";
+		List<String> files = new ArrayList<String>();
+		files.add(inputFilePath);
 
-		File f = new File(inputFilePath);
-
-		String inputFile = f.getAbsolutePath();
-		String inputFileFolder = f.getParent();
-		String outputFile = "";
+		return buildFiles(files);
+	}
 
-		if (Utils.isIgnoredFile(inputFilePath)) {
-			LOGGER.info("Build Ignored File : " + inputFilePath);
-			return true;
-		}
+	/**
+	 * 
+	 * Builds the given files on the build scheduler and waits for all render
+	 * jobs.
+	 * 
+	 * @param inputFilePaths The paths of the files to be built.
+	 * 
+	 * @return Returns true if all render jobs succeeded, false otherwise.
+	 */
+	private boolean buildFiles(List<String> inputFilePaths) {
 
-		// MARP HTML, SLIDE
-		if (!f.getName().startsWith(ControllerOptions.MKDOCS_WEB_PREFIX)
-				&& !f.getName().startsWith(ControllerOptions.PANDOCS_DOC_PREFIX)
-				&& !f.getName().startsWith(ControllerOptions.PANDOCS_PPT_PREFIX)) {
+		List<String> marpDecks = new ArrayList<String>();
 
-			LOGGER.info("Building Marp Presentation PDF");
+		for (String inputFilePath : inputFilePaths) {
+			if (isMarpDeck(inputFilePath)) {
+				marpDecks.add(new File(inputFilePath).getAbsolutePath());
+			}
+		}
 
-			LOGGER.info("Input File : " + inputFile);
+		// decks are rendered in batches by output format if there is more than one
+		boolean batchMarp = marpDecks.size() > 1;
 
-			outputFile = Utils.generateFilePath(inputFile, "", "_slide", "pdf", true);
+		// unchanged renders are restored from the render cache, force renders all
+		RenderCache cache = new RenderCache(RenderCache.DEFAULT_CACHE_FOLDER, RenderCache.DEFAULT_MAX_CACHE_BYTES);
+		boolean restoreFromCache = !options.isForceIsSet();
 
-			LOGGER.info("Output File : " + outputFile);
+		MarpBatchBackend marpBackend = new MarpBatchBackend(cache, restoreFromCache);
 
-			String[] marpSlidePdfCmd = { marpExec, inputFile, "--html", "--pdf", "-o", outputFile,
-					"--allow-local-files" };
+		List<RenderJob> jobs = new ArrayList<RenderJob>();
+		Map<RenderJob, String> cacheKeys = new IdentityHashMap<RenderJob, String>();
+		int cachedCount = 0;
 
-			LOGGER.info("Command : " + Utils.toString(marpSlidePdfCmd, concatenate));
+		try {
 
-			Utils.executeCommandThread(marpSlidePdfCmd, inputFileFolder, false);
+			if (batchMarp) {
+				String workingFolder = options.isFolderSet() ? options.getFolderInputPath()
+						: new File(marpDecks.get(0)).getParent();
+				jobs.addAll(marpBackend.createJobs(marpDecks, workingFolder));
+				cachedCount += marpBackend.getCachedCount();
+			}
 
-			LOGGER.info("Building Marp Presentation HTML");
+			for (String inputFilePath : inputFilePaths) {
+				for (RenderJob job : createRenderJobs(inputFilePath, !batchMarp)) {
 
-			LOGGER.info("Input File : " + inputFile);
+					// in-process renders are not cached
+					if (job.getTool() == null) {
+						jobs.add(job);
+						continue;
+					}
 
-			outputFile = Utils.generateFilePath(inputFile, "", "_slide", "html", true);
+					String key = cache.createKey(job.getTool(), job.getCommand(), job.getDeck(), job.getOutputFile());
 
-			LOGGER.info("Output File : " + outputFile);
+					if (restoreFromCache && cache.restore(key, job.getOutputFile())) {
+						LOGGER.info("Build " + job.getFormat() + " CACHED : " + job.getDeck());
+						cachedCount++;
+						continue;
+					}
 
-			String[] marpSlideHtmlCmd = { marpExec, inputFile, "--html", "-o", outputFile, "--allow-local-files" };
+					cacheKeys.put(job, key);
+					jobs.add(job);
+				}
+			}
 
-			LOGGER.info("Command : " + Utils.toString(marpSlideHtmlCmd, concatenate));
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, "Creating render jobs failed", e);
+			return false;
+		}
 
-			Utils.executeCommandThread(marpSlideHtmlCmd, inputFileFolder, false);
+		if (cachedCount > 0) {
+			LOGGER.info(cachedCount + " renders restored from render cache");
+		}
 
-			LOGGER.info("Building Marp Presentation PPTX");
+		if (jobs.isEmpty()) {
+			LOGGER.info("There is no render job for build operation");
+			return true;
+		}
 
-			LOGGER.info("Input File : " + inputFile);
+		BuildScheduler scheduler = new BuildScheduler(options.getBuildParallelism());
 
-			outputFile = Utils.generateFilePath(inputFile, "", "_slide", "pptx", true);
+		List<RenderJobResult> results = scheduler.run(jobs);
 
-			LOGGER.info("Output File : " + outputFile);
+		boolean result = scheduler.logReport(results);
 
-			String[] marpSlidePptxCmd = { marpExec, inputFile, "--pptx", "-o", outputFile, "--allow-local-files" };
+		if (!marpBackend.completeJobs(results)) {
+			result = false;
+		}
 
-			LOGGER.info("Command : " + Utils.toString(marpSlidePptxCmd, concatenate));
+		for (RenderJobResult jobResult : results) {
+			String key = cacheKeys.get(jobResult.getJob());
+			if (key != null && jobResult.isSuccess()) {
+				cache.store(key, jobResult.getJob().getOutputFile());
+			}
+		}
 
-			Utils.executeCommandThread(marpSlidePptxCmd, inputFileFolder, true);
+		cache.evict();
 
-		}
+		return result;
+	}
 
-		// PANDOC SLIDE
-		if (f.getName().startsWith(ControllerOptions.PANDOCS_PPT_PREFIX)) {
+	/**
+	 * 
+	 * Checks whether a file is a source deck rendered with Marp.
+	 * 
+	 * @param inputFilePath The path of the file.
+	 * 
+	 * @return true if the file is a source deck, false otherwise.
+	 */
+	private static boolean isMarpDeck(String inputFilePath) {
 
-			LOGGER.info("Building Pandoc Presentation PPTX");
+		String fileName = new File(inputFilePath).getName();
 
-			LOGGER.info("Input File : " + inputFile);
+		return !Utils.isIgnoredFile(inputFilePath) && !fileName.startsWith(ControllerOptions.MKDOCS_WEB_PREFIX)
+				&& !fileName.startsWith(ControllerOptions.PANDOCS_DOC_PREFIX)
+				&& !fileName.startsWith(ControllerOptions.PANDOCS_PPT_PREFIX);
+	}
 
-			outputFile = Utils.generateFilePath(inputFile, "", "_word", "pptx", true);
+	/**
+	 * 
+	 * Creates the render jobs of a file. Source decks are rendered to PDF, HTML
+	 * and PPTX with Marp, pandoc-slide files to PPTX and pandoc-pdf files to PDF
+	 * and DOCX with Pandoc. Mkdocs-web and ignored files have no render jobs.
+	 * 
+	 * @param inputFilePath The path to the input file to be built.
+	 * 
+	 * @param includeMarp   Whether Marp jobs are created, false if the deck is
+	 *                      rendered in a Marp batch.
+	 * 
+	 * @return The render jobs of the file.
+	 */
+	private List<RenderJob> createRenderJobs(String inputFilePath, boolean includeMarp) {
 
-			LOGGER.info("Output File : " + outputFile);
+		List<RenderJob> jobs = new ArrayList<RenderJob>();
 
-			String[] pandocDocPptxCmd = { pandocExec, "--reference-doc=custom-reference.pptx", "-o", outputFile, "-f",
-					"markdown", "-t", "pptx", inputFile };
+		File f = new File(inputFilePath);
 
-			LOGGER.info("Command : " + Utils.toString(pandocDocPptxCmd, concatenate));
+		String inputFile = f.getAbsolutePath();
+		String inputFileFolder = f.getAbsoluteFile().getParent();
+		String outputFile = "";
 
-			Utils.executeCommandThread(pandocDocPptxCmd, inputFileFolder, true);
+		if (Utils.isIgnoredFile(inputFilePath)) {
+			LOGGER.info("Build Ignored File : " + inputFilePath);
+			return jobs;
 		}
 
-		// PANDOC DOC
-		if (f.getName().startsWith(ControllerOptions.PANDOCS_DOC_PREFIX)) {
+		// MARP HTML, SLIDE
+		if (includeMarp && isMarpDeck(inputFilePath)) {
 
-			LOGGER.info("Building Pandoc Document PDF");
+			outputFile = Utils.generateFilePath(inputFile, "", "_slide", "pdf", false);
 
-			LOGGER.info("Input File : " + inputFile);
+			jobs.add(new RenderJob(inputFile, "marp-pdf", Tool.MARP, ToolLauncher.command(Tool.MARP, inputFile, "--html",
+					"--pdf", "-o", outputFile, "--allow-local-files"), inputFileFolder, outputFile));
 
-			outputFile = Utils.generateFilePath(inputFile, "", "_doc", "pdf", true);
+			outputFile = Utils.generateFilePath(inputFile, "", "_slide", "html", false);
 
-			LOGGER.info("Output File : " + outputFile);
+			jobs.add(new RenderJob(inputFile, "marp-html", Tool.MARP,
+					ToolLauncher.command(Tool.MARP, inputFile, "--html", "-o", outputFile, "--allow-local-files"),
+					inputFileFolder, outputFile));
 
-			String[] pandocDocPdfCmd = { pandocExec, inputFile, "--pdf-engine=xelatex", "-f",
-					"markdown-implicit_figures", "-V", "colorlinks", "-V", "urlcolor=NavyBlue", "-V", "toccolor=Red",
-					"--toc", "-N", "-o", outputFile };
+			outputFile = Utils.generateFilePath(inputFile, "", "_slide", "pptx", false);
 
-			LOGGER.info("Command : " + Utils.toString(pandocDocPdfCmd, concatenate));
+			jobs.add(new RenderJob(inputFile, "marp-pptx", Tool.MARP,
+					ToolLauncher.command(Tool.MARP, inputFile, "--pptx", "-o", outputFile, "--allow-local-files"),
+					inputFileFolder, outputFile));
+		}
 
-			Utils.executeCommandThread(pandocDocPdfCmd, inputFileFolder, false);
+		// PANDOC SLIDE
+		if (f.getName().startsWith(ControllerOptions.PANDOCS_PPT_PREFIX)) {
 
-			LOGGER.info("Building Pandoc Document DOCX");
+			outputFile = Utils.generateFilePath(inputFile, "", "_word", "pptx", false);
 
-			LOGGER.info("Input File : " + inputFile);
+			if (options.getPptxBackend().equals(ControllerOptions.POI_BACKEND)) {
+				String pptxFile = outputFile;
+				String templateFile = Paths.get(inputFileFolder, PptxSlideRenderer.REFERENCE_TEMPLATE).toString();
+				jobs.add(new RenderJob(inputFile, "poi-pptx", () -> new PptxSlideRenderer()
+						.render(MarkdownDocumentParser.parse(inputFile), templateFile, pptxFile), pptxFile));
+			} else {
+				jobs.add(new RenderJob(inputFile, "pandoc-pptx", Tool.PANDOC,
+						ToolLauncher.command(Tool.PANDOC, "--reference-doc=" + PptxSlideRenderer.REFERENCE_TEMPLATE,
+								"-o", outputFile, "-f", "markdown", "-t", "pptx", inputFile),
+						inputFileFolder, outputFile));
+			}
+		}
 
-			outputFile = Utils.generateFilePath(inputFile, "", "_word", "docx", true);
+		// PANDOC DOC
+		if (f.getName().startsWith(ControllerOptions.PANDOCS_DOC_PREFIX)) {
 
-			LOGGER.info("Output File : " + outputFile);
+			outputFile = Utils.generateFilePath(inputFile, "", "_doc", "pdf", false);
 
-			String[] pandocDocDocxCmd = { pandocExec, "-o", outputFile, "-f", "markdown", "-t", "docx", inputFile };
+			if (options.getPdfBackend().equals(ControllerOptions.FOP_BACKEND)) {
+				String pdfFile = outputFile;
+				jobs.add(new RenderJob(inputFile, "fop-pdf",
+						() -> new FoPdfRenderer().render(MarkdownDocumentParser.parse(inputFile), pdfFile), pdfFile));
+			} else {
+				jobs.add(new RenderJob(inputFile, "pandoc-pdf", Tool.PANDOC,
+						ToolLauncher.command(Tool.PANDOC, inputFile, "--pdf-engine=xelatex", "-f",
+								"markdown-implicit_figures", "-V", "colorlinks", "-V", "urlcolor=NavyBlue", "-V",
+								"toccolor=Red", "--toc", "-N", "-o", outputFile),
+						inputFileFolder, outputFile));
+			}
 
-			LOGGER.info("Command : " + Utils.toString(pandocDocDocxCmd, concatenate));
+			outputFile = Utils.generateFilePath(inputFile, "", "_word", "docx", false);
 
-			Utils.executeCommandThread(pandocDocDocxCmd, inputFileFolder, true);
+			if (options.getDocxBackend().equals(ControllerOptions.POI_BACKEND)) {
+				String docxFile = outputFile;
+				jobs.add(new RenderJob(inputFile, "poi-docx", () -> new DocxDocumentRenderer()
+						.render(MarkdownDocumentParser.parse(inputFile), docxFile), docxFile));
+			} else {
+				jobs.add(new RenderJob(inputFile, "pandoc-docx", Tool.PANDOC,
+						ToolLauncher.command(Tool.PANDOC, "-o", outputFile, "-f", "markdown", "-t", "docx", inputFile),
+						inputFileFolder, outputFile));
+			}
 		}
 
-		return true;
+		return jobs;
 
 	}
 
@@ -1022,9 +1174,22 @@ public class MarkdownController {
 	 */
 	private boolean deploySelectedFolder(String folderInputPath) {
 
-		String[] pandocDocPptxCmd = { "cmd /c start cmd.exe /c", "mkdocs", "gh-deploy", "--force" };
+		try {
+			ToolResult result = ToolLauncher.run(Tool.MKDOCS, folderInputPath, "gh-deploy", "--force");
+
+			if (!result.isSuccess()) {
+				LOGGER.severe("mkdocs gh-deploy failed (exit " + result.getExitCode() + ") : " + result.getOutput());
+				return false;
+			}
+
+		} catch (IOException e) {
+			LOGGER.log(Level.SEVERE, "mkdocs gh-deploy couldn't be started", e);
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
 
-		Utils.executeCommandThread(pandocDocPptxCmd, folderInputPath, false);
 		LOGGER.info("Folder " + folderInputPath + " successfully deployed to GitHub Pages.");
 
 		return true;
@@ -1033,7 +1198,8 @@ public class MarkdownController {
 
 	/**
 	 * Export Draw.IO images from all .drawio files found in the specified folder
-	 * path.
+	 * path. Pages and files are exported in parallel up to the draw.io process
+	 * limit, a failed page is reported and doesn't stop the other pages.
 	 * 
 	 * @throws IOException        if there is an I/O error when reading or writing
 	 *                            the files
@@ -1041,37 +1207,277 @@ public class MarkdownController {
 	 * @throws URISyntaxException if there is a syntax error in the specified folder
 	 *                            path URI
 	 * 
-	 * @return true if the image export was successful for all files, false
-	 *         otherwise
+	 * @return true if the image export was successful for all pages of all files,
+	 *         false otherwise
 	 */
 	public boolean drawioExportImages() throws IOException, URISyntaxException {
 
-		boolean result = true;
-
 		// Find all .drawio files in the specified folder path
 		String[] extensions = { "drawio" };
 		List<String> files = Utils.findFiles(Paths.get(options.getFolderInputPath()), extensions);
 
-		// Export images for each .drawio file found
-		for (String file : files) {
+		DrawioExporter exporter = createDrawioExporter();
 
-			LOGGER.info(file + " Drawio Exporting...");
+		boolean result = exporter.logReport(exporter.export(files));
 
-			try {
-				result = Utils.exportDrawioImages(file);
-				if (!result) {
-					LOGGER.severe(file + " Drawio Export Failed, Terminating Operaiton!!!");
-					return result;
+		if (result) {
+			LOGGER.info("Draw.IO image export successful for all files.");
+		} else {
+			LOGGER.severe("Draw.IO image export failed for some pages.");
+		}
+
+		return result;
+	}
+
+
+	/**
+	 * Converts the SVG images found in the specified folder path to the raster
+	 * formats of the options, JPEG by default, like the images linked by the
+	 * pandoc outputs. Images are converted in parallel, images newer than their
+	 * SVG are skipped.
+	 * 
+	 * @throws IOException if there is an I/O error when searching the folder
+	 * 
+	 * @return true if all images were converted or up to date, false otherwise
+	 */
+	public boolean rasterizeSvgImages() throws IOException {
+
+		SvgAssetRasterizer assetRasterizer = new SvgAssetRasterizer(
+				new SvgRasterizer(options.getRasterDpi(), options.getJpegQuality()), options.getBuildParallelism());
+
+		boolean result = assetRasterizer.logReport(
+				assetRasterizer.rasterizeFolder(options.getFolderInputPath(), options.getRasterFormats()));
+
+		if (result) {
+			LOGGER.info("SVG rasterizing successful for all images.");
+		} else {
+			LOGGER.severe("SVG rasterizing failed for some images.");
+		}
+
+		return result;
+	}
+
+	/**
+	 * 
+	 * Converts the selected PowerPoint file or the PowerPoint files of the
+	 * selected folder to Marp Markdown files next to them. Files are converted in
+	 * parallel, existing Markdown files are skipped unless the overwrite option
+	 * is set. PowerPoint outputs of builds and lock files of open files are not
+	 * converted.
+	 * 
+	 * @throws IOException if there is an I/O error when searching the folder or
+	 *                     reading the header properties
+	 * 
+	 * @return true if all files were converted or skipped, false otherwise
+	 */
+	public boolean convertPowerPointFiles() throws IOException {
+
+		if (!options.isFileSet() && !options.isFolderSet()) {
+			LOGGER.severe("There is no file or folder path configured for convert operations, Terminating Operation");
+			return false;
+		}
+
+		// loaded once, invalid header properties fail before the conversion
+		MarkdownHeader markdownHeader = Utils.checkStringNullOrEmpty(options.getMarpHeaderPath()) ? null
+				: MarkdownHeader.load(options.getMarpHeaderPath());
+
+		List<String> files = new ArrayList<String>();
+
+		if (options.isFileSet()) {
+			files.add(options.getFileInputPath());
+		}
+
+		if (options.isFolderSet()) {
+
+			String[] extensions = { "pptx" };
+
+			for (String file : Utils.findFiles(Paths.get(options.getFolderInputPath()), extensions)) {
+				String name = new File(file).getName();
+				if (!name.startsWith("~$") && !name.endsWith(ControllerOptions.MARP_PPTX_POSTFIX + ".pptx")
+						&& !name.endsWith(ControllerOptions.PANDOC_DOCX_POSTFIX + ".pptx")
+						&& !name.startsWith(ControllerOptions.PANDOCS_PPT_PREFIX) && !Utils.isIgnoredFile(file)) {
+					files.add(file);
 				}
-			} catch (Exception e) {
-				LOGGER.log(Level.SEVERE, file + " Drawio Export Failed, Terminating Operaiton!!!", e);
-				return false;
 			}
 		}
 
-		LOGGER.info("Draw.IO image export successful for all files.");
+		LOGGER.info("Converting " + files.size() + " PowerPoint files to Marp Markdown");
 
-		return true;
+		FolderTaskRunner runner = new FolderTaskRunner(options.getBuildParallelism());
+		List<FileTaskResult> results = runner.run(files, file -> convertPowerPointFile(file, markdownHeader));
+
+		boolean result = runner.logReport("PowerPoint Convert", results);
+
+		if (result) {
+			LOGGER.info("PowerPoint conversion successful for all files.");
+		} else {
+			LOGGER.severe("PowerPoint conversion failed for some files.");
+		}
+
+		return result;
+	}
+
+	/**
+	 * 
+	 * Converts a PowerPoint file to a Marp Markdown file, the file of the
+	 * selected output path or the Markdown file next to it. The slides follow the
+	 * Marp header of the header properties if set, the title of the header is the
+	 * file name unless set.
+	 * 
+	 * @param inputFilePath  The path of the PowerPoint file
+	 * 
+	 * @param markdownHeader The header properties shared by all files, null for
+	 *                       a plain Marp front matter
+	 * 
+	 * @return The status of the conversion
+	 * 
+	 * @throws IOException if the PowerPoint file can't be read or the Markdown
+	 *                     file can't be written
+	 */
+	private FileTaskStatus convertPowerPointFile(String inputFilePath, MarkdownHeader markdownHeader)
+			throws IOException {
+
+		String outputFilePath = Utils.generateFilePath(inputFilePath, "", "", "md", false);
+
+		if (options.isFileSet() && !Utils.checkStringNullOrEmpty(options.getFileOutputPath())
+				&& inputFilePath.equals(options.getFileInputPath())) {
+			outputFilePath = options.getFileOutputPath();
+		}
+
+		if (new File(outputFilePath).exists() && !options.isOverwriteIsSet()) {
+			LOGGER.info("Markdown file already exists, use overwrite to convert again : " + outputFilePath);
+			return FileTaskStatus.SKIPPED;
+		}
+
+		// every slide starts with a separator, the front matter or header separates the first one
+		String slides = Utils.convertPowerPointToMarp(inputFilePath, false);
+		if (slides.startsWith("---\n\n")) {
+			slides = slides.substring("---\n\n".length());
+		}
+
+		StringBuilder markdownBuilder = new StringBuilder("---\n");
+
+		if (markdownHeader == null) {
+			markdownBuilder.append("marp: true\n---\n\n");
+		} else {
+			// a copy titled with the file name, the shared header is used by other workers
+			MarkdownHeader deckHeader = markdownHeader;
+			if (Utils.checkStringNullOrEmpty(deckHeader.getHeader())) {
+				deckHeader = markdownHeader.withHeader(new File(inputFilePath).getName().replaceFirst("[.][^.]+$", ""));
+			}
+			// the header ends with the title slide and opens the first slide
+			markdownBuilder.append(deckHeader.generateMarkdownHeader()).append("\n");
+		}
+
+		markdownBuilder.append(slides);
+
+		Files.write(Paths.get(outputFilePath), markdownBuilder.toString().getBytes(StandardCharsets.UTF_8));
+
+		LOGGER.info("Converted PowerPoint file : " + inputFilePath + " to " + outputFilePath);
+
+		return FileTaskStatus.SUCCESS;
+	}
+
+	/**
+	 * 
+	 * Makes sure the JPEG images linked instead of SVG images by the pandoc
+	 * outputs of merged decks exist. Missing or outdated JPEG images are
+	 * converted from their SVG images in one parallel batch, references that
+	 * can't be resolved are logged.
+	 * 
+	 * @param deckFiles The paths of the merged decks
+	 * 
+	 * @return true if all references are resolved, false otherwise
+	 */
+	private boolean materializePandocImages(List<String> deckFiles) {
+
+		PandocImageStage stage = new PandocImageStage(new SvgAssetRasterizer(
+				new SvgRasterizer(options.getRasterDpi(), options.getJpegQuality()), options.getBuildParallelism()));
+
+		List<String> sortedFiles = new ArrayList<String>(deckFiles);
+		Collections.sort(sortedFiles);
+
+		for (String deckFile : sortedFiles) {
+			List<String> imageUrls = pandocImageUrls.get(deckFile);
+			if (imageUrls != null) {
+				stage.addReferences(deckFile, imageUrls);
+			}
+		}
+
+		List<String> unresolved = stage.materialize();
+
+		for (String reference : unresolved) {
+			LOGGER.severe("Unresolved pandoc image reference : " + reference);
+		}
+
+		return unresolved.isEmpty();
+	}
+
+	/**
+	 * 
+	 * Writes the optimized images linked by the pandoc outputs of merged decks in
+	 * parallel. Optimized images are restored from the image cache unless the
+	 * force option is set.
+	 * 
+	 * @param deckFiles The paths of the merged decks
+	 * 
+	 * @return true if all optimized images were written, false otherwise
+	 */
+	private boolean optimizePandocImages(List<String> deckFiles) {
+
+		ImageOptimizationStage stage = new ImageOptimizationStage(
+				new ImageOptimizer(options.getImageDpi(), options.getJpegQuality()), options.getBuildParallelism(),
+				!options.isForceIsSet());
+
+		List<String> sortedFiles = new ArrayList<String>(deckFiles);
+		Collections.sort(sortedFiles);
+
+		for (String deckFile : sortedFiles) {
+			List<String> imageUrls = optimizedImageUrls.get(deckFile);
+			if (imageUrls != null) {
+				stage.addReferences(deckFile, imageUrls);
+			}
+		}
+
+		return stage.logReport(stage.optimize());
+	}
+
+	/**
+	 * 
+	 * Gets the settings recorded with merged files in the merge manifest, files
+	 * merged with other settings are merged again.
+	 * 
+	 * @return The merge format version, the tool version and the image
+	 *         optimization resolution if set
+	 */
+	private String getMergeSettings() {
+
+		String settings = "merge " + MarkdownMergeEngine.FORMAT_VERSION + " " + Utils.getToolVersion();
+
+		if (options.isOptimizeImagesIsSet()) {
+			return settings + " optimizeimages " + options.getImageDpi();
+		}
+
+		return settings;
+	}
+
+	/**
+	 * Creates the Draw.IO exporter of the options. With the batik raster backend
+	 * draw.io exports SVG images only and the PNG and JPEG images are rasterized
+	 * at the configured resolution and quality. Unchanged pages are skipped
+	 * unless the force option is set.
+	 *
+	 * @return The exporter
+	 */
+	private DrawioExporter createDrawioExporter() {
+
+		SvgRasterizer rasterizer = null;
+
+		if (options.getRasterBackend().equals(ControllerOptions.BATIK_BACKEND)) {
+			rasterizer = new SvgRasterizer(options.getRasterDpi(), options.getJpegQuality());
+		}
+
+		return new DrawioExporter(options.getDrawioProcessLimit(), rasterizer, !options.isForceIsSet());
 	}
 
 }
@@ -0,0 +1,514 @@
+package com.ucoruh.controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.ucoruh.utils.ImageOptimizer;
+import com.ucoruh.utils.Utils;
+
+/**
+ *
+ * @class MarkdownMergeEngine
+ * @brief Single pass merge engine for Marp slide decks. Every line is
+ *        classified once as a page separator, a Marp directive, a header or an
+ *        image link and routed to the mkdocs-web, pandoc-pdf and pandoc-slide
+ *        outputs in the same step.
+ *
+ *        A header is compared only with the previous header of the deck, so the
+ *        engine keeps the normalized previous header instead of the whole deck
+ *        and runs in linear time. Accepted lines are streamed to the output
+ *        writers, only mkdocs-web lines before the first page separator are
+ *        held back until the position of the download links is known. The
+ *        held back lines are kept in memory up to 1M characters and in a
+ *        temporary file after it, so a deck without a page separator after
+ *        the front matter isn't kept in memory. The engine must be closed to
+ *        delete the temporary file of a failed merge.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * try (MarkdownMergeEngine engine = new MarkdownMergeEngine(fileInputPath, mkdocsWebWriter, pandocPdfWriter,
+ * 		pandocSlideWriter)) {
+ * 	while ((line = reader.readLine()) != null) {
+ * 		engine.accept(line);
+ * 	}
+ * 	engine.finish();
+ * }
+ * }
+ *        </pre>
+ */
+public class MarkdownMergeEngine implements Closeable {
+
+	/**
+	 *
+	 * @brief Version of the merge outputs, recorded in the merge manifest. It must
+	 *        be increased when a change of the engine changes the outputs, so the
+	 *        decks merged by an older engine are merged again.
+	 */
+	public static final int FORMAT_VERSION = 1;
+
+	/**
+	 *
+	 * @brief A precompiled regular expression used to find the last index in a
+	 *        string containing parentheses and digits.
+	 */
+	private static final Pattern FIND_ALL_LAST_INDEXES = Pattern.compile("\\((\\d+)\\)[^()]*$");
+
+	/**
+	 *
+	 * @brief The similarity threshold used when comparing strings for similarity.
+	 */
+	private static final double SIMILARITY_THRESHOLD = 0.999;
+
+	/**
+	 *
+	 * @brief The separator used to separate pages in a multi-page Markdown
+	 *        document.
+	 */
+	private static final String PAGE_SEPERATOR = "---";
+
+	/**
+	 *
+	 * @brief The character used to indicate the start of a Markdown header.
+	 */
+	private static final String HEADER_CHAR = "#";
+
+	/**
+	 *
+	 * @brief The prefix used for image links in a Markdown document.
+	 */
+	private static final String IMAGE_LINK_PREFIX = "![";
+
+	/**
+	 *
+	 * @brief Number of leading separators that belong to the Marp front matter.
+	 */
+	private static final int CONFIGURATION_SEPERATOR_COUNT = 2;
+
+	/**
+	 *
+	 * @brief Maximum number of normalized header texts cached for a document.
+	 */
+	private static final int NORMALIZED_TITLE_CACHE_SIZE = 64;
+
+	/**
+	 *
+	 * @brief Maximum number of characters of the mkdocs-web lines held back in
+	 *        memory, the lines after it are held back in a temporary file.
+	 */
+	private static final int PENDING_MKDOCS_WEB_MEMORY_LIMIT = 1 << 20;
+
+	/**
+	 *
+	 * @brief The path of the merged input file, used for download links.
+	 */
+	private final String fileInputPath;
+
+	/**
+	 *
+	 * @brief Writer of the mkdocs-web output.
+	 */
+	private final Writer mkdocsWebWriter;
+
+	/**
+	 *
+	 * @brief Writer of the pandoc-pdf output.
+	 */
+	private final Writer pandocPdfWriter;
+
+	/**
+	 *
+	 * @brief Writer of the pandoc-slide output.
+	 */
+	private final Writer pandocSlideWriter;
+
+	/**
+	 *
+	 * @brief Mkdocs-web lines held back in memory until the download links are
+	 *        added.
+	 */
+	private final StringBuilder pendingMkdocsWebLines = new StringBuilder();
+
+	/**
+	 *
+	 * @brief Temporary file of the mkdocs-web lines held back after the memory
+	 *        limit, null until the limit is exceeded.
+	 */
+	private Path pendingMkdocsWebFile;
+
+	/**
+	 *
+	 * @brief Writer of the temporary file of the held back mkdocs-web lines.
+	 */
+	private Writer pendingMkdocsWebFileWriter;
+
+	/**
+	 *
+	 * @brief Image URLs of the deck whose pandoc links were rewritten to the JPEG
+	 *        image, in order of first use.
+	 */
+	private final Set<String> rasterImageUrls = new LinkedHashSet<String>();
+
+	/**
+	 *
+	 * @brief Optimized image URLs linked by the pandoc outputs instead of the
+	 *        images of the deck, in order of first use.
+	 */
+	private final Set<String> optimizedImageUrls = new LinkedHashSet<String>();
+
+	/**
+	 *
+	 * @brief Resolution of the optimized images linked by the pandoc outputs, 0
+	 *        links the images of the deck.
+	 */
+	private float imageDpi = 0;
+
+	/**
+	 *
+	 * @brief Index of the next line passed to accept.
+	 */
+	private int lineIndex = 0;
+
+	/**
+	 *
+	 * @brief Number of page separators seen so far.
+	 */
+	private int seperatorCounter = 0;
+
+	/**
+	 *
+	 * @brief Whether a page separator after the front matter has been seen, this
+	 *        enables duplicated header removal.
+	 */
+	private boolean pageSeperatorFound = false;
+
+	/**
+	 *
+	 * @brief Whether the download links are already added to the mkdocs-web
+	 *        output.
+	 */
+	private boolean downloadLinksAdded = false;
+
+	/**
+	 *
+	 * @brief Normalized text of the previous header, or of the first line until
+	 *        the first header is found.
+	 */
+	private String previousTitle = null;
+
+	/**
+	 *
+	 * @brief Recently used normalized header texts of this document by header
+	 *        line, slide decks repeat the same header on nearby slides.
+	 */
+	private final Map<String, String> normalizedTitles = new LinkedHashMap<String, String>(16, 0.75f, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return size() > NORMALIZED_TITLE_CACHE_SIZE;
+		}
+	};
+
+	/**
+	 *
+	 * @brief Creates a merge engine for the given input file.
+	 *
+	 * @param fileInputPath     The path of the input Markdown file
+	 *
+	 * @param mkdocsWebWriter   The writer of the mkdocs-web output
+	 *
+	 * @param pandocPdfWriter   The writer of the pandoc-pdf output
+	 *
+	 * @param pandocSlideWriter The writer of the pandoc-slide output
+	 */
+	public MarkdownMergeEngine(String fileInputPath, Writer mkdocsWebWriter, Writer pandocPdfWriter,
+			Writer pandocSlideWriter) {
+		this.fileInputPath = fileInputPath;
+		this.mkdocsWebWriter = mkdocsWebWriter;
+		this.pandocPdfWriter = pandocPdfWriter;
+		this.pandocSlideWriter = pandocSlideWriter;
+	}
+
+	/**
+	 *
+	 * Classifies the next line of the deck and writes it to the outputs.
+	 *
+	 * Lines containing "<!-- _backgroundColor:", "<!-- _color:" and "<!--
+	 * paginate:" and page separators after the front matter are excluded from the
+	 * mkdocs-web and pandoc-pdf outputs. Headers similar to the previous header
+	 * are excluded too. Image links are converted to pandoc format for the pandoc
+	 * outputs.
+	 *
+	 * @param line The next line of the input Markdown file
+	 *
+	 * @throws IOException If there is an error writing the outputs.
+	 */
+	public void accept(String line) throws IOException {
+
+		String trimmedLine = line.trim();
+
+		boolean excluded = line.contains("<!-- _backgroundColor:") || line.contains("<!-- _color:")
+				|| line.contains("<!-- paginate:");
+
+		if (lineIndex == 0) {
+			previousTitle = normalizeTitle(line);
+		}
+
+		// first two seperator for configuration
+		if (trimmedLine.toLowerCase().equals(PAGE_SEPERATOR)) {
+			seperatorCounter++;
+			if (seperatorCounter > CONFIGURATION_SEPERATOR_COUNT) {
+				excluded = true;
+				pageSeperatorFound = true;
+			}
+		}
+
+		// add download links and iframe before first page seperator
+		if (!downloadLinksAdded && seperatorCounter == CONFIGURATION_SEPERATOR_COUNT + 1) {
+			downloadLinksAdded = true;
+			writePendingMkdocsWebLines();
+			writeLine(mkdocsWebWriter, Utils.generateDownloadAndIframeLinksforMkDocs(fileInputPath));
+		}
+
+		boolean header = trimmedLine.startsWith(HEADER_CHAR);
+
+		if (header) {
+			String currentTitle = normalizedTitles.get(line);
+			if (currentTitle == null) {
+				currentTitle = normalizeTitle(line);
+				normalizedTitles.put(line, currentTitle);
+			}
+			if (pageSeperatorFound) {
+				double similarity = Utils.calculateJaccardSimilarity(previousTitle, currentTitle);
+				if (similarity > SIMILARITY_THRESHOLD) {
+					excluded = true;
+				}
+			}
+			previousTitle = currentTitle;
+		}
+
+		String markdownline = line;
+
+		if (!excluded && header) {
+			markdownline = FIND_ALL_LAST_INDEXES.matcher(markdownline).replaceFirst("");
+		}
+
+		if (markdownline.trim().startsWith(IMAGE_LINK_PREFIX)) {
+			if (!excluded) {
+				writeMkdocsWebLine(markdownline);
+			}
+			String[] pandocImage = Utils.convertMarpToPandoc(markdownline);
+			String imageUrl = pandocImage[1].strip();
+			markdownline = pandocImage[0];
+			if (!Utils.getPandocImageUrl(imageUrl).equals(imageUrl)) {
+				rasterImageUrls.add(imageUrl);
+			} else if (imageDpi > 0) {
+				String optimizedUrl = ImageOptimizer.getOptimizedUrl(imageUrl, pandocImage[2], pandocImage[3],
+						imageDpi);
+				if (optimizedUrl != null) {
+					markdownline = markdownline.replace("(" + imageUrl + ")", "(" + optimizedUrl + ")");
+					optimizedImageUrls.add(optimizedUrl);
+				}
+			}
+		} else if (!excluded) {
+			writeMkdocsWebLine(markdownline);
+		}
+
+		if (!excluded) {
+			writeLine(pandocPdfWriter, markdownline);
+		}
+
+		writeLine(pandocSlideWriter, markdownline);
+
+		lineIndex++;
+	}
+
+	/**
+	 *
+	 * Completes the merge. If the deck does not contain a page separator after the
+	 * front matter, the download links are placed at the beginning of the
+	 * mkdocs-web output. The writers are flushed but not closed.
+	 *
+	 * @throws IOException If there is an error writing the outputs.
+	 */
+	public void finish() throws IOException {
+
+		if (!downloadLinksAdded) {
+			downloadLinksAdded = true;
+			if (lineIndex > 0) {
+				writeLine(mkdocsWebWriter, Utils.generateDownloadAndIframeLinksforMkDocs(fileInputPath));
+			}
+			writePendingMkdocsWebLines();
+		}
+
+		mkdocsWebWriter.flush();
+		pandocPdfWriter.flush();
+		pandocSlideWriter.flush();
+	}
+
+	/**
+	 *
+	 * Gets the image URLs whose pandoc links were rewritten from the SVG image to
+	 * the JPEG image, the JPEG images must exist before the pandoc outputs are
+	 * built.
+	 *
+	 * @return The original image URLs in order of first use
+	 */
+	public List<String> getRasterImageUrls() {
+		return new ArrayList<String>(rasterImageUrls);
+	}
+
+	/**
+	 *
+	 * Gets the optimized image URLs linked by the pandoc outputs, the optimized
+	 * images must be written before the pandoc outputs are built.
+	 *
+	 * @return The optimized image URLs in order of first use
+	 */
+	public List<String> getOptimizedImageUrls() {
+		return new ArrayList<String>(optimizedImageUrls);
+	}
+
+	/**
+	 *
+	 * Links the optimized PNG and JPEG images of the assets and images folders in
+	 * the pandoc outputs, must be set before the first line is accepted.
+	 *
+	 * @param imageDpi The resolution of the optimized images, 0 links the images
+	 *                 of the deck
+	 */
+	public void setImageDpi(float imageDpi) {
+		this.imageDpi = imageDpi;
+	}
+
+	/**
+	 *
+	 * Deletes the temporary file of the held back mkdocs-web lines, if the merge
+	 * failed before they were written. The output writers are not closed.
+	 *
+	 * @throws IOException If the temporary file can't be deleted.
+	 */
+	@Override
+	public void close() throws IOException {
+
+		if (pendingMkdocsWebFile == null) {
+			return;
+		}
+
+		try {
+			if (pendingMkdocsWebFileWriter != null) {
+				pendingMkdocsWebFileWriter.close();
+			}
+		} finally {
+			Files.deleteIfExists(pendingMkdocsWebFile);
+			pendingMkdocsWebFile = null;
+			pendingMkdocsWebFileWriter = null;
+		}
+	}
+
+	/**
+	 *
+	 * Writes the mkdocs-web lines held back until the download links position was
+	 * known, the lines in memory followed by the lines of the temporary file.
+	 *
+	 * @throws IOException If there is an error writing the output.
+	 */
+	private void writePendingMkdocsWebLines() throws IOException {
+
+		mkdocsWebWriter.append(pendingMkdocsWebLines);
+		pendingMkdocsWebLines.setLength(0);
+
+		if (pendingMkdocsWebFile == null) {
+			return;
+		}
+
+		pendingMkdocsWebFileWriter.close();
+
+		try (Reader reader = Files.newBufferedReader(pendingMkdocsWebFile, StandardCharsets.UTF_8)) {
+
+			char[] buffer = new char[8192];
+			int length;
+
+			while ((length = reader.read(buffer)) >= 0) {
+				mkdocsWebWriter.write(buffer, 0, length);
+			}
+		}
+
+		close();
+	}
+
+	/**
+	 *
+	 * Writes a mkdocs-web line, or holds it back until the download links are
+	 * added. Lines after the memory limit are held back in a temporary file.
+	 *
+	 * @param line The line to write
+	 *
+	 * @throws IOException If there is an error writing the output.
+	 */
+	private void writeMkdocsWebLine(String line) throws IOException {
+
+		if (downloadLinksAdded) {
+			writeLine(mkdocsWebWriter, line);
+			return;
+		}
+
+		if (pendingMkdocsWebFile != null) {
+			writeLine(pendingMkdocsWebFileWriter, line);
+			return;
+		}
+
+		pendingMkdocsWebLines.append(line).append(System.lineSeparator());
+
+		if (pendingMkdocsWebLines.length() > PENDING_MKDOCS_WEB_MEMORY_LIMIT) {
+			pendingMkdocsWebFile = Files.createTempFile("mkdocs-web", ".md");
+			pendingMkdocsWebFileWriter = Files.newBufferedWriter(pendingMkdocsWebFile, StandardCharsets.UTF_8);
+			pendingMkdocsWebFileWriter.append(pendingMkdocsWebLines);
+			pendingMkdocsWebLines.setLength(0);
+		}
+	}
+
+	/**
+	 *
+	 * Writes a line followed by the system line separator.
+	 *
+	 * @param writer The writer of the output
+	 *
+	 * @param line   The line to write
+	 *
+	 * @throws IOException If there is an error writing the output.
+	 */
+	private static void writeLine(Writer writer, String line) throws IOException {
+		writer.write(line);
+		writer.write(System.lineSeparator());
+	}
+
+	/**
+	 *
+	 * Normalizes a header line for similarity comparison by removing header
+	 * characters and trailing "(n)" indexes.
+	 *
+	 * @param line The header line
+	 *
+	 * @return The normalized header text
+	 */
+	private static String normalizeTitle(String line) {
+		return FIND_ALL_LAST_INDEXES.matcher(line.replace(HEADER_CHAR, "").toLowerCase().trim()).replaceFirst("");
+	}
+
+}
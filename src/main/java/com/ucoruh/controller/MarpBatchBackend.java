@@ -0,0 +1,360 @@
+package com.ucoruh.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import com.ucoruh.controller.BuildScheduler.RenderJob;
+import com.ucoruh.controller.BuildScheduler.RenderJobResult;
+import com.ucoruh.utils.ToolLauncher;
+import com.ucoruh.utils.ToolLauncher.Tool;
+import com.ucoruh.utils.Utils;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class MarpBatchBackend
+ * @brief Renders many decks with a single marp-cli invocation per output
+ *        format, so Node and Chromium start once per batch instead of three
+ *        times per deck.
+ *
+ *        Marp writes the outputs of a batch next to the inputs with the input
+ *        name, like "week-1.pdf". After the batch the outputs are moved to the
+ *        "_slide" names of Utils.generateFilePath. A deck whose default Marp
+ *        output name already exists is rendered with its own job and explicit
+ *        output path, so existing files are never overwritten by a batch.
+ *
+ *        The previous "_slide" outputs of the batch decks are deleted before
+ *        the batch, and the outputs of a failed batch are moved too, so a deck
+ *        never keeps an old output or a default Marp output after a failure.
+ */
+public class MarpBatchBackend {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the MarpBatchBackend
+	 *        class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(MarpBatchBackend.class.getName());
+
+	/**
+	 *
+	 * @brief Maximum length of the deck arguments of a batch, keeps batch
+	 *        commands below the 8191 character limit of cmd.exe.
+	 */
+	private static final int MAX_BATCH_ARGUMENTS_LENGTH = 6000;
+
+	/**
+	 *
+	 * @brief Output extensions rendered by Marp.
+	 */
+	private static final String[] MARP_EXTENSIONS = { "pdf", "html", "pptx" };
+
+	/**
+	 *
+	 * @brief Decks of every batch job.
+	 */
+	private final Map<RenderJob, List<String>> batchDecks = new IdentityHashMap<RenderJob, List<String>>();
+
+	/**
+	 *
+	 * @brief Output extension of every batch job.
+	 */
+	private final Map<RenderJob, String> batchExtensions = new IdentityHashMap<RenderJob, String>();
+
+	/**
+	 *
+	 * @brief Render cache keys of the slide outputs by output path.
+	 */
+	private final Map<String, String> cacheKeys = new HashMap<String, String>();
+
+	/**
+	 *
+	 * @brief The render cache of the slide outputs.
+	 */
+	private final RenderCache cache;
+
+	/**
+	 *
+	 * @brief Whether cached slide outputs are restored instead of rendered.
+	 */
+	private final boolean restoreFromCache;
+
+	/**
+	 *
+	 * @brief The number of slide outputs restored from the render cache.
+	 */
+	@Getter
+	private int cachedCount;
+
+	/**
+	 *
+	 * @brief Creates a Marp batch backend.
+	 *
+	 * @param cache            The render cache of the slide outputs
+	 *
+	 * @param restoreFromCache Whether cached slide outputs are restored instead
+	 *                         of rendered
+	 */
+	public MarpBatchBackend(RenderCache cache, boolean restoreFromCache) {
+		this.cache = cache;
+		this.restoreFromCache = restoreFromCache;
+	}
+
+	/**
+	 *
+	 * Creates the render jobs of the decks. Decks are grouped into batch jobs for
+	 * every output format. Every (deck, format) output is looked up in the render
+	 * cache with the key of its single deck command, cached outputs are restored
+	 * and left out of the batches. The previous slide outputs of the batched
+	 * decks are deleted.
+	 *
+	 * @param decks         The absolute paths of the decks
+	 *
+	 * @param workingFolder The folder in which the batch commands run
+	 *
+	 * @throws IOException If there is an error reading the decks or deleting
+	 *                     their previous outputs.
+	 *
+	 * @return The render jobs
+	 */
+	public List<RenderJob> createJobs(List<String> decks, String workingFolder) throws IOException {
+
+		List<RenderJob> jobs = new ArrayList<RenderJob>();
+
+		for (String extension : MARP_EXTENSIONS) {
+
+			List<String> batch = new ArrayList<String>();
+			int batchLength = 0;
+
+			for (String deck : decks) {
+
+				String slideOutputPath = getSlideOutputPath(deck, extension);
+				String[] deckCommand = createCommand(extension, slideOutputPath, deck);
+				String key = cache.createKey(Tool.MARP, deckCommand, deck, slideOutputPath);
+
+				if (restoreFromCache && cache.restore(key, slideOutputPath)) {
+					LOGGER.info("Build marp-" + extension + " CACHED : " + deck);
+					cachedCount++;
+					continue;
+				}
+
+				cacheKeys.put(slideOutputPath, key);
+
+				if (new File(getMarpOutputPath(deck, extension)).exists()) {
+					// keep existing files, render with an explicit output path
+					jobs.add(new RenderJob(deck, "marp-" + extension, Tool.MARP, deckCommand,
+							new File(deck).getParent(), slideOutputPath));
+					continue;
+				}
+
+				if (!batch.isEmpty() && batchLength + deck.length() + 1 > MAX_BATCH_ARGUMENTS_LENGTH) {
+					jobs.add(createBatchJob(extension, batch, workingFolder));
+					batch = new ArrayList<String>();
+					batchLength = 0;
+				}
+
+				// a failed batch must not leave the previous output behind
+				Files.deleteIfExists(Paths.get(slideOutputPath));
+
+				batch.add(deck);
+				batchLength += deck.length() + 1;
+			}
+
+			if (!batch.isEmpty()) {
+				jobs.add(createBatchJob(extension, batch, workingFolder));
+			}
+		}
+
+		return jobs;
+	}
+
+	/**
+	 *
+	 * Moves the outputs of batch jobs to the "_slide" names and stores the slide
+	 * outputs of successful jobs in the render cache. A missing output fails a
+	 * successful batch. The outputs a failed batch rendered before it failed are
+	 * moved but not cached, so they don't force single deck jobs in the next
+	 * build.
+	 *
+	 * @param results The results of the build, results of other jobs are ignored
+	 *
+	 * @return true if all outputs are in place, false otherwise
+	 */
+	public boolean completeJobs(List<RenderJobResult> results) {
+
+		boolean result = true;
+
+		for (RenderJobResult jobResult : results) {
+
+			List<String> decks = batchDecks.get(jobResult.getJob());
+
+			if (!jobResult.isSuccess()) {
+				if (decks != null) {
+					moveFailedBatchOutputs(decks, batchExtensions.get(jobResult.getJob()));
+				}
+				continue;
+			}
+
+			if (decks == null) {
+				// single deck job of this backend
+				String key = cacheKeys.get(jobResult.getJob().getOutputFile());
+				if (key != null) {
+					cache.store(key, jobResult.getJob().getOutputFile());
+				}
+				continue;
+			}
+
+			String extension = batchExtensions.get(jobResult.getJob());
+
+			for (String deck : decks) {
+
+				String marpOutputPath = getMarpOutputPath(deck, extension);
+				String slideOutputPath = getSlideOutputPath(deck, extension);
+
+				try {
+					Files.move(Paths.get(marpOutputPath), Paths.get(slideOutputPath),
+							StandardCopyOption.REPLACE_EXISTING);
+					cache.store(cacheKeys.get(slideOutputPath), slideOutputPath);
+				} catch (IOException e) {
+					LOGGER.severe("Marp batch output not moved " + marpOutputPath + " : " + e.getMessage());
+					result = false;
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 *
+	 * Moves the outputs a failed batch rendered to the "_slide" names.
+	 *
+	 * @param decks     The decks of the batch
+	 *
+	 * @param extension The output extension
+	 */
+	private static void moveFailedBatchOutputs(List<String> decks, String extension) {
+
+		for (String deck : decks) {
+
+			String marpOutputPath = getMarpOutputPath(deck, extension);
+
+			if (!new File(marpOutputPath).exists()) {
+				continue;
+			}
+
+			try {
+				Files.move(Paths.get(marpOutputPath), Paths.get(getSlideOutputPath(deck, extension)),
+						StandardCopyOption.REPLACE_EXISTING);
+				LOGGER.warning("Marp " + extension + " output of failed batch moved, not cached : " + deck);
+			} catch (IOException e) {
+				LOGGER.severe("Marp batch output not moved " + marpOutputPath + " : " + e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Creates a batch job and records its decks.
+	 *
+	 * @param extension     The output extension
+	 *
+	 * @param decks         The decks of the batch
+	 *
+	 * @param workingFolder The folder in which the command runs
+	 *
+	 * @return The batch job
+	 */
+	private RenderJob createBatchJob(String extension, List<String> decks, String workingFolder) {
+
+		String label = decks.size() == 1 ? decks.get(0) : "batch of " + decks.size() + " decks";
+
+		RenderJob job = new RenderJob(label, "marp-" + extension, Tool.MARP,
+				createCommand(extension, null, decks.toArray(new String[0])), workingFolder, null);
+
+		batchDecks.put(job, decks);
+		batchExtensions.put(job, extension);
+
+		LOGGER.info("Marp " + extension + " batch of " + decks.size() + " decks created");
+
+		return job;
+	}
+
+	/**
+	 *
+	 * Creates a marp-cli command for an output format.
+	 *
+	 * @param extension  The output extension
+	 *
+	 * @param outputPath The output path of a single deck, null for batches
+	 *
+	 * @param decks      The input decks
+	 *
+	 * @return The command and its arguments
+	 */
+	private static String[] createCommand(String extension, String outputPath, String... decks) {
+
+		List<String> arguments = new ArrayList<String>();
+
+		if (extension.equals("pdf")) {
+			arguments.add("--html");
+			arguments.add("--pdf");
+		} else if (extension.equals("html")) {
+			arguments.add("--html");
+		} else {
+			arguments.add("--pptx");
+		}
+
+		if (outputPath != null) {
+			arguments.add("-o");
+			arguments.add(outputPath);
+		}
+
+		arguments.add("--allow-local-files");
+
+		for (String deck : decks) {
+			arguments.add(deck);
+		}
+
+		return ToolLauncher.command(Tool.MARP, arguments.toArray(new String[0]));
+	}
+
+	/**
+	 *
+	 * Gets the output path Marp uses for a deck without an explicit output.
+	 *
+	 * @param deck      The deck path
+	 *
+	 * @param extension The output extension
+	 *
+	 * @return The Marp default output path
+	 */
+	private static String getMarpOutputPath(String deck, String extension) {
+		return Utils.generateFilePath(deck, "", "", extension, false);
+	}
+
+	/**
+	 *
+	 * Gets the "_slide" output path of a deck.
+	 *
+	 * @param deck      The deck path
+	 *
+	 * @param extension The output extension
+	 *
+	 * @return The slide output path
+	 */
+	private static String getSlideOutputPath(String deck, String extension) {
+		return Utils.generateFilePath(deck, "", "_slide", extension, false);
+	}
+
+}
@@ -0,0 +1,376 @@
+package com.ucoruh.controller;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import com.ucoruh.utils.Utils;
+
+/**
+ *
+ * @class MergeManifest
+ * @brief Persistent manifest of merged Markdown files. For every source file
+ *        the manifest stores the tool version, the hash of the source content
+ *        and the hashes of the generated outputs, so unchanged decks can be
+ *        skipped in folder merges.
+ *
+ *        The manifest is saved as a properties file in the root of the merged
+ *        folder with the following keys for each source file, the entries of
+ *        deleted source files are removed when the manifest is saved:
+ *
+ *        <pre>
+ * week-1/ce100-week-1.md.tool=merge 1 0.0.1-SNAPSHOT
+ * week-1/ce100-week-1.md.input=&lt;sha-256&gt;
+ * week-1/ce100-week-1.md.output.mkdocs_ce100-week-1.md=&lt;sha-256&gt;
+ * week-1/ce100-week-1.md.rasters=assets/diagram.svg
+ * week-1/ce100-week-1.md.images=assets/.optimized/photo-781w.jpg
+ *        </pre>
+ */
+public class MergeManifest {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the MergeManifest class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(MergeManifest.class.getName());
+
+	/**
+	 *
+	 * @brief File name of the manifest in the merged folder.
+	 */
+	public static final String MANIFEST_FILE_NAME = ".merge-manifest.properties";
+
+	/**
+	 *
+	 * @brief Key suffix for the tool version entry.
+	 */
+	private static final String TOOL_KEY = ".tool";
+
+	/**
+	 *
+	 * @brief Key suffix for the source hash entry.
+	 */
+	private static final String INPUT_KEY = ".input";
+
+	/**
+	 *
+	 * @brief Key suffix for the output hash entries.
+	 */
+	private static final String OUTPUT_KEY = ".output.";
+
+	/**
+	 *
+	 * @brief Key suffix for the rewritten SVG image references of the pandoc
+	 *        outputs.
+	 */
+	private static final String RASTERS_KEY = ".rasters";
+
+	/**
+	 *
+	 * @brief Key suffix for the optimized image references of the pandoc
+	 *        outputs.
+	 */
+	private static final String IMAGES_KEY = ".images";
+
+	/**
+	 *
+	 * @brief Root folder of the manifest, keys are relative to this folder.
+	 */
+	private final Path rootPath;
+
+	/**
+	 *
+	 * @brief Path of the manifest file.
+	 */
+	private final File manifestFile;
+
+	/**
+	 *
+	 * @brief Version of the tool writing the outputs.
+	 */
+	private final String toolVersion;
+
+	/**
+	 *
+	 * @brief Manifest entries.
+	 */
+	private final Properties entries = new Properties();
+
+	/**
+	 *
+	 * @brief Source hashes calculated in this run, recorded after a successful
+	 *        merge.
+	 */
+	private final Map<String, String> inputHashes = new ConcurrentHashMap<String, String>();
+
+	/**
+	 *
+	 * @brief Creates a manifest for the given folder.
+	 *
+	 * @param folderPath  The root folder of the merged files
+	 * @param toolVersion The version of the tool writing the outputs
+	 */
+	public MergeManifest(String folderPath, String toolVersion) {
+		this.rootPath = Paths.get(folderPath).toAbsolutePath().normalize();
+		this.manifestFile = rootPath.resolve(MANIFEST_FILE_NAME).toFile();
+		this.toolVersion = toolVersion;
+	}
+
+	/**
+	 *
+	 * Loads the manifest entries from the manifest file if it exists.
+	 *
+	 * @throws IOException If there is an error reading the manifest file.
+	 */
+	public void load() throws IOException {
+
+		if (!manifestFile.exists()) {
+			LOGGER.info("Merge manifest not found, all files will be merged : " + manifestFile);
+			return;
+		}
+
+		try (InputStream inputStream = new FileInputStream(manifestFile)) {
+			entries.load(inputStream);
+		}
+
+		LOGGER.info("Merge manifest loaded : " + manifestFile);
+	}
+
+	/**
+	 *
+	 * Saves the manifest entries of the existing source files to the manifest
+	 * file.
+	 *
+	 * @throws IOException If there is an error writing the manifest file.
+	 */
+	public void save() throws IOException {
+
+		removeDeletedSources();
+
+		try (OutputStream outputStream = new FileOutputStream(manifestFile)) {
+			entries.store(outputStream, "markdown-slide-converter merge manifest");
+		}
+
+		LOGGER.info("Merge manifest saved : " + manifestFile);
+	}
+
+	/**
+	 *
+	 * Checks whether the outputs of a source file are up to date. The source file
+	 * is up to date if it was merged with the same tool version, its content did
+	 * not change and all outputs still exist with the recorded content.
+	 *
+	 * @param sourceFilePath  The path of the source Markdown file
+	 * @param outputFilePaths The paths of the generated outputs
+	 *
+	 * @throws IOException If there is an error reading the files.
+	 *
+	 * @return true if the source file does not need to be merged, false otherwise
+	 */
+	public boolean isUpToDate(String sourceFilePath, List<String> outputFilePaths) throws IOException {
+
+		String key = toKey(sourceFilePath);
+
+		String inputHash = Utils.calculateFileHash(sourceFilePath);
+		inputHashes.put(key, inputHash);
+
+		if (!toolVersion.equals(entries.getProperty(key + TOOL_KEY))
+				|| !inputHash.equals(entries.getProperty(key + INPUT_KEY))) {
+			return false;
+		}
+
+		for (String outputFilePath : outputFilePaths) {
+
+			File outputFile = new File(outputFilePath);
+			String outputHash = entries.getProperty(key + OUTPUT_KEY + outputFile.getName());
+
+			if (outputHash == null || !outputFile.exists()
+					|| !outputHash.equals(Utils.calculateFileHash(outputFilePath))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 *
+	 * Records a successful merge of a source file. The source hash calculated by
+	 * isUpToDate is used, so changes made while merging are detected on the next
+	 * run.
+	 *
+	 * @param sourceFilePath  The path of the source Markdown file
+	 * @param outputFilePaths The paths of the generated outputs
+	 *
+	 * @throws IOException If there is an error reading the files.
+	 */
+	public void update(String sourceFilePath, List<String> outputFilePaths) throws IOException {
+
+		String key = toKey(sourceFilePath);
+
+		String inputHash = inputHashes.get(key);
+		if (inputHash == null) {
+			inputHash = Utils.calculateFileHash(sourceFilePath);
+		}
+
+		entries.setProperty(key + TOOL_KEY, toolVersion);
+		entries.setProperty(key + INPUT_KEY, inputHash);
+
+		for (String outputFilePath : outputFilePaths) {
+			File outputFile = new File(outputFilePath);
+			entries.setProperty(key + OUTPUT_KEY + outputFile.getName(), Utils.calculateFileHash(outputFilePath));
+		}
+	}
+
+	/**
+	 *
+	 * Records the SVG image references of a source file whose pandoc links were
+	 * rewritten to JPEG images, so they can be checked when the merge is skipped.
+	 *
+	 * @param sourceFilePath The path of the source Markdown file
+	 * @param imageUrls      The rewritten image URLs
+	 */
+	public void setRasterImages(String sourceFilePath, List<String> imageUrls) {
+		setImageUrls(toKey(sourceFilePath) + RASTERS_KEY, imageUrls);
+	}
+
+	/**
+	 *
+	 * Gets the recorded SVG image references of a source file.
+	 *
+	 * @param sourceFilePath The path of the source Markdown file
+	 *
+	 * @return The rewritten image URLs, empty if none were recorded
+	 */
+	public List<String> getRasterImages(String sourceFilePath) {
+		return getImageUrls(toKey(sourceFilePath) + RASTERS_KEY);
+	}
+
+	/**
+	 *
+	 * Records the optimized image references of the pandoc outputs of a source
+	 * file, so they can be written when the merge is skipped.
+	 *
+	 * @param sourceFilePath The path of the source Markdown file
+	 * @param imageUrls      The optimized image URLs
+	 */
+	public void setOptimizedImages(String sourceFilePath, List<String> imageUrls) {
+		setImageUrls(toKey(sourceFilePath) + IMAGES_KEY, imageUrls);
+	}
+
+	/**
+	 *
+	 * Gets the recorded optimized image references of a source file.
+	 *
+	 * @param sourceFilePath The path of the source Markdown file
+	 *
+	 * @return The optimized image URLs, empty if none were recorded
+	 */
+	public List<String> getOptimizedImages(String sourceFilePath) {
+		return getImageUrls(toKey(sourceFilePath) + IMAGES_KEY);
+	}
+
+	/**
+	 *
+	 * Sets an image URL list entry, an empty list removes the entry.
+	 *
+	 * @param key       The manifest key
+	 * @param imageUrls The image URLs
+	 */
+	private void setImageUrls(String key, List<String> imageUrls) {
+
+		if (imageUrls.isEmpty()) {
+			entries.remove(key);
+		} else {
+			entries.setProperty(key, String.join("\n", imageUrls));
+		}
+	}
+
+	/**
+	 *
+	 * Gets an image URL list entry.
+	 *
+	 * @param key The manifest key
+	 *
+	 * @return The image URLs, empty if there is no entry
+	 */
+	private List<String> getImageUrls(String key) {
+
+		String value = entries.getProperty(key);
+
+		if (value == null) {
+			return new ArrayList<String>();
+		}
+
+		return new ArrayList<String>(Arrays.asList(value.split("\n")));
+	}
+
+	/**
+	 *
+	 * Removes the entries of the source files that no longer exist in the root
+	 * folder.
+	 */
+	private void removeDeletedSources() {
+
+		List<String> deletedKeys = new ArrayList<String>();
+
+		for (String name : entries.stringPropertyNames()) {
+			if (name.endsWith(INPUT_KEY)) {
+				String key = name.substring(0, name.length() - INPUT_KEY.length());
+				if (!rootPath.resolve(key).toFile().exists()) {
+					deletedKeys.add(key);
+				}
+			}
+		}
+
+		for (String key : deletedKeys) {
+
+			entries.remove(key + TOOL_KEY);
+			entries.remove(key + INPUT_KEY);
+			entries.remove(key + RASTERS_KEY);
+			entries.remove(key + IMAGES_KEY);
+
+			for (String name : entries.stringPropertyNames()) {
+				if (name.startsWith(key + OUTPUT_KEY)) {
+					entries.remove(name);
+				}
+			}
+
+			inputHashes.remove(key);
+
+			LOGGER.info("Merge manifest entry of deleted file removed : " + key);
+		}
+	}
+
+	/**
+	 *
+	 * Converts a source file path to a manifest key relative to the root folder.
+	 *
+	 * @param sourceFilePath The path of the source Markdown file
+	 *
+	 * @return The manifest key
+	 */
+	private String toKey(String sourceFilePath) {
+
+		Path sourcePath = Paths.get(sourceFilePath).toAbsolutePath().normalize();
+
+		if (sourcePath.startsWith(rootPath)) {
+			sourcePath = rootPath.relativize(sourcePath);
+		}
+
+		return sourcePath.toString().replace(File.separatorChar, '/');
+	}
+
+}
@@ -0,0 +1,168 @@
+package com.ucoruh.controller;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import com.ucoruh.controller.SvgAssetRasterizer.RasterizeResult;
+import com.ucoruh.controller.SvgAssetRasterizer.RasterizeStatus;
+
+/**
+ *
+ * @class PandocImageStage
+ * @brief Makes sure the JPEG images linked by the pandoc outputs exist before
+ *        they are built. The merge replaces the SVG images of a deck with JPEG
+ *        images of the same name, the stage collects these references of all
+ *        merged decks, converts the missing or outdated JPEG images in one
+ *        parallel batch and reports the references that still can't be
+ *        resolved, so a build fails before it starts instead of after a long
+ *        render.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * PandocImageStage stage = new PandocImageStage(new SvgAssetRasterizer(rasterizer, 4));
+ * stage.addReferences("week-1/ce100-week-1.md", engine.getRasterImageUrls());
+ * List<String> unresolved = stage.materialize();
+ * }
+ *        </pre>
+ */
+public class PandocImageStage {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the PandocImageStage
+	 *        class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(PandocImageStage.class.getName());
+
+	/**
+	 *
+	 * @brief The raster format of the pandoc images.
+	 */
+	private static final String[] PANDOC_FORMATS = { "jpeg" };
+
+	/**
+	 * The rasterizer of the missing JPEG images
+	 */
+	private final SvgAssetRasterizer assetRasterizer;
+
+	/**
+	 * The SVG image path of each reference, the references are "deck : url"
+	 */
+	private final Map<String, String> references = new LinkedHashMap<String, String>();
+
+	/**
+	 * Creates a stage.
+	 *
+	 * @param assetRasterizer The rasterizer of the missing JPEG images
+	 */
+	public PandocImageStage(SvgAssetRasterizer assetRasterizer) {
+		this.assetRasterizer = assetRasterizer;
+	}
+
+	/**
+	 *
+	 * Adds the rewritten image references of a deck. Remote and data URLs are
+	 * ignored, relative URLs are resolved against the folder of the deck.
+	 *
+	 * @param deckFilePath The path of the source Markdown file
+	 *
+	 * @param imageUrls    The image URLs whose pandoc links were rewritten
+	 */
+	public synchronized void addReferences(String deckFilePath, List<String> imageUrls) {
+
+		File deckFolder = new File(deckFilePath).getAbsoluteFile().getParentFile();
+
+		for (String imageUrl : imageUrls) {
+
+			if (imageUrl.contains("://") || imageUrl.startsWith("data:")) {
+				continue;
+			}
+
+			File svgFile = new File(imageUrl);
+			if (!svgFile.isAbsolute()) {
+				svgFile = new File(deckFolder, imageUrl);
+			}
+
+			references.put(deckFilePath + " : " + imageUrl, svgFile.toPath().normalize().toString());
+		}
+	}
+
+	/**
+	 *
+	 * Converts the SVG images whose JPEG images are missing or older than the
+	 * SVG image. A JPEG image without an SVG image is used as it is.
+	 *
+	 * @return The references whose JPEG image doesn't exist, empty if all
+	 *         references are resolved
+	 */
+	public synchronized List<String> materialize() {
+
+		Set<String> svgFiles = new LinkedHashSet<String>();
+
+		for (String svgFile : references.values()) {
+
+			File jpegFile = new File(getJpegPath(svgFile));
+			File source = new File(svgFile);
+
+			if (source.exists() && (!jpegFile.exists() || jpegFile.lastModified() < source.lastModified())) {
+				svgFiles.add(svgFile);
+			}
+		}
+
+		Map<String, String> errors = new LinkedHashMap<String, String>();
+
+		if (!svgFiles.isEmpty()) {
+
+			LOGGER.info("Converting " + svgFiles.size() + " SVG images linked by pandoc outputs to JPEG");
+
+			List<RasterizeResult> results = assetRasterizer.rasterize(new ArrayList<String>(svgFiles), PANDOC_FORMATS);
+
+			assetRasterizer.logReport(results);
+
+			for (RasterizeResult result : results) {
+				if (result.getStatus() == RasterizeStatus.FAILED) {
+					errors.put(result.getSvgFile(), result.getError());
+				}
+			}
+		}
+
+		List<String> unresolved = new ArrayList<String>();
+
+		for (Map.Entry<String, String> reference : references.entrySet()) {
+
+			String svgFile = reference.getValue();
+
+			if (errors.containsKey(svgFile)) {
+				unresolved.add(reference.getKey() + " (" + errors.get(svgFile) + ")");
+			} else if (!new File(getJpegPath(svgFile)).exists()) {
+				unresolved.add(reference.getKey() + " (no SVG or JPEG image)");
+			}
+		}
+
+		LOGGER.info("Pandoc image references: " + references.size() + " checked, " + svgFiles.size()
+				+ " converted, " + unresolved.size() + " unresolved");
+
+		return unresolved;
+	}
+
+	/**
+	 *
+	 * Gets the JPEG image path linked instead of an SVG image.
+	 *
+	 * @param svgFile The path of the SVG image
+	 *
+	 * @return The path of the JPEG image
+	 */
+	private static String getJpegPath(String svgFile) {
+		return SvgAssetRasterizer.getRasterPath(svgFile, PANDOC_FORMATS[0]);
+	}
+
+}
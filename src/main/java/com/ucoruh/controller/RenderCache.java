@@ -0,0 +1,431 @@
+package com.ucoruh.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.ucoruh.utils.ToolLauncher;
+import com.ucoruh.utils.ToolLauncher.Tool;
+import com.ucoruh.utils.ToolLauncher.ToolResult;
+import com.ucoruh.utils.Utils;
+
+/**
+ *
+ * @class RenderCache
+ * @brief Content-addressed cache of rendered slide and document artifacts. The
+ *        key of an artifact is the hash of the render tool and its version, the
+ *        exact command line, the content of every file in the command line and
+ *        the content of the assets referenced by the rendered Markdown file.
+ *
+ *        A cache hit restores the artifact with a hard link, or a copy if links
+ *        are not supported, instead of launching Marp or Pandoc. The cache
+ *        folder is bounded in size, least recently used artifacts are evicted
+ *        first.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * String key = cache.createKey(Tool.PANDOC, command, inputFile, outputFile);
+ * if (!cache.restore(key, outputFile)) {
+ * 	// render outputFile
+ * 	cache.store(key, outputFile);
+ * }
+ * cache.evict();
+ * }
+ *        </pre>
+ */
+public class RenderCache {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the RenderCache class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(RenderCache.class.getName());
+
+	/**
+	 *
+	 * @brief Default cache folder in the user home.
+	 */
+	public static final String DEFAULT_CACHE_FOLDER = Paths
+			.get(System.getProperty("user.home"), ".markdown-slide-converter", "render-cache").toString();
+
+	/**
+	 *
+	 * @brief Default maximum cache size in bytes.
+	 */
+	public static final long DEFAULT_MAX_CACHE_BYTES = 2L * 1024 * 1024 * 1024;
+
+	/**
+	 *
+	 * @brief Markdown image links, HTML image sources and CSS urls of front
+	 *        matter directives and style blocks referencing assets.
+	 */
+	private static final Pattern ASSET_LINK = Pattern
+			.compile("!\\[[^\\]]*\\]\\(\\s*<?([^)\\s>]+)>?[^)]*\\)|<img[^>]+src\\s*=\\s*[\"']([^\"']+)[\"']"
+					+ "|url\\(\\s*[\"']?([^\"')\\s]+)[\"']?\\s*\\)");
+
+	/**
+	 *
+	 * @brief The cache folder.
+	 */
+	private final Path cacheFolder;
+
+	/**
+	 *
+	 * @brief The maximum cache size in bytes.
+	 */
+	private final long maxCacheBytes;
+
+	/**
+	 *
+	 * @brief Versions of the render tools by tool name, resolved once per run.
+	 */
+	private final Map<Tool, String> toolVersions = new ConcurrentHashMap<Tool, String>();
+
+	/**
+	 *
+	 * @brief Content hashes of the files hashed in this run by path.
+	 */
+	private final Map<String, String> fileHashes = new ConcurrentHashMap<String, String>();
+
+	/**
+	 *
+	 * @brief Creates a render cache.
+	 *
+	 * @param cacheFolder   The cache folder
+	 *
+	 * @param maxCacheBytes The maximum cache size in bytes
+	 */
+	public RenderCache(String cacheFolder, long maxCacheBytes) {
+		this.cacheFolder = Paths.get(cacheFolder);
+		this.maxCacheBytes = maxCacheBytes;
+	}
+
+	/**
+	 *
+	 * Creates the cache key of a render.
+	 *
+	 * @param tool       The render tool, its version is part of the key
+	 *
+	 * @param command    The exact command line of the render
+	 *
+	 * @param inputFile  The rendered Markdown file, its referenced assets are
+	 *                   part of the key
+	 *
+	 * @param outputFile The rendered artifact, its content is not part of the key
+	 *
+	 * @throws IOException If there is an error reading the files.
+	 *
+	 * @return The cache key
+	 */
+	public String createKey(Tool tool, String[] command, String inputFile, String outputFile) throws IOException {
+
+		MessageDigest digest;
+
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("SHA-256 not supported", e);
+		}
+
+		update(digest, "tool", tool.getToolName() + " " + getToolVersion(tool));
+		update(digest, "converter", Utils.getToolVersion());
+
+		for (String argument : command) {
+
+			update(digest, "argument", argument);
+
+			// files in the command line like inputs and reference documents
+			String path = argument.startsWith("--") && argument.contains("=")
+					? argument.substring(argument.indexOf('=') + 1)
+					: argument;
+
+			File file = new File(path);
+
+			if (!file.isAbsolute() && !path.isEmpty()) {
+				file = new File(new File(inputFile).getAbsoluteFile().getParentFile(), path);
+			}
+
+			if (file.isFile() && !file.getAbsoluteFile().equals(new File(outputFile).getAbsoluteFile())) {
+				update(digest, "file", getFileHash(file.getAbsolutePath()));
+			}
+		}
+
+		for (String asset : findReferencedAssets(inputFile)) {
+			File assetFile = new File(asset);
+			update(digest, "asset", asset + " " + (assetFile.isFile() ? getFileHash(asset) : "missing"));
+		}
+
+		return Utils.toHexString(digest.digest());
+	}
+
+	/**
+	 *
+	 * Restores a cached artifact to the output path.
+	 *
+	 * @param key        The cache key
+	 *
+	 * @param outputPath The output path of the artifact
+	 *
+	 * @return true if the artifact was restored, false on a cache miss
+	 */
+	public boolean restore(String key, String outputPath) {
+
+		Path cachedFile = getCachedFile(key, outputPath);
+
+		if (!Files.isRegularFile(cachedFile)) {
+			return false;
+		}
+
+		Path output = Paths.get(outputPath);
+
+		try {
+			Files.deleteIfExists(output);
+
+			try {
+				Files.createLink(output, cachedFile);
+			} catch (IOException | UnsupportedOperationException e) {
+				Files.copy(cachedFile, output, StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			// mark as recently used for eviction
+			Files.setLastModifiedTime(cachedFile, FileTime.fromMillis(System.currentTimeMillis()));
+
+		} catch (IOException e) {
+			LOGGER.warning("Render cache restore failed " + outputPath + " : " + e.getMessage());
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 *
+	 * Stores a rendered artifact in the cache. A missing output is not stored.
+	 *
+	 * @param key        The cache key
+	 *
+	 * @param outputPath The output path of the artifact
+	 */
+	public void store(String key, String outputPath) {
+
+		Path output = Paths.get(outputPath);
+
+		if (!Files.isRegularFile(output)) {
+			return;
+		}
+
+		Path cachedFile = getCachedFile(key, outputPath);
+
+		try {
+			Files.createDirectories(cacheFolder);
+
+			// copy, a later render must not change the cached artifact
+			Path temporaryFile = Files.createTempFile(cacheFolder, key, ".tmp");
+			Files.copy(output, temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+			Files.move(temporaryFile, cachedFile, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+
+		} catch (IOException e) {
+			LOGGER.warning("Render cache store failed " + outputPath + " : " + e.getMessage());
+		}
+	}
+
+	/**
+	 *
+	 * Evicts least recently used artifacts until the cache is within its size
+	 * bound.
+	 */
+	public void evict() {
+
+		if (!Files.isDirectory(cacheFolder)) {
+			return;
+		}
+
+		List<Path> files = new ArrayList<Path>();
+		long totalBytes = 0;
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(cacheFolder)) {
+			for (Path file : stream) {
+				if (Files.isRegularFile(file)) {
+					files.add(file);
+					totalBytes += Files.size(file);
+				}
+			}
+		} catch (IOException e) {
+			LOGGER.warning("Render cache eviction failed : " + e.getMessage());
+			return;
+		}
+
+		if (totalBytes <= maxCacheBytes) {
+			return;
+		}
+
+		files.sort((a, b) -> Long.compare(a.toFile().lastModified(), b.toFile().lastModified()));
+
+		int evictedCount = 0;
+
+		for (Path file : files) {
+
+			if (totalBytes <= maxCacheBytes) {
+				break;
+			}
+
+			try {
+				long size = Files.size(file);
+				Files.delete(file);
+				totalBytes -= size;
+				evictedCount++;
+			} catch (IOException e) {
+				LOGGER.warning("Render cache eviction failed " + file + " : " + e.getMessage());
+			}
+		}
+
+		LOGGER.info("Render cache evicted " + evictedCount + " artifacts, " + totalBytes + " bytes cached");
+	}
+
+	/**
+	 *
+	 * Finds the local assets referenced by image links and CSS urls of a Markdown
+	 * file, like the backgroundImage of a Marp header. Remote links are ignored.
+	 *
+	 * @param inputFile The Markdown file
+	 *
+	 * @throws IOException If there is an error reading the file.
+	 *
+	 * @return The absolute paths of the referenced assets, sorted
+	 */
+	private static TreeSet<String> findReferencedAssets(String inputFile) throws IOException {
+
+		TreeSet<String> assets = new TreeSet<String>();
+
+		File file = new File(inputFile).getAbsoluteFile();
+
+		if (!file.isFile()) {
+			return assets;
+		}
+
+		String content = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+
+		Matcher matcher = ASSET_LINK.matcher(content);
+
+		while (matcher.find()) {
+
+			String link = matcher.group(1) != null ? matcher.group(1)
+					: matcher.group(2) != null ? matcher.group(2) : matcher.group(3);
+
+			if (link.contains("://") || link.startsWith("data:") || link.startsWith("#")) {
+				continue;
+			}
+
+			assets.add(new File(file.getParentFile(), link).toPath().normalize().toString());
+		}
+
+		return assets;
+	}
+
+	/**
+	 *
+	 * Gets the version of a render tool, resolved once per run.
+	 *
+	 * @param tool The render tool
+	 *
+	 * @return The first output line of "tool --version", "unknown" if it can't be
+	 *         run
+	 */
+	private String getToolVersion(Tool tool) {
+
+		return toolVersions.computeIfAbsent(tool, key -> {
+
+			try {
+				ToolResult result = ToolLauncher.run(key, null, "--version");
+				if (result.isSuccess()) {
+					String version = result.getOutput().trim();
+					int lineEnd = version.indexOf('\n');
+					return lineEnd < 0 ? version : version.substring(0, lineEnd).trim();
+				}
+			} catch (IOException e) {
+				LOGGER.warning("Render tool version not found " + key.getToolName() + " : " + e.getMessage());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			return "unknown";
+		});
+	}
+
+	/**
+	 *
+	 * Gets the content hash of a file, calculated once per run.
+	 *
+	 * @param filePath The absolute path of the file
+	 *
+	 * @throws IOException If there is an error reading the file.
+	 *
+	 * @return The SHA-256 hash of the file
+	 */
+	private String getFileHash(String filePath) throws IOException {
+
+		String hash = fileHashes.get(filePath);
+
+		if (hash == null) {
+			hash = Utils.calculateFileHash(filePath);
+			fileHashes.put(filePath, hash);
+		}
+
+		return hash;
+	}
+
+	/**
+	 *
+	 * Gets the cache file of an artifact.
+	 *
+	 * @param key        The cache key
+	 *
+	 * @param outputPath The output path, its extension is kept
+	 *
+	 * @return The cache file path
+	 */
+	private Path getCachedFile(String key, String outputPath) {
+
+		String outputName = new File(outputPath).getName();
+		int extensionIndex = outputName.lastIndexOf('.');
+
+		return cacheFolder.resolve(extensionIndex < 0 ? key : key + outputName.substring(extensionIndex));
+	}
+
+	/**
+	 *
+	 * Adds a labelled value to a digest.
+	 *
+	 * @param digest The digest
+	 *
+	 * @param label  The value label
+	 *
+	 * @param value  The value
+	 */
+	private static void update(MessageDigest digest, String label, String value) {
+		digest.update(label.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+		digest.update(value.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+}
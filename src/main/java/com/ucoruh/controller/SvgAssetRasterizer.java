@@ -0,0 +1,282 @@
+package com.ucoruh.controller;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.ucoruh.controller.FolderTaskRunner.TaskResult;
+import com.ucoruh.utils.PhaseTimer;
+import com.ucoruh.utils.RunReport.Phase;
+import com.ucoruh.utils.SvgRasterizer;
+import com.ucoruh.utils.Utils;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class SvgAssetRasterizer
+ * @brief Converts the SVG images of a folder to the PNG and JPEG images next
+ *        to them, like the JPEG images the pandoc outputs link instead of SVG
+ *        images. The images are converted in parallel on a FolderTaskRunner by
+ *        one shared SvgRasterizer, so every worker reuses its transcoders and
+ *        SVG parser.
+ *        An image that is newer than its SVG is not converted again.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * SvgAssetRasterizer assetRasterizer = new SvgAssetRasterizer(rasterizer, 4);
+ * List<RasterizeResult> results = assetRasterizer.rasterizeFolder("docs", SvgRasterizer.RASTER_FORMATS);
+ * boolean result = assetRasterizer.logReport(results);
+ * }
+ *        </pre>
+ */
+public class SvgAssetRasterizer {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the SvgAssetRasterizer
+	 *        class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(SvgAssetRasterizer.class.getName());
+
+	/**
+	 *
+	 * @brief The status of a converted image.
+	 */
+	public enum RasterizeStatus {
+		RASTERIZED, UP_TO_DATE, FAILED
+	}
+
+	/**
+	 *
+	 * @brief The result of converting an SVG image to a format.
+	 */
+	@Getter
+	public static class RasterizeResult implements TaskResult {
+
+		/**
+		 * The path of the SVG image
+		 */
+		private final String svgFile;
+
+		/**
+		 * The path of the raster image
+		 */
+		private final String outputFile;
+
+		/**
+		 * The status of the conversion
+		 */
+		private final RasterizeStatus status;
+
+		/**
+		 * The duration of the conversion in milliseconds
+		 */
+		private final long durationMillis;
+
+		/**
+		 * The failure message, null unless failed
+		 */
+		private final String error;
+
+		/**
+		 * Creates a result.
+		 *
+		 * @param svgFile        The path of the SVG image
+		 * @param outputFile     The path of the raster image
+		 * @param status         The status of the conversion
+		 * @param durationMillis The duration of the conversion
+		 * @param error          The failure message
+		 */
+		public RasterizeResult(String svgFile, String outputFile, RasterizeStatus status, long durationMillis,
+				String error) {
+			this.svgFile = svgFile;
+			this.outputFile = outputFile;
+			this.status = status;
+			this.durationMillis = durationMillis;
+			this.error = error;
+		}
+
+		@Override
+		public boolean isFailed() {
+			return status == RasterizeStatus.FAILED;
+		}
+
+		@Override
+		public String getReportLine() {
+			return svgFile + " -> " + outputFile + (error == null ? "" : " " + error);
+		}
+	}
+
+	/**
+	 *
+	 * @brief The conversion of an SVG image to a format.
+	 */
+	private static class RasterizeJob {
+
+		/**
+		 * The path of the SVG image
+		 */
+		private final String svgFile;
+
+		/**
+		 * The raster format
+		 */
+		private final String format;
+
+		/**
+		 * Creates a conversion.
+		 *
+		 * @param svgFile The path of the SVG image
+		 * @param format  The raster format
+		 */
+		private RasterizeJob(String svgFile, String format) {
+			this.svgFile = svgFile;
+			this.format = format;
+		}
+	}
+
+	/**
+	 * The rasterizer shared by the workers
+	 */
+	private final SvgRasterizer rasterizer;
+
+	/**
+	 * The runner of the conversions
+	 */
+	private final FolderTaskRunner runner;
+
+	/**
+	 * Creates a folder rasterizer.
+	 *
+	 * @param rasterizer  The rasterizer shared by the workers
+	 *
+	 * @param parallelism The number of images converted in parallel
+	 */
+	public SvgAssetRasterizer(SvgRasterizer rasterizer, int parallelism) {
+		this.rasterizer = rasterizer;
+		this.runner = new FolderTaskRunner(parallelism);
+	}
+
+	/**
+	 *
+	 * Converts all SVG images of a folder and its sub folders.
+	 *
+	 * @param folderPath The folder
+	 *
+	 * @param formats    The raster formats, like png and jpeg
+	 *
+	 * @throws IOException If the folder can't be searched.
+	 *
+	 * @return The results ordered by SVG path and format
+	 */
+	public List<RasterizeResult> rasterizeFolder(String folderPath, String[] formats) throws IOException {
+
+		List<String> svgFiles = Utils.findFiles(Paths.get(folderPath), new String[] { "svg" });
+
+		LOGGER.info("Found " + svgFiles.size() + " SVG images in " + folderPath);
+
+		return rasterize(svgFiles, formats);
+	}
+
+	/**
+	 *
+	 * Converts SVG images to raster images with the same name next to them.
+	 *
+	 * @param svgFiles The paths of the SVG images
+	 *
+	 * @param formats  The raster formats, like png and jpeg
+	 *
+	 * @return The results ordered by SVG path and format
+	 */
+	public List<RasterizeResult> rasterize(List<String> svgFiles, String[] formats) {
+
+		List<String> sortedFiles = new ArrayList<String>(svgFiles);
+		Collections.sort(sortedFiles);
+
+		List<RasterizeJob> jobs = new ArrayList<RasterizeJob>();
+
+		for (String svgFile : sortedFiles) {
+			for (String format : formats) {
+				jobs.add(new RasterizeJob(svgFile, format));
+			}
+		}
+
+		return runner.runAll(jobs, job -> job.svgFile, job -> rasterize(job.svgFile, job.format),
+				(job, durationMillis, error) -> new RasterizeResult(job.svgFile, getRasterPath(job.svgFile, job.format),
+						RasterizeStatus.FAILED, durationMillis, String.valueOf(error)));
+	}
+
+	/**
+	 *
+	 * Logs the result of every image and the summary of the conversion.
+	 *
+	 * @param results The results
+	 *
+	 * @return true if no image failed, false otherwise
+	 */
+	public boolean logReport(List<RasterizeResult> results) {
+		return runner.logReport("SVG rasterizing", results);
+	}
+
+	/**
+	 *
+	 * Gets the path of the raster image of an SVG image.
+	 *
+	 * @param svgFile The path of the SVG image
+	 *
+	 * @param format  The raster format
+	 *
+	 * @return The path with the extension replaced by the format
+	 */
+	public static String getRasterPath(String svgFile, String format) {
+		return Utils.generateFilePath(svgFile, "", "", format.toLowerCase(Locale.ENGLISH), false);
+	}
+
+	/**
+	 *
+	 * Converts an SVG image to a format unless the raster image is newer.
+	 *
+	 * @param svgFile The path of the SVG image
+	 *
+	 * @param format  The raster format
+	 *
+	 * @return The result
+	 */
+	private RasterizeResult rasterize(String svgFile, String format) {
+
+		String outputFile = getRasterPath(svgFile, format);
+		File output = new File(outputFile);
+
+		if (output.exists() && output.lastModified() >= new File(svgFile).lastModified()) {
+			return new RasterizeResult(svgFile, outputFile, RasterizeStatus.UP_TO_DATE, 0, null);
+		}
+
+		long startNanos = System.nanoTime();
+
+		try {
+
+			PhaseTimer.time(Phase.RENDER, svgFile, "batik", () -> {
+				rasterizer.rasterize(new File(svgFile), output, format);
+				return outputFile;
+			});
+
+			return new RasterizeResult(svgFile, outputFile, RasterizeStatus.RASTERIZED,
+					(System.nanoTime() - startNanos) / 1000000, null);
+
+		} catch (Exception e) {
+			LOGGER.log(Level.SEVERE, "SVG rasterizing failed : " + svgFile, e);
+			return new RasterizeResult(svgFile, outputFile, RasterizeStatus.FAILED,
+					(System.nanoTime() - startNanos) / 1000000, String.valueOf(e));
+		}
+	}
+
+}
@@ -0,0 +1,603 @@
+package com.ucoruh.document;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.poi.common.usermodel.PictureType;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.xwpf.usermodel.Borders;
+import org.apache.poi.xwpf.usermodel.UnderlinePatterns;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.xwpf.usermodel.XWPFTableCell;
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTNumbering;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTStyles;
+
+import com.ucoruh.document.MarkdownBlock.BlockType;
+import com.ucoruh.document.MarkdownInlineParser.InlineSpan;
+
+/**
+ *
+ * @class DocxDocumentRenderer
+ * @brief Renders a Markdown document to DOCX inside the running JVM with
+ *        Apache POI XWPF. The styles follow the "pandoc -t docx" output: a
+ *        title block from the front matter, "Heading 1" to "Heading 6",
+ *        "Source Code" for code blocks, bullet and decimal numbering for
+ *        lists and bordered tables with a bold header row.
+ *
+ *        Images are taken from the shared {@link ImageStore}, so the assets
+ *        read for the PPTX output of the same deck are not read again.
+ *        Documents don't share state and can be rendered concurrently from
+ *        worker threads.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * new DocxDocumentRenderer().render(MarkdownDocumentParser.parse(inputFile), outputFile);
+ * }
+ *        </pre>
+ */
+public class DocxDocumentRenderer {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the
+	 *        DocxDocumentRenderer class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(DocxDocumentRenderer.class.getName());
+
+	/**
+	 * The WordprocessingML namespace
+	 */
+	private static final String WORD_NAMESPACE = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+	/**
+	 * The font sizes of heading levels 1 to 6 in half points
+	 */
+	private static final int[] HEADING_SIZES = { 32, 28, 24, 24, 24, 24 };
+
+	/**
+	 * The styles of the document, the names and ids are the ones pandoc writes
+	 */
+	private static final String STYLES = "<w:styles xmlns:w=\"" + WORD_NAMESPACE + "\">"
+			+ "<w:docDefaults><w:rPrDefault><w:rPr><w:rFonts w:ascii=\"Cambria\" w:hAnsi=\"Cambria\""
+			+ " w:eastAsia=\"Cambria\" w:cs=\"Cambria\"/><w:sz w:val=\"24\"/><w:szCs w:val=\"24\"/></w:rPr>"
+			+ "</w:rPrDefault><w:pPrDefault><w:pPr><w:spacing w:after=\"200\"/></w:pPr></w:pPrDefault>"
+			+ "</w:docDefaults>"
+			+ "<w:style w:type=\"paragraph\" w:default=\"1\" w:styleId=\"Normal\"><w:name w:val=\"Normal\"/>"
+			+ "<w:qFormat/></w:style>"
+			+ "<w:style w:type=\"paragraph\" w:styleId=\"BodyText\"><w:name w:val=\"Body Text\"/>"
+			+ "<w:basedOn w:val=\"Normal\"/><w:qFormat/><w:pPr><w:spacing w:before=\"180\" w:after=\"180\"/></w:pPr>"
+			+ "</w:style>"
+			+ "<w:style w:type=\"paragraph\" w:styleId=\"Compact\"><w:name w:val=\"Compact\"/>"
+			+ "<w:basedOn w:val=\"BodyText\"/><w:qFormat/><w:pPr><w:spacing w:before=\"36\" w:after=\"36\"/></w:pPr>"
+			+ "</w:style>"
+			+ "<w:style w:type=\"paragraph\" w:styleId=\"Title\"><w:name w:val=\"Title\"/>"
+			+ "<w:basedOn w:val=\"Normal\"/><w:next w:val=\"BodyText\"/><w:qFormat/><w:pPr><w:keepNext/>"
+			+ "<w:keepLines/><w:spacing w:before=\"480\" w:after=\"240\"/><w:jc w:val=\"center\"/></w:pPr>"
+			+ "<w:rPr><w:rFonts w:ascii=\"Calibri\" w:hAnsi=\"Calibri\"/><w:b/><w:color w:val=\"345A8A\"/>"
+			+ "<w:sz w:val=\"36\"/><w:szCs w:val=\"36\"/></w:rPr></w:style>"
+			+ "<w:style w:type=\"paragraph\" w:styleId=\"Author\"><w:name w:val=\"Author\"/>"
+			+ "<w:next w:val=\"BodyText\"/><w:qFormat/><w:pPr><w:keepNext/><w:keepLines/><w:jc w:val=\"center\"/>"
+			+ "</w:pPr></w:style>"
+			+ "<w:style w:type=\"paragraph\" w:styleId=\"Date\"><w:name w:val=\"Date\"/>"
+			+ "<w:next w:val=\"BodyText\"/><w:qFormat/><w:pPr><w:keepNext/><w:keepLines/><w:jc w:val=\"center\"/>"
+			+ "</w:pPr></w:style>"
+			+ "<w:style w:type=\"paragraph\" w:styleId=\"BlockText\"><w:name w:val=\"Block Text\"/>"
+			+ "<w:basedOn w:val=\"BodyText\"/><w:next w:val=\"BodyText\"/><w:qFormat/><w:pPr>"
+			+ "<w:spacing w:before=\"100\" w:after=\"100\"/><w:ind w:left=\"480\" w:right=\"480\"/></w:pPr>"
+			+ "</w:style>"
+			+ "<w:style w:type=\"paragraph\" w:styleId=\"SourceCode\"><w:name w:val=\"Source Code\"/>"
+			+ "<w:basedOn w:val=\"Normal\"/><w:pPr><w:shd w:val=\"clear\" w:color=\"auto\" w:fill=\"F8F8F8\"/>"
+			+ "<w:wordWrap w:val=\"off\"/></w:pPr><w:rPr><w:rFonts w:ascii=\"Consolas\" w:hAnsi=\"Consolas\""
+			+ " w:cs=\"Consolas\"/><w:sz w:val=\"22\"/></w:rPr></w:style>"
+			+ "<w:style w:type=\"character\" w:styleId=\"VerbatimChar\"><w:name w:val=\"Verbatim Char\"/>"
+			+ "<w:rPr><w:rFonts w:ascii=\"Consolas\" w:hAnsi=\"Consolas\" w:cs=\"Consolas\"/><w:sz w:val=\"22\"/>"
+			+ "</w:rPr></w:style>"
+			+ "<w:style w:type=\"character\" w:styleId=\"Hyperlink\"><w:name w:val=\"Hyperlink\"/>"
+			+ "<w:rPr><w:color w:val=\"4F81BD\"/></w:rPr></w:style>"
+			+ "<w:style w:type=\"table\" w:default=\"1\" w:styleId=\"Table\"><w:name w:val=\"Table\"/>"
+			+ "<w:tblPr><w:tblCellMar><w:left w:w=\"108\" w:type=\"dxa\"/><w:right w:w=\"108\" w:type=\"dxa\"/>"
+			+ "</w:tblCellMar></w:tblPr></w:style>"
+			+ headingStyles() + "</w:styles>";
+
+	/**
+	 * The number of the abstract bullet numbering
+	 */
+	private static final int BULLET_NUMBERING = 0;
+
+	/**
+	 * The number of the abstract decimal numbering
+	 */
+	private static final int DECIMAL_NUMBERING = 1;
+
+	/**
+	 * The number of list levels of the numberings
+	 */
+	private static final int LIST_LEVELS = 9;
+
+	/**
+	 * The text width of a Letter page with 1 inch margins in EMU
+	 */
+	private static final long TEXT_WIDTH_EMU = 6 * 914400L + 914400L / 2;
+
+	/**
+	 * The EMU of a CSS pixel at 96 DPI
+	 */
+	private static final long EMU_PER_PIXEL = 9525;
+
+	/**
+	 *
+	 * Renders a document to DOCX.
+	 *
+	 * @param document   The parsed Markdown document
+	 *
+	 * @param outputPath The DOCX file path
+	 *
+	 * @throws IOException If there is an error reading images or writing the DOCX
+	 *                     file.
+	 */
+	public void render(MarkdownDocument document, String outputPath) throws IOException {
+
+		try (XWPFDocument docx = new XWPFDocument()) {
+
+			List<MarkdownBlock> blocks = document.getBlocks();
+
+			try {
+				docx.createStyles().setStyles(CTStyles.Factory.parse(STYLES));
+				docx.createNumbering().setNumbering(CTNumbering.Factory.parse(createNumbering(blocks)));
+			} catch (XmlException e) {
+				throw new IOException("DOCX styles can't be created", e);
+			}
+
+			appendTitle(docx, document);
+
+			// the first list uses numbering 2, bullets share numbering 1
+			int orderedNumbering = 1;
+
+			for (int index = 0; index < blocks.size(); index++) {
+
+				MarkdownBlock block = blocks.get(index);
+
+				switch (block.getType()) {
+				case HEADING:
+					XWPFParagraph heading = docx.createParagraph();
+					heading.setStyle("Heading" + block.getLevel());
+					appendInline(heading, block.getText());
+					break;
+				case PARAGRAPH:
+					XWPFParagraph paragraph = docx.createParagraph();
+					paragraph.setStyle("BodyText");
+					appendInline(paragraph, block.getText());
+					break;
+				case LIST_ITEM:
+					if (isOrderedList(blocks, index)) {
+						orderedNumbering++;
+					}
+					index = appendList(docx, blocks, index, orderedNumbering) - 1;
+					break;
+				case CODE:
+					appendCode(docx, block.getText());
+					break;
+				case IMAGE:
+					appendImage(docx, document, block);
+					break;
+				case TABLE:
+					appendTable(docx, block.getRows());
+					break;
+				case QUOTE:
+					XWPFParagraph quote = docx.createParagraph();
+					quote.setStyle("BlockText");
+					appendInline(quote, block.getText());
+					break;
+				case RULE:
+					docx.createParagraph().setBorderBottom(Borders.SINGLE);
+					break;
+				default:
+					break;
+				}
+			}
+
+			try (OutputStream output = new BufferedOutputStream(new FileOutputStream(outputPath))) {
+				docx.write(output);
+			}
+		}
+
+		LOGGER.info("DOCX rendered with POI : " + outputPath);
+	}
+
+	/**
+	 *
+	 * Creates the heading styles.
+	 *
+	 * @return The "Heading 1" to "Heading 6" style definitions
+	 */
+	private static String headingStyles() {
+
+		StringBuilder styles = new StringBuilder();
+
+		for (int level = 1; level <= 6; level++) {
+			int size = HEADING_SIZES[level - 1];
+			styles.append("<w:style w:type=\"paragraph\" w:styleId=\"Heading").append(level)
+					.append("\"><w:name w:val=\"heading ").append(level).append("\"/><w:basedOn w:val=\"Normal\"/>")
+					.append("<w:next w:val=\"BodyText\"/><w:uiPriority w:val=\"9\"/><w:qFormat/><w:pPr><w:keepNext/>")
+					.append("<w:keepLines/><w:spacing w:before=\"").append(level == 1 ? 480 : 200)
+					.append("\" w:after=\"0\"/><w:outlineLvl w:val=\"").append(level - 1).append("\"/></w:pPr>")
+					.append("<w:rPr><w:rFonts w:ascii=\"Calibri\" w:hAnsi=\"Calibri\"/><w:b/>")
+					.append(level > 3 ? "<w:i/>" : "").append("<w:color w:val=\"")
+					.append(level == 1 ? "345A8A" : "4F81BD").append("\"/><w:sz w:val=\"").append(size)
+					.append("\"/><w:szCs w:val=\"").append(size).append("\"/></w:rPr></w:style>");
+		}
+
+		return styles.toString();
+	}
+
+	/**
+	 *
+	 * Creates the numbering definitions. Bullet lists share one numbering, every
+	 * ordered list gets its own numbering so it starts at 1.
+	 *
+	 * @param blocks The blocks of the document
+	 *
+	 * @return The numbering definitions
+	 */
+	private static String createNumbering(List<MarkdownBlock> blocks) {
+
+		StringBuilder numbering = new StringBuilder();
+
+		numbering.append("<w:numbering xmlns:w=\"").append(WORD_NAMESPACE).append("\">");
+
+		for (int abstractNumbering : new int[] { BULLET_NUMBERING, DECIMAL_NUMBERING }) {
+
+			numbering.append("<w:abstractNum w:abstractNumId=\"").append(abstractNumbering)
+					.append("\"><w:multiLevelType w:val=\"multilevel\"/>");
+
+			for (int level = 0; level < LIST_LEVELS; level++) {
+
+				String format = abstractNumbering == BULLET_NUMBERING ? "bullet" : "decimal";
+				String text = abstractNumbering == BULLET_NUMBERING ? level % 2 == 0 ? "•" : "–"
+						: "%" + (level + 1) + ".";
+
+				numbering.append("<w:lvl w:ilvl=\"").append(level).append("\"><w:start w:val=\"1\"/><w:numFmt w:val=\"")
+						.append(format).append("\"/><w:lvlText w:val=\"").append(text)
+						.append("\"/><w:lvlJc w:val=\"left\"/><w:pPr><w:ind w:left=\"").append(480 * (level + 1))
+						.append("\" w:hanging=\"360\"/></w:pPr></w:lvl>");
+			}
+
+			numbering.append("</w:abstractNum>");
+		}
+
+		numbering.append("<w:num w:numId=\"1\"><w:abstractNumId w:val=\"").append(BULLET_NUMBERING)
+				.append("\"/></w:num>");
+
+		int numberingId = 2;
+
+		for (int index = 0; index < blocks.size(); index++) {
+			if (isOrderedList(blocks, index)) {
+				numbering.append("<w:num w:numId=\"").append(numberingId++).append("\"><w:abstractNumId w:val=\"")
+						.append(DECIMAL_NUMBERING).append("\"/>");
+				for (int level = 0; level < LIST_LEVELS; level++) {
+					numbering.append("<w:lvlOverride w:ilvl=\"").append(level)
+							.append("\"><w:startOverride w:val=\"1\"/></w:lvlOverride>");
+				}
+				numbering.append("</w:num>");
+			}
+		}
+
+		numbering.append("</w:numbering>");
+
+		return numbering.toString();
+	}
+
+	/**
+	 *
+	 * Checks whether a block starts a list with ordered items.
+	 *
+	 * @param blocks The blocks of the document
+	 *
+	 * @param index  The index of the block
+	 *
+	 * @return true if the block is the first item of a list that has an ordered
+	 *         item, false otherwise
+	 */
+	private static boolean isOrderedList(List<MarkdownBlock> blocks, int index) {
+
+		if (blocks.get(index).getType() != BlockType.LIST_ITEM
+				|| index > 0 && blocks.get(index - 1).getType() == BlockType.LIST_ITEM) {
+			return false;
+		}
+
+		for (int item = index; item < blocks.size() && blocks.get(item).getType() == BlockType.LIST_ITEM; item++) {
+			if (blocks.get(item).isOrdered()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 *
+	 * Appends the title, subtitle, author and date of the front matter.
+	 *
+	 * @param docx     The DOCX document
+	 *
+	 * @param document The parsed Markdown document
+	 */
+	private static void appendTitle(XWPFDocument docx, MarkdownDocument document) {
+
+		String[][] fields = { { "title", "Title" }, { "subtitle", "Title" }, { "author", "Author" },
+				{ "date", "Date" } };
+
+		for (String[] field : fields) {
+
+			String value = document.getFrontMatterValue(field[0]);
+
+			if (value != null) {
+				XWPFParagraph paragraph = docx.createParagraph();
+				paragraph.setStyle(field[1]);
+				appendInline(paragraph, value);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Appends the items of a list.
+	 *
+	 * @param docx             The DOCX document
+	 *
+	 * @param blocks           The blocks of the document
+	 *
+	 * @param start            The index of the first item of the list
+	 *
+	 * @param orderedNumbering The numbering id of the ordered items
+	 *
+	 * @return The index of the first block after the list
+	 */
+	private static int appendList(XWPFDocument docx, List<MarkdownBlock> blocks, int start, int orderedNumbering) {
+
+		int index = start;
+
+		while (index < blocks.size() && blocks.get(index).getType() == BlockType.LIST_ITEM) {
+
+			MarkdownBlock item = blocks.get(index);
+
+			XWPFParagraph paragraph = docx.createParagraph();
+			paragraph.setStyle("Compact");
+			paragraph.setNumID(BigInteger.valueOf(item.isOrdered() ? orderedNumbering : 1));
+			paragraph.setNumILvl(BigInteger.valueOf(Math.min(item.getLevel(), LIST_LEVELS - 1)));
+
+			appendInline(paragraph, item.getText());
+
+			index++;
+		}
+
+		return index;
+	}
+
+	/**
+	 *
+	 * Appends a code block as one paragraph with line breaks.
+	 *
+	 * @param docx The DOCX document
+	 *
+	 * @param code The code
+	 */
+	private static void appendCode(XWPFDocument docx, String code) {
+
+		XWPFParagraph paragraph = docx.createParagraph();
+		paragraph.setStyle("SourceCode");
+
+		String[] lines = code.split("\n", -1);
+
+		for (int line = 0; line < lines.length; line++) {
+			XWPFRun run = paragraph.createRun();
+			run.setStyle("VerbatimChar");
+			run.setText(lines[line]);
+			if (line < lines.length - 1) {
+				run.addBreak();
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Appends an image scaled to its pandoc height attribute or its pixel size at
+	 * 96 DPI, and down to the text width. Missing local images and remote images
+	 * are written as text, so a document always renders.
+	 *
+	 * @param docx     The DOCX document
+	 *
+	 * @param document The parsed Markdown document
+	 *
+	 * @param block    The image block
+	 *
+	 * @throws IOException If there is an error reading the image.
+	 */
+	private static void appendImage(XWPFDocument docx, MarkdownDocument document, MarkdownBlock block)
+			throws IOException {
+
+		XWPFParagraph paragraph = docx.createParagraph();
+		paragraph.setStyle("BodyText");
+
+		File file = document.resolveFile(block.getReference());
+
+		if (file == null) {
+			appendInline(paragraph, "[" + (block.getText().isEmpty() ? block.getReference() : block.getText())
+					+ "](" + block.getReference() + ")");
+			return;
+		}
+
+		PictureType pictureType = getPictureType(file);
+
+		if (!file.isFile() || pictureType == null) {
+			LOGGER.warning("Image not found or not supported " + file + " in " + document.getSourcePath());
+			XWPFRun run = paragraph.createRun();
+			run.setItalic(true);
+			run.setText("[" + block.getReference() + "]");
+			return;
+		}
+
+		ImageStore.Image image = ImageStore.get(file);
+
+		long width = TEXT_WIDTH_EMU;
+		long height = TEXT_WIDTH_EMU * 3 / 4;
+
+		if (image.getSize() != null) {
+
+			width = image.getSize().width * EMU_PER_PIXEL;
+			height = image.getSize().height * EMU_PER_PIXEL;
+
+			String heightAttribute = block.getHeight();
+
+			if (heightAttribute != null && heightAttribute.toLowerCase(Locale.ENGLISH).endsWith("px")) {
+				try {
+					long targetHeight = (long) (Double.parseDouble(
+							heightAttribute.substring(0, heightAttribute.length() - 2).trim()) * EMU_PER_PIXEL);
+					width = width * targetHeight / height;
+					height = targetHeight;
+				} catch (NumberFormatException e) {
+					LOGGER.warning("Image height not valid " + heightAttribute + " in " + document.getSourcePath());
+				}
+			}
+
+			if (width > TEXT_WIDTH_EMU) {
+				height = height * TEXT_WIDTH_EMU / width;
+				width = TEXT_WIDTH_EMU;
+			}
+		}
+
+		try {
+			paragraph.createRun().addPicture(new ByteArrayInputStream(image.getData()), pictureType, file.getName(),
+					(int) width, (int) height);
+		} catch (InvalidFormatException e) {
+			throw new IOException("Image can't be added " + file, e);
+		}
+	}
+
+	/**
+	 *
+	 * Appends a bordered table with a bold header row.
+	 *
+	 * @param docx The DOCX document
+	 *
+	 * @param rows The table cells, the first row is the header
+	 */
+	private static void appendTable(XWPFDocument docx, List<List<String>> rows) {
+
+		int columnCount = 0;
+
+		for (List<String> row : rows) {
+			columnCount = Math.max(columnCount, row.size());
+		}
+
+		if (rows.isEmpty() || columnCount == 0) {
+			return;
+		}
+
+		XWPFTable table = docx.createTable(rows.size(), columnCount);
+		table.setWidth("100%");
+
+		for (int row = 0; row < rows.size(); row++) {
+
+			if (row == 0) {
+				table.getRow(row).setRepeatHeader(true);
+			}
+
+			for (int column = 0; column < rows.get(row).size(); column++) {
+
+				XWPFTableCell cell = table.getRow(row).getCell(column);
+				XWPFParagraph paragraph = cell.getParagraphs().get(0);
+				paragraph.setStyle("Compact");
+
+				appendInline(paragraph, rows.get(row).get(column));
+
+				if (row == 0) {
+					for (XWPFRun run : paragraph.getRuns()) {
+						run.setBold(true);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Appends inline Markdown to a paragraph as styled runs. Links to other
+	 * documents become hyperlinks, links inside the document are written as
+	 * text.
+	 *
+	 * @param paragraph The paragraph
+	 *
+	 * @param text      The inline Markdown text
+	 */
+	private static void appendInline(XWPFParagraph paragraph, String text) {
+
+		for (InlineSpan span : MarkdownInlineParser.parse(text)) {
+
+			XWPFRun run;
+
+			if (span.getLink() != null && !span.getLink().startsWith("#")) {
+				run = paragraph.createHyperlinkRun(span.getLink());
+				run.setStyle("Hyperlink");
+				run.setUnderline(UnderlinePatterns.SINGLE);
+			} else {
+				run = paragraph.createRun();
+			}
+
+			run.setText(span.getText());
+
+			if (span.isBold()) {
+				run.setBold(true);
+			}
+
+			if (span.isItalic()) {
+				run.setItalic(true);
+			}
+
+			if (span.isCode()) {
+				run.setStyle("VerbatimChar");
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Gets the picture type of an image file from its extension.
+	 *
+	 * @param file The image file
+	 *
+	 * @return The picture type, null if the format is not supported
+	 */
+	private static PictureType getPictureType(File file) {
+
+		switch (FilenameUtils.getExtension(file.getName()).toLowerCase(Locale.ENGLISH)) {
+		case "png":
+			return PictureType.PNG;
+		case "jpg":
+		case "jpeg":
+			return PictureType.JPEG;
+		case "gif":
+			return PictureType.GIF;
+		case "bmp":
+			return PictureType.BMP;
+		default:
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,766 @@
+package com.ucoruh.document;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.sax.SAXResult;
+import javax.xml.transform.stream.StreamSource;
+
+import org.apache.fop.apps.FOPException;
+import org.apache.fop.apps.Fop;
+import org.apache.fop.apps.FopConfParser;
+import org.apache.fop.apps.FopFactory;
+import org.apache.fop.apps.MimeConstants;
+import org.xml.sax.SAXException;
+
+import com.ucoruh.document.MarkdownBlock.BlockType;
+import com.ucoruh.document.MarkdownInlineParser.InlineSpan;
+
+/**
+ *
+ * @class FoPdfRenderer
+ * @brief Renders a Markdown document to PDF inside the running JVM. The
+ *        document is converted to XSL-FO and rendered with Apache FOP, the
+ *        layout follows "pandoc --pdf-engine=xelatex --toc -N -V colorlinks":
+ *        a title block from the front matter, a table of contents, numbered
+ *        sections, navy external links and red table of contents entries.
+ *
+ *        The FOP factory is created once and shared, so many documents can be
+ *        rendered concurrently from worker threads. System fonts are detected
+ *        for Unicode text like Turkish characters.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * new FoPdfRenderer().render(MarkdownDocumentParser.parse(inputFile), outputFile);
+ * }
+ *        </pre>
+ */
+public class FoPdfRenderer {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the FoPdfRenderer
+	 *        class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(FoPdfRenderer.class.getName());
+
+	/**
+	 *
+	 * @brief The FOP logger, kept so its level is not reset. FOP logs every
+	 *        rendered page at info level.
+	 */
+	private final static Logger FOP_LOGGER = Logger.getLogger("org.apache.fop");
+
+	static {
+		FOP_LOGGER.setLevel(Level.WARNING);
+	}
+
+	/**
+	 *
+	 * @brief FOP configuration detecting the system fonts.
+	 */
+	private static final String FOP_CONFIGURATION = "<fop version=\"1.0\"><renderers>"
+			+ "<renderer mime=\"application/pdf\"><fonts><auto-detect/></fonts></renderer>"
+			+ "</renderers></fop>";
+
+	/**
+	 *
+	 * @brief Body font families, the first available font is used per character.
+	 */
+	private static final String BODY_FONT = "DejaVu Serif, Liberation Serif, Times New Roman, serif";
+
+	/**
+	 *
+	 * @brief Code font families.
+	 */
+	private static final String CODE_FONT = "DejaVu Sans Mono, Liberation Mono, Courier New, monospace";
+
+	/**
+	 *
+	 * @brief External link color, NavyBlue of the urlcolor variable.
+	 */
+	private static final String URL_COLOR = "#000080";
+
+	/**
+	 *
+	 * @brief Internal link color, Maroon of the linkcolor default.
+	 */
+	private static final String LINK_COLOR = "#800000";
+
+	/**
+	 *
+	 * @brief Table of contents color, Red of the toccolor variable.
+	 */
+	private static final String TOC_COLOR = "#ED1B23";
+
+	/**
+	 *
+	 * @brief Deepest heading level listed in the table of contents.
+	 */
+	private static final int TOC_DEPTH = 3;
+
+	/**
+	 *
+	 * @brief Heading font sizes in points by level.
+	 */
+	private static final int[] HEADING_FONT_SIZES = { 17, 14, 12, 11, 11, 11 };
+
+	/**
+	 *
+	 * @brief The shared FOP factory, created on first use.
+	 */
+	private static FopFactory fopFactory;
+
+	/**
+	 *
+	 * @brief A numbered heading of the rendered document.
+	 */
+	private static class Heading {
+
+		/**
+		 * The heading level
+		 */
+		private final int level;
+
+		/**
+		 * The section number like "1.2"
+		 */
+		private final String number;
+
+		/**
+		 * The FO identifier of the heading
+		 */
+		private final String id;
+
+		/**
+		 * The inline Markdown text
+		 */
+		private final String text;
+
+		/**
+		 * Creates a heading.
+		 *
+		 * @param level  The heading level
+		 * @param number The section number
+		 * @param id     The FO identifier
+		 * @param text   The inline Markdown text
+		 */
+		private Heading(int level, String number, String id, String text) {
+			this.level = level;
+			this.number = number;
+			this.id = id;
+			this.text = text;
+		}
+	}
+
+	/**
+	 *
+	 * Renders a document to a PDF file.
+	 *
+	 * @param document   The parsed Markdown document
+	 *
+	 * @param outputPath The PDF file path
+	 *
+	 * @throws IOException          If there is an error writing the PDF file.
+	 *
+	 * @throws TransformerException If FOP fails to render the document.
+	 */
+	public void render(MarkdownDocument document, String outputPath) throws IOException, TransformerException {
+
+		String fo = createFo(document);
+
+		FopFactory factory = getFopFactory();
+
+		try (OutputStream output = new BufferedOutputStream(new FileOutputStream(outputPath))) {
+
+			Fop fop = factory.newFop(MimeConstants.MIME_PDF, factory.newFOUserAgent(), output);
+
+			Transformer transformer = TransformerFactory.newInstance().newTransformer();
+			transformer.transform(new StreamSource(new StringReader(fo)), new SAXResult(fop.getDefaultHandler()));
+
+		} catch (FOPException e) {
+			throw new TransformerException(e);
+		}
+
+		LOGGER.info("PDF rendered with FOP : " + outputPath);
+	}
+
+	/**
+	 *
+	 * Converts a document to XSL-FO.
+	 *
+	 * @param document The parsed Markdown document
+	 *
+	 * @return The XSL-FO document
+	 */
+	public String createFo(MarkdownDocument document) {
+
+		List<Heading> headings = numberHeadings(document);
+
+		StringBuilder fo = new StringBuilder(64 * 1024);
+
+		fo.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		fo.append("<fo:root xmlns:fo=\"http://www.w3.org/1999/XSL/Format\" language=\"en\">\n");
+
+		fo.append("<fo:layout-master-set><fo:simple-page-master master-name=\"page\" page-width=\"21cm\""
+				+ " page-height=\"29.7cm\" margin-top=\"2.5cm\" margin-bottom=\"1.5cm\" margin-left=\"3cm\""
+				+ " margin-right=\"3cm\"><fo:region-body margin-bottom=\"1.5cm\"/>"
+				+ "<fo:region-after extent=\"1cm\"/></fo:simple-page-master></fo:layout-master-set>\n");
+
+		appendBookmarks(fo, headings);
+
+		fo.append("<fo:page-sequence master-reference=\"page\">");
+		fo.append("<fo:static-content flow-name=\"xsl-region-after\"><fo:block text-align=\"center\" font-family=\"")
+				.append(BODY_FONT).append("\" font-size=\"10pt\"><fo:page-number/></fo:block></fo:static-content>\n");
+		fo.append("<fo:flow flow-name=\"xsl-region-body\" font-family=\"").append(BODY_FONT)
+				.append("\" font-size=\"11pt\" line-height=\"1.35\">\n");
+
+		appendTitle(fo, document);
+		appendTableOfContents(fo, headings);
+
+		int headingIndex = 0;
+		List<MarkdownBlock> blocks = document.getBlocks();
+
+		for (int index = 0; index < blocks.size(); index++) {
+
+			MarkdownBlock block = blocks.get(index);
+
+			switch (block.getType()) {
+			case HEADING:
+				appendHeading(fo, headings.get(headingIndex++));
+				break;
+			case PARAGRAPH:
+				fo.append("<fo:block space-after=\"6pt\" text-align=\"justify\">");
+				appendInline(fo, block.getText());
+				fo.append("</fo:block>\n");
+				break;
+			case LIST_ITEM:
+				index = appendList(fo, blocks, index, block.getLevel()) - 1;
+				break;
+			case CODE:
+				fo.append("<fo:block font-family=\"").append(CODE_FONT).append("\" font-size=\"9pt\""
+						+ " background-color=\"#F5F5F5\" padding=\"4pt\" space-after=\"6pt\" line-height=\"1.2\""
+						+ " white-space-collapse=\"false\" white-space-treatment=\"preserve\""
+						+ " linefeed-treatment=\"preserve\" wrap-option=\"wrap\" keep-together.within-page=\"5\">");
+				fo.append(escape(block.getText()));
+				fo.append("</fo:block>\n");
+				break;
+			case IMAGE:
+				appendImage(fo, document, block);
+				break;
+			case TABLE:
+				appendTable(fo, block.getRows());
+				break;
+			case QUOTE:
+				fo.append("<fo:block start-indent=\"2em\" end-indent=\"2em\" space-after=\"6pt\">");
+				appendInline(fo, block.getText());
+				fo.append("</fo:block>\n");
+				break;
+			case RULE:
+				fo.append("<fo:block space-after=\"6pt\"><fo:leader leader-pattern=\"rule\" leader-length=\"100%\""
+						+ " rule-thickness=\"0.5pt\"/></fo:block>\n");
+				break;
+			default:
+				break;
+			}
+		}
+
+		// an empty flow is not valid XSL-FO
+		fo.append("<fo:block/>\n");
+		fo.append("</fo:flow></fo:page-sequence></fo:root>\n");
+
+		return fo.toString();
+	}
+
+	/**
+	 *
+	 * Numbers the headings like LaTeX sections, counters start at the first
+	 * level, so a document with only "##" headings has the numbers 0.1, 0.2.
+	 *
+	 * @param document The parsed Markdown document
+	 *
+	 * @return The numbered headings in document order
+	 */
+	private static List<Heading> numberHeadings(MarkdownDocument document) {
+
+		List<Heading> headings = new ArrayList<Heading>();
+		Set<String> ids = new HashSet<String>();
+		int[] counters = new int[7];
+
+		for (MarkdownBlock block : document.getBlocks()) {
+
+			if (block.getType() != BlockType.HEADING) {
+				continue;
+			}
+
+			int level = block.getLevel();
+
+			counters[level]++;
+
+			for (int deeperLevel = level + 1; deeperLevel < counters.length; deeperLevel++) {
+				counters[deeperLevel] = 0;
+			}
+
+			StringBuilder number = new StringBuilder();
+
+			for (int numberLevel = 1; numberLevel <= level; numberLevel++) {
+				if (number.length() > 0) {
+					number.append('.');
+				}
+				number.append(counters[numberLevel]);
+			}
+
+			// pandoc style identifiers, so "#section-title" links resolve
+			String id = createIdentifier(MarkdownInlineParser.toPlainText(block.getText()));
+			String uniqueId = id;
+
+			for (int suffix = 1; !ids.add(uniqueId); suffix++) {
+				uniqueId = id + "-" + suffix;
+			}
+
+			headings.add(new Heading(level, number.toString(), uniqueId, block.getText()));
+		}
+
+		return headings;
+	}
+
+	/**
+	 *
+	 * Appends the PDF bookmarks of the headings.
+	 *
+	 * @param fo       The XSL-FO document
+	 *
+	 * @param headings The numbered headings
+	 */
+	private static void appendBookmarks(StringBuilder fo, List<Heading> headings) {
+
+		if (headings.isEmpty()) {
+			return;
+		}
+
+		fo.append("<fo:bookmark-tree>");
+
+		List<Integer> openLevels = new ArrayList<Integer>();
+
+		for (Heading heading : headings) {
+
+			while (!openLevels.isEmpty() && openLevels.get(openLevels.size() - 1) >= heading.level) {
+				fo.append("</fo:bookmark>");
+				openLevels.remove(openLevels.size() - 1);
+			}
+
+			fo.append("<fo:bookmark internal-destination=\"").append(heading.id).append("\"><fo:bookmark-title>")
+					.append(escape(heading.number + " " + MarkdownInlineParser.toPlainText(heading.text)))
+					.append("</fo:bookmark-title>");
+
+			openLevels.add(heading.level);
+		}
+
+		for (int index = 0; index < openLevels.size(); index++) {
+			fo.append("</fo:bookmark>");
+		}
+
+		fo.append("</fo:bookmark-tree>\n");
+	}
+
+	/**
+	 *
+	 * Appends the title block of the front matter title, author and date.
+	 *
+	 * @param fo       The XSL-FO document
+	 *
+	 * @param document The parsed Markdown document
+	 */
+	private static void appendTitle(StringBuilder fo, MarkdownDocument document) {
+
+		String title = document.getFrontMatterValue("title");
+
+		if (title == null) {
+			return;
+		}
+
+		fo.append("<fo:block text-align=\"center\" font-size=\"17pt\" space-before=\"1cm\" space-after=\"12pt\">");
+		appendInline(fo, title);
+		fo.append("</fo:block>\n");
+
+		for (String key : new String[] { "subtitle", "author", "date" }) {
+			String value = document.getFrontMatterValue(key);
+			if (value != null) {
+				fo.append("<fo:block text-align=\"center\" font-size=\"12pt\" space-after=\"6pt\">");
+				appendInline(fo, value);
+				fo.append("</fo:block>\n");
+			}
+		}
+
+		fo.append("<fo:block space-after=\"12pt\"/>\n");
+	}
+
+	/**
+	 *
+	 * Appends the table of contents with page numbers.
+	 *
+	 * @param fo       The XSL-FO document
+	 *
+	 * @param headings The numbered headings
+	 */
+	private static void appendTableOfContents(StringBuilder fo, List<Heading> headings) {
+
+		if (headings.isEmpty()) {
+			return;
+		}
+
+		fo.append("<fo:block font-size=\"17pt\" font-weight=\"bold\" space-after=\"12pt\">Contents</fo:block>\n");
+
+		for (Heading heading : headings) {
+
+			if (heading.level > TOC_DEPTH) {
+				continue;
+			}
+
+			fo.append("<fo:block text-align-last=\"justify\" start-indent=\"").append((heading.level - 1) * 1.5)
+					.append("em\"").append(heading.level == 1 ? " font-weight=\"bold\" space-before=\"4pt\"" : "")
+					.append("><fo:basic-link internal-destination=\"").append(heading.id).append("\" color=\"")
+					.append(TOC_COLOR).append("\">").append(escape(heading.number)).append(" ");
+			appendInline(fo, heading.text);
+			fo.append("</fo:basic-link> <fo:leader leader-pattern=\"dots\"/> <fo:page-number-citation ref-id=\"")
+					.append(heading.id).append("\"/></fo:block>\n");
+		}
+
+		fo.append("<fo:block break-after=\"page\"/>\n");
+	}
+
+	/**
+	 *
+	 * Appends a numbered heading.
+	 *
+	 * @param fo      The XSL-FO document
+	 *
+	 * @param heading The numbered heading
+	 */
+	private static void appendHeading(StringBuilder fo, Heading heading) {
+
+		fo.append("<fo:block id=\"").append(heading.id).append("\" font-size=\"")
+				.append(HEADING_FONT_SIZES[heading.level - 1]).append("pt\" font-weight=\"bold\"")
+				.append(" space-before=\"12pt\" space-after=\"6pt\" keep-with-next.within-page=\"always\">")
+				.append(escape(heading.number)).append("  ");
+		appendInline(fo, heading.text);
+		fo.append("</fo:block>\n");
+	}
+
+	/**
+	 *
+	 * Appends the list starting at a list item, nested items become nested lists.
+	 *
+	 * @param fo     The XSL-FO document
+	 *
+	 * @param blocks The document blocks
+	 *
+	 * @param start  The index of the first item of the list
+	 *
+	 * @param level  The nesting level of the list
+	 *
+	 * @return The index of the first block after the list
+	 */
+	private static int appendList(StringBuilder fo, List<MarkdownBlock> blocks, int start, int level) {
+
+		fo.append("<fo:list-block provisional-distance-between-starts=\"1.5em\" provisional-label-separation=\"0.5em\""
+				+ " space-after=\"6pt\">\n");
+
+		int index = start;
+		int number = 1;
+
+		while (index < blocks.size() && blocks.get(index).getType() == BlockType.LIST_ITEM
+				&& blocks.get(index).getLevel() >= level) {
+
+			MarkdownBlock item = blocks.get(index);
+
+			String label = item.isOrdered() ? number++ + "." : level % 2 == 0 ? "•" : "–";
+
+			fo.append("<fo:list-item><fo:list-item-label end-indent=\"label-end()\"><fo:block>").append(label)
+					.append("</fo:block></fo:list-item-label><fo:list-item-body start-indent=\"body-start()\">")
+					.append("<fo:block>");
+			appendInline(fo, item.getText());
+			fo.append("</fo:block>");
+
+			index++;
+
+			// nested lists belong to the body of the previous item
+			if (index < blocks.size() && blocks.get(index).getType() == BlockType.LIST_ITEM
+					&& blocks.get(index).getLevel() > level) {
+				index = appendList(fo, blocks, index, blocks.get(index).getLevel());
+			}
+
+			fo.append("</fo:list-item-body></fo:list-item>\n");
+		}
+
+		fo.append("</fo:list-block>\n");
+
+		return index;
+	}
+
+	/**
+	 *
+	 * Appends an image. Missing local images and remote images are written as
+	 * text, so a document always renders.
+	 *
+	 * @param fo       The XSL-FO document
+	 *
+	 * @param document The parsed Markdown document
+	 *
+	 * @param block    The image block
+	 */
+	private static void appendImage(StringBuilder fo, MarkdownDocument document, MarkdownBlock block) {
+
+		File file = document.resolveFile(block.getReference());
+
+		fo.append("<fo:block text-align=\"center\" space-before=\"6pt\" space-after=\"6pt\">");
+
+		if (file == null) {
+			fo.append("<fo:basic-link external-destination=\"url('").append(escape(block.getReference()))
+					.append("')\" color=\"").append(URL_COLOR).append("\">")
+					.append(escape(block.getText().isEmpty() ? block.getReference() : block.getText()))
+					.append("</fo:basic-link>");
+		} else if (!file.isFile()) {
+			LOGGER.warning("Image not found " + file + " in " + document.getSourcePath());
+			fo.append("<fo:inline font-style=\"italic\">").append(escape("[" + block.getReference() + "]"))
+					.append("</fo:inline>");
+		} else {
+			fo.append("<fo:external-graphic src=\"url('").append(escape(file.toURI().toString()))
+					.append("')\" width=\"100%\" content-width=\"scale-down-to-fit\"");
+
+			String height = block.getHeight();
+
+			if (height != null && height.toLowerCase(Locale.ENGLISH).endsWith("px")) {
+				fo.append(" height=\"").append(escape(height)).append("\" content-height=\"scale-down-to-fit\"");
+			}
+
+			fo.append(" scaling=\"uniform\"/>");
+		}
+
+		fo.append("</fo:block>\n");
+	}
+
+	/**
+	 *
+	 * Appends a table with equal column widths, the first row is the header.
+	 *
+	 * @param fo   The XSL-FO document
+	 *
+	 * @param rows The table cells
+	 */
+	private static void appendTable(StringBuilder fo, List<List<String>> rows) {
+
+		int columnCount = 0;
+
+		for (List<String> row : rows) {
+			columnCount = Math.max(columnCount, row.size());
+		}
+
+		fo.append("<fo:table table-layout=\"fixed\" width=\"100%\" space-after=\"6pt\" font-size=\"10pt\""
+				+ " border-top=\"0.8pt solid black\" border-bottom=\"0.8pt solid black\">");
+
+		for (int column = 0; column < columnCount; column++) {
+			fo.append("<fo:table-column column-width=\"proportional-column-width(1)\"/>");
+		}
+
+		for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
+
+			if (rowIndex == 0) {
+				fo.append("<fo:table-header font-weight=\"bold\" border-bottom=\"0.5pt solid black\">");
+			} else if (rowIndex == 1) {
+				fo.append("<fo:table-body>");
+			}
+
+			fo.append("<fo:table-row>");
+
+			List<String> row = rows.get(rowIndex);
+
+			for (int column = 0; column < columnCount; column++) {
+				fo.append("<fo:table-cell padding=\"2pt\"><fo:block>");
+				if (column < row.size()) {
+					appendInline(fo, row.get(column));
+				}
+				fo.append("</fo:block></fo:table-cell>");
+			}
+
+			fo.append("</fo:table-row>");
+
+			if (rowIndex == 0) {
+				fo.append("</fo:table-header>");
+			}
+		}
+
+		if (rows.size() > 1) {
+			fo.append("</fo:table-body>");
+		} else {
+			// a table needs a body
+			fo.append("<fo:table-body><fo:table-row><fo:table-cell><fo:block/></fo:table-cell></fo:table-row>"
+					+ "</fo:table-body>");
+		}
+
+		fo.append("</fo:table>\n");
+	}
+
+	/**
+	 *
+	 * Appends inline Markdown as styled inline areas and links.
+	 *
+	 * @param fo   The XSL-FO document
+	 *
+	 * @param text The inline Markdown text
+	 */
+	private static void appendInline(StringBuilder fo, String text) {
+
+		for (InlineSpan span : MarkdownInlineParser.parse(text)) {
+
+			if (span.getLink() != null) {
+				if (span.getLink().startsWith("#")) {
+					fo.append("<fo:basic-link internal-destination=\"").append(escape(span.getLink().substring(1)))
+							.append("\" color=\"").append(LINK_COLOR).append("\">");
+				} else {
+					fo.append("<fo:basic-link external-destination=\"url('").append(escape(span.getLink()))
+							.append("')\" color=\"").append(URL_COLOR).append("\">");
+				}
+			}
+
+			boolean styled = span.isBold() || span.isItalic() || span.isCode();
+
+			if (styled) {
+				fo.append("<fo:inline");
+				if (span.isBold()) {
+					fo.append(" font-weight=\"bold\"");
+				}
+				if (span.isItalic()) {
+					fo.append(" font-style=\"italic\"");
+				}
+				if (span.isCode()) {
+					fo.append(" font-family=\"").append(CODE_FONT).append("\" font-size=\"0.9em\"");
+				}
+				fo.append(">");
+			}
+
+			fo.append(escape(span.getText()));
+
+			if (styled) {
+				fo.append("</fo:inline>");
+			}
+
+			if (span.getLink() != null) {
+				fo.append("</fo:basic-link>");
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Creates a pandoc style identifier of a heading text: lower case, spaces
+	 * replaced with '-' and punctuation removed.
+	 *
+	 * @param text The plain heading text
+	 *
+	 * @return The identifier, "section" if the text has no letters
+	 */
+	private static String createIdentifier(String text) {
+
+		StringBuilder id = new StringBuilder();
+
+		for (char c : text.toLowerCase(Locale.ENGLISH).toCharArray()) {
+			if (Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.') {
+				id.append(c);
+			} else if (Character.isWhitespace(c) && id.length() > 0) {
+				id.append('-');
+			}
+		}
+
+		// identifiers start with a letter
+		while (id.length() > 0 && !Character.isLetter(id.charAt(0))) {
+			id.deleteCharAt(0);
+		}
+
+		return id.length() == 0 ? "section" : id.toString();
+	}
+
+	/**
+	 *
+	 * Escapes text for XML and removes characters XML doesn't allow.
+	 *
+	 * @param text The text
+	 *
+	 * @return The escaped text
+	 */
+	private static String escape(String text) {
+
+		StringBuilder escaped = new StringBuilder(text.length() + 16);
+
+		for (char c : text.toCharArray()) {
+			switch (c) {
+			case '&':
+				escaped.append("&amp;");
+				break;
+			case '<':
+				escaped.append("&lt;");
+				break;
+			case '>':
+				escaped.append("&gt;");
+				break;
+			case '"':
+				escaped.append("&quot;");
+				break;
+			case '\'':
+				escaped.append("&apos;");
+				break;
+			default:
+				if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+					escaped.append(c);
+				}
+				break;
+			}
+		}
+
+		return escaped.toString();
+	}
+
+	/**
+	 *
+	 * Gets the shared FOP factory. The factory is thread safe, system fonts are
+	 * detected once when it is created.
+	 *
+	 * @throws IOException If the FOP configuration can't be read.
+	 *
+	 * @return The FOP factory
+	 */
+	private static synchronized FopFactory getFopFactory() throws IOException {
+
+		if (fopFactory == null) {
+			try {
+				FopConfParser parser = new FopConfParser(
+						new ByteArrayInputStream(FOP_CONFIGURATION.getBytes(StandardCharsets.UTF_8)),
+						new File(".").getAbsoluteFile().toURI());
+				fopFactory = parser.getFopFactoryBuilder().build();
+			} catch (SAXException e) {
+				throw new IOException("FOP configuration failed", e);
+			}
+		}
+
+		return fopFactory;
+	}
+
+}
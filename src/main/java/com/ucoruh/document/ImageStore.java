@@ -0,0 +1,160 @@
+package com.ucoruh.document;
+
+import java.awt.Dimension;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class ImageStore
+ * @brief Keeps the bytes and pixel size of the images read by the in-process
+ *        renderers, so an image shared by the pandoc_ and panppt_ outputs of a
+ *        deck, or by many decks, is read from disk once per build. Entries are
+ *        keyed by path and modification time and the least recently used
+ *        images are dropped above {@link #MAX_BYTES}. The store is thread safe.
+ */
+public class ImageStore {
+
+	/**
+	 * The maximum total size of the kept images in bytes
+	 */
+	public static final long MAX_BYTES = 64L * 1024 * 1024;
+
+	/**
+	 *
+	 * @brief An image read from disk.
+	 */
+	@Getter
+	public static class Image {
+
+		/**
+		 * The image file bytes
+		 */
+		private final byte[] data;
+
+		/**
+		 * The pixel size, null if the format can't be read by ImageIO
+		 */
+		private final Dimension size;
+
+		/**
+		 * The modification time of the image file
+		 */
+		private final long lastModified;
+
+		/**
+		 * Creates an image.
+		 *
+		 * @param data         The image file bytes
+		 * @param size         The pixel size, can be null
+		 * @param lastModified The modification time of the image file
+		 */
+		private Image(byte[] data, Dimension size, long lastModified) {
+			this.data = data;
+			this.size = size;
+			this.lastModified = lastModified;
+		}
+	}
+
+	/**
+	 * The images by canonical path in access order
+	 */
+	private static final LinkedHashMap<String, Image> IMAGES = new LinkedHashMap<String, Image>(16, 0.75f, true);
+
+	/**
+	 * The total size of the kept images in bytes
+	 */
+	private static long totalBytes;
+
+	/**
+	 *
+	 * Gets an image, reading it from disk if it isn't kept or has changed.
+	 *
+	 * @param file The image file
+	 *
+	 * @throws IOException If there is an error reading the image file.
+	 *
+	 * @return The image
+	 */
+	public static Image get(File file) throws IOException {
+
+		String key = file.getCanonicalPath();
+		long lastModified = file.lastModified();
+
+		synchronized (IMAGES) {
+			Image image = IMAGES.get(key);
+			if (image != null && image.lastModified == lastModified) {
+				return image;
+			}
+		}
+
+		byte[] data = Files.readAllBytes(file.toPath());
+		Image image = new Image(data, readSize(data), lastModified);
+
+		synchronized (IMAGES) {
+
+			Image previous = IMAGES.put(key, image);
+
+			if (previous != null) {
+				totalBytes -= previous.data.length;
+			}
+
+			totalBytes += data.length;
+
+			Iterator<Map.Entry<String, Image>> iterator = IMAGES.entrySet().iterator();
+
+			// the new image is the most recently used, it is kept even if it is larger
+			while (totalBytes > MAX_BYTES && IMAGES.size() > 1 && iterator.hasNext()) {
+				totalBytes -= iterator.next().getValue().data.length;
+				iterator.remove();
+			}
+		}
+
+		return image;
+	}
+
+	/**
+	 *
+	 * Reads the pixel size of an image from its header without decoding the
+	 * pixels.
+	 *
+	 * @param data The image file bytes
+	 *
+	 * @return The pixel size, null if no ImageIO reader supports the format
+	 */
+	private static Dimension readSize(byte[] data) {
+
+		try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data))) {
+
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+
+			if (!readers.hasNext()) {
+				return null;
+			}
+
+			ImageReader reader = readers.next();
+
+			try {
+				reader.setInput(input);
+				return new Dimension(reader.getWidth(0), reader.getHeight(0));
+			} finally {
+				reader.dispose();
+			}
+
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,171 @@
+package com.ucoruh.document;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class MarkdownBlock
+ * @brief A block of a parsed Markdown document, like a heading, a paragraph, a
+ *        list item or an image. Text of headings, paragraphs, list items, quotes
+ *        and table cells is kept as inline Markdown and parsed with
+ *        MarkdownInlineParser by the renderers.
+ */
+@Getter
+public class MarkdownBlock {
+
+	/**
+	 *
+	 * @brief Markdown block types.
+	 */
+	public enum BlockType {
+		HEADING, PARAGRAPH, LIST_ITEM, CODE, IMAGE, TABLE, QUOTE, RULE
+	}
+
+	/**
+	 * The block type
+	 */
+	private final BlockType type;
+
+	/**
+	 * The heading level (1-6) or the nesting level of a list item (0 for top
+	 * level items)
+	 */
+	private final int level;
+
+	/**
+	 * The inline Markdown text, the code of a code block or the alternative text
+	 * of an image
+	 */
+	private final String text;
+
+	/**
+	 * The language of a code block or the path of an image, can be null
+	 */
+	private final String reference;
+
+	/**
+	 * Whether a list item belongs to an ordered list
+	 */
+	private final boolean ordered;
+
+	/**
+	 * The pandoc height attribute of an image like "250px", can be null
+	 */
+	private final String height;
+
+	/**
+	 * The cells of a table, the first row is the header
+	 */
+	private final List<List<String>> rows;
+
+	/**
+	 * Creates a block.
+	 *
+	 * @param type      The block type
+	 * @param level     The heading level or list item nesting level
+	 * @param text      The inline Markdown text, code or alternative text
+	 * @param reference The language of a code block or path of an image
+	 * @param ordered   Whether a list item belongs to an ordered list
+	 * @param height    The height attribute of an image
+	 * @param rows      The cells of a table
+	 */
+	private MarkdownBlock(BlockType type, int level, String text, String reference, boolean ordered, String height,
+			List<List<String>> rows) {
+		this.type = type;
+		this.level = level;
+		this.text = text;
+		this.reference = reference;
+		this.ordered = ordered;
+		this.height = height;
+		this.rows = rows;
+	}
+
+	/**
+	 * Creates a heading block.
+	 *
+	 * @param level The heading level (1-6)
+	 * @param text  The inline Markdown text
+	 * @return The heading block
+	 */
+	public static MarkdownBlock heading(int level, String text) {
+		return new MarkdownBlock(BlockType.HEADING, level, text, null, false, null, Collections.emptyList());
+	}
+
+	/**
+	 * Creates a paragraph block.
+	 *
+	 * @param text The inline Markdown text
+	 * @return The paragraph block
+	 */
+	public static MarkdownBlock paragraph(String text) {
+		return new MarkdownBlock(BlockType.PARAGRAPH, 0, text, null, false, null, Collections.emptyList());
+	}
+
+	/**
+	 * Creates a list item block.
+	 *
+	 * @param level   The nesting level, 0 for top level items
+	 * @param ordered Whether the item belongs to an ordered list
+	 * @param text    The inline Markdown text
+	 * @return The list item block
+	 */
+	public static MarkdownBlock listItem(int level, boolean ordered, String text) {
+		return new MarkdownBlock(BlockType.LIST_ITEM, level, text, null, ordered, null, Collections.emptyList());
+	}
+
+	/**
+	 * Creates a code block.
+	 *
+	 * @param language The language of the fence, can be null
+	 * @param code     The code
+	 * @return The code block
+	 */
+	public static MarkdownBlock code(String language, String code) {
+		return new MarkdownBlock(BlockType.CODE, 0, code, language, false, null, Collections.emptyList());
+	}
+
+	/**
+	 * Creates an image block.
+	 *
+	 * @param alternativeText The alternative text
+	 * @param path            The image path or URL
+	 * @param height          The height attribute, can be null
+	 * @return The image block
+	 */
+	public static MarkdownBlock image(String alternativeText, String path, String height) {
+		return new MarkdownBlock(BlockType.IMAGE, 0, alternativeText, path, false, height, Collections.emptyList());
+	}
+
+	/**
+	 * Creates a table block.
+	 *
+	 * @param rows The cells of the table, the first row is the header
+	 * @return The table block
+	 */
+	public static MarkdownBlock table(List<List<String>> rows) {
+		return new MarkdownBlock(BlockType.TABLE, 0, "", null, false, null, rows);
+	}
+
+	/**
+	 * Creates a quote block.
+	 *
+	 * @param text The inline Markdown text
+	 * @return The quote block
+	 */
+	public static MarkdownBlock quote(String text) {
+		return new MarkdownBlock(BlockType.QUOTE, 0, text, null, false, null, Collections.emptyList());
+	}
+
+	/**
+	 * Creates a horizontal rule block, a slide separator in slide decks.
+	 *
+	 * @return The rule block
+	 */
+	public static MarkdownBlock rule() {
+		return new MarkdownBlock(BlockType.RULE, 0, "", null, false, null, Collections.emptyList());
+	}
+
+}
@@ -0,0 +1,83 @@
+package com.ucoruh.document;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class MarkdownDocument
+ * @brief A Markdown file parsed into its front matter and blocks. Used by the
+ *        in-process PDF, PPTX and DOCX renderers.
+ */
+@Getter
+public class MarkdownDocument {
+
+	/**
+	 * The source file path
+	 */
+	private final String sourcePath;
+
+	/**
+	 * The folder relative image paths are resolved against
+	 */
+	private final String baseFolder;
+
+	/**
+	 * The front matter values by key, in file order
+	 */
+	private final Map<String, String> frontMatter;
+
+	/**
+	 * The blocks of the document
+	 */
+	private final List<MarkdownBlock> blocks;
+
+	/**
+	 * Creates a document.
+	 *
+	 * @param sourcePath  The source file path
+	 * @param baseFolder  The folder relative image paths are resolved against
+	 * @param frontMatter The front matter values by key
+	 * @param blocks      The blocks of the document
+	 */
+	public MarkdownDocument(String sourcePath, String baseFolder, Map<String, String> frontMatter,
+			List<MarkdownBlock> blocks) {
+		this.sourcePath = sourcePath;
+		this.baseFolder = baseFolder;
+		this.frontMatter = frontMatter;
+		this.blocks = blocks;
+	}
+
+	/**
+	 * Gets a front matter value.
+	 *
+	 * @param key The front matter key, like "title"
+	 * @return The value, null if the key is not set
+	 */
+	public String getFrontMatterValue(String key) {
+		return frontMatter.get(key);
+	}
+
+	/**
+	 * Resolves a local image path against the base folder.
+	 *
+	 * @param path The image path of an image block
+	 * @return The image file, null for remote and data URLs
+	 */
+	public File resolveFile(String path) {
+
+		if (path.contains("://") || path.startsWith("data:")) {
+			return null;
+		}
+
+		String decodedPath = path.replace("%20", " ");
+
+		File file = new File(decodedPath);
+
+		return file.isAbsolute() ? file : new File(baseFolder, decodedPath);
+	}
+
+}
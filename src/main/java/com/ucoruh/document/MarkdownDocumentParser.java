@@ -0,0 +1,454 @@
+package com.ucoruh.document;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ *
+ * @class MarkdownDocumentParser
+ * @brief Parses the merged pandoc Markdown files into blocks. It covers the
+ *        Markdown written by the course decks: YAML front matter, ATX headings,
+ *        paragraphs, nested bullet and numbered lists, fenced code, pandoc image
+ *        links with height attributes, pipe tables, quotes and rules. HTML
+ *        comments and HTML blocks like style and div tags are skipped.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * MarkdownDocument document = MarkdownDocumentParser.parse("pandoc_week-1.md");
+ * }
+ *        </pre>
+ */
+public class MarkdownDocumentParser {
+
+	/**
+	 *
+	 * @brief ATX heading like "## Title {#id}".
+	 */
+	private static final Pattern HEADING = Pattern.compile("^(#{1,6})\\s+(.*?)\\s*#*\\s*(\\{[^}]*\\})?\\s*$");
+
+	/**
+	 *
+	 * @brief List item marker with its indentation.
+	 */
+	private static final Pattern LIST_ITEM = Pattern.compile("^(\\s*)([-*+]|\\d+[.)])\\s+(.*)$");
+
+	/**
+	 *
+	 * @brief Image link with optional pandoc attributes.
+	 */
+	private static final Pattern IMAGE = Pattern
+			.compile("!\\[([^\\]]*)\\]\\(\\s*<?([^)\\s>]+)>?(?:\\s+\"[^\"]*\")?\\s*\\)(\\{[^}]*\\})?");
+
+	/**
+	 *
+	 * @brief HTML image tag.
+	 */
+	private static final Pattern HTML_IMAGE = Pattern.compile("<img[^>]+src\\s*=\\s*[\"']([^\"']+)[\"'][^>]*>");
+
+	/**
+	 *
+	 * @brief Height attribute of pandoc image attributes.
+	 */
+	private static final Pattern HEIGHT_ATTRIBUTE = Pattern.compile("height\\s*=\\s*([^\\s}]+)");
+
+	/**
+	 *
+	 * @brief Table separator row like "|---|:---:|".
+	 */
+	private static final Pattern TABLE_SEPARATOR = Pattern
+			.compile("^\\s*\\|?\\s*:?-{2,}:?\\s*(\\|\\s*:?-{2,}:?\\s*)*\\|?\\s*$");
+
+	/**
+	 *
+	 * @brief Rule or slide separator line.
+	 */
+	private static final Pattern RULE = Pattern.compile("^\\s*([-*_])(\\s*\\1){2,}\\s*$");
+
+	/**
+	 *
+	 * Parses a Markdown file.
+	 *
+	 * @param filePath The path of the Markdown file
+	 *
+	 * @throws IOException If there is an error reading the file.
+	 *
+	 * @return The parsed document
+	 */
+	public static MarkdownDocument parse(String filePath) throws IOException {
+
+		List<String> lines = new ArrayList<String>();
+
+		try (BufferedReader reader = Files.newBufferedReader(Paths.get(filePath), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				lines.add(line);
+			}
+		}
+
+		File file = new File(filePath).getAbsoluteFile();
+
+		return parse(file.getPath(), file.getParent(), lines);
+	}
+
+	/**
+	 *
+	 * Parses Markdown lines.
+	 *
+	 * @param sourcePath The source file path
+	 *
+	 * @param baseFolder The folder relative image paths are resolved against
+	 *
+	 * @param lines      The Markdown lines
+	 *
+	 * @return The parsed document
+	 */
+	public static MarkdownDocument parse(String sourcePath, String baseFolder, List<String> lines) {
+
+		Map<String, String> frontMatter = new LinkedHashMap<String, String>();
+		List<MarkdownBlock> blocks = new ArrayList<MarkdownBlock>();
+
+		int index = parseFrontMatter(lines, frontMatter);
+
+		StringBuilder paragraph = new StringBuilder();
+
+		while (index < lines.size()) {
+
+			String line = lines.get(index);
+			String trimmedLine = line.trim();
+
+			// blank lines end paragraphs
+			if (trimmedLine.isEmpty()) {
+				flushParagraph(paragraph, blocks);
+				index++;
+				continue;
+			}
+
+			// HTML comments like marp directives, can span lines
+			if (trimmedLine.startsWith("<!--")) {
+				flushParagraph(paragraph, blocks);
+				while (index < lines.size() && !lines.get(index).contains("-->")) {
+					index++;
+				}
+				index++;
+				continue;
+			}
+
+			// style and script blocks
+			if (trimmedLine.startsWith("<style") || trimmedLine.startsWith("<script")) {
+				flushParagraph(paragraph, blocks);
+				String closingTag = trimmedLine.startsWith("<style") ? "</style>" : "</script>";
+				while (index < lines.size() && !lines.get(index).contains(closingTag)) {
+					index++;
+				}
+				index++;
+				continue;
+			}
+
+			// fenced code and math blocks
+			if (trimmedLine.startsWith("```") || trimmedLine.startsWith("~~~") || trimmedLine.equals("$$")) {
+
+				flushParagraph(paragraph, blocks);
+
+				String fence = trimmedLine.equals("$$") ? "$$" : trimmedLine.substring(0, 3);
+				String language = trimmedLine.substring(fence.length()).replaceAll("[{}.]", "").trim();
+				StringBuilder code = new StringBuilder();
+
+				index++;
+
+				while (index < lines.size() && !lines.get(index).trim().startsWith(fence)) {
+					if (code.length() > 0) {
+						code.append('\n');
+					}
+					code.append(lines.get(index));
+					index++;
+				}
+
+				blocks.add(MarkdownBlock.code(language.isEmpty() ? null : language, code.toString()));
+				index++;
+				continue;
+			}
+
+			Matcher headingMatcher = HEADING.matcher(trimmedLine);
+
+			if (headingMatcher.matches()) {
+				flushParagraph(paragraph, blocks);
+				blocks.add(MarkdownBlock.heading(headingMatcher.group(1).length(), headingMatcher.group(2)));
+				index++;
+				continue;
+			}
+
+			// setext heading underlines
+			if (paragraph.length() > 0 && trimmedLine.matches("=+|-+")) {
+				blocks.add(MarkdownBlock.heading(trimmedLine.startsWith("=") ? 1 : 2, paragraph.toString()));
+				paragraph.setLength(0);
+				index++;
+				continue;
+			}
+
+			if (RULE.matcher(line).matches()) {
+				flushParagraph(paragraph, blocks);
+				blocks.add(MarkdownBlock.rule());
+				index++;
+				continue;
+			}
+
+			// lines with only images are figures
+			if (addImages(trimmedLine, blocks, paragraph)) {
+				index++;
+				continue;
+			}
+
+			if (trimmedLine.startsWith("|") && index + 1 < lines.size()
+					&& TABLE_SEPARATOR.matcher(lines.get(index + 1)).matches()) {
+
+				flushParagraph(paragraph, blocks);
+
+				List<List<String>> rows = new ArrayList<List<String>>();
+				rows.add(splitTableRow(trimmedLine));
+				index += 2;
+
+				while (index < lines.size() && lines.get(index).trim().startsWith("|")) {
+					rows.add(splitTableRow(lines.get(index).trim()));
+					index++;
+				}
+
+				blocks.add(MarkdownBlock.table(rows));
+				continue;
+			}
+
+			if (trimmedLine.startsWith(">")) {
+
+				flushParagraph(paragraph, blocks);
+
+				StringBuilder quote = new StringBuilder();
+
+				while (index < lines.size() && lines.get(index).trim().startsWith(">")) {
+					if (quote.length() > 0) {
+						quote.append(' ');
+					}
+					quote.append(lines.get(index).trim().substring(1).trim());
+					index++;
+				}
+
+				blocks.add(MarkdownBlock.quote(quote.toString()));
+				continue;
+			}
+
+			Matcher listMatcher = LIST_ITEM.matcher(line);
+
+			if (listMatcher.matches()) {
+
+				flushParagraph(paragraph, blocks);
+
+				int indentation = listMatcher.group(1).replace("\t", "    ").length();
+				boolean ordered = Character.isDigit(listMatcher.group(2).charAt(0));
+				StringBuilder item = new StringBuilder(listMatcher.group(3).trim());
+
+				index++;
+
+				// lazy continuation lines of the item
+				while (index < lines.size() && !lines.get(index).trim().isEmpty()
+						&& !LIST_ITEM.matcher(lines.get(index)).matches() && isContinuation(lines.get(index))) {
+					item.append(' ').append(lines.get(index).trim());
+					index++;
+				}
+
+				blocks.add(MarkdownBlock.listItem(indentation / 2, ordered, item.toString()));
+				continue;
+			}
+
+			// other HTML block tags like div are layout only
+			if (trimmedLine.startsWith("<") && trimmedLine.endsWith(">") && !trimmedLine.startsWith("<http")
+					&& !HTML_IMAGE.matcher(trimmedLine).find()) {
+				flushParagraph(paragraph, blocks);
+				index++;
+				continue;
+			}
+
+			if (paragraph.length() > 0) {
+				paragraph.append(' ');
+			}
+
+			paragraph.append(trimmedLine);
+			index++;
+		}
+
+		flushParagraph(paragraph, blocks);
+
+		return new MarkdownDocument(sourcePath, baseFolder, frontMatter, blocks);
+	}
+
+	/**
+	 *
+	 * Parses the YAML front matter into key and value pairs. Nested and multi
+	 * line values like marp styles are skipped.
+	 *
+	 * @param lines       The Markdown lines
+	 *
+	 * @param frontMatter Receives the front matter values
+	 *
+	 * @return The index of the first line after the front matter
+	 */
+	private static int parseFrontMatter(List<String> lines, Map<String, String> frontMatter) {
+
+		if (lines.isEmpty() || !lines.get(0).trim().equals("---")) {
+			return 0;
+		}
+
+		for (int index = 1; index < lines.size(); index++) {
+
+			String line = lines.get(index);
+
+			if (line.trim().equals("---") || line.trim().equals("...")) {
+				return index + 1;
+			}
+
+			if (line.startsWith(" ") || line.startsWith("\t") || !line.contains(":")) {
+				continue;
+			}
+
+			String key = line.substring(0, line.indexOf(':')).trim();
+			String value = line.substring(line.indexOf(':') + 1).trim();
+
+			if (value.length() >= 2 && (value.startsWith("\"") && value.endsWith("\"")
+					|| value.startsWith("'") && value.endsWith("'"))) {
+				value = value.substring(1, value.length() - 1);
+			}
+
+			if (!value.isEmpty() && !value.equals("|") && !value.equals(">")) {
+				frontMatter.put(key, value);
+			}
+		}
+
+		// no closing separator, not a front matter
+		frontMatter.clear();
+
+		return 0;
+	}
+
+	/**
+	 *
+	 * Adds the images of a line that contains only images.
+	 *
+	 * @param line      The trimmed line
+	 *
+	 * @param blocks    Receives the image blocks
+	 *
+	 * @param paragraph The pending paragraph, flushed before the images
+	 *
+	 * @return true if the line contains only images, false otherwise
+	 */
+	private static boolean addImages(String line, List<MarkdownBlock> blocks, StringBuilder paragraph) {
+
+		if (!line.startsWith("![") && !line.startsWith("<img")) {
+			return false;
+		}
+
+		List<MarkdownBlock> images = new ArrayList<MarkdownBlock>();
+
+		Matcher matcher = (line.startsWith("<img") ? HTML_IMAGE : IMAGE).matcher(line);
+		int end = 0;
+
+		while (matcher.find()) {
+
+			if (!line.substring(end, matcher.start()).trim().isEmpty()) {
+				return false;
+			}
+
+			if (line.startsWith("<img")) {
+				images.add(MarkdownBlock.image("", matcher.group(1), null));
+			} else {
+				String height = null;
+				if (matcher.group(3) != null) {
+					Matcher heightMatcher = HEIGHT_ATTRIBUTE.matcher(matcher.group(3));
+					if (heightMatcher.find()) {
+						height = heightMatcher.group(1);
+					}
+				}
+				images.add(MarkdownBlock.image(matcher.group(1), matcher.group(2), height));
+			}
+
+			end = matcher.end();
+		}
+
+		if (images.isEmpty() || !line.substring(end).trim().isEmpty()) {
+			return false;
+		}
+
+		flushParagraph(paragraph, blocks);
+		blocks.addAll(images);
+
+		return true;
+	}
+
+	/**
+	 *
+	 * Splits a pipe table row into cells.
+	 *
+	 * @param row The trimmed row
+	 *
+	 * @return The cell texts
+	 */
+	private static List<String> splitTableRow(String row) {
+
+		String content = row.startsWith("|") ? row.substring(1) : row;
+
+		if (content.endsWith("|") && !content.endsWith("\\|")) {
+			content = content.substring(0, content.length() - 1);
+		}
+
+		List<String> cells = new ArrayList<String>();
+
+		for (String cell : content.split("(?<!\\\\)\\|", -1)) {
+			cells.add(cell.trim().replace("\\|", "|"));
+		}
+
+		return cells;
+	}
+
+	/**
+	 *
+	 * Checks whether a line continues the text of a list item.
+	 *
+	 * @param line The line after a list item
+	 *
+	 * @return true if the line is plain text, false if it starts another block
+	 */
+	private static boolean isContinuation(String line) {
+
+		String trimmedLine = line.trim();
+
+		return !trimmedLine.startsWith("#") && !trimmedLine.startsWith("```") && !trimmedLine.startsWith("![")
+				&& !trimmedLine.startsWith("|") && !trimmedLine.startsWith(">") && !trimmedLine.startsWith("<")
+				&& !RULE.matcher(line).matches();
+	}
+
+	/**
+	 *
+	 * Adds the pending paragraph as a block and clears it.
+	 *
+	 * @param paragraph The pending paragraph text
+	 *
+	 * @param blocks    Receives the paragraph block
+	 */
+	private static void flushParagraph(StringBuilder paragraph, List<MarkdownBlock> blocks) {
+
+		if (paragraph.length() > 0) {
+			blocks.add(MarkdownBlock.paragraph(paragraph.toString()));
+			paragraph.setLength(0);
+		}
+	}
+
+}
@@ -0,0 +1,418 @@
+package com.ucoruh.document;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class MarkdownInlineParser
+ * @brief Parses inline Markdown into styled text spans: strong and emphasis,
+ *        inline code, links and autolinks. Inline images are replaced with
+ *        their alternative text, inline HTML tags are dropped and common HTML
+ *        entities are decoded.
+ */
+public class MarkdownInlineParser {
+
+	/**
+	 *
+	 * @brief A run of text with the same style.
+	 */
+	@Getter
+	public static class InlineSpan {
+
+		/**
+		 * The span text
+		 */
+		private final String text;
+
+		/**
+		 * Whether the span is strong
+		 */
+		private final boolean bold;
+
+		/**
+		 * Whether the span is emphasized
+		 */
+		private final boolean italic;
+
+		/**
+		 * Whether the span is inline code
+		 */
+		private final boolean code;
+
+		/**
+		 * The link target of the span, null if the span is not a link
+		 */
+		private final String link;
+
+		/**
+		 * Creates a span.
+		 *
+		 * @param text   The span text
+		 * @param bold   Whether the span is strong
+		 * @param italic Whether the span is emphasized
+		 * @param code   Whether the span is inline code
+		 * @param link   The link target, can be null
+		 */
+		public InlineSpan(String text, boolean bold, boolean italic, boolean code, String link) {
+			this.text = text;
+			this.bold = bold;
+			this.italic = italic;
+			this.code = code;
+			this.link = link;
+		}
+	}
+
+	/**
+	 *
+	 * Parses inline Markdown.
+	 *
+	 * @param text The inline Markdown text
+	 *
+	 * @return The text spans in order
+	 */
+	public static List<InlineSpan> parse(String text) {
+
+		List<InlineSpan> spans = new ArrayList<InlineSpan>();
+
+		parse(text, false, false, null, spans);
+
+		return spans;
+	}
+
+	/**
+	 *
+	 * Gets the plain text of inline Markdown.
+	 *
+	 * @param text The inline Markdown text
+	 *
+	 * @return The text without Markdown markup
+	 */
+	public static String toPlainText(String text) {
+
+		StringBuilder plainText = new StringBuilder();
+
+		for (InlineSpan span : parse(text)) {
+			plainText.append(span.getText());
+		}
+
+		return plainText.toString();
+	}
+
+	/**
+	 *
+	 * Parses inline Markdown with the style of the enclosing spans.
+	 *
+	 * @param text   The inline Markdown text
+	 *
+	 * @param bold   Whether the enclosing span is strong
+	 *
+	 * @param italic Whether the enclosing span is emphasized
+	 *
+	 * @param link   The link target of the enclosing span, can be null
+	 *
+	 * @param spans  Receives the spans
+	 */
+	private static void parse(String text, boolean bold, boolean italic, String link, List<InlineSpan> spans) {
+
+		StringBuilder plain = new StringBuilder();
+		int index = 0;
+
+		while (index < text.length()) {
+
+			char c = text.charAt(index);
+
+			// escaped punctuation
+			if (c == '\\' && index + 1 < text.length() && isPunctuation(text.charAt(index + 1))) {
+				plain.append(text.charAt(index + 1));
+				index += 2;
+				continue;
+			}
+
+			if (c == '`') {
+				int runLength = countRun(text, index, '`');
+				String fence = text.substring(index, index + runLength);
+				int end = text.indexOf(fence, index + runLength);
+				if (end > 0) {
+					flush(plain, bold, italic, link, spans);
+					spans.add(new InlineSpan(text.substring(index + runLength, end).trim(), bold, italic, true, link));
+					index = end + runLength;
+					continue;
+				}
+			}
+
+			// inline image, its alternative text is kept
+			if (c == '!' && text.startsWith("![", index)) {
+				int[] image = findLink(text, index + 1);
+				if (image != null) {
+					plain.append(text, index + 2, image[0]);
+					index = skipAttributes(text, image[2]);
+					continue;
+				}
+			}
+
+			if (c == '[') {
+				int[] target = findLink(text, index);
+				if (target != null) {
+					flush(plain, bold, italic, link, spans);
+					String url = text.substring(target[1], target[2] - 1).trim();
+					int titleIndex = url.indexOf(" \"");
+					if (titleIndex > 0) {
+						url = url.substring(0, titleIndex);
+					}
+					parse(text.substring(index + 1, target[0]), bold, italic, url, spans);
+					index = skipAttributes(text, target[2]);
+					continue;
+				}
+			}
+
+			if ((c == '*' || c == '_') && text.startsWith(String.valueOf(new char[] { c, c }), index)) {
+				int end = text.indexOf(new String(new char[] { c, c }), index + 2);
+				if (end > index + 2) {
+					flush(plain, bold, italic, link, spans);
+					parse(text.substring(index + 2, end), true, italic, link, spans);
+					index = end + 2;
+					continue;
+				}
+			}
+
+			if ((c == '*' || c == '_') && index + 1 < text.length() && !Character.isWhitespace(text.charAt(index + 1))
+					&& (c == '*' || index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1)))) {
+				int end = findEmphasisEnd(text, index + 1, c);
+				if (end > 0) {
+					flush(plain, bold, italic, link, spans);
+					parse(text.substring(index + 1, end), bold, true, link, spans);
+					index = end + 1;
+					continue;
+				}
+			}
+
+			if (c == '<') {
+				int end = text.indexOf('>', index);
+				if (end > 0) {
+					String tag = text.substring(index + 1, end);
+					if (tag.startsWith("http://") || tag.startsWith("https://") || tag.startsWith("mailto:")) {
+						flush(plain, bold, italic, link, spans);
+						spans.add(new InlineSpan(tag, bold, italic, false, tag));
+						index = end + 1;
+						continue;
+					}
+					if (tag.matches("/?[a-zA-Z!][^<>]*")) {
+						if (tag.toLowerCase().startsWith("br")) {
+							plain.append(' ');
+						}
+						index = end + 1;
+						continue;
+					}
+				}
+			}
+
+			if (c == '&') {
+				int end = text.indexOf(';', index);
+				if (end > index && end - index <= 8) {
+					String entity = decodeEntity(text.substring(index + 1, end));
+					if (entity != null) {
+						plain.append(entity);
+						index = end + 1;
+						continue;
+					}
+				}
+			}
+
+			plain.append(c);
+			index++;
+		}
+
+		flush(plain, bold, italic, link, spans);
+	}
+
+	/**
+	 *
+	 * Finds the parts of a link starting with '['.
+	 *
+	 * @param text  The inline Markdown text
+	 *
+	 * @param start The index of '['
+	 *
+	 * @return The index of ']', the index after '(' and the index after ')', null
+	 *         if there is no link
+	 */
+	private static int[] findLink(String text, int start) {
+
+		int depth = 0;
+
+		for (int index = start; index < text.length(); index++) {
+
+			char c = text.charAt(index);
+
+			if (c == '[') {
+				depth++;
+			} else if (c == ']' && --depth == 0) {
+
+				if (index + 1 >= text.length() || text.charAt(index + 1) != '(') {
+					return null;
+				}
+
+				int end = text.indexOf(')', index + 2);
+
+				return end < 0 ? null : new int[] { index, index + 2, end + 1 };
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 *
+	 * Skips pandoc attributes like "{ height=20% }" after a link.
+	 *
+	 * @param text  The inline Markdown text
+	 *
+	 * @param index The index after the link
+	 *
+	 * @return The index after the attributes
+	 */
+	private static int skipAttributes(String text, int index) {
+
+		if (index < text.length() && text.charAt(index) == '{') {
+			int end = text.indexOf('}', index);
+			if (end > 0) {
+				return end + 1;
+			}
+		}
+
+		return index;
+	}
+
+	/**
+	 *
+	 * Finds the closing marker of an emphasis.
+	 *
+	 * @param text   The inline Markdown text
+	 *
+	 * @param start  The index after the opening marker
+	 *
+	 * @param marker The marker character
+	 *
+	 * @return The index of the closing marker, -1 if there is none
+	 */
+	private static int findEmphasisEnd(String text, int start, char marker) {
+
+		for (int index = start + 1; index < text.length(); index++) {
+
+			if (text.charAt(index) != marker || Character.isWhitespace(text.charAt(index - 1))) {
+				continue;
+			}
+
+			boolean wordFollows = index + 1 < text.length() && Character.isLetterOrDigit(text.charAt(index + 1));
+
+			if (marker == '*' || !wordFollows) {
+				return index;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 *
+	 * Counts the repeated characters at an index.
+	 *
+	 * @param text  The text
+	 *
+	 * @param start The index of the first character
+	 *
+	 * @param c     The repeated character
+	 *
+	 * @return The number of repeated characters
+	 */
+	private static int countRun(String text, int start, char c) {
+
+		int index = start;
+
+		while (index < text.length() && text.charAt(index) == c) {
+			index++;
+		}
+
+		return index - start;
+	}
+
+	/**
+	 *
+	 * Decodes the common named and numeric HTML entities.
+	 *
+	 * @param name The entity name without '&' and ';'
+	 *
+	 * @return The decoded text, null if the entity is not known
+	 */
+	private static String decodeEntity(String name) {
+
+		switch (name) {
+		case "nbsp":
+			return " ";
+		case "amp":
+			return "&";
+		case "lt":
+			return "<";
+		case "gt":
+			return ">";
+		case "quot":
+			return "\"";
+		case "apos":
+			return "'";
+		default:
+			break;
+		}
+
+		try {
+			if (name.startsWith("#x") || name.startsWith("#X")) {
+				return new String(Character.toChars(Integer.parseInt(name.substring(2), 16)));
+			}
+			if (name.startsWith("#")) {
+				return new String(Character.toChars(Integer.parseInt(name.substring(1))));
+			}
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+
+		return null;
+	}
+
+	/**
+	 *
+	 * Checks whether a character can be escaped with a backslash.
+	 *
+	 * @param c The character
+	 *
+	 * @return true for ASCII punctuation, false otherwise
+	 */
+	private static boolean isPunctuation(char c) {
+		return c < 128 && !Character.isLetterOrDigit(c) && !Character.isWhitespace(c);
+	}
+
+	/**
+	 *
+	 * Adds the pending plain text as a span and clears it.
+	 *
+	 * @param plain  The pending plain text
+	 *
+	 * @param bold   Whether the span is strong
+	 *
+	 * @param italic Whether the span is emphasized
+	 *
+	 * @param link   The link target, can be null
+	 *
+	 * @param spans  Receives the span
+	 */
+	private static void flush(StringBuilder plain, boolean bold, boolean italic, String link,
+			List<InlineSpan> spans) {
+
+		if (plain.length() > 0) {
+			spans.add(new InlineSpan(plain.toString(), bold, italic, false, link));
+			plain.setLength(0);
+		}
+	}
+
+}
@@ -0,0 +1,818 @@
+package com.ucoruh.document;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.geom.Rectangle2D;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.poi.sl.usermodel.AutoNumberingScheme;
+import org.apache.poi.sl.usermodel.PictureData.PictureType;
+import org.apache.poi.sl.usermodel.Placeholder;
+import org.apache.poi.xslf.usermodel.SlideLayout;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFPictureData;
+import org.apache.poi.xslf.usermodel.XSLFPictureShape;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.apache.poi.xslf.usermodel.XSLFSlideLayout;
+import org.apache.poi.xslf.usermodel.XSLFSlideMaster;
+import org.apache.poi.xslf.usermodel.XSLFTable;
+import org.apache.poi.xslf.usermodel.XSLFTableCell;
+import org.apache.poi.xslf.usermodel.XSLFTextBox;
+import org.apache.poi.xslf.usermodel.XSLFTextParagraph;
+import org.apache.poi.xslf.usermodel.XSLFTextRun;
+import org.apache.poi.xslf.usermodel.XSLFTextShape;
+
+import com.ucoruh.document.MarkdownBlock.BlockType;
+import com.ucoruh.document.MarkdownInlineParser.InlineSpan;
+
+/**
+ *
+ * @class PptxSlideRenderer
+ * @brief Renders a Markdown slide deck to PPTX inside the running JVM with
+ *        Apache POI. Slides are separated by "---" rules, the first heading
+ *        of a slide is its title, and the slide layouts of the reference
+ *        template are used like "pandoc --reference-doc": text goes to the
+ *        content placeholder, images, code blocks and tables are placed on
+ *        the right side of text or fill the content area.
+ *
+ *        Reference templates are read once and kept in memory, every deck
+ *        opens its own presentation from the template bytes, so decks can be
+ *        rendered concurrently from worker threads.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * new PptxSlideRenderer().render(MarkdownDocumentParser.parse(inputFile), templateFile, outputFile);
+ * }
+ *        </pre>
+ */
+public class PptxSlideRenderer {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the PptxSlideRenderer
+	 *        class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(PptxSlideRenderer.class.getName());
+
+	/**
+	 * The reference template file name pandoc is called with, resolved in the
+	 * folder of the deck
+	 */
+	public static final String REFERENCE_TEMPLATE = "custom-reference.pptx";
+
+	/**
+	 * The font of code spans and code blocks
+	 */
+	private static final String CODE_FONT = "Courier New";
+
+	/**
+	 * The font size of code blocks in points
+	 */
+	private static final double CODE_FONT_SIZE = 12;
+
+	/**
+	 * The font size of table cells in points
+	 */
+	private static final double TABLE_FONT_SIZE = 12;
+
+	/**
+	 * The background color of code blocks
+	 */
+	private static final Color CODE_BACKGROUND = new Color(0xF5, 0xF5, 0xF5);
+
+	/**
+	 * The page margin in points, used when the layout has no title placeholder
+	 */
+	private static final double MARGIN = 36;
+
+	/**
+	 * The gap between placed shapes in points
+	 */
+	private static final double GAP = 8;
+
+	/**
+	 * The reference template bytes by canonical template path
+	 */
+	private static final Map<String, Template> TEMPLATES = new ConcurrentHashMap<String, Template>();
+
+	/**
+	 *
+	 * @brief A reference template read into memory.
+	 */
+	private static class Template {
+
+		/**
+		 * The modification time of the template file
+		 */
+		private final long lastModified;
+
+		/**
+		 * The template file bytes
+		 */
+		private final byte[] data;
+
+		/**
+		 * Creates a template.
+		 *
+		 * @param lastModified The modification time of the template file
+		 * @param data         The template bytes
+		 */
+		private Template(long lastModified, byte[] data) {
+			this.lastModified = lastModified;
+			this.data = data;
+		}
+	}
+
+	/**
+	 *
+	 * Renders a slide deck to PPTX.
+	 *
+	 * @param document     The parsed Markdown deck
+	 *
+	 * @param templatePath The reference template, the POI default template is
+	 *                     used if the file doesn't exist
+	 *
+	 * @param outputPath   The PPTX file path
+	 *
+	 * @throws IOException If there is an error reading the template or images or
+	 *                     writing the PPTX file.
+	 */
+	public void render(MarkdownDocument document, String templatePath, String outputPath) throws IOException {
+
+		try (XMLSlideShow ppt = openTemplate(templatePath)) {
+
+			XSLFSlideMaster master = ppt.getSlideMasters().get(0);
+
+			if (document.getFrontMatterValue("title") != null) {
+				createTitleSlide(ppt, master, document);
+			}
+
+			for (List<MarkdownBlock> slideBlocks : splitSlides(document.getBlocks())) {
+				createSlide(ppt, master, document, slideBlocks);
+			}
+
+			try (OutputStream output = new BufferedOutputStream(new FileOutputStream(outputPath))) {
+				ppt.write(output);
+			}
+
+			LOGGER.info("PPTX rendered with POI : " + outputPath + " (" + ppt.getSlides().size() + " slides)");
+		}
+	}
+
+	/**
+	 *
+	 * Opens a new presentation from a reference template without its slides. The
+	 * template file is read once and again only if it changes.
+	 *
+	 * @param templatePath The reference template path
+	 *
+	 * @throws IOException If there is an error reading the template.
+	 *
+	 * @return The presentation with the masters and layouts of the template
+	 */
+	private static XMLSlideShow openTemplate(String templatePath) throws IOException {
+
+		File templateFile = new File(templatePath);
+
+		if (!templateFile.isFile()) {
+			return new XMLSlideShow();
+		}
+
+		String key = templateFile.getCanonicalPath();
+		long lastModified = templateFile.lastModified();
+
+		Template template = TEMPLATES.get(key);
+
+		if (template == null || template.lastModified != lastModified) {
+			template = new Template(lastModified, Files.readAllBytes(templateFile.toPath()));
+			TEMPLATES.put(key, template);
+			LOGGER.info("PPTX reference template loaded : " + key);
+		}
+
+		XMLSlideShow ppt = new XMLSlideShow(new ByteArrayInputStream(template.data));
+
+		for (int index = ppt.getSlides().size() - 1; index >= 0; index--) {
+			ppt.removeSlide(index);
+		}
+
+		return ppt;
+	}
+
+	/**
+	 *
+	 * Splits the blocks of a deck into slides. A slide ends at a rule, or at a
+	 * heading if the slide already has a heading. Empty slides are dropped.
+	 *
+	 * @param blocks The blocks of the deck
+	 *
+	 * @return The blocks of every slide
+	 */
+	private static List<List<MarkdownBlock>> splitSlides(List<MarkdownBlock> blocks) {
+
+		List<List<MarkdownBlock>> slides = new ArrayList<List<MarkdownBlock>>();
+		List<MarkdownBlock> slide = new ArrayList<MarkdownBlock>();
+		boolean hasHeading = false;
+
+		for (MarkdownBlock block : blocks) {
+
+			boolean newSlide = block.getType() == BlockType.RULE || block.getType() == BlockType.HEADING && hasHeading;
+
+			if (newSlide) {
+				if (!slide.isEmpty()) {
+					slides.add(slide);
+				}
+				slide = new ArrayList<MarkdownBlock>();
+				hasHeading = false;
+			}
+
+			if (block.getType() != BlockType.RULE) {
+				slide.add(block);
+				hasHeading |= block.getType() == BlockType.HEADING;
+			}
+		}
+
+		if (!slide.isEmpty()) {
+			slides.add(slide);
+		}
+
+		return slides;
+	}
+
+	/**
+	 *
+	 * Creates the title slide from the title, author and date of the front
+	 * matter.
+	 *
+	 * @param ppt      The presentation
+	 *
+	 * @param master   The slide master of the template
+	 *
+	 * @param document The parsed Markdown deck
+	 */
+	private static void createTitleSlide(XMLSlideShow ppt, XSLFSlideMaster master, MarkdownDocument document) {
+
+		XSLFSlide slide = ppt.createSlide(findLayout(master, SlideLayout.TITLE, SlideLayout.TITLE_ONLY));
+
+		XSLFTextShape title = findPlaceholder(slide, Placeholder.CENTERED_TITLE, Placeholder.TITLE);
+
+		if (title != null) {
+			title.clearText();
+			appendInline(title.addNewTextParagraph(), document.getFrontMatterValue("title"));
+		}
+
+		XSLFTextShape subtitle = findPlaceholder(slide, Placeholder.SUBTITLE, Placeholder.BODY);
+
+		if (subtitle != null) {
+			subtitle.clearText();
+			for (String key : new String[] { "subtitle", "author", "date" }) {
+				String value = document.getFrontMatterValue(key);
+				if (value != null) {
+					appendInline(subtitle.addNewTextParagraph(), value);
+				}
+			}
+		}
+
+		removeUnusedPlaceholders(slide, title, subtitle != null && !subtitle.getText().isEmpty() ? subtitle : null);
+	}
+
+	/**
+	 *
+	 * Creates a slide. Text blocks go to the content placeholder, images, code
+	 * blocks and tables are stacked in the content area, next to the text if the
+	 * slide has both.
+	 *
+	 * @param ppt      The presentation
+	 *
+	 * @param master   The slide master of the template
+	 *
+	 * @param document The parsed Markdown deck
+	 *
+	 * @param blocks   The blocks of the slide
+	 *
+	 * @throws IOException If there is an error reading an image.
+	 */
+	private static void createSlide(XMLSlideShow ppt, XSLFSlideMaster master, MarkdownDocument document,
+			List<MarkdownBlock> blocks) throws IOException {
+
+		MarkdownBlock heading = null;
+		List<MarkdownBlock> textBlocks = new ArrayList<MarkdownBlock>();
+		List<MarkdownBlock> objectBlocks = new ArrayList<MarkdownBlock>();
+
+		for (MarkdownBlock block : blocks) {
+			if (block.getType() == BlockType.HEADING && heading == null) {
+				heading = block;
+			} else if (block.getType() == BlockType.CODE || block.getType() == BlockType.TABLE
+					|| block.getType() == BlockType.IMAGE && findImageFile(document, block) != null) {
+				objectBlocks.add(block);
+			} else {
+				textBlocks.add(block);
+			}
+		}
+
+		XSLFSlideLayout layout;
+
+		if (textBlocks.isEmpty() && objectBlocks.isEmpty()) {
+			layout = findLayout(master, SlideLayout.SECTION_HEADER, SlideLayout.TITLE_ONLY, SlideLayout.TITLE);
+		} else if (objectBlocks.isEmpty()) {
+			layout = findLayout(master, SlideLayout.TITLE_AND_CONTENT, SlideLayout.TEXT, SlideLayout.TITLE_ONLY);
+		} else if (textBlocks.isEmpty()) {
+			layout = findLayout(master, SlideLayout.TITLE_ONLY, SlideLayout.TITLE_AND_CONTENT);
+		} else {
+			layout = findLayout(master, SlideLayout.TWO_OBJ, SlideLayout.TWO_TX_TWO_OBJ,
+					SlideLayout.TITLE_AND_CONTENT);
+		}
+
+		XSLFSlide slide = ppt.createSlide(layout);
+
+		XSLFTextShape title = findPlaceholder(slide, Placeholder.TITLE, Placeholder.CENTERED_TITLE);
+
+		if (title != null) {
+			title.clearText();
+			if (heading != null) {
+				appendInline(title.addNewTextParagraph(), heading.getText());
+			}
+		}
+
+		Rectangle2D contentArea = getContentArea(ppt, slide, title);
+		Rectangle2D objectArea = contentArea;
+		XSLFTextShape body = null;
+
+		if (!textBlocks.isEmpty()) {
+
+			body = findPlaceholder(slide, Placeholder.CONTENT, Placeholder.BODY);
+
+			if (body == null) {
+				body = slide.createTextBox();
+				body.setAnchor(contentArea);
+			}
+
+			if (!objectBlocks.isEmpty()) {
+				// text on the left, objects on the right like pandoc's two content layout
+				double halfWidth = (contentArea.getWidth() - GAP) / 2;
+				body.setAnchor(new Rectangle2D.Double(contentArea.getX(), contentArea.getY(), halfWidth,
+						contentArea.getHeight()));
+				objectArea = new Rectangle2D.Double(contentArea.getX() + halfWidth + GAP, contentArea.getY(), halfWidth,
+						contentArea.getHeight());
+			}
+
+			appendText(body, textBlocks);
+		}
+
+		removeUnusedPlaceholders(slide, heading != null ? title : null, body);
+
+		placeObjects(ppt, slide, document, objectBlocks, objectArea);
+	}
+
+	/**
+	 *
+	 * Gets the area where content is placed, the bounds of the content
+	 * placeholders of the layout or the area below the title.
+	 *
+	 * @param ppt   The presentation
+	 *
+	 * @param slide The slide
+	 *
+	 * @param title The title placeholder, can be null
+	 *
+	 * @return The content area in points
+	 */
+	private static Rectangle2D getContentArea(XMLSlideShow ppt, XSLFSlide slide, XSLFTextShape title) {
+
+		Dimension pageSize = ppt.getPageSize();
+
+		Rectangle2D contentArea = null;
+
+		for (XSLFTextShape placeholder : slide.getPlaceholders()) {
+			if (placeholder.getTextType() == Placeholder.CONTENT || placeholder.getTextType() == Placeholder.BODY) {
+				if (contentArea == null) {
+					contentArea = placeholder.getAnchor();
+				} else {
+					contentArea.add(placeholder.getAnchor());
+				}
+			}
+		}
+
+		if (contentArea != null) {
+			return contentArea;
+		}
+
+		double top = title == null ? MARGIN : title.getAnchor().getMaxY() + GAP;
+		double left = title == null ? MARGIN : title.getAnchor().getX();
+		double width = title == null ? pageSize.getWidth() - 2 * MARGIN : title.getAnchor().getWidth();
+
+		return new Rectangle2D.Double(left, top, width, Math.max(pageSize.getHeight() - top - MARGIN, MARGIN));
+	}
+
+	/**
+	 *
+	 * Appends text blocks to a text shape. List items keep their nesting level
+	 * and numbering, other blocks are written without bullets.
+	 *
+	 * @param shape  The content placeholder or text box
+	 *
+	 * @param blocks The text blocks
+	 */
+	private static void appendText(XSLFTextShape shape, List<MarkdownBlock> blocks) {
+
+		shape.clearText();
+
+		int[] numbers = new int[10];
+
+		for (MarkdownBlock block : blocks) {
+
+			XSLFTextParagraph paragraph = shape.addNewTextParagraph();
+
+			if (block.getType() == BlockType.LIST_ITEM) {
+
+				int level = Math.min(block.getLevel(), numbers.length - 1);
+
+				paragraph.setIndentLevel(level);
+				paragraph.setBullet(true);
+
+				if (block.isOrdered()) {
+					paragraph.setBulletAutoNumber(AutoNumberingScheme.arabicPeriod, ++numbers[level]);
+				}
+
+				for (int nested = level + 1; nested < numbers.length; nested++) {
+					numbers[nested] = 0;
+				}
+
+				appendInline(paragraph, block.getText());
+				continue;
+			}
+
+			numbers = new int[numbers.length];
+
+			paragraph.setBullet(false);
+
+			switch (block.getType()) {
+			case HEADING:
+				appendInline(paragraph, block.getText());
+				for (XSLFTextRun run : paragraph.getTextRuns()) {
+					run.setBold(true);
+				}
+				break;
+			case QUOTE:
+				appendInline(paragraph, block.getText());
+				for (XSLFTextRun run : paragraph.getTextRuns()) {
+					run.setItalic(true);
+				}
+				break;
+			case IMAGE:
+				// remote or missing images are written as links
+				XSLFTextRun run = paragraph.addNewTextRun();
+				run.setText(block.getText().isEmpty() ? block.getReference() : block.getText());
+				if (block.getReference().contains("://")) {
+					run.createHyperlink().setAddress(block.getReference());
+				} else {
+					run.setItalic(true);
+				}
+				break;
+			default:
+				appendInline(paragraph, block.getText());
+				break;
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Appends inline Markdown to a paragraph as styled text runs.
+	 *
+	 * @param paragraph The paragraph
+	 *
+	 * @param text      The inline Markdown text
+	 */
+	private static void appendInline(XSLFTextParagraph paragraph, String text) {
+
+		for (InlineSpan span : MarkdownInlineParser.parse(text)) {
+
+			XSLFTextRun run = paragraph.addNewTextRun();
+			run.setText(span.getText());
+
+			if (span.isBold()) {
+				run.setBold(true);
+			}
+
+			if (span.isItalic()) {
+				run.setItalic(true);
+			}
+
+			if (span.isCode()) {
+				run.setFontFamily(CODE_FONT);
+			}
+
+			if (span.getLink() != null && !span.getLink().startsWith("#")) {
+				run.createHyperlink().setAddress(span.getLink());
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Stacks images, code blocks and tables in an area, every object gets an
+	 * equal share of the area height.
+	 *
+	 * @param ppt      The presentation
+	 *
+	 * @param slide    The slide
+	 *
+	 * @param document The parsed Markdown deck
+	 *
+	 * @param blocks   The image, code and table blocks
+	 *
+	 * @param area     The area in points
+	 *
+	 * @throws IOException If there is an error reading an image.
+	 */
+	private static void placeObjects(XMLSlideShow ppt, XSLFSlide slide, MarkdownDocument document,
+			List<MarkdownBlock> blocks, Rectangle2D area) throws IOException {
+
+		if (blocks.isEmpty()) {
+			return;
+		}
+
+		double height = (area.getHeight() - GAP * (blocks.size() - 1)) / blocks.size();
+
+		for (int index = 0; index < blocks.size(); index++) {
+
+			MarkdownBlock block = blocks.get(index);
+
+			Rectangle2D bounds = new Rectangle2D.Double(area.getX(), area.getY() + index * (height + GAP),
+					area.getWidth(), height);
+
+			switch (block.getType()) {
+			case IMAGE:
+				placeImage(ppt, slide, findImageFile(document, block), bounds);
+				break;
+			case CODE:
+				placeCode(slide, block.getText(), bounds);
+				break;
+			case TABLE:
+				placeTable(slide, block.getRows(), bounds);
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Places an image centered in the bounds, scaled down to fit and keeping its
+	 * aspect ratio.
+	 *
+	 * @param ppt    The presentation
+	 *
+	 * @param slide  The slide
+	 *
+	 * @param file   The image file
+	 *
+	 * @param bounds The bounds in points
+	 *
+	 * @throws IOException If there is an error reading the image.
+	 */
+	private static void placeImage(XMLSlideShow ppt, XSLFSlide slide, File file, Rectangle2D bounds)
+			throws IOException {
+
+		XSLFPictureData pictureData = ppt.addPicture(ImageStore.get(file).getData(), getPictureType(file));
+
+		XSLFPictureShape picture = slide.createPicture(pictureData);
+
+		Dimension size = pictureData.getImageDimension();
+
+		double width = bounds.getWidth();
+		double height = bounds.getHeight();
+
+		if (size != null && size.getWidth() > 0 && size.getHeight() > 0) {
+			double scale = Math.min(1, Math.min(width / size.getWidth(), height / size.getHeight()));
+			width = size.getWidth() * scale;
+			height = size.getHeight() * scale;
+		}
+
+		picture.setAnchor(new Rectangle2D.Double(bounds.getCenterX() - width / 2, bounds.getCenterY() - height / 2,
+				width, height));
+	}
+
+	/**
+	 *
+	 * Places a code block in a text box with a monospace font.
+	 *
+	 * @param slide  The slide
+	 *
+	 * @param code   The code
+	 *
+	 * @param bounds The bounds in points
+	 */
+	private static void placeCode(XSLFSlide slide, String code, Rectangle2D bounds) {
+
+		XSLFTextBox box = slide.createTextBox();
+		box.setAnchor(bounds);
+		box.setFillColor(CODE_BACKGROUND);
+		box.setWordWrap(true);
+		box.clearText();
+
+		for (String line : code.split("\n", -1)) {
+			XSLFTextRun run = box.addNewTextParagraph().addNewTextRun();
+			run.setText(line);
+			run.setFontFamily(CODE_FONT);
+			run.setFontSize(CODE_FONT_SIZE);
+		}
+	}
+
+	/**
+	 *
+	 * Places a table with equal column widths, the first row is the header.
+	 *
+	 * @param slide  The slide
+	 *
+	 * @param rows   The table cells
+	 *
+	 * @param bounds The bounds in points
+	 */
+	private static void placeTable(XSLFSlide slide, List<List<String>> rows, Rectangle2D bounds) {
+
+		int columnCount = 0;
+
+		for (List<String> row : rows) {
+			columnCount = Math.max(columnCount, row.size());
+		}
+
+		if (rows.isEmpty() || columnCount == 0) {
+			return;
+		}
+
+		XSLFTable table = slide.createTable(rows.size(), columnCount);
+
+		for (int column = 0; column < columnCount; column++) {
+			table.setColumnWidth(column, bounds.getWidth() / columnCount);
+		}
+
+		for (int row = 0; row < rows.size(); row++) {
+
+			table.setRowHeight(row, Math.min(bounds.getHeight() / rows.size(), 2.5 * TABLE_FONT_SIZE));
+
+			for (int column = 0; column < rows.get(row).size(); column++) {
+
+				XSLFTableCell cell = table.getCell(row, column);
+				cell.clearText();
+
+				XSLFTextParagraph paragraph = cell.addNewTextParagraph();
+				appendInline(paragraph, rows.get(row).get(column));
+
+				for (XSLFTextRun run : paragraph.getTextRuns()) {
+					run.setFontSize(TABLE_FONT_SIZE);
+					if (row == 0) {
+						run.setBold(true);
+					}
+				}
+			}
+		}
+
+		table.setAnchor(new Rectangle2D.Double(bounds.getX(), bounds.getY(), bounds.getWidth(), 0));
+		table.updateCellAnchor();
+	}
+
+	/**
+	 *
+	 * Finds the local image file of an image block. SVG images are replaced with
+	 * a PNG or JPEG image of the same name, like the Draw.IO exports.
+	 *
+	 * @param document The parsed Markdown deck
+	 *
+	 * @param block    The image block
+	 *
+	 * @return The image file, null if the image is remote, missing or has an
+	 *         unsupported format
+	 */
+	private static File findImageFile(MarkdownDocument document, MarkdownBlock block) {
+
+		File file = document.resolveFile(block.getReference());
+
+		if (file == null) {
+			return null;
+		}
+
+		if (FilenameUtils.getExtension(file.getName()).equalsIgnoreCase("svg")) {
+			for (String extension : new String[] { "png", "jpg", "jpeg" }) {
+				File raster = new File(file.getParentFile(), FilenameUtils.getBaseName(file.getName()) + "." + extension);
+				if (raster.isFile()) {
+					return raster;
+				}
+			}
+		}
+
+		if (!file.isFile() || getPictureType(file) == null) {
+			LOGGER.warning("Image not found or not supported " + file + " in " + document.getSourcePath());
+			return null;
+		}
+
+		return file;
+	}
+
+	/**
+	 *
+	 * Gets the picture type of an image file from its extension.
+	 *
+	 * @param file The image file
+	 *
+	 * @return The picture type, null if the format is not supported
+	 */
+	private static PictureType getPictureType(File file) {
+
+		switch (FilenameUtils.getExtension(file.getName()).toLowerCase(Locale.ENGLISH)) {
+		case "png":
+			return PictureType.PNG;
+		case "jpg":
+		case "jpeg":
+			return PictureType.JPEG;
+		case "gif":
+			return PictureType.GIF;
+		case "bmp":
+			return PictureType.BMP;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 *
+	 * Finds the first available layout of the master.
+	 *
+	 * @param master  The slide master of the template
+	 *
+	 * @param layouts The preferred layouts in order
+	 *
+	 * @return The first layout the master has, the first layout of the master if
+	 *         it has none of them
+	 */
+	private static XSLFSlideLayout findLayout(XSLFSlideMaster master, SlideLayout... layouts) {
+
+		for (SlideLayout type : layouts) {
+			XSLFSlideLayout layout = master.getLayout(type);
+			if (layout != null) {
+				return layout;
+			}
+		}
+
+		return master.getSlideLayouts()[0];
+	}
+
+	/**
+	 *
+	 * Finds the first placeholder of a slide with one of the given types.
+	 *
+	 * @param slide The slide
+	 *
+	 * @param types The placeholder types in order
+	 *
+	 * @return The placeholder, null if the slide has none of the types
+	 */
+	private static XSLFTextShape findPlaceholder(XSLFSlide slide, Placeholder... types) {
+
+		for (Placeholder type : types) {
+			for (XSLFTextShape placeholder : slide.getPlaceholders()) {
+				if (placeholder.getTextType() == type) {
+					return placeholder;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 *
+	 * Removes the placeholders copied from the layout that didn't receive
+	 * content, so their prompt text is not shown.
+	 *
+	 * @param slide The slide
+	 *
+	 * @param used  The placeholders with content, null values are ignored
+	 */
+	private static void removeUnusedPlaceholders(XSLFSlide slide, XSLFTextShape... used) {
+
+		for (XSLFTextShape placeholder : slide.getPlaceholders()) {
+			if (!Arrays.asList(used).contains(placeholder)) {
+				slide.removeShape(placeholder);
+			}
+		}
+	}
+
+}
@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -27,6 +28,9 @@ import com.ucoruh.logger.LogController;
 import com.ucoruh.mkdocs.MkdocsBuilder;
 import com.ucoruh.option.ControllerOptions;
 import com.ucoruh.option.OptionType;
+import com.ucoruh.utils.RunReport;
+import com.ucoruh.utils.SvgRasterizer;
+import com.ucoruh.utils.ToolLauncher;
 import com.ucoruh.utils.Utils;
 
 /**
@@ -142,6 +146,294 @@ public class MainClass {
 				}
 			}
 
+			if (cmd.hasOption(ControllerOptions.FORCE_OPTION)) {
+				controllerOptions.setForceIsSet(true);
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.FORCE_OPTION + " to merge unchanged files");
+			}
+
+			if (cmd.hasOption(ControllerOptions.WATCH_OPTION)) {
+				controllerOptions.setWatchIsSet(true);
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.WATCH_OPTION + " to process changed files");
+			}
+
+			if (cmd.hasOption(ControllerOptions.PARALLEL_OPTION)) {
+
+				String parallelValue = cmd.getOptionValue(ControllerOptions.PARALLEL_OPTION);
+
+				controllerOptions.setParallelIsSet(true);
+
+				try {
+					if (parallelValue == null) {
+						controllerOptions.setParallelism(Runtime.getRuntime().availableProcessors());
+					} else {
+						controllerOptions.setParallelism(Integer.parseInt(parallelValue));
+					}
+				} catch (NumberFormatException e) {
+					controllerOptions.setParallelism(-1);
+				}
+
+				if (controllerOptions.getParallelism() < 1) {
+					LOGGER.severe("--" + controllerOptions.getOptionType().getCommandName() + " command "
+							+ ControllerOptions.PARALLEL_OPTION + " option value [" + parallelValue
+							+ "] must be a positive number");
+					displayHelp(options);
+					LOGGER.severe("Operation Terminated");
+					System.exit(-1);
+				}
+
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.PARALLEL_OPTION + " [" + controllerOptions.getParallelism() + "]");
+			}
+
+			if (cmd.hasOption(ControllerOptions.DRAWIOPROCESSES_OPTION)) {
+
+				String processesValue = cmd.getOptionValue(ControllerOptions.DRAWIOPROCESSES_OPTION);
+
+				try {
+					controllerOptions.setDrawioProcesses(Integer.parseInt(processesValue));
+				} catch (NumberFormatException e) {
+					controllerOptions.setDrawioProcesses(-1);
+				}
+
+				if (controllerOptions.getDrawioProcesses() < 1) {
+					LOGGER.severe("--" + controllerOptions.getOptionType().getCommandName() + " command "
+							+ ControllerOptions.DRAWIOPROCESSES_OPTION + " option value [" + processesValue
+							+ "] must be a positive number");
+					displayHelp(options);
+					LOGGER.severe("Operation Terminated");
+					System.exit(-1);
+				}
+
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.DRAWIOPROCESSES_OPTION + " [" + controllerOptions.getDrawioProcesses()
+						+ "]");
+			}
+
+			if (cmd.hasOption(ControllerOptions.REPORT_OPTION)) {
+
+				controllerOptions.setReportFilePath(cmd.getOptionValue(ControllerOptions.REPORT_OPTION));
+
+				// written on exit, so failed, terminated and watch runs are reported too
+				RunReport.enable();
+				Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+					try {
+						RunReport.write(controllerOptions.getReportFilePath());
+					} catch (IOException e) {
+						System.err.println("Run report write failed : " + e.getMessage());
+					}
+				}));
+
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.REPORT_OPTION + " [" + controllerOptions.getReportFilePath() + "]");
+			}
+
+			if (cmd.hasOption(ControllerOptions.TOOLLOGS_OPTION)) {
+
+				controllerOptions.setToolLogsFolderPath(cmd.getOptionValue(ControllerOptions.TOOLLOGS_OPTION));
+
+				ToolLauncher.setLogFolder(controllerOptions.getToolLogsFolderPath());
+
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.TOOLLOGS_OPTION + " [" + controllerOptions.getToolLogsFolderPath() + "]");
+			}
+
+			if (cmd.hasOption(ControllerOptions.PDFBACKEND_OPTION)) {
+
+				String pdfBackend = cmd.getOptionValue(ControllerOptions.PDFBACKEND_OPTION).toLowerCase();
+
+				if (!pdfBackend.equals(ControllerOptions.PANDOC_BACKEND)
+						&& !pdfBackend.equals(ControllerOptions.FOP_BACKEND)) {
+					LOGGER.severe("--" + controllerOptions.getOptionType().getCommandName() + " command "
+							+ ControllerOptions.PDFBACKEND_OPTION + " option value [" + pdfBackend + "] must be "
+							+ ControllerOptions.PANDOC_BACKEND + " or " + ControllerOptions.FOP_BACKEND);
+					displayHelp(options);
+					LOGGER.severe("Operation Terminated");
+					System.exit(-1);
+				}
+
+				controllerOptions.setPdfBackend(pdfBackend);
+
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.PDFBACKEND_OPTION + " [" + controllerOptions.getPdfBackend() + "]");
+			}
+
+			if (cmd.hasOption(ControllerOptions.PPTXBACKEND_OPTION)) {
+
+				String pptxBackend = cmd.getOptionValue(ControllerOptions.PPTXBACKEND_OPTION).toLowerCase();
+
+				if (!pptxBackend.equals(ControllerOptions.PANDOC_BACKEND)
+						&& !pptxBackend.equals(ControllerOptions.POI_BACKEND)) {
+					LOGGER.severe("--" + controllerOptions.getOptionType().getCommandName() + " command "
+							+ ControllerOptions.PPTXBACKEND_OPTION + " option value [" + pptxBackend + "] must be "
+							+ ControllerOptions.PANDOC_BACKEND + " or " + ControllerOptions.POI_BACKEND);
+					displayHelp(options);
+					LOGGER.severe("Operation Terminated");
+					System.exit(-1);
+				}
+
+				controllerOptions.setPptxBackend(pptxBackend);
+
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.PPTXBACKEND_OPTION + " [" + controllerOptions.getPptxBackend() + "]");
+			}
+
+			if (cmd.hasOption(ControllerOptions.DOCXBACKEND_OPTION)) {
+
+				String docxBackend = cmd.getOptionValue(ControllerOptions.DOCXBACKEND_OPTION).toLowerCase();
+
+				if (!docxBackend.equals(ControllerOptions.PANDOC_BACKEND)
+						&& !docxBackend.equals(ControllerOptions.POI_BACKEND)) {
+					LOGGER.severe("--" + controllerOptions.getOptionType().getCommandName() + " command "
+							+ ControllerOptions.DOCXBACKEND_OPTION + " option value [" + docxBackend + "] must be "
+							+ ControllerOptions.PANDOC_BACKEND + " or " + ControllerOptions.POI_BACKEND);
+					displayHelp(options);
+					LOGGER.severe("Operation Terminated");
+					System.exit(-1);
+				}
+
+				controllerOptions.setDocxBackend(docxBackend);
+
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.DOCXBACKEND_OPTION + " [" + controllerOptions.getDocxBackend() + "]");
+			}
+
+			if (cmd.hasOption(ControllerOptions.RASTERBACKEND_OPTION)) {
+
+				String rasterBackend = cmd.getOptionValue(ControllerOptions.RASTERBACKEND_OPTION).toLowerCase();
+
+				if (!rasterBackend.equals(ControllerOptions.BATIK_BACKEND)
+						&& !rasterBackend.equals(ControllerOptions.DRAWIO_BACKEND)) {
+					LOGGER.severe("--" + controllerOptions.getOptionType().getCommandName() + " command "
+							+ ControllerOptions.RASTERBACKEND_OPTION + " option value [" + rasterBackend + "] must be "
+							+ ControllerOptions.BATIK_BACKEND + " or " + ControllerOptions.DRAWIO_BACKEND);
+					displayHelp(options);
+					LOGGER.severe("Operation Terminated");
+					System.exit(-1);
+				}
+
+				controllerOptions.setRasterBackend(rasterBackend);
+
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.RASTERBACKEND_OPTION + " [" + controllerOptions.getRasterBackend() + "]");
+			}
+
+			if (cmd.hasOption(ControllerOptions.RASTERDPI_OPTION)) {
+
+				String dpiValue = cmd.getOptionValue(ControllerOptions.RASTERDPI_OPTION);
+
+				try {
+					controllerOptions.setRasterDpi(Float.parseFloat(dpiValue));
+				} catch (NumberFormatException e) {
+					controllerOptions.setRasterDpi(-1);
+				}
+
+				if (controllerOptions.getRasterDpi() <= 0) {
+					LOGGER.severe("--" + controllerOptions.getOptionType().getCommandName() + " command "
+							+ ControllerOptions.RASTERDPI_OPTION + " option value [" + dpiValue
+							+ "] must be a positive number");
+					displayHelp(options);
+					LOGGER.severe("Operation Terminated");
+					System.exit(-1);
+				}
+
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.RASTERDPI_OPTION + " [" + controllerOptions.getRasterDpi() + "]");
+			}
+
+			if (cmd.hasOption(ControllerOptions.JPEGQUALITY_OPTION)) {
+
+				String qualityValue = cmd.getOptionValue(ControllerOptions.JPEGQUALITY_OPTION);
+
+				try {
+					controllerOptions.setJpegQuality(Float.parseFloat(qualityValue));
+				} catch (NumberFormatException e) {
+					controllerOptions.setJpegQuality(-1);
+				}
+
+				if (controllerOptions.getJpegQuality() <= 0 || controllerOptions.getJpegQuality() > 1) {
+					LOGGER.severe("--" + controllerOptions.getOptionType().getCommandName() + " command "
+							+ ControllerOptions.JPEGQUALITY_OPTION + " option value [" + qualityValue
+							+ "] must be a number greater than 0 and at most 1");
+					displayHelp(options);
+					LOGGER.severe("Operation Terminated");
+					System.exit(-1);
+				}
+
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.JPEGQUALITY_OPTION + " [" + controllerOptions.getJpegQuality() + "]");
+			}
+
+			if (cmd.hasOption(ControllerOptions.RASTERFORMATS_OPTION)) {
+
+				String[] rasterFormats = cmd.getOptionValues(ControllerOptions.RASTERFORMATS_OPTION);
+
+				for (int i = 0; i < rasterFormats.length; i++) {
+
+					rasterFormats[i] = rasterFormats[i].toLowerCase();
+
+					if (!SvgRasterizer.isRasterFormat(rasterFormats[i])) {
+						LOGGER.severe("--" + controllerOptions.getOptionType().getCommandName() + " command "
+								+ ControllerOptions.RASTERFORMATS_OPTION + " option value [" + rasterFormats[i]
+								+ "] must be png, jpeg or jpg");
+						displayHelp(options);
+						LOGGER.severe("Operation Terminated");
+						System.exit(-1);
+					}
+				}
+
+				controllerOptions.setRasterFormats(rasterFormats);
+
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.RASTERFORMATS_OPTION + " " + Arrays.toString(rasterFormats));
+			}
+
+			if (cmd.hasOption(ControllerOptions.OPTIMIZEIMAGES_OPTION)) {
+
+				String dpiValue = cmd.getOptionValue(ControllerOptions.OPTIMIZEIMAGES_OPTION);
+
+				controllerOptions.setOptimizeImagesIsSet(true);
+
+				if (dpiValue != null) {
+					try {
+						controllerOptions.setImageDpi(Float.parseFloat(dpiValue));
+					} catch (NumberFormatException e) {
+						controllerOptions.setImageDpi(-1);
+					}
+				}
+
+				if (controllerOptions.getImageDpi() <= 0) {
+					LOGGER.severe("--" + controllerOptions.getOptionType().getCommandName() + " command "
+							+ ControllerOptions.OPTIMIZEIMAGES_OPTION + " option value [" + dpiValue
+							+ "] must be a positive number");
+					displayHelp(options);
+					LOGGER.severe("Operation Terminated");
+					System.exit(-1);
+				}
+
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.OPTIMIZEIMAGES_OPTION + " [" + controllerOptions.getImageDpi() + "]");
+			}
+
+			if (cmd.hasOption(ControllerOptions.MARPHEADER_OPTION)) {
+
+				String headerPath = cmd.getOptionValue(ControllerOptions.MARPHEADER_OPTION);
+
+				if (!new File(headerPath).isFile()) {
+					LOGGER.severe("--" + controllerOptions.getOptionType().getCommandName() + " command "
+							+ ControllerOptions.MARPHEADER_OPTION + " option file [" + headerPath + "] not found");
+					displayHelp(options);
+					LOGGER.severe("Operation Terminated");
+					System.exit(-1);
+				}
+
+				controllerOptions.setMarpHeaderPath(headerPath);
+
+				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
+						+ ControllerOptions.MARPHEADER_OPTION + " [" + headerPath + "]");
+			}
+
 			if (cmd.hasOption(ControllerOptions.LANGUAGE_OPTION)) {
 				// TODO: Get languages en tr fr etc...
 				LOGGER.info("--" + controllerOptions.getOptionType().getCommandName() + " option used with "
@@ -324,7 +616,8 @@ public class MainClass {
 		if (controllerOptions.getOptionType() == OptionType.GENERATEPAGES
 				|| controllerOptions.getOptionType() == OptionType.BUILDPAGES
 				|| controllerOptions.getOptionType() == OptionType.CLEANPAGES
-				|| controllerOptions.getOptionType() == OptionType.MERGEPAGES) {
+				|| controllerOptions.getOptionType() == OptionType.MERGEPAGES
+				|| controllerOptions.getOptionType() == OptionType.PPTX2MDCONVERT) {
 
 			if (!options.hasOption(ControllerOptions.FILE_OPTION)
 					&& !options.hasOption(ControllerOptions.FOLDER_OPTION)) {
@@ -367,6 +660,17 @@ public class MainClass {
 			} else if (controllerOptions.getOptionType() == OptionType.DRAWIOEXPORT) {
 				// Generate Pages Processing
 				result = controller.drawioExportImages();
+			} else if (controllerOptions.getOptionType() == OptionType.SVGRASTERIZE) {
+				// Rasterize SVG Images Processing
+				result = controller.rasterizeSvgImages();
+			} else if (controllerOptions.getOptionType() == OptionType.PPTX2MDCONVERT) {
+				// Convert PowerPoint Files Processing
+				result = controller.convertPowerPointFiles();
+			}
+
+			if (result && controllerOptions.isWatchIsSet()) {
+				// Watch Folder Processing
+				result = controller.watchPages();
 			}
 
 			if (result) {
@@ -484,6 +788,16 @@ public class MainClass {
 				.desc("Export Drawio Images SVG, PNG, JPG").build();
 		options.addOption(option);
 
+		// SVGRASTERIZE_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.SVGRASTERIZE_OPTION).hasArg(false)
+				.desc("Convert folder SVG images to JPEG (PNG) images for pandoc outputs").build();
+		options.addOption(option);
+
+		// PPTX2MDCONVERT_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.PPTX2MDCONVERT_OPTION).hasArg(false)
+				.desc("Convert PowerPoint pptx files to Marp markdown files next to them").build();
+		options.addOption(option);
+
 		// MERGEPAGES_OPTION Option Added
 		option = Option.builder().longOpt(ControllerOptions.MERGEPAGES_OPTION).hasArg(false).desc(
 				"Merge markdown slide/newpage seperators and remove dublicated titles for Pandoc PDF and Mkdocs Web")
@@ -525,6 +839,88 @@ public class MainClass {
 				.desc("rebuild flag for outputs").build();
 		options.addOption(option);
 
+		// FORCE_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.FORCE_OPTION).hasArg(false)
+				.desc("merge all files, ignore merge manifest").build();
+		options.addOption(option);
+
+		// WATCH_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.WATCH_OPTION).hasArg(false)
+				.desc("watch folder, merge/build changed markdown and export changed drawio files").build();
+		options.addOption(option);
+
+		// PARALLEL_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.PARALLEL_OPTION).argName("worker count").hasArg()
+				.optionalArg(true).desc("process folder files and build jobs in parallel, default is processor count")
+				.build();
+		options.addOption(option);
+
+		// DRAWIOPROCESSES_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.DRAWIOPROCESSES_OPTION).argName("process count").hasArg()
+				.desc("maximum number of draw.io processes in drawio exports, default is parallel count up to "
+						+ ControllerOptions.DEFAULT_DRAWIO_PROCESSES)
+				.build();
+		options.addOption(option);
+
+		// REPORT_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.REPORT_OPTION).argName("report file path").hasArg()
+				.desc("write JSON run report with per file and per phase timings").build();
+		options.addOption(option);
+
+		// TOOLLOGS_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.TOOLLOGS_OPTION).argName("log folder path").hasArg()
+				.desc("write full marp, pandoc, drawio and mkdocs outputs to log files").build();
+		options.addOption(option);
+
+		// PDFBACKEND_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.PDFBACKEND_OPTION).argName("pandoc|fop").hasArg()
+				.desc("render pandoc_ pdf documents with pandoc (default) or in-process with fop").build();
+		options.addOption(option);
+
+		// PPTXBACKEND_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.PPTXBACKEND_OPTION).argName("pandoc|poi").hasArg()
+				.desc("render panppt_ pptx slides with pandoc (default) or in-process with poi").build();
+		options.addOption(option);
+
+		// DOCXBACKEND_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.DOCXBACKEND_OPTION).argName("pandoc|poi").hasArg()
+				.desc("render pandoc_ docx documents with pandoc (default) or in-process with poi").build();
+		options.addOption(option);
+
+		// RASTERBACKEND_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.RASTERBACKEND_OPTION).argName("batik|drawio").hasArg()
+				.desc("convert drawio svg exports to png and jpeg in-process with batik (default) or export them with drawio")
+				.build();
+		options.addOption(option);
+
+		// RASTERDPI_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.RASTERDPI_OPTION).argName("dpi").hasArg()
+				.desc("resolution of rasterized png and jpeg images, default is 96 (svg size)").build();
+		options.addOption(option);
+
+		// JPEGQUALITY_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.JPEGQUALITY_OPTION).argName("quality").hasArg()
+				.desc("quality of rasterized jpeg images between 0 and 1, default is 0.9").build();
+		options.addOption(option);
+
+		// RASTERFORMATS_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.RASTERFORMATS_OPTION).argName("jpeg> <png").hasArgs()
+				.desc("formats of svgrasterize images, default is jpeg").build();
+		options.addOption(option);
+
+		// OPTIMIZEIMAGES_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.OPTIMIZEIMAGES_OPTION).argName("dpi").hasArg()
+				.optionalArg(true)
+				.desc("link downscaled and recompressed png and jpeg images of assets and images folders in pandoc outputs, default is 150 dpi")
+				.build();
+		options.addOption(option);
+
+		// MARPHEADER_OPTION Option Added
+		option = Option.builder().longOpt(ControllerOptions.MARPHEADER_OPTION).argName("properties file").hasArg()
+				.desc("properties of the marp header written before pptx2mdconvert slides (header, footer, author, license, language, semester, course, university, faculty, department)")
+				.build();
+		options.addOption(option);
+
 		// LANGUAGE_OPTION Option Added
 		option = Option.builder().longOpt(ControllerOptions.LANGUAGE_OPTION).argName("en> <fr> <tr").hasArgs()
 				.desc("language options").build();
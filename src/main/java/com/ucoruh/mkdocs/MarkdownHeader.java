@@ -2,6 +2,16 @@ package com.ucoruh.mkdocs;
 
 import org.jline.reader.impl.history.DefaultHistory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Properties;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -50,6 +60,82 @@ public class MarkdownHeader {
 	 */
 	private String department;
 
+	/**
+	 * Loads the metadata of a Markdown header from a UTF-8 properties file with
+	 * the header, footer, author, license, language, semester, course,
+	 * university, faculty and department keys. The license is a license type name
+	 * like MIT and the language is a language code like en-US, missing values are
+	 * empty, unlicensed and en-US.
+	 *
+	 * @param propertiesFilePath the path of the properties file
+	 * @return the Markdown header
+	 * @throws IOException if the file can't be read or has an unknown license or
+	 *                     language
+	 */
+	public static MarkdownHeader load(String propertiesFilePath) throws IOException {
+
+		Properties properties = new Properties();
+
+		try (InputStream inputStream = Files.newInputStream(Paths.get(propertiesFilePath));
+				Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+			properties.load(reader);
+		}
+
+		MarkdownHeader markdownHeader = new MarkdownHeader();
+		markdownHeader.setHeader(properties.getProperty("header", ""));
+		markdownHeader.setFooter(properties.getProperty("footer", ""));
+		markdownHeader.setAuthor(properties.getProperty("author", ""));
+		markdownHeader.setSemester(properties.getProperty("semester", ""));
+		markdownHeader.setCourse(properties.getProperty("course", ""));
+		markdownHeader.setUniversity(properties.getProperty("university", ""));
+		markdownHeader.setFaculty(properties.getProperty("faculty", ""));
+		markdownHeader.setDepartment(properties.getProperty("department", ""));
+
+		String license = properties.getProperty("license", LicenseTypes.UNLICENSED.name()).trim();
+		try {
+			markdownHeader.setLicense(LicenseTypes.valueOf(license.toUpperCase(Locale.ENGLISH)));
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Unknown license [" + license + "] in " + propertiesFilePath, e);
+		}
+
+		String language = properties.getProperty("language", LanguageType.EN_US.getLanguageCode()).trim();
+		for (LanguageType languageType : LanguageType.values()) {
+			if (languageType.getLanguageCode().equalsIgnoreCase(language)) {
+				markdownHeader.setLanguage(languageType);
+			}
+		}
+
+		if (markdownHeader.getLanguage() == null) {
+			throw new IOException("Unknown language [" + language + "] in " + propertiesFilePath);
+		}
+
+		return markdownHeader;
+	}
+
+	/**
+	 * Copies the metadata with another header, like the title of a single deck,
+	 * the metadata itself isn't changed.
+	 *
+	 * @param header the header of the copy
+	 * @return the copy of the metadata
+	 */
+	public MarkdownHeader withHeader(String header) {
+
+		MarkdownHeader markdownHeader = new MarkdownHeader();
+		markdownHeader.setHeader(header);
+		markdownHeader.setFooter(footer);
+		markdownHeader.setAuthor(author);
+		markdownHeader.setLicense(license);
+		markdownHeader.setLanguage(language);
+		markdownHeader.setSemester(semester);
+		markdownHeader.setCourse(course);
+		markdownHeader.setUniversity(university);
+		markdownHeader.setFaculty(faculty);
+		markdownHeader.setDepartment(department);
+
+		return markdownHeader;
+	}
+
 	/**
 	 * Generates a Markdown header with the given metadata.
 	 *
@@ -111,10 +197,10 @@ public class MarkdownHeader {
 		markdownBuilder.append("header-center:\n");
 		markdownBuilder.append("header-right:\n");
 		markdownBuilder.append("footer-left: \"© " + this.author + "\"\n");
-		markdownBuilder.append("footer-center: \"License: " + this.license + "\"\n");
+		markdownBuilder.append("footer-center: \"License: " + this.license.getLicenceName() + "\"\n");
 		markdownBuilder.append("footer-right:\n");
 		markdownBuilder.append("subparagraph: true\n");
-		markdownBuilder.append("lang: " + this.language + "\n");
+		markdownBuilder.append("lang: " + this.language.getLanguageCode() + "\n");
 		markdownBuilder.append("\n");
 
 		// Add Markdown content
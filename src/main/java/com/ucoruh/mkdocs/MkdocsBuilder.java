@@ -13,6 +13,9 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.logging.Logger;
 
+import com.ucoruh.utils.PhaseTimer;
+import com.ucoruh.utils.RunReport;
+import com.ucoruh.utils.RunReport.Phase;
 import com.ucoruh.utils.Utils;
 
 public class MkdocsBuilder {
@@ -47,21 +50,31 @@ public class MkdocsBuilder {
 		File inputFile = new File(inputUrl.getFile());
 		File[] files = inputFile.listFiles();
 
-		// Copy each file to the output folder
-		for (File file : files) {
-			if (file.isDirectory()) {
-				copyResourceFolder(inputFolder + "/" + file.getName(), outputFolder + "/" + file.getName());
-			} else {
-				InputStream inputStream = new FileInputStream(file);
-				OutputStream outputStream = new FileOutputStream(new File(outputFolder + "/" + file.getName()));
-				byte[] buffer = new byte[4096];
-				int bytesRead;
-				while ((bytesRead = inputStream.read(buffer)) != -1) {
-					outputStream.write(buffer, 0, bytesRead);
+		// Copy each file to the output folder, sub folders are measured separately
+		PhaseTimer timer = RunReport.start(Phase.RESOURCE_COPY, outputFolder, inputFolder);
+
+		try {
+			for (File file : files) {
+				if (file.isDirectory()) {
+					timer.pause();
+					copyResourceFolder(inputFolder + "/" + file.getName(), outputFolder + "/" + file.getName());
+					timer.resume();
+				} else {
+					InputStream inputStream = new FileInputStream(file);
+					OutputStream outputStream = new FileOutputStream(new File(outputFolder + "/" + file.getName()));
+					byte[] buffer = new byte[4096];
+					int bytesRead;
+					while ((bytesRead = inputStream.read(buffer)) != -1) {
+						outputStream.write(buffer, 0, bytesRead);
+						timer.addBytesIn(bytesRead);
+						timer.addBytesOut(bytesRead);
+					}
+					inputStream.close();
+					outputStream.close();
 				}
-				inputStream.close();
-				outputStream.close();
 			}
+		} finally {
+			timer.close();
 		}
 
 		return true;
@@ -2,6 +2,8 @@ package com.ucoruh.option;
 
 import java.util.ArrayList;
 
+import com.ucoruh.utils.ImageOptimizer;
+import com.ucoruh.utils.SvgRasterizer;
 import com.ucoruh.utils.Utils;
 
 import lombok.Getter;
@@ -79,6 +81,9 @@ public class ControllerOptions {
 	/** Command-line option for exporting diagrams from DrawIO files */
 	public static final String DRAWIOEXPORT_OPTION = "drawioexport";
 
+	/** Command-line option for converting SVG images to PNG and JPEG images */
+	public static final String SVGRASTERIZE_OPTION = "svgrasterize";
+
 	/** Command-line option for converting PowerPoint files to Markdown */
 	public static final String PPTX2MDCONVERT_OPTION = "pptx2mdconvert";
 
@@ -106,6 +111,69 @@ public class ControllerOptions {
 	/** Command-line option for rebuilding generated pages */
 	public static final String REBUILD_OPTION = "rebuild";
 
+	/** Command-line option for merging files even if they are unchanged */
+	public static final String FORCE_OPTION = "force";
+
+	/** Command-line option for watching the folder and processing changed files */
+	public static final String WATCH_OPTION = "watch";
+
+	/** Command-line option for the number of files processed in parallel */
+	public static final String PARALLEL_OPTION = "parallel";
+
+	/** Command-line option for writing a JSON run report with phase timings */
+	public static final String REPORT_OPTION = "report";
+
+	/** Command-line option for the number of draw.io processes run in parallel */
+	public static final String DRAWIOPROCESSES_OPTION = "drawioprocesses";
+
+	/** Default limit of parallel draw.io processes, every process is an Electron instance */
+	public static final int DEFAULT_DRAWIO_PROCESSES = 4;
+
+	/** Command-line option for writing the full output of every tool run to a folder */
+	public static final String TOOLLOGS_OPTION = "toollogs";
+
+	/** Command-line option for the renderer of pandoc_ PDF documents */
+	public static final String PDFBACKEND_OPTION = "pdfbackend";
+
+	/** Render backend running the pandoc command */
+	public static final String PANDOC_BACKEND = "pandoc";
+
+	/** Render backend running Apache FOP in the converter */
+	public static final String FOP_BACKEND = "fop";
+
+	/** Command-line option for the renderer of panppt_ PPTX slides */
+	public static final String PPTXBACKEND_OPTION = "pptxbackend";
+
+	/** Command-line option for the renderer of pandoc_ DOCX documents */
+	public static final String DOCXBACKEND_OPTION = "docxbackend";
+
+	/** Render backend running Apache POI in the converter */
+	public static final String POI_BACKEND = "poi";
+
+	/** Command-line option for the renderer of PNG and JPEG images in drawio exports */
+	public static final String RASTERBACKEND_OPTION = "rasterbackend";
+
+	/** Raster backend converting the SVG export with Batik in the converter */
+	public static final String BATIK_BACKEND = "batik";
+
+	/** Raster backend running a draw.io export for every format */
+	public static final String DRAWIO_BACKEND = "drawio";
+
+	/** Command-line option for the resolution of rasterized images */
+	public static final String RASTERDPI_OPTION = "rasterdpi";
+
+	/** Command-line option for the quality of rasterized JPEG images */
+	public static final String JPEGQUALITY_OPTION = "jpegquality";
+
+	/** Command-line option for the formats SVG images are converted to */
+	public static final String RASTERFORMATS_OPTION = "rasterformats";
+
+	/** Command-line option for optimized images in the pandoc outputs */
+	public static final String OPTIMIZEIMAGES_OPTION = "optimizeimages";
+
+	/** Command-line option for the header properties of converted PowerPoint files */
+	public static final String MARPHEADER_OPTION = "marpheader";
+
 	public ControllerOptions() {
 		languages = new ArrayList<>();
 	}
@@ -180,6 +248,131 @@ public class ControllerOptions {
 	@Setter
 	private boolean rebuildIsSet;
 
+	/**
+	 * @brief Whether to merge all files even if the merge manifest reports them
+	 *        unchanged.
+	 */
+	@Getter
+	@Setter
+	private boolean forceIsSet;
+
+	/**
+	 * @brief Whether to watch the folder and process changed files after the
+	 *        operation.
+	 */
+	@Getter
+	@Setter
+	private boolean watchIsSet;
+
+	/**
+	 * @brief The number of files processed in parallel in folder operations.
+	 */
+	@Getter
+	@Setter
+	private int parallelism = 1;
+
+	/**
+	 * @brief Whether the parallelism level is set on the command line.
+	 */
+	@Getter
+	@Setter
+	private boolean parallelIsSet;
+
+	/**
+	 * @brief The number of draw.io processes run in parallel, 0 if not set.
+	 */
+	@Getter
+	@Setter
+	private int drawioProcesses;
+
+	/**
+	 * @brief The path of the JSON run report, null if no report is written.
+	 */
+	@Getter
+	@Setter
+	private String reportFilePath;
+
+	/**
+	 * @brief The folder of the tool output logs, null if no logs are written.
+	 */
+	@Getter
+	@Setter
+	private String toolLogsFolderPath;
+
+	/**
+	 * @brief The renderer of pandoc_ PDF documents, pandoc or fop.
+	 */
+	@Getter
+	@Setter
+	private String pdfBackend = PANDOC_BACKEND;
+
+	/**
+	 * @brief The renderer of panppt_ PPTX slides, pandoc or poi.
+	 */
+	@Getter
+	@Setter
+	private String pptxBackend = PANDOC_BACKEND;
+
+	/**
+	 * @brief The renderer of pandoc_ DOCX documents, pandoc or poi.
+	 */
+	@Getter
+	@Setter
+	private String docxBackend = PANDOC_BACKEND;
+
+	/**
+	 * @brief The renderer of PNG and JPEG images in drawio exports, batik or
+	 *        drawio.
+	 */
+	@Getter
+	@Setter
+	private String rasterBackend = BATIK_BACKEND;
+
+	/**
+	 * @brief The resolution of rasterized images in DPI.
+	 */
+	@Getter
+	@Setter
+	private float rasterDpi = SvgRasterizer.DEFAULT_DPI;
+
+	/**
+	 * @brief The quality of rasterized JPEG images between 0 and 1.
+	 */
+	@Getter
+	@Setter
+	private float jpegQuality = SvgRasterizer.DEFAULT_JPEG_QUALITY;
+
+	/**
+	 * @brief The formats SVG images are converted to, the JPEG images linked by
+	 *        the pandoc outputs by default.
+	 */
+	@Getter
+	@Setter
+	private String[] rasterFormats = { "jpeg" };
+
+	/**
+	 * @brief Whether the pandoc outputs link downscaled and recompressed copies
+	 *        of the PNG and JPEG images.
+	 */
+	@Getter
+	@Setter
+	private boolean optimizeImagesIsSet;
+
+	/**
+	 * @brief The resolution of the optimized images in DPI.
+	 */
+	@Getter
+	@Setter
+	private float imageDpi = ImageOptimizer.DEFAULT_DPI;
+
+	/**
+	 * @brief The path to the properties file of the Marp header written before
+	 *        the slides of converted PowerPoint files.
+	 */
+	@Getter
+	@Setter
+	private String marpHeaderPath;
+
 	/**
 	 * @brief An array of language codes to include in the output.
 	 */
@@ -205,6 +398,35 @@ public class ControllerOptions {
 		return !Utils.checkStringNullOrEmpty(this.folderInputPath);
 	}
 
+	/**
+	 * @brief The number of draw.io processes run in parallel in Draw.IO exports.
+	 *        Unless set, the build parallelism is used up to
+	 *        DEFAULT_DRAWIO_PROCESSES, since every process is a separate Electron
+	 *        instance.
+	 */
+	public int getDrawioProcessLimit() {
+
+		if (drawioProcesses > 0) {
+			return drawioProcesses;
+		}
+
+		return Math.min(getBuildParallelism(), DEFAULT_DRAWIO_PROCESSES);
+	}
+
+	/**
+	 * @brief The number of render jobs run in parallel in build operations. Render
+	 *        jobs are external processes, so builds use the processor count unless
+	 *        a parallelism level is set.
+	 */
+	public int getBuildParallelism() {
+
+		if (parallelIsSet) {
+			return parallelism;
+		}
+
+		return Runtime.getRuntime().availableProcessors();
+	}
+
 	/**
 	 * @brief Whether the language has been set or not.
 	 */
@@ -13,6 +13,8 @@ public enum OptionType {
 	GENERATEPAGES(ControllerOptions.GENERATEPAGES_OPTION),
 	CLEANPAGES(ControllerOptions.CLEANPAGES_OPTION), 
 	DRAWIOEXPORT(ControllerOptions.DRAWIOEXPORT_OPTION),
+	SVGRASTERIZE(ControllerOptions.SVGRASTERIZE_OPTION),
+	PPTX2MDCONVERT(ControllerOptions.PPTX2MDCONVERT_OPTION),
 	HELP(ControllerOptions.HELP_OPTION);
 
 	private String commandName;
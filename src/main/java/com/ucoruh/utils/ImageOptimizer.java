@@ -0,0 +1,588 @@
+package com.ucoruh.utils;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.apache.commons.io.FilenameUtils;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class ImageOptimizer
+ * @brief Writes smaller copies of the PNG and JPEG images of a deck for the
+ *        pandoc outputs. An image is downscaled to the pixels it needs at
+ *        {@link #getDpi()} for its declared Marp width or height, JPEG images
+ *        are recompressed and the copies are written without metadata. Only an
+ *        image ImageIO can't decode, like a CMYK JPEG image, is copied as it
+ *        is with its metadata.
+ *
+ *        The copy of an image is written to the {@value #OPTIMIZED_FOLDER}
+ *        folder next to it, its name keeps the image name and adds the pixel
+ *        bound, like <code>assets/.optimized/photo-781w.jpg</code> for
+ *        <code>![width:500px](assets/photo.jpg)</code> at 150 DPI. Only images
+ *        in an assets or images folder are optimized.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * String optimizedUrl = ImageOptimizer.getOptimizedUrl("assets/photo.jpg", "500px", null, 150f);
+ * OptimizedImage image = ImageOptimizer.getOptimizedImage("docs/" + optimizedUrl);
+ * new ImageOptimizer(150f, 0.9f).optimize(image);
+ * }
+ *        </pre>
+ */
+public class ImageOptimizer {
+
+	/**
+	 * The default resolution of the optimized images
+	 */
+	public static final float DEFAULT_DPI = 150f;
+
+	/**
+	 * The resolution of Marp and CSS pixels
+	 */
+	public static final float CSS_DPI = 96f;
+
+	/**
+	 * The width of a Marp slide in pixels, the bound of images without a declared
+	 * size
+	 */
+	public static final int SLIDE_WIDTH = 1280;
+
+	/**
+	 * The folder of the optimized images next to the images
+	 */
+	public static final String OPTIMIZED_FOLDER = ".optimized";
+
+	/**
+	 * The folders whose images are optimized
+	 */
+	public static final String[] IMAGE_FOLDERS = { "assets", "images" };
+
+	/**
+	 * The optimized image formats
+	 */
+	private static final String[] IMAGE_FORMATS = { "png", "jpg", "jpeg" };
+
+	/**
+	 * The JPEG segment markers of EXIF and XMP, ICC profile, IPTC and comment
+	 * metadata
+	 */
+	private static final int[] JPEG_METADATA_MARKERS = { 0xFFE1, 0xFFE2, 0xFFED, 0xFFFE };
+
+	/**
+	 * The PNG chunk types of text, time, EXIF and ICC profile metadata
+	 */
+	private static final String[] PNG_METADATA_CHUNKS = { "tEXt", "zTXt", "iTXt", "tIME", "eXIf", "iCCP" };
+
+	/**
+	 * The name of an optimized image, the image name, the pixel bound, the bound
+	 * side and the extension
+	 */
+	private static final Pattern OPTIMIZED_NAME = Pattern.compile("^(.+)-(\\d+)([wh])\\.([A-Za-z]+)$");
+
+	/**
+	 * A CSS pixel or percentage length, the unit is optional
+	 */
+	private static final Pattern CSS_LENGTH = Pattern.compile("^(\\d+(?:\\.\\d+)?)(px|%)?$");
+
+	/**
+	 *
+	 * @brief An optimized image and the image it is written from.
+	 */
+	@Getter
+	public static class OptimizedImage {
+
+		/**
+		 * The path of the image
+		 */
+		private final String sourceFile;
+
+		/**
+		 * The path of the optimized image
+		 */
+		private final String outputFile;
+
+		/**
+		 * The maximum width in pixels, 0 if the height is bound
+		 */
+		private final int maxWidth;
+
+		/**
+		 * The maximum height in pixels, 0 if the width is bound
+		 */
+		private final int maxHeight;
+
+		/**
+		 * Creates an optimized image.
+		 *
+		 * @param sourceFile The path of the image
+		 * @param outputFile The path of the optimized image
+		 * @param maxWidth   The maximum width in pixels
+		 * @param maxHeight  The maximum height in pixels
+		 */
+		public OptimizedImage(String sourceFile, String outputFile, int maxWidth, int maxHeight) {
+			this.sourceFile = sourceFile;
+			this.outputFile = outputFile;
+			this.maxWidth = maxWidth;
+			this.maxHeight = maxHeight;
+		}
+	}
+
+	/**
+	 * The resolution of the optimized images in DPI
+	 */
+	@Getter
+	private final float dpi;
+
+	/**
+	 * The JPEG quality between 0 and 1
+	 */
+	@Getter
+	private final float jpegQuality;
+
+	/**
+	 * Creates an optimizer.
+	 *
+	 * @param dpi         The resolution of the optimized images in DPI
+	 *
+	 * @param jpegQuality The JPEG quality between 0 and 1
+	 */
+	public ImageOptimizer(float dpi, float jpegQuality) {
+		this.dpi = dpi;
+		this.jpegQuality = jpegQuality;
+	}
+
+	/**
+	 *
+	 * Gets the URL of the optimized image of a Marp image link.
+	 *
+	 * @param imageUrl The image URL
+	 *
+	 * @param width    The declared width, like 500px or 50%, can be null
+	 *
+	 * @param height   The declared height, can be null
+	 *
+	 * @param dpi      The resolution of the optimized images in DPI
+	 *
+	 * @return The URL of the optimized image, null if the image isn't a local PNG
+	 *         or JPEG image in an assets or images folder
+	 */
+	public static String getOptimizedUrl(String imageUrl, String width, String height, float dpi) {
+
+		String url = imageUrl.strip();
+
+		if (url.contains("://") || url.startsWith("data:") || url.contains(OPTIMIZED_FOLDER + "/")) {
+			return null;
+		}
+
+		String extension = FilenameUtils.getExtension(url);
+
+		if (!contains(IMAGE_FORMATS, extension.toLowerCase(Locale.ENGLISH))) {
+			return null;
+		}
+
+		String folder = url.substring(0, url.length() - FilenameUtils.getName(url).length());
+
+		boolean imageFolder = false;
+		for (String segment : folder.split("/")) {
+			imageFolder |= contains(IMAGE_FOLDERS, segment);
+		}
+
+		if (!imageFolder) {
+			return null;
+		}
+
+		double widthPixels = toCssPixels(width);
+		double heightPixels = toCssPixels(height);
+
+		String bound;
+		if (widthPixels > 0) {
+			bound = Math.round(widthPixels * dpi / CSS_DPI) + "w";
+		} else if (heightPixels > 0) {
+			bound = Math.round(heightPixels * dpi / CSS_DPI) + "h";
+		} else {
+			bound = Math.round(SLIDE_WIDTH * dpi / CSS_DPI) + "w";
+		}
+
+		return folder + OPTIMIZED_FOLDER + "/" + FilenameUtils.getBaseName(url) + "-" + bound + "." + extension;
+	}
+
+	/**
+	 *
+	 * Gets the image and pixel bound of an optimized image path.
+	 *
+	 * @param outputFile The path of the optimized image
+	 *
+	 * @return The optimized image, null if the path isn't an optimized image
+	 */
+	public static OptimizedImage getOptimizedImage(String outputFile) {
+
+		File output = new File(outputFile);
+		File folder = output.getParentFile();
+
+		if (folder == null || !folder.getName().equals(OPTIMIZED_FOLDER)) {
+			return null;
+		}
+
+		Matcher matcher = OPTIMIZED_NAME.matcher(output.getName());
+
+		if (!matcher.matches()) {
+			return null;
+		}
+
+		String sourceFile = new File(folder.getParentFile(), matcher.group(1) + "." + matcher.group(4)).getPath();
+		int bound = Integer.parseInt(matcher.group(2));
+
+		return matcher.group(3).equals("w") ? new OptimizedImage(sourceFile, outputFile, bound, 0)
+				: new OptimizedImage(sourceFile, outputFile, 0, bound);
+	}
+
+	/**
+	 *
+	 * Writes an optimized image. The image is downscaled to its pixel bound and
+	 * written without metadata, a JPEG image with the configured quality. An
+	 * image without metadata that isn't downscaled and isn't smaller when
+	 * written again is copied as it is, an image with metadata is always written
+	 * again. An image that can't be decoded, like a CMYK JPEG image, is copied
+	 * as it is.
+	 *
+	 * @param image The optimized image
+	 *
+	 * @throws IOException If the image can't be read or written.
+	 *
+	 * @return true if the image was downscaled or written again, false if it was
+	 *         copied
+	 */
+	public boolean optimize(OptimizedImage image) throws IOException {
+
+		File source = new File(image.getSourceFile());
+		File output = new File(image.getOutputFile());
+
+		if (!source.isFile()) {
+			throw new IOException("Image not found " + source);
+		}
+
+		Files.createDirectories(output.getAbsoluteFile().getParentFile().toPath());
+
+		// written next to the output and moved, a hard linked cache entry isn't changed
+		Path temporaryFile = Paths.get(output.getPath() + ".tmp");
+
+		BufferedImage sourceImage;
+
+		try {
+			sourceImage = ImageIO.read(source);
+		} catch (IOException e) {
+			sourceImage = null;
+		}
+
+		if (sourceImage == null) {
+			Files.copy(source.toPath(), temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+			Files.move(temporaryFile, output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			return false;
+		}
+
+		double scale = 1;
+
+		if (image.getMaxWidth() > 0) {
+			scale = Math.min(scale, (double) image.getMaxWidth() / sourceImage.getWidth());
+		}
+
+		if (image.getMaxHeight() > 0) {
+			scale = Math.min(scale, (double) image.getMaxHeight() / sourceImage.getHeight());
+		}
+
+		String extension = FilenameUtils.getExtension(output.getName()).toLowerCase(Locale.ENGLISH);
+		boolean jpeg = !extension.equals("png");
+
+		BufferedImage outputImage = scale < 1 ? resize(sourceImage, scale, jpeg) : sourceImage;
+
+		try {
+			if (jpeg) {
+				writeJpeg(toRgb(outputImage), temporaryFile.toFile());
+			} else {
+				ImageIO.write(outputImage, "png", temporaryFile.toFile());
+			}
+
+			boolean optimized = scale < 1 || Files.size(temporaryFile) < source.length()
+					|| hasMetadata(source, jpeg);
+
+			if (!optimized) {
+				Files.copy(source.toPath(), temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+
+			Files.move(temporaryFile, output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+			return optimized;
+
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	/**
+	 *
+	 * Checks whether an image has metadata the optimized copy drops, EXIF, XMP,
+	 * IPTC, ICC profile or comment segments of a JPEG image and text, time,
+	 * EXIF or ICC profile chunks of a PNG image.
+	 *
+	 * @param file The image
+	 *
+	 * @param jpeg Whether the image is a JPEG image, a PNG image otherwise
+	 *
+	 * @throws IOException If the image can't be read.
+	 *
+	 * @return true if the image has metadata, false otherwise
+	 */
+	private static boolean hasMetadata(File file, boolean jpeg) throws IOException {
+
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+
+			if (jpeg) {
+				// the segments before the image data, after the start of image marker
+				input.readUnsignedShort();
+
+				while (true) {
+
+					int marker = input.readUnsignedShort();
+
+					if (marker == 0xFFDA || marker == 0xFFD9) {
+						return false;
+					}
+
+					if (contains(JPEG_METADATA_MARKERS, marker)) {
+						return true;
+					}
+
+					input.skipBytes(input.readUnsignedShort() - 2);
+				}
+			}
+
+			// the chunks after the PNG signature
+			input.skipBytes(8);
+
+			while (true) {
+
+				int length = input.readInt();
+				byte[] type = new byte[4];
+				input.readFully(type);
+
+				String chunkType = new String(type, StandardCharsets.US_ASCII);
+
+				if (chunkType.equals("IEND")) {
+					return false;
+				}
+
+				if (contains(PNG_METADATA_CHUNKS, chunkType)) {
+					return true;
+				}
+
+				input.skipBytes(length + 4);
+			}
+
+		} catch (EOFException e) {
+			return false;
+		}
+	}
+
+	/**
+	 *
+	 * Downscales an image in halving steps, a single bilinear step loses detail
+	 * below half size.
+	 *
+	 * @param image  The image
+	 *
+	 * @param scale  The scale below 1
+	 *
+	 * @param opaque Whether the alpha channel is dropped
+	 *
+	 * @return The downscaled image
+	 */
+	private static BufferedImage resize(BufferedImage image, double scale, boolean opaque) {
+
+		int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+		int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+		BufferedImage result = image;
+
+		do {
+			int width = Math.max(targetWidth, result.getWidth() / 2);
+			int height = Math.max(targetHeight, result.getHeight() / 2);
+
+			BufferedImage step = new BufferedImage(width, height,
+					opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+
+			Graphics2D graphics = step.createGraphics();
+			try {
+				graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+				graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+				if (opaque) {
+					graphics.setColor(Color.WHITE);
+					graphics.fillRect(0, 0, width, height);
+				}
+				graphics.drawImage(result, 0, 0, width, height, null);
+			} finally {
+				graphics.dispose();
+			}
+
+			result = step;
+
+		} while (result.getWidth() > targetWidth || result.getHeight() > targetHeight);
+
+		return result;
+	}
+
+	/**
+	 *
+	 * Converts an image to an RGB image on a white background, JPEG images have
+	 * no alpha channel.
+	 *
+	 * @param image The image
+	 *
+	 * @return The RGB image
+	 */
+	private static BufferedImage toRgb(BufferedImage image) {
+
+		if (image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+			return image;
+		}
+
+		BufferedImage rgbImage = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+
+		Graphics2D graphics = rgbImage.createGraphics();
+		try {
+			graphics.drawImage(image, 0, 0, Color.WHITE, null);
+		} finally {
+			graphics.dispose();
+		}
+
+		return rgbImage;
+	}
+
+	/**
+	 *
+	 * Writes a JPEG image with the configured quality and without metadata.
+	 *
+	 * @param image The RGB image
+	 *
+	 * @param file  The JPEG file
+	 *
+	 * @throws IOException If the image can't be written.
+	 */
+	private void writeJpeg(BufferedImage image, File file) throws IOException {
+
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+
+		if (!writers.hasNext()) {
+			throw new IOException("No JPEG image writer");
+		}
+
+		ImageWriter writer = writers.next();
+
+		try (ImageOutputStream output = ImageIO.createImageOutputStream(file)) {
+
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			param.setCompressionQuality(jpegQuality);
+
+			writer.setOutput(output);
+			writer.write(null, new IIOImage(image, null, null), param);
+
+		} finally {
+			writer.dispose();
+		}
+	}
+
+	/**
+	 *
+	 * Converts a CSS length of a Marp image to pixels.
+	 *
+	 * @param length The length, like 500px, 500 or 50% of the slide width
+	 *
+	 * @return The pixels, 0 if the length is missing or has another unit
+	 */
+	private static double toCssPixels(String length) {
+
+		if (Utils.checkStringNullOrEmpty(length)) {
+			return 0;
+		}
+
+		Matcher matcher = CSS_LENGTH.matcher(length.strip());
+
+		if (!matcher.matches()) {
+			return 0;
+		}
+
+		double value = Double.parseDouble(matcher.group(1));
+
+		return "%".equals(matcher.group(2)) ? value * SLIDE_WIDTH / 100 : value;
+	}
+
+	/**
+	 *
+	 * Checks whether an array contains a value.
+	 *
+	 * @param values The array
+	 *
+	 * @param value  The value
+	 *
+	 * @return true if the array contains the value
+	 */
+	private static boolean contains(String[] values, String value) {
+
+		for (String item : values) {
+			if (item.equals(value)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 *
+	 * Checks whether an array contains a value.
+	 *
+	 * @param values The array
+	 *
+	 * @param value  The value
+	 *
+	 * @return true if the array contains the value
+	 */
+	private static boolean contains(int[] values, int value) {
+
+		for (int item : values) {
+			if (item == value) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+}
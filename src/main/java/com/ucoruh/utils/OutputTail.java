@@ -0,0 +1,111 @@
+package com.ucoruh.utils;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ *
+ * @class OutputTail
+ * @brief Output stream that keeps only the last bytes written to it in a ring
+ *        buffer. Used to capture the output of external tools with a fixed
+ *        memory bound, a chatty tool keeps the end of its output which holds
+ *        the error.
+ */
+public class OutputTail extends OutputStream {
+
+	/**
+	 *
+	 * @brief The ring buffer.
+	 */
+	private final byte[] buffer;
+
+	/**
+	 *
+	 * @brief The next write position in the ring buffer.
+	 */
+	private int position;
+
+	/**
+	 *
+	 * @brief The number of bytes written in total.
+	 */
+	private long totalBytes;
+
+	/**
+	 *
+	 * @brief Creates an output tail.
+	 *
+	 * @param capacity The number of last bytes kept
+	 */
+	public OutputTail(int capacity) {
+		this.buffer = new byte[Math.max(1, capacity)];
+	}
+
+	@Override
+	public synchronized void write(int b) {
+		buffer[position] = (byte) b;
+		position = (position + 1) % buffer.length;
+		totalBytes++;
+	}
+
+	@Override
+	public synchronized void write(byte[] b, int off, int len) {
+
+		totalBytes += len;
+
+		// only the last capacity bytes can be kept
+		if (len > buffer.length) {
+			off += len - buffer.length;
+			len = buffer.length;
+		}
+
+		int firstLength = Math.min(len, buffer.length - position);
+		System.arraycopy(b, off, buffer, position, firstLength);
+		System.arraycopy(b, off + firstLength, buffer, 0, len - firstLength);
+
+		position = (position + len) % buffer.length;
+	}
+
+	/**
+	 *
+	 * Gets the number of bytes written in total.
+	 *
+	 * @return The number of bytes written
+	 */
+	public synchronized long getTotalBytes() {
+		return totalBytes;
+	}
+
+	/**
+	 *
+	 * Checks whether bytes were dropped from the start of the output.
+	 *
+	 * @return true if the output is longer than the capacity, false otherwise
+	 */
+	public synchronized boolean isTruncated() {
+		return totalBytes > buffer.length;
+	}
+
+	/**
+	 *
+	 * Gets the kept bytes as UTF-8 text. A truncated output starts with the
+	 * number of dropped bytes.
+	 *
+	 * @return The kept output
+	 */
+	@Override
+	public synchronized String toString() {
+
+		if (!isTruncated()) {
+			return new String(buffer, 0, (int) totalBytes, StandardCharsets.UTF_8);
+		}
+
+		byte[] tail = new byte[buffer.length];
+		System.arraycopy(buffer, position, tail, 0, buffer.length - position);
+		System.arraycopy(buffer, 0, tail, buffer.length - position, position);
+
+		return "... [" + (totalBytes - buffer.length) + " bytes truncated]\n"
+				+ new String(tail, StandardCharsets.UTF_8);
+	}
+
+}
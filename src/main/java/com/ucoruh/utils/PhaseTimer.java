@@ -0,0 +1,302 @@
+package com.ucoruh.utils;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import com.ucoruh.utils.RunReport.Phase;
+
+/**
+ *
+ * @class PhaseTimer
+ * @brief Measures wall-clock and thread CPU time of a pipeline phase and
+ *        records it to the run report when closed. A timer can be paused and
+ *        resumed to accumulate a phase that is interleaved with other phases,
+ *        like reading and classifying lines of the same deck.
+ *
+ *        Timers created while the run report is disabled measure nothing, so
+ *        instrumented code costs only a flag check in normal runs.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * files = PhaseTimer.time(Phase.DISCOVERY, folderPath, null, () -> findFiles(...));
+ *
+ * try (PhaseTimer timer = RunReport.start(Phase.READ, filePath, null)) {
+ * 	timer.addBytesIn(read(...));
+ * }
+ * }
+ *        </pre>
+ */
+public class PhaseTimer implements AutoCloseable {
+
+	/**
+	 *
+	 * @brief A task measured as a phase by {@link PhaseTimer#time}.
+	 *
+	 * @param <T> The result type of the task
+	 *
+	 * @param <E> The exception type of the task
+	 */
+	@FunctionalInterface
+	public interface TimedTask<T, E extends Exception> {
+
+		/**
+		 * Runs the task.
+		 *
+		 * @return The result of the task
+		 *
+		 * @throws E If the task fails
+		 */
+		T run() throws E;
+	}
+
+	/**
+	 *
+	 * @brief Thread MX bean used for thread CPU time.
+	 */
+	private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+	/**
+	 *
+	 * @brief The file processed in the phase.
+	 */
+	private final String file;
+
+	/**
+	 *
+	 * @brief The measured phase.
+	 */
+	private final Phase phase;
+
+	/**
+	 *
+	 * @brief Phase detail like the tool name of a subprocess, can be null.
+	 */
+	private final String detail;
+
+	/**
+	 *
+	 * @brief Whether the timer measures, false if the run report is disabled.
+	 */
+	private final boolean enabled;
+
+	/**
+	 *
+	 * @brief Whether the timer is running.
+	 */
+	private boolean running = false;
+
+	/**
+	 *
+	 * @brief Whether the timer is already recorded.
+	 */
+	private boolean closed = false;
+
+	/**
+	 *
+	 * @brief Wall-clock time of the last resume in nanoseconds.
+	 */
+	private long wallStartNanos;
+
+	/**
+	 *
+	 * @brief Thread CPU time of the last resume in nanoseconds, -1 if not
+	 *        supported.
+	 */
+	private long cpuStartNanos;
+
+	/**
+	 *
+	 * @brief Accumulated wall-clock time in nanoseconds.
+	 */
+	private long wallNanos = 0;
+
+	/**
+	 *
+	 * @brief Accumulated thread CPU time in nanoseconds, -1 if not measured.
+	 */
+	private long cpuNanos = 0;
+
+	/**
+	 *
+	 * @brief Number of bytes read in the phase.
+	 */
+	private long bytesIn = 0;
+
+	/**
+	 *
+	 * @brief Number of bytes written in the phase.
+	 */
+	private long bytesOut = 0;
+
+	/**
+	 *
+	 * @brief Creates a paused timer for a phase of a file.
+	 *
+	 * @param file    The file processed in the phase
+	 *
+	 * @param phase   The measured phase
+	 *
+	 * @param detail  Phase detail like the tool name of a subprocess, can be null
+	 *
+	 * @param enabled Whether the timer measures
+	 */
+	PhaseTimer(String file, Phase phase, String detail, boolean enabled) {
+		this.file = file;
+		this.phase = phase;
+		this.detail = detail;
+		this.enabled = enabled;
+	}
+
+	/**
+	 *
+	 * Runs a task and records it as a phase, for tasks that don't use the timer
+	 * itself.
+	 *
+	 * @param <T>    The result type of the task
+	 *
+	 * @param <E>    The exception type of the task
+	 *
+	 * @param phase  The measured phase
+	 *
+	 * @param file   The processed file, if null the current file of the thread
+	 *               is used
+	 *
+	 * @param detail Phase detail like the tool name of a subprocess, can be null
+	 *
+	 * @param task   The task
+	 *
+	 * @return The result of the task
+	 *
+	 * @throws E If the task fails, the phase is recorded too
+	 */
+	public static <T, E extends Exception> T time(Phase phase, String file, String detail, TimedTask<T, E> task)
+			throws E {
+
+		PhaseTimer timer = RunReport.start(phase, file, detail);
+
+		try {
+			return task.run();
+		} finally {
+			timer.close();
+		}
+	}
+
+	/**
+	 *
+	 * Starts or continues measuring.
+	 *
+	 * @return This timer
+	 */
+	public PhaseTimer resume() {
+
+		if (enabled && !running) {
+			running = true;
+			cpuStartNanos = currentThreadCpuNanos();
+			wallStartNanos = System.nanoTime();
+		}
+
+		return this;
+	}
+
+	/**
+	 *
+	 * Stops measuring until the timer is resumed.
+	 */
+	public void pause() {
+
+		if (enabled && running) {
+			wallNanos += System.nanoTime() - wallStartNanos;
+			long cpuEndNanos = currentThreadCpuNanos();
+			if (cpuStartNanos < 0 || cpuEndNanos < 0) {
+				cpuNanos = -1;
+			} else if (cpuNanos >= 0) {
+				cpuNanos += cpuEndNanos - cpuStartNanos;
+			}
+			running = false;
+		}
+	}
+
+	/**
+	 *
+	 * Removes the time of a nested timer from this timer, used when a phase runs
+	 * inside another phase like writes inside line classification.
+	 *
+	 * @param nested The timer of the nested phase
+	 */
+	public void exclude(PhaseTimer nested) {
+
+		if (enabled) {
+			wallNanos = Math.max(0, wallNanos - nested.wallNanos);
+			if (cpuNanos >= 0 && nested.cpuNanos >= 0) {
+				cpuNanos = Math.max(0, cpuNanos - nested.cpuNanos);
+			} else {
+				cpuNanos = -1;
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Marks the CPU time of the phase as not measured, used for phases that run
+	 * in another process.
+	 */
+	public void withoutCpuTime() {
+		cpuNanos = -1;
+	}
+
+	/**
+	 *
+	 * Adds read bytes to the phase.
+	 *
+	 * @param bytes The number of bytes read
+	 */
+	public void addBytesIn(long bytes) {
+		bytesIn += bytes;
+	}
+
+	/**
+	 *
+	 * Adds written bytes to the phase.
+	 *
+	 * @param bytes The number of bytes written
+	 */
+	public void addBytesOut(long bytes) {
+		bytesOut += bytes;
+	}
+
+	/**
+	 *
+	 * Stops the timer and records the phase to the run report. Closing a timer
+	 * more than once records it only once.
+	 */
+	@Override
+	public void close() {
+
+		if (!enabled || closed) {
+			return;
+		}
+
+		pause();
+		closed = true;
+
+		RunReport.record(file, phase, detail, wallNanos, cpuNanos, bytesIn, bytesOut);
+	}
+
+	/**
+	 *
+	 * Gets the CPU time of the current thread.
+	 *
+	 * @return The CPU time in nanoseconds, -1 if not supported
+	 */
+	private static long currentThreadCpuNanos() {
+
+		if (!THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()) {
+			return -1;
+		}
+
+		return THREAD_MX_BEAN.getCurrentThreadCpuTime();
+	}
+
+}
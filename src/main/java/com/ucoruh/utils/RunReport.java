@@ -0,0 +1,499 @@
+package com.ucoruh.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Logger;
+
+/**
+ *
+ * @class RunReport
+ * @brief Collects per-file, per-phase durations and bytes of a run and writes
+ *        them as a JSON report. Phases are measured with PhaseTimer objects from
+ *        any worker thread.
+ *
+ *        The report is disabled by default, it is enabled with the report option
+ *        and written when the application exits. The JSON report contains a
+ *        summary for every phase and subprocess tool, and the phases of every
+ *        file ordered by total wall-clock time, so the slowest decks and tools
+ *        are listed first.
+ *
+ *        Wall-clock times are measured for every phase. CPU times are the CPU
+ *        time of the measuring thread, for subprocesses the CPU time is not
+ *        measured and written as null.
+ */
+public class RunReport {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the RunReport class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(RunReport.class.getName());
+
+	/**
+	 *
+	 * @brief Pipeline phases measured in the run report.
+	 */
+	public enum Phase {
+		DISCOVERY, READ, CLASSIFY, WRITE, SUBPROCESS, RENDER, RESOURCE_COPY
+	}
+
+	/**
+	 *
+	 * @brief A measured phase of a file.
+	 */
+	private static class PhaseRecord {
+
+		/**
+		 * The file processed in the phase
+		 */
+		private final String file;
+
+		/**
+		 * The measured phase
+		 */
+		private final Phase phase;
+
+		/**
+		 * Phase detail like the tool name of a subprocess, can be null
+		 */
+		private final String detail;
+
+		/**
+		 * Wall-clock time in nanoseconds
+		 */
+		private final long wallNanos;
+
+		/**
+		 * Thread CPU time in nanoseconds, -1 if not measured
+		 */
+		private final long cpuNanos;
+
+		/**
+		 * Number of bytes read
+		 */
+		private final long bytesIn;
+
+		/**
+		 * Number of bytes written
+		 */
+		private final long bytesOut;
+
+		/**
+		 * Creates a phase record.
+		 */
+		private PhaseRecord(String file, Phase phase, String detail, long wallNanos, long cpuNanos, long bytesIn,
+				long bytesOut) {
+			this.file = file;
+			this.phase = phase;
+			this.detail = detail;
+			this.wallNanos = wallNanos;
+			this.cpuNanos = cpuNanos;
+			this.bytesIn = bytesIn;
+			this.bytesOut = bytesOut;
+		}
+	}
+
+	/**
+	 *
+	 * @brief Totals of a group of phase records.
+	 */
+	private static class PhaseTotal {
+
+		/**
+		 * Number of records
+		 */
+		private long count = 0;
+
+		/**
+		 * Total wall-clock time in nanoseconds
+		 */
+		private long wallNanos = 0;
+
+		/**
+		 * Total thread CPU time in nanoseconds, -1 if any record is not measured
+		 */
+		private long cpuNanos = 0;
+
+		/**
+		 * Total number of bytes read
+		 */
+		private long bytesIn = 0;
+
+		/**
+		 * Total number of bytes written
+		 */
+		private long bytesOut = 0;
+
+		/**
+		 * Adds a record to the totals.
+		 *
+		 * @param record The record to add
+		 */
+		private void add(PhaseRecord record) {
+			count++;
+			wallNanos += record.wallNanos;
+			cpuNanos = (cpuNanos < 0 || record.cpuNanos < 0) ? -1 : cpuNanos + record.cpuNanos;
+			bytesIn += record.bytesIn;
+			bytesOut += record.bytesOut;
+		}
+	}
+
+	/**
+	 *
+	 * @brief File name used for phases not related to a file.
+	 */
+	private static final String NO_FILE = "(run)";
+
+	/**
+	 *
+	 * @brief Whether phases are recorded.
+	 */
+	private static volatile boolean enabled = false;
+
+	/**
+	 *
+	 * @brief Start time of the run in milliseconds since epoch.
+	 */
+	private static volatile long runStartMillis = System.currentTimeMillis();
+
+	/**
+	 *
+	 * @brief Start time of the run in nanoseconds.
+	 */
+	private static volatile long runStartNanos = System.nanoTime();
+
+	/**
+	 *
+	 * @brief Recorded phases of the run.
+	 */
+	private static final ConcurrentLinkedQueue<PhaseRecord> RECORDS = new ConcurrentLinkedQueue<PhaseRecord>();
+
+	/**
+	 *
+	 * @brief File processed by the current thread, used for phases that don't know
+	 *        their file like subprocesses.
+	 */
+	private static final ThreadLocal<String> CURRENT_FILE = new ThreadLocal<String>();
+
+	/**
+	 * Utility class, not instantiated.
+	 */
+	private RunReport() {
+	}
+
+	/**
+	 *
+	 * Enables recording and restarts the run clock.
+	 */
+	public static void enable() {
+		RECORDS.clear();
+		runStartMillis = System.currentTimeMillis();
+		runStartNanos = System.nanoTime();
+		enabled = true;
+	}
+
+	/**
+	 *
+	 * Checks whether phases are recorded.
+	 *
+	 * @return true if the run report is enabled, false otherwise
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 *
+	 * Sets the file processed by the current thread.
+	 *
+	 * @param file The processed file, null to clear
+	 */
+	public static void setCurrentFile(String file) {
+		if (file == null) {
+			CURRENT_FILE.remove();
+		} else {
+			CURRENT_FILE.set(file);
+		}
+	}
+
+	/**
+	 *
+	 * Creates a paused timer for a phase.
+	 *
+	 * @param phase  The measured phase
+	 *
+	 * @param file   The processed file, if null the current file of the thread
+	 *               is used
+	 *
+	 * @param detail Phase detail like the tool name of a subprocess, can be null
+	 *
+	 * @return The paused timer
+	 */
+	public static PhaseTimer timer(Phase phase, String file, String detail) {
+
+		if (!enabled) {
+			return new PhaseTimer(null, phase, detail, false);
+		}
+
+		String timerFile = file != null ? file : CURRENT_FILE.get();
+
+		return new PhaseTimer(timerFile != null ? timerFile : NO_FILE, phase, detail, true);
+	}
+
+	/**
+	 *
+	 * Creates and starts a timer for a phase.
+	 *
+	 * @param phase  The measured phase
+	 *
+	 * @param file   The processed file, if null the current file of the thread
+	 *               is used
+	 *
+	 * @param detail Phase detail like the tool name of a subprocess, can be null
+	 *
+	 * @return The running timer
+	 */
+	public static PhaseTimer start(Phase phase, String file, String detail) {
+		return timer(phase, file, detail).resume();
+	}
+
+	/**
+	 *
+	 * Records a measured phase.
+	 *
+	 * @param file      The processed file
+	 *
+	 * @param phase     The measured phase
+	 *
+	 * @param detail    Phase detail, can be null
+	 *
+	 * @param wallNanos Wall-clock time in nanoseconds
+	 *
+	 * @param cpuNanos  Thread CPU time in nanoseconds, -1 if not measured
+	 *
+	 * @param bytesIn   Number of bytes read
+	 *
+	 * @param bytesOut  Number of bytes written
+	 */
+	static void record(String file, Phase phase, String detail, long wallNanos, long cpuNanos, long bytesIn,
+			long bytesOut) {
+		if (enabled) {
+			RECORDS.add(new PhaseRecord(file, phase, detail, wallNanos, cpuNanos, bytesIn, bytesOut));
+		}
+	}
+
+	/**
+	 *
+	 * Writes the recorded phases as a JSON report.
+	 *
+	 * @param reportFilePath The path of the JSON report file
+	 *
+	 * @throws IOException If there is an error writing the report.
+	 */
+	public static void write(String reportFilePath) throws IOException {
+
+		long runWallNanos = System.nanoTime() - runStartNanos;
+
+		List<PhaseRecord> records = new ArrayList<PhaseRecord>(RECORDS);
+
+		// summaries by phase, by subprocess tool and by file
+		Map<String, PhaseTotal> phaseTotals = new LinkedHashMap<String, PhaseTotal>();
+		for (Phase phase : Phase.values()) {
+			phaseTotals.put(phase.name(), new PhaseTotal());
+		}
+
+		Map<String, PhaseTotal> toolTotals = new LinkedHashMap<String, PhaseTotal>();
+		Map<String, PhaseTotal> fileTotals = new LinkedHashMap<String, PhaseTotal>();
+		Map<String, List<PhaseRecord>> fileRecords = new LinkedHashMap<String, List<PhaseRecord>>();
+
+		for (PhaseRecord record : records) {
+
+			phaseTotals.get(record.phase.name()).add(record);
+
+			if (record.phase == Phase.SUBPROCESS) {
+				toolTotals.computeIfAbsent(record.detail, k -> new PhaseTotal()).add(record);
+			}
+
+			fileTotals.computeIfAbsent(record.file, k -> new PhaseTotal()).add(record);
+			fileRecords.computeIfAbsent(record.file, k -> new ArrayList<PhaseRecord>()).add(record);
+		}
+
+		phaseTotals.values().removeIf(total -> total.count == 0);
+
+		List<String> files = new ArrayList<String>(fileTotals.keySet());
+		files.sort((a, b) -> Long.compare(fileTotals.get(b).wallNanos, fileTotals.get(a).wallNanos));
+
+		SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ROOT);
+		dateFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+		Path reportPath = Paths.get(reportFilePath);
+
+		if (reportPath.toAbsolutePath().getParent() != null) {
+			Files.createDirectories(reportPath.toAbsolutePath().getParent());
+		}
+
+		try (Writer writer = Files.newBufferedWriter(reportPath, StandardCharsets.UTF_8)) {
+
+			writer.write("{\n");
+			writer.write("  \"toolVersion\": " + quote(Utils.getToolVersion()) + ",\n");
+			writer.write("  \"startTime\": " + quote(dateFormat.format(new Date(runStartMillis))) + ",\n");
+			writer.write("  \"wallMillis\": " + toMillis(runWallNanos) + ",\n");
+
+			writer.write("  \"phases\": {");
+			writeTotals(writer, phaseTotals);
+			writer.write("},\n");
+
+			writer.write("  \"tools\": {");
+			writeTotals(writer, toolTotals);
+			writer.write("},\n");
+
+			writer.write("  \"files\": [");
+
+			for (int i = 0; i < files.size(); i++) {
+
+				String file = files.get(i);
+				PhaseTotal total = fileTotals.get(file);
+
+				writer.write(i == 0 ? "\n" : ",\n");
+				writer.write("    { \"file\": " + quote(file) + ", " + totalFields(total) + ", \"phases\": [");
+
+				List<PhaseRecord> phases = fileRecords.get(file);
+
+				for (int j = 0; j < phases.size(); j++) {
+					PhaseRecord record = phases.get(j);
+					writer.write(j == 0 ? "\n" : ",\n");
+					writer.write("      { \"phase\": " + quote(record.phase.name()) + ", \"detail\": "
+							+ quote(record.detail) + ", \"wallMillis\": " + toMillis(record.wallNanos)
+							+ ", \"cpuMillis\": " + toMillis(record.cpuNanos) + ", \"bytesIn\": " + record.bytesIn
+							+ ", \"bytesOut\": " + record.bytesOut + " }");
+				}
+
+				writer.write(phases.isEmpty() ? "] }" : "\n    ] }");
+			}
+
+			writer.write(files.isEmpty() ? "]\n" : "\n  ]\n");
+			writer.write("}\n");
+		}
+
+		LOGGER.info("Run report written with " + records.size() + " phases of " + files.size() + " files : "
+				+ reportFilePath);
+	}
+
+	/**
+	 *
+	 * Writes named totals as JSON object members.
+	 *
+	 * @param writer The report writer
+	 *
+	 * @param totals The totals by name
+	 *
+	 * @throws IOException If there is an error writing the report.
+	 */
+	private static void writeTotals(Writer writer, Map<String, PhaseTotal> totals) throws IOException {
+
+		boolean first = true;
+
+		for (Map.Entry<String, PhaseTotal> entry : totals.entrySet()) {
+			writer.write(first ? "\n" : ",\n");
+			writer.write("    " + quote(entry.getKey()) + ": { " + totalFields(entry.getValue()) + " }");
+			first = false;
+		}
+
+		if (!first) {
+			writer.write("\n  ");
+		}
+	}
+
+	/**
+	 *
+	 * Formats the fields of a total as JSON object members.
+	 *
+	 * @param total The total to format
+	 *
+	 * @return The JSON members
+	 */
+	private static String totalFields(PhaseTotal total) {
+		return "\"count\": " + total.count + ", \"wallMillis\": " + toMillis(total.wallNanos) + ", \"cpuMillis\": "
+				+ toMillis(total.cpuNanos) + ", \"bytesIn\": " + total.bytesIn + ", \"bytesOut\": " + total.bytesOut;
+	}
+
+	/**
+	 *
+	 * Converts nanoseconds to a JSON millisecond value.
+	 *
+	 * @param nanos The duration in nanoseconds, negative if not measured
+	 *
+	 * @return The milliseconds with three decimals, null if not measured
+	 */
+	private static String toMillis(long nanos) {
+
+		if (nanos < 0) {
+			return "null";
+		}
+
+		return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+	}
+
+	/**
+	 *
+	 * Quotes and escapes a JSON string.
+	 *
+	 * @param value The string value, can be null
+	 *
+	 * @return The JSON string, null if the value is null
+	 */
+	private static String quote(String value) {
+
+		if (value == null) {
+			return "null";
+		}
+
+		StringBuilder builder = new StringBuilder(value.length() + 2);
+		builder.append('"');
+
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				builder.append("\\\"");
+				break;
+			case '\\':
+				builder.append("\\\\");
+				break;
+			case '\n':
+				builder.append("\\n");
+				break;
+			case '\r':
+				builder.append("\\r");
+				break;
+			case '\t':
+				builder.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					builder.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+				} else {
+					builder.append(c);
+				}
+				break;
+			}
+		}
+
+		builder.append('"');
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,312 @@
+package com.ucoruh.utils;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.batik.anim.dom.SAXSVGDocumentFactory;
+import org.apache.batik.bridge.UserAgent;
+import org.apache.batik.transcoder.TranscoderException;
+import org.apache.batik.transcoder.TranscoderInput;
+import org.apache.batik.transcoder.TranscoderOutput;
+import org.apache.batik.transcoder.image.ImageTranscoder;
+import org.apache.batik.transcoder.image.JPEGTranscoder;
+import org.apache.batik.transcoder.image.PNGTranscoder;
+import org.apache.batik.util.SVGConstants;
+import org.apache.batik.util.XMLResourceDescriptor;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class SvgRasterizer
+ * @brief Converts SVG images to PNG and JPEG images in-process with Batik.
+ *        Every thread keeps its own PNG and JPEG transcoder, so a rasterizer
+ *        can be shared by a worker pool and the transcoders are created once
+ *        per worker instead of once per image. The images are rendered at
+ *        {@link #getDpi()}, 96 DPI is the size of the SVG in pixels like the
+ *        draw.io PNG export, and have a white background.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * SvgRasterizer rasterizer = new SvgRasterizer(SvgRasterizer.DEFAULT_DPI, SvgRasterizer.DEFAULT_JPEG_QUALITY);
+ * rasterizer.rasterize(new File("assets/diagram.svg"), new File("assets/diagram.png"), "png");
+ * }
+ *        </pre>
+ */
+public class SvgRasterizer {
+
+	/**
+	 * The resolution of one SVG pixel per output pixel
+	 */
+	public static final float DEFAULT_DPI = 96f;
+
+	/**
+	 * The default JPEG quality between 0 and 1
+	 */
+	public static final float DEFAULT_JPEG_QUALITY = 0.9f;
+
+	/**
+	 * The raster formats supported by the rasterizer
+	 */
+	public static final String[] RASTER_FORMATS = { "png", "jpeg" };
+
+	/**
+	 * The SVG feature of foreignObject elements, which Batik reports as supported
+	 * but doesn't render
+	 */
+	private static final String EXTENSIBILITY_FEATURE = "http://www.w3.org/TR/SVG11/feature#Extensibility";
+
+	/**
+	 *
+	 * @brief A transcoder scaling the SVG size, the image is created and written
+	 *        by a PNG or JPEG transcoder. The foreignObject feature is reported
+	 *        as unsupported, so the switch elements of draw.io labels render
+	 *        their text fallback instead of an empty foreignObject.
+	 */
+	private static class ScaledTranscoder extends ImageTranscoder {
+
+		/**
+		 * The transcoder creating and writing the image
+		 */
+		private final ImageTranscoder writer;
+
+		/**
+		 * The output pixels per SVG pixel
+		 */
+		private final float scale;
+
+		/**
+		 * Creates a transcoder.
+		 *
+		 * @param writer The transcoder creating and writing the image
+		 * @param scale  The output pixels per SVG pixel
+		 */
+		private ScaledTranscoder(ImageTranscoder writer, float scale) {
+			this.writer = writer;
+			this.scale = scale;
+		}
+
+		@Override
+		public BufferedImage createImage(int width, int height) {
+			return writer.createImage(width, height);
+		}
+
+		@Override
+		public void writeImage(BufferedImage image, TranscoderOutput output) throws TranscoderException {
+			writer.writeImage(image, output);
+		}
+
+		@Override
+		protected void setImageSize(float docWidth, float docHeight) {
+			super.setImageSize(docWidth, docHeight);
+			width *= scale;
+			height *= scale;
+		}
+
+		@Override
+		protected UserAgent createUserAgent() {
+			return new SVGAbstractTranscoderUserAgent() {
+				@Override
+				public boolean hasFeature(String feature) {
+					return !EXTENSIBILITY_FEATURE.equals(feature) && super.hasFeature(feature);
+				}
+			};
+		}
+	}
+
+	/**
+	 * The output resolution in DPI
+	 */
+	@Getter
+	private final float dpi;
+
+	/**
+	 * The JPEG quality between 0 and 1
+	 */
+	@Getter
+	private final float jpegQuality;
+
+	/**
+	 * The SVG parser of the current thread
+	 */
+	private final ThreadLocal<SAXSVGDocumentFactory> documentFactories = ThreadLocal
+			.withInitial(() -> new SAXSVGDocumentFactory(XMLResourceDescriptor.getXMLParserClassName()));
+
+	/**
+	 * The transcoders of the current thread by format
+	 */
+	private final ThreadLocal<Map<String, ImageTranscoder>> transcoders = ThreadLocal
+			.withInitial(HashMap<String, ImageTranscoder>::new);
+
+	/**
+	 * Creates a rasterizer.
+	 *
+	 * @param dpi         The output resolution in DPI, must be positive
+	 * @param jpegQuality The JPEG quality, must be greater than 0 and at most 1
+	 */
+	public SvgRasterizer(float dpi, float jpegQuality) {
+
+		if (dpi <= 0) {
+			throw new IllegalArgumentException("dpi must be positive : " + dpi);
+		}
+
+		if (jpegQuality <= 0 || jpegQuality > 1) {
+			throw new IllegalArgumentException("jpeg quality must be in (0, 1] : " + jpegQuality);
+		}
+
+		this.dpi = dpi;
+		this.jpegQuality = jpegQuality;
+	}
+
+	/**
+	 *
+	 * Checks whether a format is supported by the rasterizer.
+	 *
+	 * @param format The image format like "png" or "jpeg"
+	 *
+	 * @return true if the format is png, jpeg or jpg, false otherwise
+	 */
+	public static boolean isRasterFormat(String format) {
+		String lowerFormat = format.toLowerCase(Locale.ENGLISH);
+		return lowerFormat.equals("png") || lowerFormat.equals("jpeg") || lowerFormat.equals("jpg");
+	}
+
+	/**
+	 *
+	 * Converts an SVG image to a raster image. Relative references in the SVG
+	 * are resolved against its folder. The "Viewer does not support full SVG
+	 * 1.1" notice of draw.io is removed, since the labels are rendered from
+	 * their text fallback. The output folder is created if it doesn't exist and
+	 * a partially written output is deleted on failure.
+	 *
+	 * @param svgFile    The SVG image
+	 *
+	 * @param outputFile The raster image
+	 *
+	 * @param format     The raster format, png, jpeg or jpg
+	 *
+	 * @throws IOException         If the SVG can't be read or the output can't be
+	 *                             written.
+	 *
+	 * @throws TranscoderException If the SVG can't be rendered.
+	 */
+	public void rasterize(File svgFile, File outputFile, String format) throws IOException, TranscoderException {
+
+		ImageTranscoder transcoder = getTranscoder(format);
+
+		Utils.createFoldersForFilePathIfNotExist(outputFile.getAbsolutePath());
+
+		String uri = svgFile.toURI().toString();
+		Document document;
+
+		try (InputStream input = new BufferedInputStream(Files.newInputStream(svgFile.toPath()))) {
+			document = documentFactories.get().createDocument(uri, input);
+		}
+
+		removeViewerNotices(document);
+
+		boolean written = false;
+
+		try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(outputFile.toPath()))) {
+
+			TranscoderInput transcoderInput = new TranscoderInput(document);
+			transcoderInput.setURI(uri);
+
+			transcoder.transcode(transcoderInput, new TranscoderOutput(output));
+			written = true;
+
+		} finally {
+			if (!written) {
+				Files.deleteIfExists(outputFile.toPath());
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Removes the switch elements showing a notice in viewers without
+	 * foreignObject support, their first child is an empty group requiring the
+	 * extensibility feature.
+	 *
+	 * @param document The SVG document
+	 */
+	private static void removeViewerNotices(Document document) {
+
+		NodeList switches = document.getElementsByTagNameNS(SVGConstants.SVG_NAMESPACE_URI, "switch");
+
+		for (int i = switches.getLength() - 1; i >= 0; i--) {
+
+			Element switchElement = (Element) switches.item(i);
+			Node child = switchElement.getFirstChild();
+
+			while (child != null && child.getNodeType() != Node.ELEMENT_NODE) {
+				child = child.getNextSibling();
+			}
+
+			if (child != null && child.getLocalName().equals("g") && !child.hasChildNodes()
+					&& EXTENSIBILITY_FEATURE.equals(((Element) child).getAttribute("requiredFeatures"))) {
+				switchElement.getParentNode().removeChild(switchElement);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Gets the transcoder of the current thread for a format, creating it on
+	 * first use.
+	 *
+	 * @param format The raster format
+	 *
+	 * @return The transcoder
+	 */
+	private ImageTranscoder getTranscoder(String format) {
+
+		if (!isRasterFormat(format)) {
+			throw new IllegalArgumentException("unsupported raster format : " + format);
+		}
+
+		String lowerFormat = format.toLowerCase(Locale.ENGLISH);
+		String key = lowerFormat.equals("png") ? "png" : "jpeg";
+
+		Map<String, ImageTranscoder> threadTranscoders = transcoders.get();
+		ImageTranscoder transcoder = threadTranscoders.get(key);
+
+		if (transcoder == null) {
+
+			float scale = dpi / DEFAULT_DPI;
+
+			ImageTranscoder writer;
+
+			if (key.equals("png")) {
+				writer = new PNGTranscoder();
+			} else {
+				writer = new JPEGTranscoder();
+				writer.addTranscodingHint(JPEGTranscoder.KEY_QUALITY, jpegQuality);
+			}
+
+			transcoder = new ScaledTranscoder(writer, scale);
+
+			transcoder.addTranscodingHint(ImageTranscoder.KEY_BACKGROUND_COLOR, Color.WHITE);
+			threadTranscoders.put(key, transcoder);
+		}
+
+		return transcoder;
+	}
+
+}
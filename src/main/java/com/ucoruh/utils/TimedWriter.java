@@ -0,0 +1,85 @@
+package com.ucoruh.utils;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ *
+ * @class TimedWriter
+ * @brief Writer that measures the time spent writing and flushing with a phase
+ *        timer. Used for the outputs of a streaming merge where writes are
+ *        interleaved with reading and classifying lines.
+ */
+public class TimedWriter extends FilterWriter {
+
+	/**
+	 *
+	 * @brief The timer of the write phase.
+	 */
+	private final PhaseTimer timer;
+
+	/**
+	 *
+	 * @brief Creates a timed writer.
+	 *
+	 * @param out   The wrapped writer
+	 *
+	 * @param timer The timer of the write phase
+	 */
+	public TimedWriter(Writer out, PhaseTimer timer) {
+		super(out);
+		this.timer = timer;
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		timer.resume();
+		try {
+			out.write(c);
+		} finally {
+			timer.pause();
+		}
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		timer.resume();
+		try {
+			out.write(cbuf, off, len);
+		} finally {
+			timer.pause();
+		}
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		timer.resume();
+		try {
+			out.write(str, off, len);
+		} finally {
+			timer.pause();
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		timer.resume();
+		try {
+			out.flush();
+		} finally {
+			timer.pause();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		timer.resume();
+		try {
+			out.close();
+		} finally {
+			timer.pause();
+		}
+	}
+
+}
@@ -0,0 +1,680 @@
+package com.ucoruh.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FilenameUtils;
+
+import lombok.Getter;
+
+/**
+ *
+ * @class ToolLauncher
+ * @brief Launches the external tools (marp, pandoc, draw.io, mkdocs) directly
+ *        with argument arrays. No shell is started between the converter and
+ *        the tool, so every launch can be waited for and its exit code and
+ *        duration are known. Arguments are passed as they are, paths with
+ *        spaces don't need quotes.
+ *
+ *        The executable of a tool is resolved once per run, from the tool
+ *        environment variable like "DRAWIO_PATH" if it is set, otherwise from
+ *        PATH. On Windows npm shims like "marp.cmd" are run through "cmd /c".
+ *
+ *        Standard error is merged into standard output and the output is read
+ *        by a reader thread, only its last OUTPUT_TAIL_BYTES are kept in
+ *        memory. The full output can be spooled to a log folder. A tool that
+ *        runs longer than its timeout is killed together with its child
+ *        processes, like the Chromium of marp. The output is read at most
+ *        OUTPUT_DRAIN_MILLIS after the tool exits, an orphaned child that
+ *        still holds the output can't block the launch.
+ *
+ *        Example usage:
+ *
+ *        <pre>
+ * {@code
+ * ToolResult result = ToolLauncher.run(Tool.MKDOCS, folder, "gh-deploy", "--force");
+ * if (!result.isSuccess()) {
+ * 	LOGGER.severe(result.getOutput());
+ * }
+ * }
+ *        </pre>
+ */
+public class ToolLauncher {
+
+	/**
+	 *
+	 * @brief A logger object used for logging messages in the ToolLauncher class.
+	 */
+	private final static Logger LOGGER = Logger.getLogger(ToolLauncher.class.getName());
+
+	/**
+	 *
+	 * @brief The external tools.
+	 */
+	public enum Tool {
+
+		MARP("MARP_PATH", "MARP_TIMEOUT", 600, "marp"),
+
+		PANDOC("PANDOC_PATH", "PANDOC_TIMEOUT", 600, "pandoc"),
+
+		DRAWIO("DRAWIO_PATH", "DRAWIO_TIMEOUT", 300, "drawio", "draw.io"),
+
+		MKDOCS("MKDOCS_PATH", "MKDOCS_TIMEOUT", 1800, "mkdocs");
+
+		/**
+		 * The environment variable of the executable path
+		 */
+		@Getter
+		private final String pathVariable;
+
+		/**
+		 * The environment variable of the timeout in seconds
+		 */
+		@Getter
+		private final String timeoutVariable;
+
+		/**
+		 * The default timeout in seconds
+		 */
+		@Getter
+		private final long defaultTimeoutSeconds;
+
+		/**
+		 * The executable names searched in PATH
+		 */
+		private final String[] executableNames;
+
+		/**
+		 * Creates a tool.
+		 *
+		 * @param pathVariable          The environment variable of the executable
+		 *                              path
+		 * @param timeoutVariable       The environment variable of the timeout in
+		 *                              seconds
+		 * @param defaultTimeoutSeconds The default timeout in seconds
+		 * @param executableNames       The executable names searched in PATH
+		 */
+		Tool(String pathVariable, String timeoutVariable, long defaultTimeoutSeconds, String... executableNames) {
+			this.pathVariable = pathVariable;
+			this.timeoutVariable = timeoutVariable;
+			this.defaultTimeoutSeconds = defaultTimeoutSeconds;
+			this.executableNames = executableNames;
+		}
+
+		/**
+		 * Gets the tool name used in logs and reports, like "marp".
+		 *
+		 * @return The tool name
+		 */
+		public String getToolName() {
+			return executableNames[0];
+		}
+	}
+
+	/**
+	 *
+	 * @brief The result of a tool launch.
+	 */
+	@Getter
+	public static class ToolResult {
+
+		/**
+		 * The exit code of the tool
+		 */
+		private final int exitCode;
+
+		/**
+		 * The run duration in milliseconds
+		 */
+		private final long durationMillis;
+
+		/**
+		 * The last part of the output of the tool, standard error included
+		 */
+		private final String output;
+
+		/**
+		 * Whether the tool was killed after its timeout
+		 */
+		private final boolean timedOut;
+
+		/**
+		 * The log file with the full output, null if the output is not spooled
+		 */
+		private final String logFile;
+
+		/**
+		 * Creates a tool result.
+		 *
+		 * @param exitCode       The exit code of the tool
+		 * @param durationMillis The run duration in milliseconds
+		 * @param output         The last part of the output of the tool
+		 * @param timedOut       Whether the tool was killed after its timeout
+		 * @param logFile        The log file with the full output, can be null
+		 */
+		public ToolResult(int exitCode, long durationMillis, String output, boolean timedOut, String logFile) {
+			this.exitCode = exitCode;
+			this.durationMillis = durationMillis;
+			this.output = output;
+			this.timedOut = timedOut;
+			this.logFile = logFile;
+		}
+
+		/**
+		 * Checks whether the tool exited with exit code 0 before its timeout.
+		 *
+		 * @return true if the tool succeeded, false otherwise
+		 */
+		public boolean isSuccess() {
+			return !timedOut && exitCode == 0;
+		}
+	}
+
+	/**
+	 *
+	 * @brief The number of last output bytes of a tool kept in memory.
+	 */
+	public static final int OUTPUT_TAIL_BYTES = 64 * 1024;
+
+	/**
+	 *
+	 * @brief Windows executable extensions searched in PATH, in PATHEXT order.
+	 */
+	private static final String[] WINDOWS_EXTENSIONS = { ".com", ".exe", ".bat", ".cmd" };
+
+	/**
+	 *
+	 * @brief Default draw.io desktop install location on Windows.
+	 */
+	private static final String WINDOWS_DRAWIO_PATH = "C:\\Program Files\\draw.io\\draw.io.exe";
+
+	/**
+	 *
+	 * @brief Resolved executables by tool.
+	 */
+	private static final Map<Tool, String> EXECUTABLES = new ConcurrentHashMap<Tool, String>();
+
+	/**
+	 *
+	 * @brief Timeouts in milliseconds by tool.
+	 */
+	private static final Map<Tool, Long> TIMEOUTS = new ConcurrentHashMap<Tool, Long>();
+
+	/**
+	 *
+	 * @brief Time in milliseconds the output is read after the tool exited.
+	 */
+	private static final long OUTPUT_DRAIN_MILLIS = 5000;
+
+	/**
+	 *
+	 * @brief Daemon threads reading the tool outputs, a reader blocked by an
+	 *        orphaned child is abandoned.
+	 */
+	private static final ExecutorService OUTPUT_READERS = Executors.newCachedThreadPool(runnable -> {
+		Thread thread = new Thread(runnable, "tool-output-reader");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	/**
+	 *
+	 * @brief Numbers the log files of a run.
+	 */
+	private static final AtomicInteger LOG_COUNTER = new AtomicInteger();
+
+	/**
+	 *
+	 * @brief The folder the full tool outputs are spooled to, null if outputs
+	 *        are not spooled.
+	 */
+	private static volatile String logFolder;
+
+	/**
+	 *
+	 * Sets the timeout of a tool instead of the timeout of its environment
+	 * variable.
+	 *
+	 * @param tool          The tool
+	 *
+	 * @param timeoutMillis The timeout in milliseconds, 0 disables the timeout
+	 */
+	static void setTimeoutMillis(Tool tool, long timeoutMillis) {
+		TIMEOUTS.put(tool, Math.max(0, timeoutMillis));
+	}
+
+	/**
+	 *
+	 * Sets the folder the full outputs of tools are written to, one log file per
+	 * launch.
+	 *
+	 * @param folder The log folder, null to keep only the output tails
+	 */
+	public static void setLogFolder(String folder) {
+		logFolder = folder;
+	}
+
+	/**
+	 *
+	 * Gets the timeout of a tool. The tool timeout environment variable like
+	 * "MARP_TIMEOUT" sets it in seconds, 0 disables the timeout.
+	 *
+	 * @param tool The tool
+	 *
+	 * @return The timeout in milliseconds, 0 if the tool has no timeout
+	 */
+	public static long getTimeoutMillis(Tool tool) {
+
+		return TIMEOUTS.computeIfAbsent(tool, key -> {
+
+			String configuredTimeout = System.getenv(key.getTimeoutVariable());
+
+			if (!Utils.checkStringNullOrEmpty(configuredTimeout)) {
+				try {
+					return Math.max(0, Long.parseLong(configuredTimeout.trim())) * 1000;
+				} catch (NumberFormatException e) {
+					LOGGER.warning(key.getTimeoutVariable() + " value [" + configuredTimeout
+							+ "] must be a number of seconds, default is used");
+				}
+			}
+
+			return key.getDefaultTimeoutSeconds() * 1000;
+		});
+	}
+
+	/**
+	 *
+	 * Creates the command of a tool.
+	 *
+	 * @param tool      The tool
+	 *
+	 * @param arguments The tool arguments
+	 *
+	 * @return The command and its arguments
+	 */
+	public static String[] command(Tool tool, String... arguments) {
+
+		String executable = resolve(tool);
+
+		List<String> command = new ArrayList<String>();
+
+		// batch files like npm shims can only be run by cmd.exe
+		String lowerExecutable = executable.toLowerCase(Locale.ENGLISH);
+		if (isWindows() && (lowerExecutable.endsWith(".cmd") || lowerExecutable.endsWith(".bat"))) {
+			command.add("cmd");
+			command.add("/c");
+		}
+
+		command.add(executable);
+
+		for (String argument : arguments) {
+			command.add(argument);
+		}
+
+		return command.toArray(new String[0]);
+	}
+
+	/**
+	 *
+	 * Runs a tool and waits for it.
+	 *
+	 * @param tool          The tool
+	 *
+	 * @param workingFolder The folder in which the tool runs (can be null)
+	 *
+	 * @param arguments     The tool arguments
+	 *
+	 * @throws IOException          If the tool can't be started
+	 *
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 *
+	 * @return The result of the tool
+	 */
+	public static ToolResult run(Tool tool, String workingFolder, String... arguments)
+			throws IOException, InterruptedException {
+		return execute(tool, command(tool, arguments), workingFolder);
+	}
+
+	/**
+	 *
+	 * Runs a command created with command(...) and waits for it, at most until
+	 * the tool timeout. The output is read until the process and its children
+	 * close it, at most OUTPUT_DRAIN_MILLIS after the process exited.
+	 *
+	 * @param tool          The tool of the command, its timeout is used
+	 *
+	 * @param command       The command and its arguments
+	 *
+	 * @param workingFolder The folder in which the command runs (can be null)
+	 *
+	 * @throws IOException          If the command can't be started
+	 *
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 *
+	 * @return The result of the command
+	 */
+	public static ToolResult execute(Tool tool, String[] command, String workingFolder)
+			throws IOException, InterruptedException {
+
+		LOGGER.info("Command : " + Utils.toString(command, true));
+
+		ProcessBuilder processBuilder = new ProcessBuilder(command);
+		processBuilder.redirectErrorStream(true);
+		if (workingFolder != null && !workingFolder.isEmpty()) {
+			processBuilder.directory(new File(workingFolder));
+		}
+
+		OutputTail tail = new OutputTail(OUTPUT_TAIL_BYTES);
+		String logFile = createLogFile(tool);
+		long timeoutMillis = getTimeoutMillis(tool);
+
+		long start = System.currentTimeMillis();
+
+		try (PhaseTimer timer = RunReport.start(RunReport.Phase.SUBPROCESS, null, getToolName(command))) {
+
+			timer.withoutCpuTime();
+
+			Process process = processBuilder.start();
+
+			Future<?> reader = OUTPUT_READERS.submit(() -> {
+				readOutput(process.getInputStream(), tail, logFile);
+				return null;
+			});
+
+			try {
+				boolean timedOut = false;
+
+				if (timeoutMillis > 0) {
+					timedOut = !process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS);
+				} else {
+					process.waitFor();
+				}
+
+				if (timedOut) {
+					destroyProcessTree(process);
+					process.waitFor();
+					LOGGER.severe(getToolName(command) + " timed out after " + timeoutMillis / 1000
+							+ " s, process tree killed (" + tool.getTimeoutVariable() + " sets the timeout)");
+				}
+
+				waitForOutput(process, reader, getToolName(command));
+
+				return new ToolResult(process.exitValue(), System.currentTimeMillis() - start, tail.toString(),
+						timedOut, logFile);
+
+			} catch (IOException | InterruptedException e) {
+				destroyProcessTree(process);
+				reader.cancel(true);
+				throw e;
+			} finally {
+				timer.addBytesOut(tail.getTotalBytes());
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Reads the output of a process to its tail and log file until the process
+	 * and its children close it.
+	 *
+	 * @param input   The output of the process
+	 *
+	 * @param tail    The tail of the output
+	 *
+	 * @param logFile The log file, null if the output is not spooled
+	 *
+	 * @throws IOException If the output can't be read or the log file can't be
+	 *                     written
+	 */
+	private static void readOutput(InputStream input, OutputTail tail, String logFile) throws IOException {
+
+		try (InputStream processInput = input;
+				OutputStream log = logFile == null ? null : new BufferedOutputStream(new FileOutputStream(logFile))) {
+
+			byte[] buffer = new byte[8192];
+			int length;
+
+			while ((length = processInput.read(buffer)) >= 0) {
+				tail.write(buffer, 0, length);
+				if (log != null) {
+					log.write(buffer, 0, length);
+				}
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Waits for the output reader of an exited process. If an orphaned child of
+	 * the process still holds the output after OUTPUT_DRAIN_MILLIS, the reader is
+	 * abandoned and the output is closed.
+	 *
+	 * @param process  The exited process
+	 *
+	 * @param reader   The output reader
+	 *
+	 * @param toolName The tool name used in logs
+	 *
+	 * @throws IOException          If the output can't be read
+	 *
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	private static void waitForOutput(Process process, Future<?> reader, String toolName)
+			throws IOException, InterruptedException {
+
+		try {
+			reader.get(OUTPUT_DRAIN_MILLIS, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			LOGGER.warning(toolName + " exited but its output is still open, probably held by an orphaned child"
+					+ " process, the rest of the output is ignored");
+			try {
+				process.getInputStream().close();
+			} catch (IOException closeException) {
+				LOGGER.log(Level.FINE, "Tool output not closed", closeException);
+			}
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException("Tool output not read", e.getCause());
+		}
+	}
+
+	/**
+	 *
+	 * Resolves the executable of a tool, once per run. The tool environment
+	 * variable is used if it is set, otherwise the executable is searched in
+	 * PATH. If it is not found the bare executable name is returned and
+	 * launching it fails with the operating system error.
+	 *
+	 * @param tool The tool
+	 *
+	 * @return The executable path
+	 */
+	public static String resolve(Tool tool) {
+
+		return EXECUTABLES.computeIfAbsent(tool, key -> {
+
+			String configuredPath = System.getenv(key.getPathVariable());
+
+			if (!Utils.checkStringNullOrEmpty(configuredPath)) {
+				// older configurations quote the path
+				configuredPath = configuredPath.trim().replace("\"", "");
+				LOGGER.info(key.getToolName() + " executable from " + key.getPathVariable() + " : " + configuredPath);
+				return configuredPath;
+			}
+
+			String foundPath = findInPath(key);
+
+			if (foundPath == null && key == Tool.DRAWIO && isWindows() && new File(WINDOWS_DRAWIO_PATH).isFile()) {
+				foundPath = WINDOWS_DRAWIO_PATH;
+			}
+
+			if (foundPath == null) {
+				LOGGER.warning(key.getToolName() + " executable not found in PATH, set " + key.getPathVariable());
+				return key.getToolName();
+			}
+
+			LOGGER.info(key.getToolName() + " executable : " + foundPath);
+
+			return foundPath;
+		});
+	}
+
+	/**
+	 *
+	 * Searches the executable of a tool in the PATH folders.
+	 *
+	 * @param tool The tool
+	 *
+	 * @return The executable path, null if it is not found
+	 */
+	private static String findInPath(Tool tool) {
+
+		String path = System.getenv("PATH");
+
+		if (Utils.checkStringNullOrEmpty(path)) {
+			return null;
+		}
+
+		String[] extensions = isWindows() ? WINDOWS_EXTENSIONS : new String[] { "" };
+
+		for (String folder : path.split(File.pathSeparator)) {
+
+			if (folder.isEmpty()) {
+				continue;
+			}
+
+			for (String executableName : tool.executableNames) {
+				for (String extension : extensions) {
+					File file = new File(folder.replace("\"", ""), executableName + extension);
+					if (file.isFile() && file.canExecute()) {
+						return file.getAbsolutePath();
+					}
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 *
+	 * Kills a process and its descendants. Descendants are found with the Java 9
+	 * process API when it is available, on Java 8 only the process is killed.
+	 *
+	 * @param process The process
+	 */
+	private static void destroyProcessTree(Process process) {
+
+		List<Object> descendants = new ArrayList<Object>();
+
+		try {
+			// collected before the parent dies, orphans are not descendants
+			Method descendantsMethod = Process.class.getMethod("descendants");
+			Stream<?> stream = (Stream<?>) descendantsMethod.invoke(process);
+			descendants.addAll(stream.collect(Collectors.toList()));
+		} catch (ReflectiveOperationException e) {
+			LOGGER.log(Level.FINE, "Process tree not available", e);
+		}
+
+		process.destroyForcibly();
+
+		try {
+			Method destroyMethod = Class.forName("java.lang.ProcessHandle").getMethod("destroyForcibly");
+			for (Object descendant : descendants) {
+				destroyMethod.invoke(descendant);
+			}
+		} catch (ReflectiveOperationException e) {
+			LOGGER.log(Level.FINE, "Process tree not destroyed", e);
+		}
+	}
+
+	/**
+	 *
+	 * Creates the log file of a launch in the log folder.
+	 *
+	 * @param tool The launched tool
+	 *
+	 * @throws IOException If the log folder can't be created
+	 *
+	 * @return The log file path, null if outputs are not spooled
+	 */
+	private static String createLogFile(Tool tool) throws IOException {
+
+		String folder = logFolder;
+
+		if (folder == null) {
+			return null;
+		}
+
+		Files.createDirectories(Paths.get(folder));
+
+		String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+
+		return Paths.get(folder, tool.getToolName() + "-" + timestamp + "-" + LOG_COUNTER.incrementAndGet() + ".log")
+				.toString();
+	}
+
+	/**
+	 *
+	 * Gets the tool name of a command for the run report. The "cmd /c" wrapper of
+	 * Windows batch files is skipped, so the name is "marp" for an npm shim or
+	 * "draw.io" for a draw.io executable path.
+	 *
+	 * @param command The command as an array of strings
+	 *
+	 * @return The tool name of the command
+	 */
+	private static String getToolName(String[] command) {
+
+		String executable = "";
+
+		for (String element : command) {
+			if (!element.equalsIgnoreCase("cmd") && !element.equalsIgnoreCase("/c")) {
+				executable = element;
+				break;
+			}
+		}
+
+		String baseName = FilenameUtils.getBaseName(executable);
+
+		return baseName.isEmpty() ? executable : baseName;
+	}
+
+	/**
+	 *
+	 * Checks whether the converter runs on Windows.
+	 *
+	 * @return true on Windows, false otherwise
+	 */
+	private static boolean isWindows() {
+		return System.getProperty("os.name").toLowerCase(Locale.ENGLISH).startsWith("windows");
+	}
+
+}
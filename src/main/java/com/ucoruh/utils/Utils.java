@@ -3,32 +3,29 @@ package com.ucoruh.utils;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.geom.Rectangle2D;
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.lang.reflect.Field;
 import java.net.URISyntaxException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.Base64;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.UUID;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-
 import org.apache.batik.apps.rasterizer.DestinationType;
 import org.apache.batik.apps.rasterizer.SVGConverter;
 import org.apache.batik.apps.rasterizer.SVGConverterException;
@@ -40,9 +37,6 @@ import org.apache.poi.xslf.usermodel.XSLFPictureShape;
 import org.apache.poi.xslf.usermodel.XSLFShape;
 import org.apache.poi.xslf.usermodel.XSLFSlide;
 import org.apache.poi.xslf.usermodel.XSLFTextShape;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * 
@@ -157,6 +151,22 @@ public class Utils {
 
 	}
 
+	/**
+	 * 
+	 * @brief Number of long words in a bitset covering every UTF-16 char value of
+	 *        the Basic Multilingual Plane.
+	 */
+	private static final int CHAR_BITSET_WORDS = (Character.MAX_VALUE + 1) >>> 6;
+
+	/**
+	 * 
+	 * @brief Per thread scratch bitsets used by calculateJaccardSimilarity, the
+	 *        first half holds the characters of the first string and the second
+	 *        half holds the characters of the second string.
+	 */
+	private static final ThreadLocal<long[]> JACCARD_BITSETS = ThreadLocal
+			.withInitial(() -> new long[CHAR_BITSET_WORDS * 2]);
+
 	/**
 	 * 
 	 * @brief Calculates the Jaccard similarity between two strings. The Jaccard
@@ -166,31 +176,59 @@ public class Utils {
 	 *        of characters, and their Jaccard similarity is calculated as the ratio
 	 *        of the number of characters they have in common to the total number of
 	 *        characters in both strings.
+	 * 
+	 *        The character sets are kept in per thread bitsets covering all BMP
+	 *        characters (including Turkish characters), so the calculation does
+	 *        not allocate. Only the words touched by the strings are cleared after
+	 *        the calculation.
 	 * @param str1 The first string to compare.
 	 * @param str2 The second string to compare.
 	 * @return The Jaccard similarity between the two strings, as a double value
-	 *         between 0 and 1.
+	 *         between 0 and 1, or NaN if both strings are empty.
 	 */
 	public static double calculateJaccardSimilarity(String str1, String str2) {
-		// Create sets of characters for each string
-		Set<Character> set1 = new HashSet<Character>();
-		Set<Character> set2 = new HashSet<Character>();
+
+		long[] bitsets = JACCARD_BITSETS.get();
+
+		int size1 = 0;
+		int size2 = 0;
+		int intersection = 0;
+
 		// Add each character in both strings to their respective sets
-		for (char c : str1.toCharArray()) {
-			set1.add(c);
+		for (int i = 0; i < str1.length(); i++) {
+			char c = str1.charAt(i);
+			int word = c >>> 6;
+			long mask = 1L << c;
+			if ((bitsets[word] & mask) == 0) {
+				bitsets[word] |= mask;
+				size1++;
+			}
+		}
+
+		for (int i = 0; i < str2.length(); i++) {
+			char c = str2.charAt(i);
+			int word = CHAR_BITSET_WORDS + (c >>> 6);
+			long mask = 1L << c;
+			if ((bitsets[word] & mask) == 0) {
+				bitsets[word] |= mask;
+				size2++;
+				if ((bitsets[c >>> 6] & mask) != 0) {
+					intersection++;
+				}
+			}
 		}
-		for (char c : str2.toCharArray()) {
-			set2.add(c);
+
+		// Clear the touched words for the next calculation
+		for (int i = 0; i < str1.length(); i++) {
+			bitsets[str1.charAt(i) >>> 6] = 0L;
 		}
 
-		// Calculate the intersection and union of the two sets
-		Set<Character> intersection = new HashSet<Character>(set1);
-		intersection.retainAll(set2);
-		Set<Character> union = new HashSet<Character>(set1);
-		union.addAll(set2);
+		for (int i = 0; i < str2.length(); i++) {
+			bitsets[CHAR_BITSET_WORDS + (str2.charAt(i) >>> 6)] = 0L;
+		}
 
 		// Calculate the Jaccard similarity as the ratio of intersection to union
-		return (double) intersection.size() / union.size();
+		return (double) intersection / (size1 + size2 - intersection);
 	}
 
 	/**
@@ -282,168 +320,6 @@ public class Utils {
 
 	}
 
-	/**
-	 * Export images (SVG, PNG, JPEG) for each page in a draw.io file using the
-	 * draw.io desktop application.
-	 *
-	 * @param inputFilePath The path of the input draw.io file to be converted.
-	 * @throws Exception If any error occurs while executing the command.
-	 */
-	public static boolean exportDrawioImages(String inputFilePath) throws Exception {
-
-		boolean concatenate = true;
-
-		////////// GET DRAWIO from PATH //////////////////////////
-		// check drawio installed
-		String drawio = "\"" + System.getenv("DRAWIO_PATH") + "\"";
-//		String drawio = "\"C:\\Program Files\\draw.io\\draw.io.exe\"";
-//      install with "choco install drawio -y"		
-		//////////////////////////////////////////////////////////
-
-		///////////// EXPORT to XML ////////////////////////////////
-		String[] cmdxml = { drawio, "--export", "--format", "xml", "--uncompressed", inputFilePath };
-
-		LOGGER.info("Converting Drawio to XML " + inputFilePath);
-		LOGGER.info("Running Command " + Utils.toString(cmdxml, concatenate));
-
-		Utils.executeCommandThread(cmdxml, null, true);
-
-		LOGGER.info("Conversion Completed to XML " + inputFilePath);
-
-		////////////////////////////////////////////////////////////
-
-		////////// PARSE XML and GET PAGE NAMES ////////////////////
-
-		// find <diagram id="-J4FnIjizJcJbLS0x7CH" name="processing_time"> entries
-
-		LOGGER.info("Parsing XML " + inputFilePath);
-
-		String xmlFilePath = Utils.generateFilePath(inputFilePath, "", "", "xml", false);
-
-		ArrayList<String> names = new ArrayList<String>();
-
-		try {
-			File inputXmlFile = new File(xmlFilePath);
-
-			DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-			DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-			Document doc = dBuilder.parse(inputXmlFile);
-
-			doc.getDocumentElement().normalize();
-
-			NodeList nodeList = doc.getElementsByTagName("diagram");
-
-			for (int i = 0; i < nodeList.getLength(); i++) {
-				Node node = nodeList.item(i);
-				if (node.getNodeType() == Node.ELEMENT_NODE) {
-					String name = ((org.w3c.dom.Element) node).getAttribute("name");
-
-					LOGGER.info("Draw.io Pagename-" + i + " : [" + name + "]");
-
-					names.add(name);
-				}
-			}
-
-			// Delete XML File
-			inputXmlFile.delete();
-
-		} catch (Exception e) {
-			throw e;
-		}
-
-		// Delete Generated XML
-
-		///////////////////////////////////////////////////////////////////////////
-
-		/////////// EXPORT IMAGES WITH PAGE_INDEX and NAME WITH PAGE-NAME ////////
-		if (names.size() > 0) {
-			int index = 0;
-			int pageCount = names.size();
-
-			// Create assets directory if it doesn't exist
-			String assetsDirPath = FilenameUtils.getFullPath(inputFilePath) + "assets/";
-			Path assetsDir = Paths.get(assetsDirPath);
-			if (!Files.exists(assetsDir)) {
-				Files.createDirectory(assetsDir);
-			}
-
-			File drawioFile = new File(inputFilePath);
-
-			String drawioFileNameWithoutExtension = "";
-			int extensionIndex = drawioFile.getName().lastIndexOf('.');
-			if (extensionIndex > 0) {
-				drawioFileNameWithoutExtension = drawioFile.getName().substring(0, extensionIndex);
-			}
-
-			String parentFolder = drawioFile.getParent();
-
-			for (String name : names) {
-
-				LOGGER.info("Exporting page-" + index + "/" + pageCount + " : " + name);
-
-				// SVG Export
-				String outputFile = "\"" + parentFolder + "\\assets\\" + drawioFileNameWithoutExtension + "-" + name
-						+ ".svg" + "\"";
-
-				String inputFile = "\"" + inputFilePath + "\"";
-
-				LOGGER.info("Input File : " + inputFile);
-				LOGGER.info("Output File : " + outputFile);
-
-				String[] cmdSvg = { drawio, "--export", "--page-index", String.valueOf(index), "--format", "svg",
-						"--output", outputFile, inputFile };
-
-				LOGGER.info("Command : " + Utils.toString(cmdSvg, concatenate));
-
-				Utils.executeCommandThread(cmdSvg, null, true);
-
-				LOGGER.info("Exporting page-" + index + "/" + pageCount + " : " + name + " SVG Success");
-
-				// PNG Export
-				outputFile = "\"" + parentFolder + "\\assets\\" + drawioFileNameWithoutExtension + "-" + name + ".png"
-						+ "\"";
-
-				inputFile = "\"" + inputFilePath + "\"";
-
-				LOGGER.info("Input File : " + inputFile);
-				LOGGER.info("Output File : " + outputFile);
-
-				String[] cmdpng = { drawio, "--export", "--page-index", String.valueOf(index), "--format", "png",
-						"--output", outputFile, inputFile };
-
-				LOGGER.info("Command : " + Utils.toString(cmdpng, concatenate));
-
-				Utils.executeCommandThread(cmdpng, null, true);
-
-				LOGGER.info("Exporting page-" + index + "/" + pageCount + " : " + name + " PNG Success");
-
-				// JPEG Export
-				outputFile = "\"" + parentFolder + "\\assets\\" + drawioFileNameWithoutExtension + "-" + name + ".jpeg"
-						+ "\"";
-
-				inputFile = "\"" + inputFilePath + "\"";
-
-				LOGGER.info("Input File : " + inputFile);
-				LOGGER.info("Output File : " + outputFile);
-
-				String[] cmdjpg = { drawio, "--export", "--page-index", String.valueOf(index), "--format", "jpeg",
-						"--output", outputFile, inputFile };
-
-				LOGGER.info("Command : " + Utils.toString(cmdjpg, concatenate));
-
-				Utils.executeCommandThread(cmdjpg, null, true);
-
-				LOGGER.info("Exporting page-" + index + "/" + pageCount + " : " + name + " JPG Success");
-
-				index++;
-			}
-		}
-		/////////////////////////////////////////////////////////////////////////////
-
-		return true;
-
-	}
-
 	/**
 	 * 
 	 * This method converts an image link in the Marp syntax format to Pandoc syntax
@@ -451,14 +327,13 @@ public class Utils {
 	 * 
 	 * @param marpImageLink The image link in Marp syntax format.
 	 * 
-	 * @return An array containing two strings: the Pandoc image link and the
-	 *         original image URL.
+	 * @return An array containing four strings: the Pandoc image link, the
+	 *         original image URL and the declared width and height, which are
+	 *         null or empty if not declared.
 	 */
 	public static String[] convertMarpToPandoc(String marpImageLink) {
 
-		String[] result = new String[2];
-
-		String pandocImageType = ".jpeg"; // replace svg with jpeg
+		String[] result = new String[4];
 
 		String pandocImageLink = "";
 		int i = marpImageLink.lastIndexOf("(");
@@ -527,15 +402,30 @@ public class Utils {
 			altAttr = "\"" + altAttr + "\"";
 		}
 
-		pandocImageLink = "![" + altAttr + "]" + "(" + imageUrl.replace(".svg", pandocImageType).strip() + ")" + "{"
-				+ attributesNew.strip() + "}";
+		pandocImageLink = "![" + altAttr + "]" + "(" + getPandocImageUrl(imageUrl) + ")" + "{" + attributesNew.strip()
+				+ "}";
 
 		result[0] = pandocImageLink;
 		result[1] = imageUrl;
+		result[2] = widthAttr;
+		result[3] = heightAttr;
 
 		return result;
 	}
 
+	/**
+	 * 
+	 * Gets the image URL used in pandoc outputs, SVG images are replaced with
+	 * their JPEG images.
+	 * 
+	 * @param imageUrl The image URL of the Marp image link.
+	 * 
+	 * @return The image URL with ".svg" replaced by ".jpeg".
+	 */
+	public static String getPandocImageUrl(String imageUrl) {
+		return imageUrl.replace(".svg", ".jpeg").strip();
+	}
+
 	/**
 	 * Creates all parent folders for the given file path if they do not already
 	 * exist.
@@ -719,6 +609,58 @@ public class Utils {
 		return Integer.parseInt(version);
 	}
 
+	/**
+	 * Get the version of this tool from the jar manifest.
+	 *
+	 * @return the implementation version, or "development" when running from
+	 *         classes
+	 */
+	public static String getToolVersion() {
+		String version = Utils.class.getPackage().getImplementationVersion();
+		return Utils.ifNullThenUse(version, "development");
+	}
+
+	/**
+	 * Calculates the SHA-256 hash of a file content.
+	 *
+	 * @param filePath The path of the file to hash.
+	 * @return The hash as a lowercase hexadecimal string.
+	 * @throws IOException If an I/O error occurs while reading the file.
+	 */
+	public static String calculateFileHash(String filePath) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("SHA-256 algorithm not available", e);
+		}
+
+		try (InputStream inputStream = new FileInputStream(filePath)) {
+			byte[] buffer = new byte[8192];
+			int bytesRead;
+			while ((bytesRead = inputStream.read(buffer)) != -1) {
+				digest.update(buffer, 0, bytesRead);
+			}
+		}
+
+		return toHexString(digest.digest());
+	}
+
+	/**
+	 * Converts a byte array to a lowercase hexadecimal string.
+	 *
+	 * @param bytes The bytes to convert.
+	 * @return The hexadecimal string.
+	 */
+	public static String toHexString(byte[] bytes) {
+		StringBuilder sb = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+			sb.append(Character.forDigit(b & 0xF, 16));
+		}
+		return sb.toString();
+	}
+
 	/**
 	 * Finds all files with the specified file extensions in the given directory
 	 * path.
@@ -735,14 +677,14 @@ public class Utils {
 			throw new IllegalArgumentException("Path must be a directory!");
 		}
 
-		List<String> result;
-		try (Stream<Path> walk = Files.walk(path, Integer.MAX_VALUE)) {
-			result = walk.filter(p -> !Files.isDirectory(p))
-					// convert path to string
-					.map(p -> p.toString().toLowerCase()).filter(f -> isEndWith(f, fileExtensions))
-					.collect(Collectors.toList());
-		}
-		return result;
+		return PhaseTimer.time(RunReport.Phase.DISCOVERY, path.toString(), String.join(",", fileExtensions), () -> {
+			try (Stream<Path> walk = Files.walk(path, Integer.MAX_VALUE)) {
+				return walk.filter(p -> !Files.isDirectory(p))
+						// convert path to string
+						.map(p -> p.toString().toLowerCase()).filter(f -> isEndWith(f, fileExtensions))
+						.collect(Collectors.toList());
+			}
+		});
 	}
 
 	/**
@@ -813,65 +755,14 @@ public class Utils {
 		return String.format("![%s](%s){ height=%s%s }", altText, path, height, center);
 	}
 
-	/**
-	 * 
-	 * Executes a command in a separate thread and returns the output.
-	 * 
-	 * @param command       the command to execute as an array of strings
-	 * @param workingFolder the folder in which to execute the command (can be null)
-	 * @param waitFor       whether to wait for the process to finish before
-	 *                      returning
-	 * @return the output of the command as a string
-	 */
-	public static String executeCommandThread(String[] command, String workingFolder, boolean waitFor) {
-
-		String commandCombined = String.join(" ", command);
-
-		StringBuilder output = new StringBuilder();
-
-		ProcessBuilder processBuilder = new ProcessBuilder(commandCombined.split("\\s+"));
-		if (workingFolder != null && !workingFolder.isEmpty()) {
-			processBuilder.directory(new File(workingFolder));
-		}
-
-		Process process;
-		try {
-			process = processBuilder.start();
-
-			// Create a thread to read the output of the process
-			Thread outputThread = new Thread(() -> {
-				try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-					String line;
-					while ((line = reader.readLine()) != null) {
-						output.append(line).append('\n');
-					}
-				} catch (IOException e) {
-					e.printStackTrace();
-				}
-			});
-			outputThread.start();
-
-			if (waitFor) {
-				// Wait for the process to finish and then join the output thread
-				int exitCode = process.waitFor();
-				outputThread.join();
-
-				if (exitCode != 0) {
-					throw new RuntimeException("Command failed with exit code " + exitCode);
-				}
-			}
-
-		} catch (IOException | InterruptedException e) {
-			e.printStackTrace();
-		}
-
-		return output.toString();
-	}
-
 	/**
 	 * 
 	 * Converts a PowerPoint file to Marp markdown format.
 	 * 
+	 * PNG and JPEG pictures are written to the assets folder next to the file,
+	 * named by the SHA-256 hash of their content, so a picture shared by slides
+	 * or decks is written once.
+	 * 
 	 * @param filePath The path to the PowerPoint file to convert.
 	 * 
 	 * @param pandoc   Whether to use pandoc-style image tags or not.
@@ -882,93 +773,91 @@ public class Utils {
 	 */
 	public static String convertPowerPointToMarp(String filePath, boolean pandoc) throws IOException {
 		String assetsFolder = "assets/";
-		XMLSlideShow ppt = new XMLSlideShow(new FileInputStream(filePath));
 		StringBuilder markdownBuilder = new StringBuilder();
 
 		// Create assets directory if it doesn't exist
 		String assetsDirPath = FilenameUtils.getFullPath(filePath) + assetsFolder;
 		Path assetsDir = Paths.get(assetsDirPath);
-		if (!Files.exists(assetsDir)) {
-			Files.createDirectory(assetsDir);
-		}
-
-		for (XSLFSlide slide : ppt.getSlides()) {
-			markdownBuilder.append("---\n\n");
-
-			for (XSLFShape shape : slide.getShapes()) {
-				if (shape instanceof XSLFTextShape) {
-					XSLFTextShape textShape = (XSLFTextShape) shape;
-					String text = textShape.getText();
-
-					if (text != null && !text.isEmpty()) {
-						switch (textShape.getTextType()) {
-						case TITLE:
-							markdownBuilder.append("# ").append(text).append("\n\n");
-							break;
-						case SUBTITLE:
-							markdownBuilder.append("## ").append(text).append("\n\n");
-							break;
-						case BODY:
-							markdownBuilder.append(text).append("\n\n");
-							break;
-						default:
-							break;
-						}
-					}
-				} else if (shape instanceof XSLFPictureShape) {
-					XSLFPictureShape pictureShape = (XSLFPictureShape) shape;
-					XSLFPictureData pictureData = pictureShape.getPictureData();
-					int contentType = pictureData.getPictureType();
-					PictureType pictureType = null;
-
-					pictureType = xslf2pictureType(contentType, pictureType);
-
-					// Only handle PNG and JPEG images
-					if (pictureType == PictureType.PNG || pictureType == PictureType.JPEG) {
-						String fileName = pictureData.getFileName();
-						String fileExtension = FilenameUtils.getExtension(fileName);
-						byte[] imageData = pictureData.getData();
-						String base64Image = Base64.getEncoder().encodeToString(imageData);
-
-						// Generate a unique file name for the image
-						String uniqueFileName = generateUniqueFileName(assetsDirPath, fileExtension);
-						String imagePath = assetsFolder + uniqueFileName;
-
-						// Write the image data to a file
-						File imageFile = new File(assetsDirPath + uniqueFileName);
-						FileOutputStream fos = new FileOutputStream(imageFile);
-						fos.write(imageData);
-						fos.close();
-
-						// Add a Marp Markdown image tag referencing the saved image file
-						XSLFPictureShape pictureShapex = (XSLFPictureShape) pictureShape;
-						Rectangle2D anchor = pictureShapex.getAnchor();
-						double height = anchor.getHeight();
-						double width = anchor.getWidth();
-						double x = anchor.getX();
-						double y = anchor.getY();
-						Dimension imageSize = new Dimension((int) Math.round(width), (int) Math.round(height));
-						double aspectRatio = imageSize.getWidth() / imageSize.getHeight();
-
-						// Calculate the center coordinates
-						double centerX = x + width / 2;
-						double centerY = y + height / 2;
-						int roundedCenterX = (int) Math.round(centerX);
-						int roundedCenterY = (int) Math.round(centerY);
-
-						String markdownImageTag = "";
-						if (pandoc) {
-							// Construct the Marp Markdown image tag with position and dimensions
-							markdownImageTag = "![alt=\"image\" width:" + width + "px height:" + height + "px]("
-									+ imagePath + "){position: absolute; top: " + roundedCenterY + "px; left: "
-									+ roundedCenterX + "px}";
-						} else {
-							markdownImageTag = "![alt=\"image\" width:" + width + "px height:" + height + "px]("
-									+ imagePath + ")";
+		Files.createDirectories(assetsDir);
+
+		// image paths by picture part, a picture used on many slides is written once
+		Map<String, String> imagePaths = new HashMap<String, String>();
+
+		try (InputStream inputStream = new FileInputStream(filePath);
+				XMLSlideShow ppt = new XMLSlideShow(inputStream)) {
+
+			for (XSLFSlide slide : ppt.getSlides()) {
+				markdownBuilder.append("---\n\n");
+
+				for (XSLFShape shape : slide.getShapes()) {
+					if (shape instanceof XSLFTextShape) {
+						XSLFTextShape textShape = (XSLFTextShape) shape;
+						String text = textShape.getText();
+
+						// text boxes are not placeholders and have no text type
+						if (text != null && !text.isEmpty() && textShape.getTextType() != null) {
+							switch (textShape.getTextType()) {
+							case TITLE:
+								markdownBuilder.append("# ").append(text).append("\n\n");
+								break;
+							case SUBTITLE:
+								markdownBuilder.append("## ").append(text).append("\n\n");
+								break;
+							case BODY:
+								markdownBuilder.append(text).append("\n\n");
+								break;
+							default:
+								break;
+							}
 						}
+					} else if (shape instanceof XSLFPictureShape) {
+						XSLFPictureShape pictureShape = (XSLFPictureShape) shape;
+						XSLFPictureData pictureData = pictureShape.getPictureData();
+						PictureType pictureType = pictureData.getType();
+
+						// Only handle PNG and JPEG images
+						if (pictureType == PictureType.PNG || pictureType == PictureType.JPEG) {
+							String partName = pictureData.getPackagePart().getPartName().getName();
+							String imagePath = imagePaths.get(partName);
+
+							if (imagePath == null) {
+								// Name the image by its content, shared images are written once
+								String imageFileName = writeContentAddressedFile(assetsDir, pictureData.getData(),
+										pictureType.extension);
+								imagePath = assetsFolder + imageFileName;
+								imagePaths.put(partName, imagePath);
+							}
+
+							// Add a Marp Markdown image tag referencing the saved image file
+							XSLFPictureShape pictureShapex = (XSLFPictureShape) pictureShape;
+							Rectangle2D anchor = pictureShapex.getAnchor();
+							double height = anchor.getHeight();
+							double width = anchor.getWidth();
+							double x = anchor.getX();
+							double y = anchor.getY();
+							Dimension imageSize = new Dimension((int) Math.round(width), (int) Math.round(height));
+							double aspectRatio = imageSize.getWidth() / imageSize.getHeight();
+
+							// Calculate the center coordinates
+							double centerX = x + width / 2;
+							double centerY = y + height / 2;
+							int roundedCenterX = (int) Math.round(centerX);
+							int roundedCenterY = (int) Math.round(centerY);
+
+							String markdownImageTag = "";
+							if (pandoc) {
+								// Construct the Marp Markdown image tag with position and dimensions
+								markdownImageTag = "![alt=\"image\" width:" + width + "px height:" + height + "px]("
+										+ imagePath + "){position: absolute; top: " + roundedCenterY + "px; left: "
+										+ roundedCenterX + "px}";
+							} else {
+								markdownImageTag = "![alt=\"image\" width:" + width + "px height:" + height + "px]("
+										+ imagePath + ")";
+							}
+
+							markdownBuilder.append(markdownImageTag).append("\n\n");
 
-						markdownBuilder.append(markdownImageTag).append("\n\n");
-
+						}
 					}
 				}
 			}
@@ -979,71 +868,45 @@ public class Utils {
 
 	/**
 	 * 
-	 * Converts a content type integer to a PictureType object.
+	 * Writes data to a file named by the SHA-256 hash of the data in a given
+	 * directory. The file is not written again if it already exists, so equal
+	 * images of one or many decks share a file.
 	 * 
-	 * @param contentType The content type integer to convert
-	 * @param pictureType The default PictureType object to use if conversion fails
-	 * @return The PictureType object corresponding to the content type integer, or
-	 *         the default PictureType object if conversion fails
+	 * @param directory     The directory of the file.
+	 * @param data          The data to write.
+	 * @param fileExtension The extension of the file with its dot.
+	 * @throws IOException If the file can't be written.
+	 * @return The name of the file.
 	 */
-	private static PictureType xslf2pictureType(int contentType, PictureType pictureType) {
-		switch (contentType) {
-		case XSLFPictureData.PICTURE_TYPE_EMF:
-			pictureType = PictureType.EMF;
-			break;
-		case XSLFPictureData.PICTURE_TYPE_WMF:
-			pictureType = PictureType.WMF;
-			break;
-		case XSLFPictureData.PICTURE_TYPE_PICT:
-			pictureType = PictureType.PICT;
-			break;
-		case XSLFPictureData.PICTURE_TYPE_JPEG:
-			pictureType = PictureType.JPEG;
-			break;
-		case XSLFPictureData.PICTURE_TYPE_PNG:
-			pictureType = PictureType.PNG;
-			break;
-		case XSLFPictureData.PICTURE_TYPE_DIB:
-			pictureType = PictureType.DIB;
-			break;
-		case XSLFPictureData.PICTURE_TYPE_GIF:
-			pictureType = PictureType.GIF;
-			break;
-		case XSLFPictureData.PICTURE_TYPE_TIFF:
-			pictureType = PictureType.TIFF;
-			break;
-		case XSLFPictureData.PICTURE_TYPE_EPS:
-			pictureType = PictureType.EPS;
-			break;
-		case XSLFPictureData.PICTURE_TYPE_BMP:
-			pictureType = PictureType.BMP;
-			break;
-		case XSLFPictureData.PICTURE_TYPE_WPG:
-			pictureType = PictureType.WPG;
-			break;
-		default:
-			break;
+	private static String writeContentAddressedFile(Path directory, byte[] data, String fileExtension)
+			throws IOException {
+
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException("SHA-256 algorithm not available", e);
 		}
-		return pictureType;
-	}
 
-	/**
-	 * 
-	 * Generates a unique file name for a file with a given extension in a given
-	 * directory.
-	 * 
-	 * @param directoryPath The path of the directory to generate the file name for.
-	 * @param fileExtension The extension of the file to generate the name for.
-	 * @return A unique file name with the given extension.
-	 */
-	private static String generateUniqueFileName(String directoryPath, String fileExtension) {
-		String fileName;
-		File file;
-
-		do {
-			fileName = UUID.randomUUID().toString() + "." + fileExtension;
-			file = new File(directoryPath + fileName);
-		} while (file.exists());
+		String fileName = toHexString(digest.digest(data)) + fileExtension;
+		Path file = directory.resolve(fileName);
+
+		if (Files.exists(file)) {
+			return fileName;
+		}
+
+		// written to a temporary file and moved, parallel conversions don't see
+		// partial images
+		Path temporaryFile = directory.resolve(fileName + "." + UUID.randomUUID() + ".tmp");
+
+		try {
+			Files.write(temporaryFile, data);
+			Files.move(temporaryFile, file);
+		} catch (FileAlreadyExistsException e) {
+			// written by a parallel conversion
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
 
 		return fileName;
 	}
@@ -0,0 +1,153 @@
+package com.ucoruh.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ucoruh.controller.BuildScheduler.RenderJob;
+import com.ucoruh.controller.BuildScheduler.RenderJobResult;
+
+/**
+ *
+ * @class BuildSchedulerTest
+ * @brief Runs in-process render jobs with the build scheduler.
+ */
+public class BuildSchedulerTest {
+
+	@TempDir
+	Path folder;
+
+	@Test
+	public void failingJobDoesNotStopOtherJobs() throws IOException {
+
+		List<RenderJob> jobs = new ArrayList<RenderJob>();
+
+		for (int index = 0; index < 6; index++) {
+			String deck = "week-" + index;
+			Path output = folder.resolve(deck + ".pdf");
+			jobs.add(new RenderJob(deck, "pdf", () -> {
+				if (deck.equals("week-2")) {
+					throw new IOException("render failed");
+				}
+				write(output, deck);
+			}, output.toString()));
+		}
+
+		BuildScheduler scheduler = new BuildScheduler(3);
+		List<RenderJobResult> results = scheduler.run(jobs);
+
+		assertEquals(6, results.size());
+		assertFalse(scheduler.logReport(results));
+
+		for (int index = 0; index < 6; index++) {
+
+			RenderJobResult result = results.get(index);
+			Path output = Paths.get(jobs.get(index).getOutputFile());
+
+			if (index == 2) {
+				assertTrue(result.isFailed());
+				assertEquals(-1, result.getExitCode());
+				assertEquals("render failed", result.getError().getMessage());
+				assertFalse(Files.exists(output));
+				continue;
+			}
+
+			assertTrue(result.isSuccess(), result.getReportLine());
+			assertNull(result.getError());
+			assertEquals("week-" + index, new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void returnsResultsInJobOrder() {
+
+		ConcurrentLinkedQueue<String> finished = new ConcurrentLinkedQueue<String>();
+		List<RenderJob> jobs = new ArrayList<RenderJob>();
+
+		// the first jobs take the longest, so they finish last
+		for (int index = 0; index < 8; index++) {
+			String deck = "week-" + index;
+			long sleepMillis = (8 - index) * 20L;
+			jobs.add(new RenderJob(deck, index % 2 == 0 ? "pdf" : "docx", () -> {
+				Thread.sleep(sleepMillis);
+				finished.add(deck);
+			}, null));
+		}
+
+		BuildScheduler scheduler = new BuildScheduler(4);
+		List<RenderJobResult> results = scheduler.run(jobs);
+
+		assertTrue(scheduler.logReport(results));
+		assertEquals(8, results.size());
+		assertNotEquals("week-0", finished.peek(), "first finished job");
+
+		for (int index = 0; index < jobs.size(); index++) {
+			assertSame(jobs.get(index), results.get(index).getJob());
+		}
+	}
+
+	@Test
+	public void deletesOldOutputBeforeRender() throws IOException {
+
+		Path rendered = write(folder.resolve("rendered.pdf"), "old");
+		Path failed = write(folder.resolve("failed.pdf"), "old");
+
+		List<Boolean> existedAtRender = new ArrayList<Boolean>();
+		List<RenderJob> jobs = new ArrayList<RenderJob>();
+
+		jobs.add(new RenderJob("rendered", "pdf", () -> {
+			existedAtRender.add(Files.exists(rendered));
+			write(rendered, "new");
+		}, rendered.toString()));
+		jobs.add(new RenderJob("failed", "pdf", () -> {
+			throw new IllegalStateException("no output");
+		}, failed.toString()));
+
+		List<RenderJobResult> results = new BuildScheduler(1).run(jobs);
+
+		assertTrue(results.get(0).isSuccess());
+		assertEquals(1, existedAtRender.size());
+		assertFalse(existedAtRender.get(0), "old output at render");
+		assertEquals("new", new String(Files.readAllBytes(rendered), StandardCharsets.UTF_8));
+
+		assertTrue(results.get(1).isFailed());
+		assertFalse(Files.exists(failed), "old output of the failed render");
+	}
+
+	@Test
+	public void runsAtLeastOneJobAtATime() {
+		assertEquals(1, new BuildScheduler(0).getParallelism());
+		assertEquals(1, new BuildScheduler(-3).getParallelism());
+	}
+
+	/**
+	 *
+	 * Writes a text file.
+	 *
+	 * @param file    The file
+	 * @param content The content of the file
+	 *
+	 * @return The file
+	 *
+	 * @throws IOException If the file can't be written
+	 */
+	private static Path write(Path file, String content) throws IOException {
+		return Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,213 @@
+package com.ucoruh.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ucoruh.controller.DrawioReader.DrawioPage;
+
+/**
+ *
+ * @class DrawioExportManifestTest
+ * @brief Checks which exported Draw.IO pages the export manifest skips and
+ *        which images it deletes.
+ */
+public class DrawioExportManifestTest {
+
+	/**
+	 *
+	 * @brief The export settings recorded by the tests.
+	 */
+	private static final String SETTINGS = "0.0.1-SNAPSHOT batik 96.0 0.9";
+
+	@TempDir
+	Path folder;
+
+	private String algorithms;
+
+	private String trees;
+
+	private List<DrawioPage> algorithmPages;
+
+	@BeforeEach
+	public void exportPages() throws IOException {
+
+		algorithms = write("algorithms.drawio", "<mxfile/>").toString();
+		trees = write("trees.drawio", "<mxfile/>").toString();
+
+		// the last two pages have the same name and share their images
+		algorithmPages = Arrays.asList(new DrawioPage(0, "a", "intro", "1"), new DrawioPage(1, "b", "sort", "2"),
+				new DrawioPage(2, "c", "sort", "3"));
+
+		DrawioExportManifest manifest = load(SETTINGS);
+		assertFalse(manifest.isUpToDate(algorithms, algorithmPages.get(0)));
+
+		for (DrawioPage page : algorithmPages) {
+			exportImages(algorithms, page.getName());
+			manifest.update(algorithms, page);
+		}
+
+		exportImages(trees, "binary");
+		manifest.update(trees, new DrawioPage(0, "t", "binary", "4"));
+		manifest.save();
+	}
+
+	@Test
+	public void skipsUnchangedPages() throws IOException {
+
+		DrawioExportManifest manifest = load(SETTINGS);
+
+		assertEquals(0, manifest.removeDeletedPages(algorithms, algorithmPages));
+		for (DrawioPage page : algorithmPages) {
+			assertTrue(manifest.isUpToDate(algorithms, page), page.getName());
+		}
+		assertTrue(manifest.isUpToDate(trees, new DrawioPage(0, "t", "binary", "4")));
+
+		assertFalse(load("0.0.1-SNAPSHOT drawio 96.0 0.9").isUpToDate(trees, new DrawioPage(0, "t", "binary", "4")));
+	}
+
+	@Test
+	public void keepsPagesWithTheSameNameApart() throws IOException {
+
+		DrawioExportManifest manifest = load(SETTINGS);
+
+		assertTrue(manifest.isUpToDate(algorithms, new DrawioPage(1, "b", "sort", "2")));
+		assertFalse(manifest.isUpToDate(algorithms, new DrawioPage(2, "c", "sort", "2")));
+		assertFalse(manifest.isUpToDate(algorithms, new DrawioPage(1, "b", "sort", "3")));
+	}
+
+	@Test
+	public void deletesImagesOfRenamedPage() throws IOException {
+
+		DrawioExportManifest manifest = load(SETTINGS);
+		DrawioPage renamed = new DrawioPage(0, "a", "introduction", "1");
+
+		assertEquals(1, manifest.removeDeletedPages(algorithms,
+				Arrays.asList(renamed, algorithmPages.get(1), algorithmPages.get(2))));
+		assertFalse(manifest.isUpToDate(algorithms, renamed));
+
+		assertImages(algorithms, "intro", false);
+		assertImages(algorithms, "sort", true);
+		assertImages(trees, "binary", true);
+	}
+
+	@Test
+	public void deletesImagesOfRemovedPage() throws IOException {
+
+		DrawioExportManifest manifest = load(SETTINGS);
+
+		// the first page is removed, the pages after it move up
+		List<DrawioPage> pages = Arrays.asList(new DrawioPage(0, "b", "sort", "2"),
+				new DrawioPage(1, "c", "sort", "3"));
+
+		assertEquals(2, manifest.removeDeletedPages(algorithms, pages));
+
+		assertImages(algorithms, "intro", false);
+		assertImages(algorithms, "sort", true);
+		assertImages(trees, "binary", true);
+
+		// the moved pages are exported again
+		assertFalse(manifest.isUpToDate(algorithms, pages.get(0)));
+		assertFalse(manifest.isUpToDate(algorithms, pages.get(1)));
+	}
+
+	@Test
+	public void deletesImagesOfDeletedFile() throws IOException {
+
+		Files.delete(Paths.get(trees));
+
+		DrawioExportManifest manifest = load(SETTINGS);
+
+		assertEquals(1, manifest.removeDeletedFiles());
+		manifest.save();
+
+		assertImages(trees, "binary", false);
+		assertImages(algorithms, "intro", true);
+		assertImages(algorithms, "sort", true);
+
+		String manifestText = new String(Files.readAllBytes(
+				folder.resolve(DrawioExporter.ASSETS_FOLDER).resolve(DrawioExportManifest.MANIFEST_FILE_NAME)),
+				StandardCharsets.UTF_8);
+		assertFalse(manifestText.contains("trees.drawio"), manifestText);
+		assertTrue(manifestText.contains("algorithms.drawio"), manifestText);
+	}
+
+	/**
+	 *
+	 * Loads the manifest of the folder.
+	 *
+	 * @param settings The export settings
+	 *
+	 * @return The loaded manifest
+	 *
+	 * @throws IOException If the manifest can't be read
+	 */
+	private DrawioExportManifest load(String settings) throws IOException {
+
+		DrawioExportManifest manifest = new DrawioExportManifest(folder.toString(), settings);
+		manifest.load();
+		return manifest;
+	}
+
+	/**
+	 *
+	 * Writes the images of all export formats of a page.
+	 *
+	 * @param file     The path of the Draw.IO file
+	 * @param pageName The name of the page
+	 *
+	 * @throws IOException If an image can't be written
+	 */
+	private static void exportImages(String file, String pageName) throws IOException {
+
+		for (String format : DrawioExporter.EXPORT_FORMATS) {
+			Path image = Paths.get(DrawioExporter.getImagePath(file, pageName, format));
+			Files.createDirectories(image.getParent());
+			Files.write(image, pageName.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	/**
+	 *
+	 * Asserts whether the images of all export formats of a page exist.
+	 *
+	 * @param file     The path of the Draw.IO file
+	 * @param pageName The name of the page
+	 * @param exist    Whether the images must exist
+	 */
+	private static void assertImages(String file, String pageName, boolean exist) {
+
+		for (String format : DrawioExporter.EXPORT_FORMATS) {
+			String image = DrawioExporter.getImagePath(file, pageName, format);
+			assertEquals(exist, Files.exists(Paths.get(image)), image);
+		}
+	}
+
+	/**
+	 *
+	 * Writes a file of the folder.
+	 *
+	 * @param name    The path of the file relative to the folder
+	 * @param content The content of the file
+	 *
+	 * @return The path of the file
+	 *
+	 * @throws IOException If the file can't be written
+	 */
+	private Path write(String name, String content) throws IOException {
+		return Files.write(folder.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
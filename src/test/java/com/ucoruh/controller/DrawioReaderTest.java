@@ -0,0 +1,176 @@
+package com.ucoruh.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ucoruh.controller.DrawioReader.DrawioPage;
+
+/**
+ *
+ * @class DrawioReaderTest
+ * @brief Checks the pages and page hashes read from plain and compressed
+ *        Draw.IO files.
+ */
+public class DrawioReaderTest {
+
+	/**
+	 *
+	 * @brief The diagram of the first page.
+	 */
+	private static final String FIRST_MODEL = "<mxGraphModel dx=\"800\" dy=\"600\"><root><mxCell id=\"0\"/>"
+			+ "<mxCell id=\"1\" parent=\"0\"/><mxCell id=\"2\" value=\"Sıralama &amp; Ağaç\" vertex=\"1\" parent=\"1\">"
+			+ "<mxGeometry x=\"10\" y=\"20\" width=\"120\" height=\"60\" as=\"geometry\"/></mxCell></root></mxGraphModel>";
+
+	/**
+	 *
+	 * @brief The diagram of the second page.
+	 */
+	private static final String SECOND_MODEL = "<mxGraphModel><root><mxCell id=\"0\"/>"
+			+ "<mxCell id=\"1\" value=\"Quick Sort\" parent=\"0\"/></root></mxGraphModel>";
+
+	@TempDir
+	Path folder;
+
+	@Test
+	public void readsPlainPages() throws IOException {
+
+		List<DrawioPage> pages = read("plain.drawio", "<diagram id=\"a\" name=\"first\">" + FIRST_MODEL
+				+ "</diagram><diagram id=\"b\">" + SECOND_MODEL + "</diagram>");
+
+		assertEquals(2, pages.size());
+		assertEquals(0, pages.get(0).getIndex());
+		assertEquals("a", pages.get(0).getId());
+		assertEquals("first", pages.get(0).getName());
+		assertEquals(1, pages.get(1).getIndex());
+		assertEquals("b", pages.get(1).getId());
+		assertEquals("Page-2", pages.get(1).getName());
+		assertNotEquals(pages.get(0).getHash(), pages.get(1).getHash());
+	}
+
+	@Test
+	public void decodesCompressedPages() throws IOException {
+
+		List<DrawioPage> plain = read("plain.drawio", "<diagram id=\"a\" name=\"first\">" + FIRST_MODEL
+				+ "</diagram><diagram id=\"b\" name=\"second\">" + SECOND_MODEL + "</diagram>");
+		List<DrawioPage> compressed = read("compressed.drawio", "<diagram id=\"a\" name=\"first\">"
+				+ compress(FIRST_MODEL) + "</diagram><diagram id=\"b\" name=\"second\">\n"
+				+ wrap(compress(SECOND_MODEL)) + "\n</diagram>");
+
+		assertEquals(2, compressed.size());
+		assertEquals("first", compressed.get(0).getName());
+		assertEquals("second", compressed.get(1).getName());
+		assertEquals(plain.get(0).getHash(), compressed.get(0).getHash());
+		assertEquals(plain.get(1).getHash(), compressed.get(1).getHash());
+	}
+
+	@Test
+	public void decodesEscapedPages() throws IOException {
+
+		List<DrawioPage> plain = read("plain.drawio", "<diagram id=\"a\">" + FIRST_MODEL + "</diagram>");
+		List<DrawioPage> escaped = read("escaped.drawio", "<diagram id=\"a\">"
+				+ FIRST_MODEL.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;") + "</diagram>");
+
+		assertEquals(plain.get(0).getHash(), escaped.get(0).getHash());
+	}
+
+	@Test
+	public void hashIgnoresFormattingOnly() throws IOException {
+
+		String hash = read("page.drawio", "<diagram id=\"a\">" + FIRST_MODEL + "</diagram>").get(0).getHash();
+
+		assertEquals(hash, read("page.drawio", "<diagram id=\"a\">\n  " + FIRST_MODEL.replace("><", ">\n    <")
+				+ "\n</diagram>").get(0).getHash());
+		assertNotEquals(hash, read("page.drawio",
+				"<diagram id=\"a\">" + FIRST_MODEL.replace("x=\"10\"", "x=\"11\"") + "</diagram>").get(0).getHash());
+		assertNotEquals(hash, read("page.drawio",
+				"<diagram id=\"a\">" + FIRST_MODEL.replace("Ağaç", "Agac") + "</diagram>").get(0).getHash());
+	}
+
+	@Test
+	public void rejectsInvalidFiles() throws IOException {
+
+		assertThrows(IOException.class, () -> read("broken.drawio", "<diagram id=\"a\">not base64 !</diagram>"));
+		assertThrows(IOException.class,
+				() -> read("truncated.drawio", "<diagram id=\"a\">" + compress(FIRST_MODEL).substring(0, 10)
+						+ "</diagram>"));
+		assertThrows(IOException.class, () -> read("unclosed.drawio", "<diagram id=\"a\">" + FIRST_MODEL));
+	}
+
+	/**
+	 *
+	 * Writes and reads a Draw.IO file.
+	 *
+	 * @param name     The name of the file
+	 * @param diagrams The diagram elements of the file
+	 *
+	 * @return The pages of the file
+	 *
+	 * @throws IOException If the file can't be written or read
+	 */
+	private List<DrawioPage> read(String name, String diagrams) throws IOException {
+
+		Path file = folder.resolve(name);
+		Files.write(file, ("<mxfile host=\"test\">" + diagrams + "</mxfile>").getBytes(StandardCharsets.UTF_8));
+		return DrawioReader.read(file.toFile());
+	}
+
+	/**
+	 *
+	 * Compresses a diagram like draw.io, the base64 of the raw deflated and URL
+	 * encoded XML.
+	 *
+	 * @param model The diagram XML
+	 *
+	 * @return The compressed diagram
+	 *
+	 * @throws IOException If the diagram can't be encoded
+	 */
+	private static String compress(String model) throws IOException {
+
+		byte[] encoded = URLEncoder.encode(model, "UTF-8").replace("+", "%20").getBytes(StandardCharsets.UTF_8);
+
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		try {
+			deflater.setInput(encoded);
+			deflater.finish();
+
+			byte[] buffer = new byte[8192];
+			while (!deflater.finished()) {
+				output.write(buffer, 0, deflater.deflate(buffer));
+			}
+		} finally {
+			deflater.end();
+		}
+
+		return Base64.getEncoder().encodeToString(output.toByteArray());
+	}
+
+	/**
+	 *
+	 * Wraps base64 text into lines, like some editors write compressed diagrams.
+	 *
+	 * @param text The base64 text
+	 *
+	 * @return The text with a line break every 40 characters
+	 */
+	private static String wrap(String text) {
+		return text.replaceAll("(.{40})", "$1\n");
+	}
+
+}
@@ -0,0 +1,179 @@
+package com.ucoruh.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.poi.xslf.usermodel.SlideLayout;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.apache.poi.xslf.usermodel.XSLFSlideLayout;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ucoruh.option.ControllerOptions;
+
+/**
+ *
+ * @class MarkdownControllerTest
+ * @brief Converts PowerPoint files of a folder to Marp Markdown files with the
+ *        controller.
+ */
+public class MarkdownControllerTest {
+
+	@TempDir
+	Path folder;
+
+	private MarkdownController controller;
+
+	@BeforeEach
+	public void createController() {
+
+		ControllerOptions options = new ControllerOptions();
+		options.setParallelism(2);
+		options.setParallelIsSet(true);
+
+		controller = new MarkdownController();
+		controller.setOptions(options);
+	}
+
+	@Test
+	public void convertsFolderWithHeaderTitledByFileName() throws IOException {
+
+		writePresentation("week-1.pptx", "Sorting");
+		writePresentation("week-2.pptx", "Searching");
+		writePresentation("week-1_slide.pptx", "Marp output");
+		writePresentation("~$week-1.pptx", "Lock file");
+		write("header.properties", "course=CE100\nauthor=Uğur CORUH\nlicense=MIT\n");
+
+		controller.getOptions().setFolderInputPath(folder.toString());
+		controller.getOptions().setMarpHeaderPath(folder.resolve("header.properties").toString());
+
+		assertTrue(controller.convertPowerPointFiles());
+
+		String first = read("week-1.md");
+		String second = read("week-2.md");
+
+		// every deck has the shared header with its own title
+		assertTrue(first.startsWith("---\nmarp: true\n"), first);
+		assertTrue(first.contains("title: \"CE100\"\n"), first);
+		assertTrue(first.contains("## week-1\n"), first);
+		assertFalse(first.contains("week-2"), first);
+		assertTrue(second.contains("## week-2\n"), second);
+
+		assertTrue(first.contains("# Sorting\n"), first);
+		assertTrue(second.contains("# Searching\n"), second);
+
+		// PowerPoint outputs of builds and lock files are not converted
+		assertFalse(Files.exists(folder.resolve("week-1_slide.md")));
+		assertFalse(Files.exists(folder.resolve("~$week-1.md")));
+	}
+
+	@Test
+	public void convertsFileToPlainMarpFrontMatter() throws IOException {
+
+		Path deck = writePresentation("week-1.pptx", "Sorting");
+		controller.getOptions().setFileInputPath(deck.toString());
+		controller.getOptions().setFileOutputPath(folder.resolve("sorting.md").toString());
+
+		assertTrue(controller.convertPowerPointFiles());
+
+		String markdown = read("sorting.md");
+		assertTrue(markdown.startsWith("---\nmarp: true\n---\n\n# Sorting\n"), markdown);
+		assertFalse(Files.exists(folder.resolve("week-1.md")));
+	}
+
+	@Test
+	public void skipsExistingMarkdownUnlessOverwrite() throws IOException {
+
+		writePresentation("week-1.pptx", "Sorting");
+		write("week-1.md", "edited");
+		controller.getOptions().setFolderInputPath(folder.toString());
+
+		assertTrue(controller.convertPowerPointFiles());
+		assertEquals("edited", read("week-1.md"));
+
+		controller.getOptions().setOverwriteIsSet(true);
+
+		assertTrue(controller.convertPowerPointFiles());
+		assertTrue(read("week-1.md").contains("# Sorting\n"), read("week-1.md"));
+	}
+
+	@Test
+	public void rejectsInvalidHeaderBeforeConversion() throws IOException {
+
+		writePresentation("week-1.pptx", "Sorting");
+		write("header.properties", "license=GPL-3.0\n");
+
+		controller.getOptions().setFolderInputPath(folder.toString());
+		controller.getOptions().setMarpHeaderPath(folder.resolve("header.properties").toString());
+
+		assertThrows(IOException.class, () -> controller.convertPowerPointFiles());
+		assertFalse(Files.exists(folder.resolve("week-1.md")));
+	}
+
+	/**
+	 *
+	 * Writes a presentation with one titled slide.
+	 *
+	 * @param name  The file name of the presentation
+	 * @param title The title of the slide
+	 *
+	 * @return The path of the presentation
+	 *
+	 * @throws IOException If the presentation can't be written
+	 */
+	private Path writePresentation(String name, String title) throws IOException {
+
+		Path file = folder.resolve(name);
+
+		try (XMLSlideShow ppt = new XMLSlideShow(); OutputStream output = Files.newOutputStream(file)) {
+
+			XSLFSlideLayout layout = ppt.getSlideMasters().get(0).getLayout(SlideLayout.TITLE_ONLY);
+			XSLFSlide slide = ppt.createSlide(layout);
+			slide.getPlaceholder(0).setText(title);
+
+			ppt.write(output);
+		}
+
+		return file;
+	}
+
+	/**
+	 *
+	 * Reads a text file of the folder.
+	 *
+	 * @param name The path of the file relative to the folder
+	 *
+	 * @return The content of the file
+	 *
+	 * @throws IOException If the file can't be read
+	 */
+	private String read(String name) throws IOException {
+		return new String(Files.readAllBytes(folder.resolve(name)), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 *
+	 * Writes a file of the folder.
+	 *
+	 * @param name    The path of the file relative to the folder
+	 * @param content The content of the file
+	 *
+	 * @return The path of the file
+	 *
+	 * @throws IOException If the file can't be written
+	 */
+	private Path write(String name, String content) throws IOException {
+		return Files.write(folder.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,350 @@
+package com.ucoruh.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.ucoruh.utils.Utils;
+
+/**
+ *
+ * @class MarkdownMergeEngineTest
+ * @brief Compares the mkdocs_, pandoc_ and panppt_ outputs of the merge engine
+ *        with the outputs of the multi-pass merge loop it replaced.
+ */
+public class MarkdownMergeEngineTest {
+
+	/**
+	 *
+	 * @brief The path of the merged deck, only used for the download links.
+	 */
+	private static final String DECK_PATH = "docs/week-1/ce100-week-1.md";
+
+	/**
+	 *
+	 * @brief Front matter and title slide of the merged decks.
+	 */
+	private static final List<String> FRONT_MATTER = Arrays.asList("---", "marp: true", "paginate: true", "---", "",
+			"<!-- _backgroundColor: aqua -->", "", "<!-- _color: orange -->", "", "<!-- paginate: false -->",
+			"## Recep Tayyip Erdogan University", "");
+
+	@Test
+	public void mergesDeckWithRepeatedHeaders() throws IOException {
+
+		List<String> lines = new ArrayList<String>(FRONT_MATTER);
+		lines.addAll(Arrays.asList("---", "", "<!-- paginate: true -->", "", "## Outline (1)", "", "- Sorting",
+				"---", "", "## Outline (2)", "", "- Searching", "---", "", "## Outline (3)", "", "- Hashing", "---",
+				"", "# Insertion Sort", "", "## Insertion Sort (1)", "", "text", "---", "### Merge Sort", "",
+				"### Merge Sort", "---", "## Quick Sort (1) Example", "## Quick Sort (2) Example"));
+
+		assertEquivalent(lines);
+	}
+
+	@Test
+	public void mergesDeckWithImages() throws IOException {
+
+		List<String> lines = new ArrayList<String>(FRONT_MATTER);
+		lines.addAll(Arrays.asList("---", "", "## Diagrams", "",
+				"![width:500px center](assets/ce100-week-1-intro.drawio.svg)", "---", "", "## Diagrams (2)", "",
+				"![height:300px](assets/photo.png)", "    ![](images/logo.jpg)", "---", "",
+				"![width:500px center](assets/ce100-week-1-intro.drawio.svg)", "text ![inline](assets/a.svg)"));
+
+		assertEquivalent(lines);
+	}
+
+	@Test
+	public void mergesDeckWithoutPageSeperator() throws IOException {
+
+		assertEquivalent(Arrays.asList("---", "marp: true", "---", "# Title", "", "# Title", "text"));
+		assertEquivalent(Arrays.asList("# Title", "", "# Title (2)", "![](assets/a.svg)"));
+	}
+
+	@Test
+	public void mergesDeckWithTurkishHeaders() throws IOException {
+
+		List<String> lines = new ArrayList<String>(FRONT_MATTER);
+		lines.addAll(Arrays.asList("---", "## Sıralama Algoritmaları (1)", "içerik", "---",
+				"## Sıralama Algoritmaları (2)", "---", "## SIRALAMA ALGORİTMALARI", "---", "## Ağaçlar"));
+
+		assertEquivalent(lines);
+	}
+
+	@Test
+	public void mergesEmptyDeck() {
+
+		// the replaced loop never terminated for an empty deck
+		String[] outputs = assertTimeoutPreemptively(Duration.ofSeconds(10),
+				() -> engineMerge(new ArrayList<String>()));
+
+		assertArrayEquals(new String[] { "", "", "" }, outputs);
+	}
+
+	@Test
+	public void mergesLargeDeckWithoutPageSeperator() throws IOException {
+
+		List<String> lines = new ArrayList<String>(Arrays.asList("---", "marp: true", "---"));
+		StringBuilder mkdocsWeb = new StringBuilder();
+
+		// about 4M characters held back before the download links
+		for (int index = 0; index < 40000; index++) {
+			String line = "Line " + index + " of the only slide of a deck converted without page separators.";
+			lines.add(line);
+			mkdocsWeb.append(line).append(System.lineSeparator());
+		}
+
+		int temporaryFiles = countTemporaryFiles();
+		String[] outputs = engineMerge(lines);
+		String links = Utils.generateDownloadAndIframeLinksforMkDocs(DECK_PATH) + System.lineSeparator();
+		String frontMatter = "---" + System.lineSeparator() + "marp: true" + System.lineSeparator() + "---"
+				+ System.lineSeparator();
+
+		assertEquals(links + frontMatter + mkdocsWeb, outputs[0]);
+		assertEquals(frontMatter + mkdocsWeb, outputs[2]);
+
+		// the lines held back in a temporary file are deleted with it
+		assertEquals(temporaryFiles, countTemporaryFiles());
+	}
+
+	/**
+	 *
+	 * Asserts that the engine writes the outputs of the replaced merge loop.
+	 *
+	 * @param lines The lines of the deck
+	 *
+	 * @throws IOException If the outputs can't be written
+	 */
+	private static void assertEquivalent(List<String> lines) throws IOException {
+
+		String[] expected = baselineMerge(lines);
+		String[] actual = engineMerge(lines);
+
+		assertEquals(expected[0], actual[0], "mkdocs_ output");
+		assertEquals(expected[1], actual[1], "pandoc_ output");
+		assertEquals(expected[2], actual[2], "panppt_ output");
+	}
+
+	/**
+	 *
+	 * Merges the deck with the engine.
+	 *
+	 * @param lines The lines of the deck
+	 *
+	 * @return The mkdocs_, pandoc_ and panppt_ outputs
+	 *
+	 * @throws IOException If the outputs can't be written
+	 */
+	private static String[] engineMerge(List<String> lines) throws IOException {
+
+		StringWriter mkdocsWebWriter = new StringWriter();
+		StringWriter pandocPdfWriter = new StringWriter();
+		StringWriter pandocSlideWriter = new StringWriter();
+
+		try (MarkdownMergeEngine engine = new MarkdownMergeEngine(DECK_PATH, mkdocsWebWriter, pandocPdfWriter,
+				pandocSlideWriter)) {
+
+			for (String line : lines) {
+				engine.accept(line);
+			}
+
+			engine.finish();
+		}
+
+		return new String[] { mkdocsWebWriter.toString(), pandocPdfWriter.toString(), pandocSlideWriter.toString() };
+	}
+
+	/**
+	 *
+	 * Counts the temporary files of held back mkdocs-web lines.
+	 *
+	 * @return The number of files
+	 *
+	 * @throws IOException If the temporary folder can't be listed
+	 */
+	private static int countTemporaryFiles() throws IOException {
+
+		int count = 0;
+
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(System.getProperty("java.io.tmpdir")),
+				"mkdocs-web*.md")) {
+			for (Path file : files) {
+				if (Files.isRegularFile(file)) {
+					count++;
+				}
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 *
+	 * Merges the deck with the multi-pass loop of MarkdownController before the
+	 * merge engine, kept unchanged apart from reading the lines from a list.
+	 *
+	 * @param markdownlinesMarp The lines of the deck, must not be empty
+	 *
+	 * @return The mkdocs_, pandoc_ and panppt_ outputs
+	 */
+	private static String[] baselineMerge(List<String> markdownlinesMarp) {
+
+		final String FIND_ALL_LAST_INDEXES = "\\((\\d+)\\)[^()]*$";
+		final double SIMILARITY_THRESHOLD = 0.999;
+		final String PAGE_SEPERATOR = "---";
+		final String HEADER_CHAR = "#";
+		final String IMAGE_LINK_PREFIX = "![";
+
+		ArrayList<Integer> markdownExludedlines = new ArrayList<Integer>();
+
+		ArrayList<String> markdownlinesMkdocsWeb = new ArrayList<String>();
+		ArrayList<String> markdownlinesPandocPdf = new ArrayList<String>();
+		ArrayList<String> markdownlinesPandocSlide = new ArrayList<String>();
+
+		int lastSeperatorIndex = 0;
+		int lastTitleIndex = 0;
+
+		boolean repeatedItems = true;
+
+		int firstPageSeperatorIndex = 0;
+
+		while (repeatedItems) {
+
+			int counter = 0;
+			boolean seperator = false;
+
+			for (int i = 0; i < markdownlinesMarp.size(); i++) {
+
+				if (markdownlinesMarp.get(i).contains("<!-- _backgroundColor:")
+						|| markdownlinesMarp.get(i).contains("<!-- _color:")
+						|| markdownlinesMarp.get(i).contains("<!-- paginate:")) {
+					if (!markdownExludedlines.contains(i)) {
+						markdownExludedlines.add(i);
+					}
+				}
+
+				seperator = false;
+				if (markdownlinesMarp.get(i).trim().toLowerCase().equals(PAGE_SEPERATOR)) {
+					seperator = true;
+					counter++;
+				}
+
+				// first two seperator for configuration
+				if (counter > 2 && seperator) {
+					markdownExludedlines.add(i);
+					lastSeperatorIndex = i;
+				}
+
+				// get first page seperator index
+				if (firstPageSeperatorIndex == 0 && counter == 3) {
+					firstPageSeperatorIndex = i;
+				}
+
+				if (markdownlinesMarp.get(i).trim().toLowerCase().startsWith(HEADER_CHAR)) {
+					if (lastSeperatorIndex > 0) {
+
+						String prev = markdownlinesMarp.get(lastTitleIndex).replace(HEADER_CHAR, "").toLowerCase()
+								.trim().replaceFirst(FIND_ALL_LAST_INDEXES, "");
+						String curr = markdownlinesMarp.get(i).replace(HEADER_CHAR, "").toLowerCase().trim()
+								.replaceFirst(FIND_ALL_LAST_INDEXES, "");
+
+						double similarity = Utils.calculateJaccardSimilarity(prev, curr);
+						if (similarity > SIMILARITY_THRESHOLD) {
+							markdownExludedlines.add(i);
+						}
+					}
+
+					lastTitleIndex = i;
+				}
+
+				repeatedItems = false;
+				for (int j = lastTitleIndex + 1; j < markdownlinesMarp.size(); j++) {
+					if (markdownlinesMarp.get(j).trim().toLowerCase().startsWith(HEADER_CHAR)) {
+						String prev = markdownlinesMarp.get(lastTitleIndex).replace(HEADER_CHAR, "").toLowerCase()
+								.trim().replaceFirst(FIND_ALL_LAST_INDEXES, "");
+						String curr = markdownlinesMarp.get(j).replace(HEADER_CHAR, "").toLowerCase().trim()
+								.replaceFirst(FIND_ALL_LAST_INDEXES, "");
+						double similarity = Utils.calculateJaccardSimilarity(prev, curr);
+						if (similarity >= SIMILARITY_THRESHOLD) {
+							repeatedItems = true;
+							break;
+						}
+					}
+				}
+			}
+
+			if (!repeatedItems)
+				break;
+
+		}
+
+		for (int i = 0; i < markdownlinesMarp.size(); i++) {
+
+			String markdownline = markdownlinesMarp.get(i);
+
+			boolean converted = false;
+
+			// add download links and iframe
+			if (i == firstPageSeperatorIndex) {
+				markdownlinesMkdocsWeb.add(Utils.generateDownloadAndIframeLinksforMkDocs(DECK_PATH));
+			}
+
+			if (!markdownExludedlines.contains(i)) {
+
+				if (markdownline.trim().startsWith(HEADER_CHAR)) {
+					markdownline = markdownline.replaceFirst(FIND_ALL_LAST_INDEXES, "");
+				}
+
+				markdownlinesMkdocsWeb.add(markdownline);
+
+				if (markdownline.trim().startsWith(IMAGE_LINK_PREFIX)) {
+					markdownline = Utils.convertMarpToPandoc(markdownline)[0];
+					converted = true;
+				}
+
+				markdownlinesPandocPdf.add(markdownline);
+			}
+
+			if (converted == false) {
+				if (markdownline.trim().startsWith(IMAGE_LINK_PREFIX)) {
+					markdownline = Utils.convertMarpToPandoc(markdownline)[0];
+				}
+			}
+
+			markdownlinesPandocSlide.add(markdownline);
+		}
+
+		return new String[] { join(markdownlinesMkdocsWeb), join(markdownlinesPandocPdf),
+				join(markdownlinesPandocSlide) };
+	}
+
+	/**
+	 *
+	 * Joins lines like the replaced loop wrote them.
+	 *
+	 * @param lines The lines
+	 *
+	 * @return The lines each followed by the system line separator
+	 */
+	private static String join(List<String> lines) {
+
+		StringBuilder outputBuilder = new StringBuilder();
+		for (String line : lines) {
+			outputBuilder.append(line).append(System.lineSeparator());
+		}
+
+		return outputBuilder.toString();
+	}
+
+}
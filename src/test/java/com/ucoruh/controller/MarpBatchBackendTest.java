@@ -0,0 +1,339 @@
+package com.ucoruh.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ucoruh.controller.BuildScheduler.RenderJob;
+import com.ucoruh.controller.BuildScheduler.RenderJobResult;
+
+/**
+ *
+ * @class MarpBatchBackendTest
+ * @brief Checks the Marp batch jobs of decks and the completion of the jobs
+ *        with fake Marp outputs.
+ */
+public class MarpBatchBackendTest {
+
+	/**
+	 *
+	 * @brief The maximum length of the deck arguments of a batch in
+	 *        MarpBatchBackend.
+	 */
+	private static final int MAX_BATCH_ARGUMENTS_LENGTH = 6000;
+
+	@TempDir
+	Path folder;
+
+	private RenderCache cache;
+
+	private List<String> decks;
+
+	@BeforeEach
+	public void writeDecks() throws IOException {
+
+		cache = new RenderCache(folder.resolve("cache").toString(), RenderCache.DEFAULT_MAX_CACHE_BYTES);
+		decks = new ArrayList<String>();
+
+		for (int week = 1; week <= 3; week++) {
+			decks.add(write("week-" + week + ".md", "---\nmarp: true\n---\n\n# Week " + week + "\n").toString());
+		}
+	}
+
+	@Test
+	public void batchesDecksOfEveryFormat() throws IOException {
+
+		write("week-1_slide.pdf", "old");
+		write("week-2_slide.pptx", "old");
+
+		List<RenderJob> jobs = new MarpBatchBackend(cache, true).createJobs(decks, folder.toString());
+
+		assertEquals(3, jobs.size());
+		assertEquals(Arrays.asList("marp-pdf", "marp-html", "marp-pptx"),
+				Arrays.asList(jobs.get(0).getFormat(), jobs.get(1).getFormat(), jobs.get(2).getFormat()));
+
+		for (RenderJob job : jobs) {
+			assertEquals("batch of 3 decks", job.getDeck());
+			assertEquals(folder.toString(), job.getWorkingFolder());
+			assertNull(job.getOutputFile());
+			assertEquals(decks, getDeckArguments(job));
+			assertFalse(Arrays.asList(job.getCommand()).contains("-o"), job.getFormat());
+		}
+
+		assertTrue(Arrays.asList(jobs.get(0).getCommand()).contains("--pdf"));
+		assertTrue(Arrays.asList(jobs.get(2).getCommand()).contains("--pptx"));
+
+		// a failed batch must not leave the previous outputs behind
+		assertFalse(Files.exists(folder.resolve("week-1_slide.pdf")));
+		assertFalse(Files.exists(folder.resolve("week-2_slide.pptx")));
+	}
+
+	@Test
+	public void splitsBatchesByArgumentLength() throws IOException {
+
+		// about 250 characters per deck path
+		Path longFolder = Files.createDirectories(folder.resolve(repeat('a', 120)).resolve(repeat('b', 120)));
+		List<String> longDecks = new ArrayList<String>();
+
+		for (int week = 1; week <= 60; week++) {
+			Path deck = longFolder.resolve("week-" + week + ".md");
+			Files.write(deck, ("# Week " + week + "\n").getBytes(StandardCharsets.UTF_8));
+			longDecks.add(deck.toString());
+		}
+
+		List<RenderJob> jobs = new MarpBatchBackend(cache, false).createJobs(longDecks, folder.toString());
+
+		List<String> pdfDecks = new ArrayList<String>();
+		int pdfBatches = 0;
+
+		for (RenderJob job : jobs) {
+
+			List<String> arguments = getDeckArguments(job);
+			int length = 0;
+			for (String deck : arguments) {
+				length += deck.length() + 1;
+			}
+			assertTrue(length <= MAX_BATCH_ARGUMENTS_LENGTH, "arguments length " + length);
+
+			if (job.getFormat().equals("marp-pdf")) {
+				pdfDecks.addAll(arguments);
+				pdfBatches++;
+			}
+		}
+
+		int deckLength = longDecks.get(0).length() + 1;
+		int batchSize = MAX_BATCH_ARGUMENTS_LENGTH / deckLength;
+
+		assertTrue(pdfBatches > 1, "pdf batches " + pdfBatches);
+		assertEquals((longDecks.size() + batchSize - 1) / batchSize, pdfBatches);
+		assertEquals(3 * pdfBatches, jobs.size());
+		assertEquals(longDecks, pdfDecks);
+	}
+
+	@Test
+	public void rendersDeckWithExistingMarpOutputAlone() throws IOException {
+
+		Path existing = write("week-2.pdf", "not a marp output");
+
+		List<RenderJob> jobs = new MarpBatchBackend(cache, false).createJobs(decks, folder.toString());
+
+		assertEquals(4, jobs.size());
+
+		RenderJob single = jobs.get(0);
+		assertEquals(decks.get(1), single.getDeck());
+		assertEquals("marp-pdf", single.getFormat());
+		assertEquals(folder.resolve("week-2_slide.pdf").toString(), single.getOutputFile());
+		assertEquals(folder.toString(), single.getWorkingFolder());
+
+		List<String> command = Arrays.asList(single.getCommand());
+		assertEquals(folder.resolve("week-2_slide.pdf").toString(), command.get(command.indexOf("-o") + 1));
+		assertEquals(decks.get(1), command.get(command.size() - 1));
+
+		assertEquals("marp-pdf", jobs.get(1).getFormat());
+		assertEquals(Arrays.asList(decks.get(0), decks.get(2)), getDeckArguments(jobs.get(1)));
+		assertEquals(decks, getDeckArguments(jobs.get(2)));
+		assertEquals(decks, getDeckArguments(jobs.get(3)));
+
+		assertEquals("not a marp output", read(existing));
+	}
+
+	@Test
+	public void movesBatchOutputsToSlideNames() throws IOException {
+
+		MarpBatchBackend backend = new MarpBatchBackend(cache, true);
+		List<RenderJob> jobs = backend.createJobs(decks, folder.toString());
+
+		writeMarpOutputs(jobs);
+
+		assertTrue(backend.completeJobs(succeeded(jobs)));
+
+		for (int week = 1; week <= 3; week++) {
+			for (String extension : new String[] { "pdf", "html", "pptx" }) {
+				assertFalse(Files.exists(folder.resolve("week-" + week + "." + extension)));
+				assertEquals("week-" + week + " " + extension,
+						read(folder.resolve("week-" + week + "_slide." + extension)));
+			}
+		}
+
+		// the moved outputs are cached with the keys of their single deck commands
+		MarpBatchBackend cachedBackend = new MarpBatchBackend(cache, true);
+		assertTrue(cachedBackend.createJobs(decks, folder.toString()).isEmpty());
+		assertEquals(9, cachedBackend.getCachedCount());
+	}
+
+	@Test
+	public void failsBatchWithMissingOutput() throws IOException {
+
+		MarpBatchBackend backend = new MarpBatchBackend(cache, true);
+		List<RenderJob> jobs = backend.createJobs(decks, folder.toString());
+
+		writeMarpOutputs(jobs);
+		Files.delete(folder.resolve("week-3.html"));
+
+		assertFalse(backend.completeJobs(succeeded(jobs)));
+		assertTrue(Files.exists(folder.resolve("week-3_slide.pdf")));
+		assertFalse(Files.exists(folder.resolve("week-3_slide.html")));
+	}
+
+	@Test
+	public void movesOutputsOfFailedBatchWithoutCaching() throws IOException {
+
+		MarpBatchBackend backend = new MarpBatchBackend(cache, true);
+		List<RenderJob> jobs = backend.createJobs(decks, folder.toString());
+
+		// the pdf batch fails after the first deck
+		write("week-1.pdf", "week-1 pdf");
+
+		List<RenderJobResult> results = new ArrayList<RenderJobResult>();
+		results.add(new RenderJobResult(jobs.get(0), 1, 10, "error", null));
+
+		assertTrue(backend.completeJobs(results));
+		assertFalse(Files.exists(folder.resolve("week-1.pdf")));
+		assertEquals("week-1 pdf", read(folder.resolve("week-1_slide.pdf")));
+		assertFalse(Files.exists(folder.resolve("week-2_slide.pdf")));
+
+		// the next build batches the deck again instead of rendering it alone
+		MarpBatchBackend nextBackend = new MarpBatchBackend(cache, true);
+		List<RenderJob> nextJobs = nextBackend.createJobs(decks, folder.toString());
+		assertEquals(0, nextBackend.getCachedCount());
+		assertEquals(3, nextJobs.size());
+		assertEquals(decks, getDeckArguments(nextJobs.get(0)));
+	}
+
+	@Test
+	public void cachesSingleDeckJobOutput() throws IOException {
+
+		write("week-2.pdf", "not a marp output");
+
+		MarpBatchBackend backend = new MarpBatchBackend(cache, true);
+		List<RenderJob> jobs = backend.createJobs(decks, folder.toString());
+
+		write("week-2_slide.pdf", "week-2 pdf");
+		assertTrue(backend.completeJobs(Collections.singletonList(new RenderJobResult(jobs.get(0), 0, 10, "", null))));
+
+		Files.delete(folder.resolve("week-2_slide.pdf"));
+
+		MarpBatchBackend cachedBackend = new MarpBatchBackend(cache, true);
+		cachedBackend.createJobs(decks, folder.toString());
+		assertEquals(1, cachedBackend.getCachedCount());
+		assertEquals("week-2 pdf", read(folder.resolve("week-2_slide.pdf")));
+	}
+
+	/**
+	 *
+	 * Writes the default Marp outputs of the decks of batch jobs.
+	 *
+	 * @param jobs The batch jobs
+	 *
+	 * @throws IOException If an output can't be written
+	 */
+	private void writeMarpOutputs(List<RenderJob> jobs) throws IOException {
+
+		for (RenderJob job : jobs) {
+			String extension = job.getFormat().substring("marp-".length());
+			for (String deck : getDeckArguments(job)) {
+				String name = Paths.get(deck).getFileName().toString().replace(".md", "");
+				write(name + "." + extension, name + " " + extension);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * Creates successful results of jobs.
+	 *
+	 * @param jobs The jobs
+	 *
+	 * @return The results
+	 */
+	private static List<RenderJobResult> succeeded(List<RenderJob> jobs) {
+
+		List<RenderJobResult> results = new ArrayList<RenderJobResult>();
+
+		for (RenderJob job : jobs) {
+			results.add(new RenderJobResult(job, 0, 10, "", null));
+		}
+
+		return results;
+	}
+
+	/**
+	 *
+	 * Gets the deck arguments of a job, the arguments after the
+	 * "--allow-local-files" option.
+	 *
+	 * @param job The job
+	 *
+	 * @return The decks of the command
+	 */
+	private static List<String> getDeckArguments(RenderJob job) {
+
+		List<String> command = Arrays.asList(job.getCommand());
+		int index = command.indexOf("--allow-local-files");
+
+		assertTrue(index > 0, Arrays.toString(job.getCommand()));
+
+		return command.subList(index + 1, command.size());
+	}
+
+	/**
+	 *
+	 * Repeats a character.
+	 *
+	 * @param c     The character
+	 * @param count The number of characters
+	 *
+	 * @return The string
+	 */
+	private static String repeat(char c, int count) {
+
+		char[] characters = new char[count];
+		Arrays.fill(characters, c);
+		return new String(characters);
+	}
+
+	/**
+	 *
+	 * Reads a text file.
+	 *
+	 * @param file The file
+	 *
+	 * @return The content of the file
+	 *
+	 * @throws IOException If the file can't be read
+	 */
+	private static String read(Path file) throws IOException {
+		return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 *
+	 * Writes a file of the folder.
+	 *
+	 * @param name    The path of the file relative to the folder
+	 * @param content The content of the file
+	 *
+	 * @return The path of the file
+	 *
+	 * @throws IOException If the file can't be written
+	 */
+	private Path write(String name, String content) throws IOException {
+		return Files.write(folder.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
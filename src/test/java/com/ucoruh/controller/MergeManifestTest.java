@@ -0,0 +1,137 @@
+package com.ucoruh.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @class MergeManifestTest
+ * @brief Checks which decks the merge manifest skips.
+ */
+public class MergeManifestTest {
+
+	/**
+	 *
+	 * @brief The merge settings recorded by the tests.
+	 */
+	private static final String SETTINGS = "merge 1 development";
+
+	@TempDir
+	Path folder;
+
+	private Path deck;
+
+	private Path output;
+
+	private List<String> outputs;
+
+	@BeforeEach
+	public void createDeck() throws IOException {
+
+		Files.createDirectories(folder.resolve("week-1"));
+		deck = write("week-1/ce100-week-1.md", "# Week 1");
+		output = write("week-1/mkdocs_ce100-week-1.md", "# Week 1 merged");
+		outputs = Arrays.asList(output.toString());
+
+		MergeManifest manifest = new MergeManifest(folder.toString(), SETTINGS);
+		manifest.load();
+		assertFalse(manifest.isUpToDate(deck.toString(), outputs));
+		manifest.update(deck.toString(), outputs);
+		manifest.setRasterImages(deck.toString(), Arrays.asList("assets/diagram.svg"));
+		manifest.save();
+	}
+
+	@Test
+	public void skipsUnchangedDeck() throws IOException {
+
+		MergeManifest manifest = load(SETTINGS);
+
+		assertTrue(manifest.isUpToDate(deck.toString(), outputs));
+		assertEquals(Arrays.asList("assets/diagram.svg"), manifest.getRasterImages(deck.toString()));
+	}
+
+	@Test
+	public void mergesChangedDeck() throws IOException {
+
+		write("week-1/ce100-week-1.md", "# Week 1 changed");
+
+		assertFalse(load(SETTINGS).isUpToDate(deck.toString(), outputs));
+	}
+
+	@Test
+	public void mergesDeckWithChangedOrMissingOutput() throws IOException {
+
+		write("week-1/mkdocs_ce100-week-1.md", "# edited");
+		assertFalse(load(SETTINGS).isUpToDate(deck.toString(), outputs));
+
+		Files.delete(output);
+		assertFalse(load(SETTINGS).isUpToDate(deck.toString(), outputs));
+	}
+
+	@Test
+	public void mergesDeckOfOtherMergeSettings() throws IOException {
+
+		assertFalse(load("merge 2 development").isUpToDate(deck.toString(), outputs));
+		assertFalse(load(SETTINGS + " optimizeimages 150.0").isUpToDate(deck.toString(), outputs));
+	}
+
+	@Test
+	public void removesEntriesOfDeletedDeck() throws IOException {
+
+		Files.delete(deck);
+		load(SETTINGS).save();
+
+		String manifestText = new String(Files.readAllBytes(folder.resolve(MergeManifest.MANIFEST_FILE_NAME)),
+				StandardCharsets.UTF_8);
+		assertFalse(manifestText.contains("ce100-week-1.md"), manifestText);
+
+		// a new deck with the same name and content is merged again
+		write("week-1/ce100-week-1.md", "# Week 1");
+		assertFalse(load(SETTINGS).isUpToDate(deck.toString(), outputs));
+	}
+
+	/**
+	 *
+	 * Loads the manifest of the folder.
+	 *
+	 * @param settings The merge settings
+	 *
+	 * @return The loaded manifest
+	 *
+	 * @throws IOException If the manifest can't be read
+	 */
+	private MergeManifest load(String settings) throws IOException {
+
+		MergeManifest manifest = new MergeManifest(folder.toString(), settings);
+		manifest.load();
+		return manifest;
+	}
+
+	/**
+	 *
+	 * Writes a file of the folder.
+	 *
+	 * @param name    The path of the file relative to the folder
+	 * @param content The content of the file
+	 *
+	 * @return The path of the file
+	 *
+	 * @throws IOException If the file can't be written
+	 */
+	private Path write(String name, String content) throws IOException {
+		return Files.write(folder.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
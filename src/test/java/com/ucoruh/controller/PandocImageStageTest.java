@@ -0,0 +1,106 @@
+package com.ucoruh.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ucoruh.utils.SvgRasterizer;
+
+/**
+ *
+ * @class PandocImageStageTest
+ * @brief Produces the JPEG images linked by pandoc outputs from the draw.io
+ *        test SVG image of the test resources.
+ */
+public class PandocImageStageTest {
+
+	@TempDir
+	Path folder;
+
+	private String deck;
+
+	private PandocImageStage stage;
+
+	@BeforeEach
+	public void copyInputSvg() throws IOException {
+
+		Files.createDirectories(folder.resolve("week-1/assets"));
+
+		try (InputStream input = getClass().getResourceAsStream("/test_files/input.svg")) {
+			assertNotNull(input, "test_files/input.svg");
+			Files.copy(input, folder.resolve("week-1/assets/input.svg"));
+		}
+
+		deck = Files.write(folder.resolve("week-1/ce100-week-1.md"), "# Week 1".getBytes(StandardCharsets.UTF_8))
+				.toString();
+		stage = new PandocImageStage(new SvgAssetRasterizer(new SvgRasterizer(96, 0.9f), 2));
+	}
+
+	@Test
+	public void convertsMissingJpegImage() throws IOException {
+
+		stage.addReferences(deck, Arrays.asList("assets/input.svg", "https://example.com/remote.svg",
+				"data:image/svg+xml;base64,PHN2Zy8+"));
+
+		assertTrue(stage.materialize().isEmpty());
+
+		// 96 dpi keeps the 416 x 306 pixel size of the SVG
+		BufferedImage image = ImageIO.read(folder.resolve("week-1/assets/input.jpeg").toFile());
+		assertNotNull(image, "JPEG image");
+		assertEquals(416, image.getWidth());
+		assertEquals(306, image.getHeight());
+	}
+
+	@Test
+	public void convertsOutdatedJpegImageOnly() throws IOException {
+
+		Path jpeg = Files.write(folder.resolve("week-1/assets/input.jpeg"), "stale".getBytes(StandardCharsets.UTF_8));
+		Files.setLastModifiedTime(jpeg, FileTime.fromMillis(System.currentTimeMillis() - 60000));
+
+		stage.addReferences(deck, Arrays.asList("assets/input.svg"));
+		assertTrue(stage.materialize().isEmpty());
+
+		BufferedImage image = ImageIO.read(jpeg.toFile());
+		assertEquals(416, image.getWidth());
+		assertEquals(306, image.getHeight());
+
+		// an up to date JPEG image is kept
+		long modified = Files.getLastModifiedTime(jpeg).toMillis();
+		assertTrue(stage.materialize().isEmpty());
+		assertEquals(modified, Files.getLastModifiedTime(jpeg).toMillis());
+	}
+
+	@Test
+	public void reportsUnresolvedReferences() throws IOException {
+
+		Files.write(folder.resolve("week-1/assets/broken.svg"), "<svg".getBytes(StandardCharsets.UTF_8));
+		Files.write(folder.resolve("week-1/assets/photo.jpeg"), "jpeg".getBytes(StandardCharsets.UTF_8));
+
+		stage.addReferences(deck, Arrays.asList("assets/input.svg", "assets/broken.svg", "assets/missing.svg",
+				"assets/photo.svg"));
+
+		List<String> unresolved = stage.materialize();
+
+		assertEquals(2, unresolved.size(), unresolved.toString());
+		assertTrue(unresolved.get(0).startsWith(deck + " : assets/broken.svg ("), unresolved.get(0));
+		assertEquals(deck + " : assets/missing.svg (no SVG or JPEG image)", unresolved.get(1));
+		assertTrue(Files.exists(folder.resolve("week-1/assets/input.jpeg")));
+	}
+
+}
@@ -0,0 +1,153 @@
+package com.ucoruh.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ucoruh.utils.ToolLauncher.Tool;
+
+/**
+ *
+ * @class RenderCacheTest
+ * @brief Checks the render cache keys of decks and the restore of cached
+ *        artifacts.
+ */
+public class RenderCacheTest {
+
+	@TempDir
+	Path folder;
+
+	private Path deck;
+
+	private Path output;
+
+	@BeforeEach
+	public void createDeck() throws IOException {
+
+		Files.createDirectories(folder.resolve("docs/week-1/assets"));
+		Files.createDirectories(folder.resolve("docs/images"));
+
+		write("docs/images/hero-background.svg", "<svg/>");
+		write("docs/week-1/assets/diagram.png", "png");
+		write("docs/week-1/assets/photo.jpg", "jpg");
+
+		deck = write("docs/week-1/week-1.md",
+				"---\nmarp: true\nbackgroundImage: url('../images/hero-background.svg')\n---\n\n# Week 1\n\n"
+						+ "![width:500px](assets/diagram.png)\n\n<img src=\"assets/photo.jpg\">\n\n"
+						+ "![](https://example.com/remote.png)\n");
+		output = folder.resolve("docs/week-1/week-1_slide.pdf");
+	}
+
+	@Test
+	public void keyOfUnchangedDeckIsStable() throws IOException {
+		assertEquals(createKey(), createKey());
+	}
+
+	@Test
+	public void keyChangesWithDeckAndCommand() throws IOException {
+
+		String key = createKey();
+
+		assertNotEquals(key, newCache().createKey(Tool.MARP,
+				new String[] { "marp", "--pptx", "-o", output.toString(), deck.toString() }, deck.toString(),
+				output.toString()));
+
+		write("docs/week-1/week-1.md", "# Week 1 changed\n");
+		assertNotEquals(key, createKey());
+	}
+
+	@Test
+	public void keyChangesWithMarkdownImage() throws IOException {
+
+		String key = createKey();
+		write("docs/week-1/assets/diagram.png", "changed");
+		assertNotEquals(key, createKey());
+	}
+
+	@Test
+	public void keyChangesWithHtmlImage() throws IOException {
+
+		String key = createKey();
+		write("docs/week-1/assets/photo.jpg", "changed");
+		assertNotEquals(key, createKey());
+	}
+
+	@Test
+	public void keyChangesWithCssUrlImage() throws IOException {
+
+		String key = createKey();
+		write("docs/images/hero-background.svg", "<svg width=\"10\"/>");
+		assertNotEquals(key, createKey());
+
+		Files.delete(folder.resolve("docs/images/hero-background.svg"));
+		assertNotEquals(key, createKey());
+	}
+
+	@Test
+	public void restoresStoredArtifact() throws IOException {
+
+		RenderCache cache = newCache();
+		String key = createKey();
+
+		assertFalse(cache.restore(key, output.toString()));
+
+		write("docs/week-1/week-1_slide.pdf", "pdf");
+		cache.store(key, output.toString());
+		Files.delete(output);
+
+		assertTrue(newCache().restore(key, output.toString()));
+		assertEquals("pdf", new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 *
+	 * Creates the key of the PDF render of the deck with a new cache, like a new
+	 * run.
+	 *
+	 * @return The cache key
+	 *
+	 * @throws IOException If the files can't be read
+	 */
+	private String createKey() throws IOException {
+
+		return newCache().createKey(Tool.MARP,
+				new String[] { "marp", "--pdf", "-o", output.toString(), deck.toString() }, deck.toString(),
+				output.toString());
+	}
+
+	/**
+	 *
+	 * Creates a cache in the temporary folder.
+	 *
+	 * @return The cache
+	 */
+	private RenderCache newCache() {
+		return new RenderCache(folder.resolve("cache").toString(), RenderCache.DEFAULT_MAX_CACHE_BYTES);
+	}
+
+	/**
+	 *
+	 * Writes a file of the folder.
+	 *
+	 * @param name    The path of the file relative to the folder
+	 * @param content The content of the file
+	 *
+	 * @return The path of the file
+	 *
+	 * @throws IOException If the file can't be written
+	 */
+	private Path write(String name, String content) throws IOException {
+		return Files.write(folder.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.ucoruh.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ucoruh.controller.SvgAssetRasterizer.RasterizeResult;
+import com.ucoruh.controller.SvgAssetRasterizer.RasterizeStatus;
+import com.ucoruh.utils.SvgRasterizer;
+
+/**
+ *
+ * @class SvgAssetRasterizerTest
+ * @brief Rasterizes the draw.io test SVG image of the test resources to JPEG
+ *        and PNG images.
+ */
+public class SvgAssetRasterizerTest {
+
+	/**
+	 *
+	 * @brief The raster formats of the tests, JPEG first.
+	 */
+	private static final String[] FORMATS = { "jpeg", "png" };
+
+	@TempDir
+	Path folder;
+
+	private Path svgFile;
+
+	private SvgAssetRasterizer assetRasterizer;
+
+	@BeforeEach
+	public void copyInputSvg() throws IOException {
+
+		Files.createDirectories(folder.resolve("assets"));
+		svgFile = folder.resolve("assets/input.svg");
+
+		try (InputStream input = getClass().getResourceAsStream("/test_files/input.svg")) {
+			assertNotNull(input, "test_files/input.svg");
+			Files.copy(input, svgFile);
+		}
+
+		assetRasterizer = new SvgAssetRasterizer(new SvgRasterizer(96, 0.9f), 2);
+	}
+
+	@Test
+	public void rasterizesJpegAndPng() throws IOException {
+
+		List<RasterizeResult> results = assetRasterizer.rasterizeFolder(folder.toString(), FORMATS);
+
+		assertEquals(2, results.size());
+		assertTrue(assetRasterizer.logReport(results));
+
+		for (RasterizeResult result : results) {
+			assertEquals(RasterizeStatus.RASTERIZED, result.getStatus(), result.getReportLine());
+		}
+
+		byte[] jpeg = Files.readAllBytes(folder.resolve("assets/input.jpeg"));
+		assertEquals((byte) 0xFF, jpeg[0]);
+		assertEquals((byte) 0xD8, jpeg[1]);
+
+		byte[] png = Files.readAllBytes(folder.resolve("assets/input.png"));
+		assertEquals((byte) 0x89, png[0]);
+		assertEquals('P', png[1]);
+
+		// 96 dpi keeps the 416 x 306 pixel size of the SVG
+		for (String format : FORMATS) {
+			BufferedImage image = ImageIO.read(folder.resolve("assets/input." + format).toFile());
+			assertEquals(416, image.getWidth(), format);
+			assertEquals(306, image.getHeight(), format);
+		}
+	}
+
+	@Test
+	public void skipsUpToDateImages() throws IOException {
+
+		assertTrue(assetRasterizer.logReport(assetRasterizer.rasterizeFolder(folder.toString(), FORMATS)));
+
+		long pngModified = Files.getLastModifiedTime(folder.resolve("assets/input.png")).toMillis();
+
+		List<RasterizeResult> results = assetRasterizer.rasterizeFolder(folder.toString(), FORMATS);
+
+		assertEquals(2, results.size());
+		for (RasterizeResult result : results) {
+			assertEquals(RasterizeStatus.UP_TO_DATE, result.getStatus(), result.getReportLine());
+		}
+		assertEquals(pngModified, Files.getLastModifiedTime(folder.resolve("assets/input.png")).toMillis());
+	}
+
+	@Test
+	public void failsDamagedSvgWithoutOutput() throws IOException {
+
+		byte[] svg = Files.readAllBytes(svgFile);
+		Files.write(folder.resolve("assets/truncated.svg"), Arrays.copyOf(svg, svg.length / 2));
+		Files.write(folder.resolve("assets/missing-image.svg"),
+				("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" "
+						+ "width=\"40\" height=\"40\"><rect width=\"40\" height=\"40\" fill=\"red\"/>"
+						+ "<image xlink:href=\"missing.png\" width=\"20\" height=\"20\"/></svg>")
+						.getBytes(StandardCharsets.UTF_8));
+
+		List<RasterizeResult> results = assetRasterizer.rasterizeFolder(folder.toString(), FORMATS);
+
+		assertEquals(6, results.size());
+		assertFalse(assetRasterizer.logReport(results));
+
+		for (RasterizeResult result : results) {
+
+			String name = folder.relativize(Paths.get(result.getSvgFile())).toString();
+
+			if (name.contains("input")) {
+				assertEquals(RasterizeStatus.RASTERIZED, result.getStatus(), result.getReportLine());
+				continue;
+			}
+
+			assertEquals(RasterizeStatus.FAILED, result.getStatus(), result.getReportLine());
+			assertFalse(Files.exists(Paths.get(result.getOutputFile())), result.getOutputFile());
+		}
+	}
+
+}
@@ -0,0 +1,130 @@
+package com.ucoruh.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.apache.poi.xwpf.usermodel.Document;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFPicture;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @class DocxDocumentRendererTest
+ * @brief Renders a small document to DOCX with POI and reads it back.
+ */
+public class DocxDocumentRendererTest {
+
+	@TempDir
+	Path folder;
+
+	@Test
+	public void rendersHeadingsParagraphsTablesAndImages() throws IOException {
+
+		Files.createDirectories(folder.resolve("assets"));
+		BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(Color.GREEN);
+		graphics.fillRect(0, 0, 64, 48);
+		graphics.dispose();
+		ImageIO.write(image, "png", folder.resolve("assets/sort.png").toFile());
+
+		Path markdown = folder.resolve("pandoc_ce100-week-1.md");
+		Files.write(markdown, Arrays.asList("---", "title: \"CE100 Week-1\"", "author: Uğur CORUH", "---", "",
+				"# Sorting Algorithms", "", "Insertion sort is **stable**.", "", "## Running Times", "",
+				"| Algorithm | Time |", "|---|---|", "| Merge | O(n lg n) |", "", "- Stable", "- In place", "",
+				"1. First step", "", "![Insertion](assets/sort.png){height=96px}", "", "```c", "int key = a[j];",
+				"```"), StandardCharsets.UTF_8);
+
+		Path docx = folder.resolve("ce100-week-1.docx");
+		new DocxDocumentRenderer().render(MarkdownDocumentParser.parse(markdown.toString()), docx.toString());
+
+		try (InputStream input = Files.newInputStream(docx); XWPFDocument document = new XWPFDocument(input)) {
+
+			assertEquals("CE100 Week-1", getParagraph(document, "Title").getText());
+			assertEquals("Uğur CORUH", getParagraph(document, "Author").getText());
+			assertEquals("Sorting Algorithms", getParagraph(document, "Heading1").getText());
+			assertEquals("Running Times", getParagraph(document, "Heading2").getText());
+			assertEquals("int key = a[j];", getParagraph(document, "SourceCode").getText());
+
+			XWPFParagraph paragraph = getParagraph(document, "BodyText");
+			assertEquals("Insertion sort is stable.", paragraph.getText());
+			assertEquals("stable", paragraph.getRuns().get(1).getText(0));
+			assertTrue(paragraph.getRuns().get(1).isBold());
+
+			List<XWPFParagraph> items = new ArrayList<XWPFParagraph>();
+			for (XWPFParagraph item : document.getParagraphs()) {
+				if (item.getNumID() != null) {
+					items.add(item);
+				}
+			}
+			assertEquals(3, items.size());
+			assertEquals("In place", items.get(1).getText());
+			assertEquals(items.get(0).getNumID(), items.get(1).getNumID());
+			assertNotEquals(items.get(0).getNumID(), items.get(2).getNumID());
+			assertNull(getParagraph(document, "Heading1").getNumID());
+
+			assertEquals(1, document.getTables().size());
+			XWPFTable table = document.getTables().get(0);
+			assertEquals(2, table.getNumberOfRows());
+			assertEquals("Algorithm", table.getRow(0).getCell(0).getText());
+			assertEquals("O(n lg n)", table.getRow(1).getCell(1).getText());
+
+			assertEquals(1, document.getAllPictures().size());
+			assertEquals(Document.PICTURE_TYPE_PNG, document.getAllPictures().get(0).getPictureType());
+
+			List<XWPFPicture> pictures = new ArrayList<XWPFPicture>();
+			for (XWPFParagraph imageParagraph : document.getParagraphs()) {
+				for (XWPFRun run : imageParagraph.getRuns()) {
+					pictures.addAll(run.getEmbeddedPictures());
+				}
+			}
+			assertEquals(1, pictures.size());
+			// the 64 x 48 pixel image scaled to the 96px height, in points
+			assertEquals(72.0, pictures.get(0).getDepth(), 0.01);
+			assertEquals(96.0, pictures.get(0).getWidth(), 0.01);
+		}
+	}
+
+	/**
+	 *
+	 * Gets the first paragraph of a style.
+	 *
+	 * @param document The document
+	 * @param style    The style id
+	 *
+	 * @return The paragraph
+	 */
+	private static XWPFParagraph getParagraph(XWPFDocument document, String style) {
+
+		for (XWPFParagraph paragraph : document.getParagraphs()) {
+			if (style.equals(paragraph.getStyle())) {
+				return paragraph;
+			}
+		}
+
+		return fail("paragraph of style " + style);
+	}
+
+}
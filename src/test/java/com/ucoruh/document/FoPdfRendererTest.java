@@ -0,0 +1,90 @@
+package com.ucoruh.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
+import javax.xml.transform.TransformerException;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @class FoPdfRendererTest
+ * @brief Renders a small deck to PDF with FOP and reads the PDF back.
+ */
+public class FoPdfRendererTest {
+
+	@TempDir
+	Path folder;
+
+	@Test
+	public void rendersDeckToPdf() throws IOException, TransformerException {
+
+		Files.createDirectories(folder.resolve("assets"));
+		BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(Color.BLUE);
+		graphics.fillRect(0, 0, 64, 48);
+		graphics.dispose();
+		ImageIO.write(image, "png", folder.resolve("assets/sort.png").toFile());
+
+		Path deck = folder.resolve("pandoc_ce100-week-1.md");
+		Files.write(deck, Arrays.asList("---", "title: \"CE100 Week-1\"", "author: Uğur CORUH", "---", "",
+				"# Sorting Algorithms", "", "Insertion sort is **stable** & in place.", "", "- Insertion sort",
+				"  - Merge sort", "", "| Algorithm | Time |", "|---|---|", "| Merge | O(n lg n) |", "",
+				"```c", "int key = a[j];", "```", "", "![Insertion](assets/sort.png){height=100px}", "",
+				"![Missing](assets/missing.png)"), StandardCharsets.UTF_8);
+
+		MarkdownDocument document = MarkdownDocumentParser.parse(deck.toString());
+		FoPdfRenderer renderer = new FoPdfRenderer();
+
+		String fo = renderer.createFo(document);
+		assertTrue(fo.contains("<fo:external-graphic"), "image of the FO");
+		assertTrue(fo.contains("[assets/missing.png]"), "missing image of the FO");
+
+		Path pdf = folder.resolve("ce100-week-1.pdf");
+		renderer.render(document, pdf.toString());
+
+		assertTrue(Files.size(pdf) > 0, "PDF size");
+
+		try (PDDocument pdfDocument = PDDocument.load(pdf.toFile())) {
+
+			assertTrue(pdfDocument.getNumberOfPages() > 0, "PDF pages");
+
+			String text = new PDFTextStripper().getText(pdfDocument);
+			assertTrue(text.contains("Sorting Algorithms"), text);
+			assertTrue(text.contains("stable & in place"), text);
+			assertTrue(text.contains("O(n lg n)"), text);
+			assertTrue(text.contains("int key = a[j];"), text);
+
+			// FOP shares the resources of the pages
+			Set<COSName> images = new HashSet<COSName>();
+			for (PDPage page : pdfDocument.getPages()) {
+				for (COSName name : page.getResources().getXObjectNames()) {
+					if (page.getResources().isImageXObject(name)) {
+						images.add(name);
+					}
+				}
+			}
+			assertEquals(1, images.size());
+		}
+	}
+
+}
@@ -0,0 +1,199 @@
+package com.ucoruh.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.ucoruh.document.MarkdownBlock.BlockType;
+
+/**
+ *
+ * @class MarkdownDocumentParserTest
+ * @brief Checks the blocks parsed from the pandoc Markdown of the merged decks.
+ */
+public class MarkdownDocumentParserTest {
+
+	@Test
+	public void parsesFrontMatterAndHeadings() {
+
+		MarkdownDocument document = parse("---", "title: \"CE100 Week-1\"", "author: Uğur CORUH", "style: |",
+				"  section { color: red; }", "---", "", "# Week-1 (Introduction) {#week-1}", "", "## Outline ##",
+				"", "Setext Heading", "==============", "", "#NoHeading");
+
+		assertEquals("CE100 Week-1", document.getFrontMatterValue("title"));
+		assertEquals("Uğur CORUH", document.getFrontMatterValue("author"));
+		assertNull(document.getFrontMatterValue("style"));
+
+		List<MarkdownBlock> blocks = document.getBlocks();
+
+		assertEquals(4, blocks.size());
+		assertBlock(blocks.get(0), BlockType.HEADING, 1, "Week-1 (Introduction)");
+		assertBlock(blocks.get(1), BlockType.HEADING, 2, "Outline");
+		assertBlock(blocks.get(2), BlockType.HEADING, 1, "Setext Heading");
+		assertBlock(blocks.get(3), BlockType.PARAGRAPH, 0, "#NoHeading");
+	}
+
+	@Test
+	public void parsesParagraphsAndSkipsHtml() {
+
+		List<MarkdownBlock> blocks = parse("<!-- _backgroundColor: aquamarine", "-->", "First line",
+				"second line", "", "<div align=center>", "<style>", "img { width: 50%; }", "</style>",
+				"Last paragraph", "</div>").getBlocks();
+
+		assertEquals(2, blocks.size());
+		assertBlock(blocks.get(0), BlockType.PARAGRAPH, 0, "First line second line");
+		assertBlock(blocks.get(1), BlockType.PARAGRAPH, 0, "Last paragraph");
+	}
+
+	@Test
+	public void parsesNestedLists() {
+
+		List<MarkdownBlock> blocks = parse("- Sorting", "  - Insertion sort", "    continued", "  - Merge sort",
+				"1. First step", "2) Second step", "", "* Last").getBlocks();
+
+		assertEquals(6, blocks.size());
+		assertListItem(blocks.get(0), 0, false, "Sorting");
+		assertListItem(blocks.get(1), 1, false, "Insertion sort continued");
+		assertListItem(blocks.get(2), 1, false, "Merge sort");
+		assertListItem(blocks.get(3), 0, true, "First step");
+		assertListItem(blocks.get(4), 0, true, "Second step");
+		assertListItem(blocks.get(5), 0, false, "Last");
+	}
+
+	@Test
+	public void parsesTables() {
+
+		List<MarkdownBlock> blocks = parse("| Algorithm | Time |", "|:---|---:|", "| Insertion | `O(n^2)` |",
+				"| Pipe \\| escaped | O(n lg n) |", "", "| not a table |").getBlocks();
+
+		assertEquals(2, blocks.size());
+		assertEquals(BlockType.TABLE, blocks.get(0).getType());
+		assertEquals(Arrays.asList(Arrays.asList("Algorithm", "Time"), Arrays.asList("Insertion", "`O(n^2)`"),
+				Arrays.asList("Pipe | escaped", "O(n lg n)")), blocks.get(0).getRows());
+		assertBlock(blocks.get(1), BlockType.PARAGRAPH, 0, "| not a table |");
+	}
+
+	@Test
+	public void parsesCodeBlocks() {
+
+		List<MarkdownBlock> blocks = parse("```{.c}", "int main() {", "", "  # not a heading", "}", "```", "~~~",
+				"plain", "~~~", "$$", "T(n) = 2T(n/2) + n", "$$").getBlocks();
+
+		assertEquals(3, blocks.size());
+		assertBlock(blocks.get(0), BlockType.CODE, 0, "int main() {\n\n  # not a heading\n}");
+		assertEquals("c", blocks.get(0).getReference());
+		assertBlock(blocks.get(1), BlockType.CODE, 0, "plain");
+		assertNull(blocks.get(1).getReference());
+		assertBlock(blocks.get(2), BlockType.CODE, 0, "T(n) = 2T(n/2) + n");
+	}
+
+	@Test
+	public void parsesImagesAndRules() {
+
+		MarkdownDocument document = parse("Before",
+				"![Insertion Sort](assets/ce100-week-1-insertion.png){height=250px}", "![](assets/ce100-week-1-merge.png) ![b](https://example.com/b.png \"title\")",
+				"<img src=\"assets/html.png\" width=\"50%\">", "Text with ![inline](assets/inline.png) image", "",
+				"---", "***");
+
+		List<MarkdownBlock> blocks = document.getBlocks();
+
+		assertEquals(8, blocks.size());
+		assertBlock(blocks.get(0), BlockType.PARAGRAPH, 0, "Before");
+		assertImage(blocks.get(1), "Insertion Sort", "assets/ce100-week-1-insertion.png", "250px");
+		assertImage(blocks.get(2), "", "assets/ce100-week-1-merge.png", null);
+		assertImage(blocks.get(3), "b", "https://example.com/b.png", null);
+		assertImage(blocks.get(4), "", "assets/html.png", null);
+		assertBlock(blocks.get(5), BlockType.PARAGRAPH, 0, "Text with ![inline](assets/inline.png) image");
+		assertEquals(BlockType.RULE, blocks.get(6).getType());
+		assertEquals(BlockType.RULE, blocks.get(7).getType());
+
+		assertEquals(new File("/decks/week-1", "assets/ce100-week-1-insertion.png"),
+				document.resolveFile(blocks.get(1).getReference()));
+		assertNull(document.resolveFile(blocks.get(3).getReference()));
+	}
+
+	@Test
+	public void parsesQuotes() {
+
+		List<MarkdownBlock> blocks = parse("> Premature optimization", "> is the root of all evil", "",
+				"after").getBlocks();
+
+		assertEquals(2, blocks.size());
+		assertBlock(blocks.get(0), BlockType.QUOTE, 0, "Premature optimization is the root of all evil");
+		assertBlock(blocks.get(1), BlockType.PARAGRAPH, 0, "after");
+	}
+
+	@Test
+	public void keepsLinesWithoutClosingFrontMatter() {
+
+		MarkdownDocument document = parse("---", "title: Week-1", "# Heading");
+
+		assertTrue(document.getFrontMatter().isEmpty());
+		assertEquals(BlockType.RULE, document.getBlocks().get(0).getType());
+		assertBlock(document.getBlocks().get(2), BlockType.HEADING, 1, "Heading");
+	}
+
+	/**
+	 *
+	 * Parses Markdown lines of a document in the /decks/week-1 folder.
+	 *
+	 * @param lines The Markdown lines
+	 *
+	 * @return The parsed document
+	 */
+	private static MarkdownDocument parse(String... lines) {
+		return MarkdownDocumentParser.parse("/decks/week-1/pandoc_ce100-week-1.md", "/decks/week-1",
+				Arrays.asList(lines));
+	}
+
+	/**
+	 *
+	 * Asserts the type, level and text of a block.
+	 *
+	 * @param block The block
+	 * @param type  The expected type
+	 * @param level The expected level
+	 * @param text  The expected text
+	 */
+	private static void assertBlock(MarkdownBlock block, BlockType type, int level, String text) {
+		assertEquals(type, block.getType(), block.getText());
+		assertEquals(level, block.getLevel(), block.getText());
+		assertEquals(text, block.getText());
+	}
+
+	/**
+	 *
+	 * Asserts a list item block.
+	 *
+	 * @param block   The block
+	 * @param level   The expected nesting level
+	 * @param ordered Whether the item must belong to an ordered list
+	 * @param text    The expected text
+	 */
+	private static void assertListItem(MarkdownBlock block, int level, boolean ordered, String text) {
+		assertBlock(block, BlockType.LIST_ITEM, level, text);
+		assertEquals(ordered, block.isOrdered(), text);
+	}
+
+	/**
+	 *
+	 * Asserts an image block.
+	 *
+	 * @param block           The block
+	 * @param alternativeText The expected alternative text
+	 * @param path            The expected image path
+	 * @param height          The expected height attribute
+	 */
+	private static void assertImage(MarkdownBlock block, String alternativeText, String path, String height) {
+		assertBlock(block, BlockType.IMAGE, 0, alternativeText);
+		assertEquals(path, block.getReference());
+		assertEquals(height, block.getHeight());
+	}
+
+}
@@ -0,0 +1,100 @@
+package com.ucoruh.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.ucoruh.document.MarkdownInlineParser.InlineSpan;
+
+/**
+ *
+ * @class MarkdownInlineParserTest
+ * @brief Checks the styled text spans parsed from inline Markdown.
+ */
+public class MarkdownInlineParserTest {
+
+	@Test
+	public void parsesStrongAndEmphasis() {
+
+		List<InlineSpan> spans = MarkdownInlineParser.parse("Run **merge _sort_** and _quick_ sort_ing");
+
+		assertEquals(6, spans.size());
+		assertSpan(spans.get(0), "Run ", false, false, false);
+		assertSpan(spans.get(1), "merge ", true, false, false);
+		assertSpan(spans.get(2), "sort", true, true, false);
+		assertSpan(spans.get(3), " and ", false, false, false);
+		assertSpan(spans.get(4), "quick", false, true, false);
+		assertSpan(spans.get(5), " sort_ing", false, false, false);
+	}
+
+	@Test
+	public void parsesInlineCode() {
+
+		List<InlineSpan> spans = MarkdownInlineParser.parse("Call `` a**b`c `` now");
+
+		assertEquals(3, spans.size());
+		assertSpan(spans.get(1), "a**b`c", false, false, true);
+		assertSpan(spans.get(2), " now", false, false, false);
+	}
+
+	@Test
+	public void parsesLinks() {
+
+		List<InlineSpan> spans = MarkdownInlineParser
+				.parse("See [the **book**](https://example.com/clrs \"CLRS\"){target=_blank} or <https://ucoruh.com>");
+
+		assertEquals(5, spans.size());
+		assertEquals("the ", spans.get(1).getText());
+		assertEquals("https://example.com/clrs", spans.get(1).getLink());
+		assertSpan(spans.get(2), "book", true, false, false);
+		assertEquals("https://example.com/clrs", spans.get(2).getLink());
+		assertEquals(" or ", spans.get(3).getText());
+		assertNull(spans.get(3).getLink());
+		assertEquals("https://ucoruh.com", spans.get(4).getLink());
+	}
+
+	@Test
+	public void convertsToPlainText() {
+
+		assertEquals("Insertion Sort image, 3 < 4 & 5 > 2 ©",
+				MarkdownInlineParser.toPlainText("![Insertion Sort](assets/a.png){height=20%} image, "
+						+ "3 &lt; 4 &amp; 5 &gt; 2 &#169;"));
+		assertEquals("first line second", MarkdownInlineParser.toPlainText("first<br>line <span>second</span>"));
+		assertEquals("*not emphasis* [x]", MarkdownInlineParser.toPlainText("\\*not emphasis\\* \\[x\\]"));
+		assertEquals("unknown &entity; stays", MarkdownInlineParser.toPlainText("unknown &entity; stays"));
+	}
+
+	@Test
+	public void keepsUnclosedMarkup() {
+
+		List<InlineSpan> spans = MarkdownInlineParser.parse("2 * 3 and **open `tick [link](");
+
+		assertEquals(1, spans.size());
+		assertEquals("2 * 3 and **open `tick [link](", spans.get(0).getText());
+		assertFalse(spans.get(0).isBold());
+		assertTrue(MarkdownInlineParser.parse("").isEmpty());
+	}
+
+	/**
+	 *
+	 * Asserts the text and style of a span.
+	 *
+	 * @param span   The span
+	 * @param text   The expected text
+	 * @param bold   Whether the span must be strong
+	 * @param italic Whether the span must be emphasized
+	 * @param code   Whether the span must be inline code
+	 */
+	private static void assertSpan(InlineSpan span, String text, boolean bold, boolean italic, boolean code) {
+		assertEquals(text, span.getText());
+		assertEquals(bold, span.isBold(), text);
+		assertEquals(italic, span.isItalic(), text);
+		assertEquals(code, span.isCode(), text);
+	}
+
+}
@@ -0,0 +1,218 @@
+package com.ucoruh.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.apache.poi.sl.usermodel.PictureData.PictureType;
+import org.apache.poi.sl.usermodel.Placeholder;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFPictureShape;
+import org.apache.poi.xslf.usermodel.XSLFShape;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.apache.poi.xslf.usermodel.XSLFTable;
+import org.apache.poi.xslf.usermodel.XSLFTextShape;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @class PptxSlideRendererTest
+ * @brief Renders a small deck to PPTX with POI and reads the slides back.
+ */
+public class PptxSlideRendererTest {
+
+	@TempDir
+	Path folder;
+
+	private MarkdownDocument document;
+
+	@BeforeEach
+	public void writeDeck() throws IOException {
+
+		Files.createDirectories(folder.resolve("assets"));
+		BufferedImage image = new BufferedImage(64, 48, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(Color.RED);
+		graphics.fillRect(0, 0, 64, 48);
+		graphics.dispose();
+		ImageIO.write(image, "png", folder.resolve("assets/sort.png").toFile());
+
+		Path deck = folder.resolve("panppt_ce100-week-1.md");
+		Files.write(deck, Arrays.asList("---", "title: \"CE100 Week-1\"", "author: Uğur CORUH", "---", "",
+				"# Insertion Sort", "", "- Stable", "- In place", "", "![Insertion](assets/sort.png)", "", "---", "",
+				"# Running Times", "", "| Algorithm | Time |", "|---|---|", "| Merge | O(n lg n) |", "", "---", "",
+				"## Code", "", "```c", "int key = a[j];", "```"), StandardCharsets.UTF_8);
+
+		document = MarkdownDocumentParser.parse(deck.toString());
+	}
+
+	@Test
+	public void rendersSlidesWithTitlesAndImages() throws IOException {
+
+		Path pptx = folder.resolve("ce100-week-1.pptx");
+		new PptxSlideRenderer().render(document, folder.resolve("missing-reference.pptx").toString(),
+				pptx.toString());
+
+		try (XMLSlideShow ppt = open(pptx)) {
+
+			List<XSLFSlide> slides = ppt.getSlides();
+
+			assertEquals(4, slides.size());
+			assertEquals("CE100 Week-1", getTitle(slides.get(0)));
+			assertEquals("Insertion Sort", getTitle(slides.get(1)));
+			assertEquals("Running Times", getTitle(slides.get(2)));
+			assertEquals("Code", getTitle(slides.get(3)));
+
+			assertTrue(getText(slides.get(0)).contains("Uğur CORUH"), getText(slides.get(0)));
+			assertTrue(getText(slides.get(1)).contains("In place"), getText(slides.get(1)));
+			assertTrue(getText(slides.get(3)).contains("int key = a[j];"), getText(slides.get(3)));
+
+			assertEquals(1, ppt.getPictureData().size());
+			assertEquals(PictureType.PNG, ppt.getPictureData().get(0).getType());
+			assertEquals(1, count(slides.get(1), XSLFPictureShape.class));
+
+			assertEquals(1, count(slides.get(2), XSLFTable.class));
+			XSLFTable table = getFirst(slides.get(2), XSLFTable.class);
+			assertEquals(2, table.getNumberOfRows());
+			assertEquals("O(n lg n)", table.getCell(1, 1).getText());
+		}
+	}
+
+	@Test
+	public void dropsSlidesOfReferenceTemplate() throws IOException {
+
+		Path template = folder.resolve(PptxSlideRenderer.REFERENCE_TEMPLATE);
+
+		try (XMLSlideShow ppt = new XMLSlideShow(); OutputStream output = Files.newOutputStream(template)) {
+			ppt.createSlide();
+			ppt.createSlide();
+			ppt.write(output);
+		}
+
+		Path pptx = folder.resolve("ce100-week-1.pptx");
+		new PptxSlideRenderer().render(document, template.toString(), pptx.toString());
+
+		try (XMLSlideShow ppt = open(pptx)) {
+			assertEquals(4, ppt.getSlides().size());
+			assertEquals("CE100 Week-1", getTitle(ppt.getSlides().get(0)));
+		}
+	}
+
+	/**
+	 *
+	 * Opens a PPTX file.
+	 *
+	 * @param pptx The PPTX file
+	 *
+	 * @return The presentation
+	 *
+	 * @throws IOException If the file can't be read
+	 */
+	private static XMLSlideShow open(Path pptx) throws IOException {
+
+		try (InputStream input = Files.newInputStream(pptx)) {
+			return new XMLSlideShow(input);
+		}
+	}
+
+	/**
+	 *
+	 * Gets the title of a slide, the text of its title or centered title
+	 * placeholder.
+	 *
+	 * @param slide The slide
+	 *
+	 * @return The title, null if the slide has no title placeholder
+	 */
+	private static String getTitle(XSLFSlide slide) {
+
+		for (XSLFShape shape : slide.getShapes()) {
+			if (shape instanceof XSLFTextShape && (((XSLFTextShape) shape).getTextType() == Placeholder.TITLE
+					|| ((XSLFTextShape) shape).getTextType() == Placeholder.CENTERED_TITLE)) {
+				return ((XSLFTextShape) shape).getText();
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 *
+	 * Gets the text of the text shapes of a slide.
+	 *
+	 * @param slide The slide
+	 *
+	 * @return The text of the shapes, one shape per line
+	 */
+	private static String getText(XSLFSlide slide) {
+
+		StringBuilder text = new StringBuilder();
+
+		for (XSLFShape shape : slide.getShapes()) {
+			if (shape instanceof XSLFTextShape) {
+				text.append(((XSLFTextShape) shape).getText()).append('\n');
+			}
+		}
+
+		return text.toString();
+	}
+
+	/**
+	 *
+	 * Counts the shapes of a type on a slide.
+	 *
+	 * @param slide The slide
+	 * @param type  The shape type
+	 *
+	 * @return The number of shapes
+	 */
+	private static int count(XSLFSlide slide, Class<? extends XSLFShape> type) {
+
+		int count = 0;
+
+		for (XSLFShape shape : slide.getShapes()) {
+			if (type.isInstance(shape)) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 *
+	 * Gets the first shape of a type on a slide.
+	 *
+	 * @param <T>   The shape type
+	 * @param slide The slide
+	 * @param type  The shape type
+	 *
+	 * @return The shape, null if the slide has none
+	 */
+	private static <T extends XSLFShape> T getFirst(XSLFSlide slide, Class<T> type) {
+
+		for (XSLFShape shape : slide.getShapes()) {
+			if (type.isInstance(shape)) {
+				return type.cast(shape);
+			}
+		}
+
+		return null;
+	}
+
+}
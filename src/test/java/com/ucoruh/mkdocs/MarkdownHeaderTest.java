@@ -0,0 +1,117 @@
+package com.ucoruh.mkdocs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @class MarkdownHeaderTest
+ * @brief Checks the Markdown header metadata loaded from header properties
+ *        files.
+ */
+public class MarkdownHeaderTest {
+
+	@TempDir
+	Path folder;
+
+	@Test
+	public void loadsAllKeys() throws IOException {
+
+		MarkdownHeader markdownHeader = load("header=Week-1 (Introduction)\nfooter=RTEU CE100 Week-1\n"
+				+ "author=Asst. Prof. Dr. Uğur CORUH\nlicense=WTFPL\nlanguage=tr-TR\n"
+				+ "semester=Spring Semester, 2022-2023\ncourse=CE100 Algorithms and Programming II\n"
+				+ "university=Recep Tayyip Erdoğan Üniversitesi\nfaculty=Faculty of Engineering and Architecture\n"
+				+ "department=Computer Engineering Dept.\n");
+
+		assertEquals("Week-1 (Introduction)", markdownHeader.getHeader());
+		assertEquals("RTEU CE100 Week-1", markdownHeader.getFooter());
+		assertEquals("Asst. Prof. Dr. Uğur CORUH", markdownHeader.getAuthor());
+		assertEquals(LicenseTypes.WTFPL, markdownHeader.getLicense());
+		assertEquals(LanguageType.TR_TR, markdownHeader.getLanguage());
+		assertEquals("Spring Semester, 2022-2023", markdownHeader.getSemester());
+		assertEquals("CE100 Algorithms and Programming II", markdownHeader.getCourse());
+		assertEquals("Recep Tayyip Erdoğan Üniversitesi", markdownHeader.getUniversity());
+		assertEquals("Faculty of Engineering and Architecture", markdownHeader.getFaculty());
+		assertEquals("Computer Engineering Dept.", markdownHeader.getDepartment());
+	}
+
+	@Test
+	public void loadsDefaultsOfMissingKeys() throws IOException {
+
+		MarkdownHeader markdownHeader = load("course=CE100\n");
+
+		assertEquals("", markdownHeader.getHeader());
+		assertEquals("", markdownHeader.getAuthor());
+		assertEquals(LicenseTypes.UNLICENSED, markdownHeader.getLicense());
+		assertEquals(LanguageType.EN_US, markdownHeader.getLanguage());
+	}
+
+	@Test
+	public void loadsLicenseInTurkishLocale() throws IOException {
+
+		Locale defaultLocale = Locale.getDefault();
+
+		try {
+			// "mit" is "MİT" in upper case with the Turkish dotted capital i
+			Locale.setDefault(new Locale("tr", "TR"));
+
+			assertEquals(LicenseTypes.MIT, load("license=mit\nlanguage=EN-gb\n").getLicense());
+			assertEquals(LanguageType.EN_GB, load("license=mit\nlanguage=EN-gb\n").getLanguage());
+
+		} finally {
+			Locale.setDefault(defaultLocale);
+		}
+	}
+
+	@Test
+	public void rejectsUnknownLicenseOrLanguage() {
+
+		IOException license = assertThrows(IOException.class, () -> load("license=GPL-3.0\n"));
+		assertTrue(license.getMessage().contains("GPL-3.0"), license.getMessage());
+
+		IOException language = assertThrows(IOException.class, () -> load("language=xx-XX\n"));
+		assertTrue(language.getMessage().contains("xx-XX"), language.getMessage());
+	}
+
+	@Test
+	public void copiesWithHeader() throws IOException {
+
+		MarkdownHeader markdownHeader = load("course=CE100\nauthor=Uğur CORUH\nlicense=MIT\n");
+		MarkdownHeader deckHeader = markdownHeader.withHeader("ce100-week-1");
+
+		assertEquals("", markdownHeader.getHeader());
+		assertEquals("ce100-week-1", deckHeader.getHeader());
+		assertEquals("CE100", deckHeader.getCourse());
+		assertEquals("Uğur CORUH", deckHeader.getAuthor());
+		assertEquals(LicenseTypes.MIT, deckHeader.getLicense());
+		assertTrue(deckHeader.generateMarkdownHeader().contains("## ce100-week-1\n"));
+	}
+
+	/**
+	 *
+	 * Writes and loads a header properties file.
+	 *
+	 * @param properties The content of the file
+	 *
+	 * @return The loaded header
+	 *
+	 * @throws IOException If the file can't be written or loaded
+	 */
+	private MarkdownHeader load(String properties) throws IOException {
+
+		Path file = folder.resolve("header.properties");
+		Files.write(file, properties.getBytes(StandardCharsets.UTF_8));
+		return MarkdownHeader.load(file.toString());
+	}
+
+}
@@ -0,0 +1,252 @@
+package com.ucoruh.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.ucoruh.utils.ImageOptimizer.OptimizedImage;
+
+/**
+ *
+ * @class ImageOptimizerTest
+ * @brief Checks that optimized copies of images are written without metadata.
+ */
+public class ImageOptimizerTest {
+
+	@TempDir
+	Path folder;
+
+	private ImageOptimizer optimizer;
+
+	@BeforeEach
+	public void createOptimizer() throws IOException {
+
+		Files.createDirectories(folder.resolve("assets"));
+		optimizer = new ImageOptimizer(150f, 0.9f);
+	}
+
+	@Test
+	public void downscalesLargeImage() throws IOException {
+
+		Files.write(folder.resolve("assets/photo.jpg"), writeJpeg(drawImage(800, 600), 0.9f));
+
+		OptimizedImage image = optimizedImage("assets/.optimized/photo-200w.jpg");
+
+		assertTrue(optimizer.optimize(image));
+
+		BufferedImage output = ImageIO.read(folder.resolve("assets/.optimized/photo-200w.jpg").toFile());
+		assertEquals(200, output.getWidth());
+		assertEquals(150, output.getHeight());
+	}
+
+	@Test
+	public void copiesImageWithoutMetadataThatIsNotSmaller() throws IOException {
+
+		// written with a lower quality, written again with 0.9 it is larger
+		byte[] jpeg = writeJpeg(drawImage(64, 48), 0.3f);
+		Files.write(folder.resolve("assets/photo.jpg"), jpeg);
+
+		assertFalse(optimizer.optimize(optimizedImage("assets/.optimized/photo-200w.jpg")));
+		assertArrayEquals(jpeg, Files.readAllBytes(folder.resolve("assets/.optimized/photo-200w.jpg")));
+	}
+
+	@Test
+	public void writesJpegWithMetadataAgain() throws IOException {
+
+		byte[] jpeg = writeJpeg(drawImage(64, 48), 0.3f);
+		Files.write(folder.resolve("assets/photo.jpg"), withExifSegment(jpeg));
+
+		assertTrue(optimizer.optimize(optimizedImage("assets/.optimized/photo-200w.jpg")));
+
+		String output = new String(Files.readAllBytes(folder.resolve("assets/.optimized/photo-200w.jpg")),
+				StandardCharsets.ISO_8859_1);
+		assertFalse(output.contains("Exif"), "EXIF segment of the copy");
+		assertFalse(output.contains("Camera Model"), "EXIF data of the copy");
+	}
+
+	@Test
+	public void writesPngWithMetadataAgain() throws IOException {
+
+		ByteArrayOutputStream png = new ByteArrayOutputStream();
+		ImageIO.write(drawImage(64, 48), "png", png);
+		Files.write(folder.resolve("assets/diagram.png"), withTextChunk(png.toByteArray()));
+
+		assertTrue(optimizer.optimize(optimizedImage("assets/.optimized/diagram-200w.png")));
+
+		String output = new String(Files.readAllBytes(folder.resolve("assets/.optimized/diagram-200w.png")),
+				StandardCharsets.ISO_8859_1);
+		assertFalse(output.contains("tEXt"), "text chunk of the copy");
+		assertFalse(output.contains("Camera Model"), "text of the copy");
+	}
+
+	@Test
+	public void copiesUndecodableImage() throws IOException {
+
+		byte[] content = "not a decodable image".getBytes(StandardCharsets.UTF_8);
+		Files.write(folder.resolve("assets/cmyk.jpg"), content);
+
+		assertFalse(optimizer.optimize(optimizedImage("assets/.optimized/cmyk-200w.jpg")));
+		assertArrayEquals(content, Files.readAllBytes(folder.resolve("assets/.optimized/cmyk-200w.jpg")));
+	}
+
+	/**
+	 *
+	 * Gets the optimized image of a path in the folder.
+	 *
+	 * @param outputFile The path of the optimized image relative to the folder
+	 *
+	 * @return The optimized image
+	 */
+	private OptimizedImage optimizedImage(String outputFile) {
+		return ImageOptimizer.getOptimizedImage(folder.resolve(outputFile).toString());
+	}
+
+	/**
+	 *
+	 * Draws a test image with a gradient and a grid.
+	 *
+	 * @param width  The width
+	 * @param height The height
+	 *
+	 * @return The image
+	 */
+	private static BufferedImage drawImage(int width, int height) {
+
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+		Graphics2D graphics = image.createGraphics();
+		try {
+			for (int x = 0; x < width; x++) {
+				graphics.setColor(new Color((x * 255) / width, 128, 255 - (x * 255) / width));
+				graphics.drawLine(x, 0, x, height);
+			}
+			graphics.setColor(Color.BLACK);
+			for (int y = 0; y < height; y += 8) {
+				graphics.drawLine(0, y, width, y);
+			}
+		} finally {
+			graphics.dispose();
+		}
+
+		return image;
+	}
+
+	/**
+	 *
+	 * Writes a JPEG image without metadata.
+	 *
+	 * @param image   The image
+	 * @param quality The JPEG quality
+	 *
+	 * @return The JPEG bytes
+	 *
+	 * @throws IOException If the image can't be written
+	 */
+	private static byte[] writeJpeg(BufferedImage image, float quality) throws IOException {
+
+		Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+		ImageWriter writer = writers.next();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+			ImageWriteParam param = writer.getDefaultWriteParam();
+			param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			param.setCompressionQuality(quality);
+			writer.setOutput(output);
+			writer.write(null, new IIOImage(image, null, null), param);
+		} finally {
+			writer.dispose();
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 *
+	 * Inserts an EXIF segment after the start of image marker of a JPEG image.
+	 *
+	 * @param jpeg The JPEG bytes
+	 *
+	 * @return The JPEG bytes with the segment
+	 */
+	private static byte[] withExifSegment(byte[] jpeg) {
+
+		byte[] data = "Exif\0\0Camera Model Test".getBytes(StandardCharsets.ISO_8859_1);
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		output.write(jpeg, 0, 2);
+		output.write(0xFF);
+		output.write(0xE1);
+		output.write((data.length + 2) >> 8);
+		output.write((data.length + 2) & 0xFF);
+		output.write(data, 0, data.length);
+		output.write(jpeg, 2, jpeg.length - 2);
+
+		return output.toByteArray();
+	}
+
+	/**
+	 *
+	 * Inserts a text chunk after the header chunk of a PNG image.
+	 *
+	 * @param png The PNG bytes
+	 *
+	 * @return The PNG bytes with the chunk
+	 */
+	private static byte[] withTextChunk(byte[] png) {
+
+		byte[] chunk = "tEXtComment\0Camera Model Test".getBytes(StandardCharsets.ISO_8859_1);
+
+		CRC32 crc = new CRC32();
+		crc.update(chunk);
+
+		// the signature and the 25 byte IHDR chunk
+		int headerEnd = 8 + 25;
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		output.write(png, 0, headerEnd);
+		writeInt(output, chunk.length - 4);
+		output.write(chunk, 0, chunk.length);
+		writeInt(output, (int) crc.getValue());
+		output.write(png, headerEnd, png.length - headerEnd);
+
+		return output.toByteArray();
+	}
+
+	/**
+	 *
+	 * Writes a big endian integer.
+	 *
+	 * @param output The output
+	 * @param value  The integer
+	 */
+	private static void writeInt(ByteArrayOutputStream output, int value) {
+		output.write(value >>> 24);
+		output.write(value >>> 16);
+		output.write(value >>> 8);
+		output.write(value);
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.ucoruh.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @class OutputTailTest
+ * @brief Checks the ring buffer of the output tail.
+ */
+public class OutputTailTest {
+
+	@Test
+	public void keepsShortOutput() throws IOException {
+
+		OutputTail tail = new OutputTail(8);
+		tail.write(bytes("abc"));
+
+		assertEquals("abc", tail.toString());
+		assertEquals(3, tail.getTotalBytes());
+		assertFalse(tail.isTruncated());
+	}
+
+	@Test
+	public void keepsOutputOfExactCapacity() throws IOException {
+
+		OutputTail tail = new OutputTail(8);
+		tail.write(bytes("abcd"));
+		tail.write(bytes("efgh"));
+
+		assertEquals("abcdefgh", tail.toString());
+		assertFalse(tail.isTruncated());
+	}
+
+	@Test
+	public void keepsLastBytesAcrossWraparound() throws IOException {
+
+		OutputTail tail = new OutputTail(8);
+		tail.write(bytes("abcdef"));
+		tail.write(bytes("ghijk"));
+		tail.write('l');
+
+		assertEquals("... [4 bytes truncated]\nefghijkl", tail.toString());
+		assertEquals(12, tail.getTotalBytes());
+		assertTrue(tail.isTruncated());
+	}
+
+	@Test
+	public void keepsEndOfWriteLongerThanCapacity() throws IOException {
+
+		OutputTail tail = new OutputTail(8);
+		tail.write(bytes("xyz"));
+		tail.write(bytes("0123456789abcdef"), 2, 12);
+
+		assertEquals("... [7 bytes truncated]\n6789abcd", tail.toString());
+		assertEquals(15, tail.getTotalBytes());
+	}
+
+	@Test
+	public void keepsLastBytesOfManyWrites() throws IOException {
+
+		OutputTail tail = new OutputTail(5);
+		StringBuilder output = new StringBuilder();
+
+		for (int i = 0; i < 100; i++) {
+			String chunk = Integer.toString(i);
+			output.append(chunk);
+			tail.write(bytes(chunk));
+		}
+
+		assertEquals("... [" + (output.length() - 5) + " bytes truncated]\n" + output.substring(output.length() - 5),
+				tail.toString());
+	}
+
+	/**
+	 *
+	 * Encodes a text as UTF-8.
+	 *
+	 * @param text The text
+	 *
+	 * @return The bytes
+	 */
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+}
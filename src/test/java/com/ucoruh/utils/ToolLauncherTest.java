@@ -0,0 +1,67 @@
+package com.ucoruh.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+
+import com.ucoruh.utils.ToolLauncher.Tool;
+import com.ucoruh.utils.ToolLauncher.ToolResult;
+
+/**
+ *
+ * @class ToolLauncherTest
+ * @brief Checks that tool launches return after a timeout and when an orphaned
+ *        child keeps the output open.
+ */
+@DisabledOnOs(OS.WINDOWS)
+public class ToolLauncherTest {
+
+	@AfterEach
+	public void restoreTimeout() {
+		ToolLauncher.setTimeoutMillis(Tool.PANDOC, Tool.PANDOC.getDefaultTimeoutSeconds() * 1000L);
+	}
+
+	@Test
+	public void returnsOutputAndExitCode() throws Exception {
+
+		ToolResult result = ToolLauncher.execute(Tool.PANDOC, new String[] { "sh", "-c", "echo rendered; exit 3" },
+				null);
+
+		assertEquals(3, result.getExitCode());
+		assertEquals("rendered\n", result.getOutput());
+		assertFalse(result.isTimedOut());
+	}
+
+	@Test
+	public void returnsWhenOrphanHoldsOutput() {
+
+		ToolResult result = assertTimeoutPreemptively(Duration.ofSeconds(30),
+				() -> ToolLauncher.execute(Tool.PANDOC, new String[] { "sh", "-c", "sleep 60 & echo started" }, null));
+
+		assertEquals(0, result.getExitCode());
+		assertTrue(result.getOutput().startsWith("started"), result.getOutput());
+		assertFalse(result.isTimedOut());
+	}
+
+	@Test
+	public void killsToolAfterTimeout() {
+
+		ToolLauncher.setTimeoutMillis(Tool.PANDOC, 500);
+
+		ToolResult result = assertTimeoutPreemptively(Duration.ofSeconds(30),
+				() -> ToolLauncher.execute(Tool.PANDOC, new String[] { "sh", "-c", "echo begin; sleep 60" }, null));
+
+		assertTrue(result.isTimedOut());
+		assertFalse(result.isSuccess());
+		assertTrue(result.getOutput().startsWith("begin"), result.getOutput());
+	}
+
+}
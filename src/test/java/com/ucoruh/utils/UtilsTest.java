@@ -0,0 +1,373 @@
+package com.ucoruh.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+
+import org.apache.poi.sl.usermodel.PictureData.PictureType;
+import org.apache.poi.xslf.usermodel.SlideLayout;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFPictureShape;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.apache.poi.xslf.usermodel.XSLFSlideLayout;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @class UtilsTest
+ * @brief Compares the bitset Jaccard similarity with the set based calculation
+ *        it replaced, and checks the content addressed pictures of PowerPoint
+ *        conversions.
+ */
+public class UtilsTest {
+
+	@TempDir
+	Path folder;
+
+	@Test
+	public void jaccardSimilarityOfEmptyStrings() {
+
+		assertTrue(Double.isNaN(Utils.calculateJaccardSimilarity("", "")));
+		assertJaccardEquivalent("", "");
+		assertJaccardEquivalent("", "outline");
+		assertJaccardEquivalent("outline", "");
+	}
+
+	@Test
+	public void jaccardSimilarityOfRepeatedWords() {
+
+		assertEquals(1.0, Utils.calculateJaccardSimilarity("outline", "outlineoutline"), 0.0);
+		assertJaccardEquivalent("outline", "outline outline");
+		assertJaccardEquivalent("merge sort merge sort", "merge sort");
+		assertJaccardEquivalent("aaaa", "a");
+		assertJaccardEquivalent("insertion sort", "quick sort");
+	}
+
+	@Test
+	public void jaccardSimilarityOfTurkishWords() {
+
+		assertJaccardEquivalent("sıralama algoritmaları", "siralama algoritmalari");
+		assertJaccardEquivalent("ağaçlar ve çizgeler", "ağaçlar ve çizgeler");
+		assertJaccardEquivalent("İŞLEM ÖNCELİĞİ", "işlem önceliği");
+		assertJaccardEquivalent("görüntü 😀", "😀 görüntü");
+	}
+
+	@Test
+	public void jaccardSimilarityOfMoreThan2048DistinctCharacters() {
+
+		// 5000 distinct characters each over many bitset words, 2500 of them shared
+		String str1 = rangeString(0x4E00, 5000);
+		String str2 = rangeString(0x4E00 + 2500, 5000);
+
+		assertEquals(2500.0 / 7500.0, Utils.calculateJaccardSimilarity(str1, str2), 0.0);
+		assertEquals(1.0, Utils.calculateJaccardSimilarity(str1, new StringBuilder(str1).reverse().toString()), 0.0);
+		assertEquals(0.0, Utils.calculateJaccardSimilarity(rangeString(0x100, 3000), rangeString(0x1000, 3000)), 0.0);
+		assertJaccardEquivalent(str1, str2);
+		assertJaccardEquivalent(str1 + str1, str2 + "a");
+	}
+
+	@Test
+	public void jaccardSimilarityOfManyDistinctCharacters() {
+
+		Random random = new Random(42);
+
+		for (int run = 0; run < 200; run++) {
+			String str1 = randomString(random, 1 + random.nextInt(6000));
+			String str2 = random.nextBoolean() ? randomString(random, 1 + random.nextInt(6000))
+					: str1.substring(random.nextInt(str1.length()));
+			assertJaccardEquivalent(str1, str2);
+		}
+	}
+
+	@Test
+	public void convertsSharedPicturesToOneFile() throws IOException {
+
+		byte[] png = writePng(Color.RED);
+		Path first = writePresentation("week-1.pptx", png, png, writePng(Color.BLUE));
+		Path second = writePresentation("week-2.pptx", png);
+
+		String firstMarkdown = Utils.convertPowerPointToMarp(first.toString(), false);
+		String secondMarkdown = Utils.convertPowerPointToMarp(second.toString(), true);
+
+		String imagePath = "assets/" + sha256(png) + ".png";
+
+		assertEquals(2, countOccurrences(firstMarkdown, "](" + imagePath + ")"), firstMarkdown);
+		assertTrue(secondMarkdown.contains("](" + imagePath + "){position: absolute;"), secondMarkdown);
+		assertTrue(firstMarkdown.contains("# Slide 1\n"), firstMarkdown);
+
+		List<String> images = Arrays.asList(sha256(png) + ".png", sha256(writePng(Color.BLUE)) + ".png");
+		Collections.sort(images);
+		assertEquals(images, listAssets());
+		assertArrayEquals(png, Files.readAllBytes(folder.resolve(imagePath)));
+	}
+
+	@Test
+	public void keepsExistingPictureFile() throws IOException {
+
+		byte[] png = writePng(Color.RED);
+		Path deck = writePresentation("week-1.pptx", png);
+
+		Utils.convertPowerPointToMarp(deck.toString(), false);
+
+		Path image = folder.resolve("assets/" + sha256(png) + ".png");
+		Files.setLastModifiedTime(image, FileTime.fromMillis(0));
+
+		Utils.convertPowerPointToMarp(deck.toString(), false);
+
+		assertEquals(0, Files.getLastModifiedTime(image).toMillis());
+		assertEquals(1, listAssets().size());
+	}
+
+	@Test
+	public void convertsInParallelWithoutPartialFiles() throws Exception {
+
+		byte[] png = writePng(Color.GREEN);
+		List<Path> decks = new ArrayList<Path>();
+
+		for (int week = 1; week <= 8; week++) {
+			decks.add(writePresentation("week-" + week + ".pptx", png));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		try {
+			List<Future<String>> conversions = new ArrayList<Future<String>>();
+			for (Path deck : decks) {
+				conversions.add(executor.submit(() -> Utils.convertPowerPointToMarp(deck.toString(), false)));
+			}
+			for (Future<String> conversion : conversions) {
+				assertTrue(conversion.get().contains(sha256(png) + ".png"));
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		// only the complete image, no temporary files
+		assertEquals(Arrays.asList(sha256(png) + ".png"), listAssets());
+		assertArrayEquals(png, Files.readAllBytes(folder.resolve("assets/" + sha256(png) + ".png")));
+	}
+
+	/**
+	 *
+	 * Asserts that the similarity is the similarity of the replaced calculation.
+	 *
+	 * @param str1 The first string
+	 * @param str2 The second string
+	 */
+	private static void assertJaccardEquivalent(String str1, String str2) {
+
+		assertEquals(baselineJaccardSimilarity(str1, str2), Utils.calculateJaccardSimilarity(str1, str2), 0.0,
+				"similarity of [" + str1 + "] and [" + str2 + "]");
+	}
+
+	/**
+	 *
+	 * Creates a string of random characters of the whole BMP, including
+	 * surrogates.
+	 *
+	 * @param random The random generator
+	 * @param length The length of the string
+	 *
+	 * @return The string
+	 */
+	private static String randomString(Random random, int length) {
+
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			builder.append((char) random.nextInt(Character.MAX_VALUE + 1));
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 *
+	 * Creates a string of consecutive characters.
+	 *
+	 * @param first  The first character
+	 * @param length The number of characters
+	 *
+	 * @return The string
+	 */
+	private static String rangeString(int first, int length) {
+
+		StringBuilder builder = new StringBuilder(length);
+		for (int i = 0; i < length; i++) {
+			builder.append((char) (first + i));
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 *
+	 * Writes a presentation with a titled slide for each picture.
+	 *
+	 * @param name     The file name of the presentation
+	 * @param pictures The PNG pictures
+	 *
+	 * @return The path of the presentation
+	 *
+	 * @throws IOException If the presentation can't be written
+	 */
+	private Path writePresentation(String name, byte[]... pictures) throws IOException {
+
+		Path file = folder.resolve(name);
+
+		try (XMLSlideShow ppt = new XMLSlideShow(); OutputStream output = Files.newOutputStream(file)) {
+
+			XSLFSlideLayout layout = ppt.getSlideMasters().get(0).getLayout(SlideLayout.TITLE_ONLY);
+
+			for (int index = 0; index < pictures.length; index++) {
+				XSLFSlide slide = ppt.createSlide(layout);
+				slide.getPlaceholder(0).setText("Slide " + (index + 1));
+				XSLFPictureShape picture = slide.createPicture(ppt.addPicture(pictures[index], PictureType.PNG));
+				picture.setAnchor(new Rectangle2D.Double(100, 150, 320, 240));
+			}
+
+			ppt.write(output);
+		}
+
+		return file;
+	}
+
+	/**
+	 *
+	 * Writes a PNG image of one color.
+	 *
+	 * @param color The color
+	 *
+	 * @return The PNG bytes
+	 *
+	 * @throws IOException If the image can't be written
+	 */
+	private static byte[] writePng(Color color) throws IOException {
+
+		BufferedImage image = new BufferedImage(32, 24, BufferedImage.TYPE_INT_RGB);
+		Graphics2D graphics = image.createGraphics();
+		graphics.setColor(color);
+		graphics.fillRect(0, 0, 32, 24);
+		graphics.dispose();
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		ImageIO.write(image, "png", output);
+		return output.toByteArray();
+	}
+
+	/**
+	 *
+	 * Lists the files of the assets folder.
+	 *
+	 * @return The sorted file names
+	 *
+	 * @throws IOException If the folder can't be listed
+	 */
+	private List<String> listAssets() throws IOException {
+
+		List<String> names = new ArrayList<String>();
+
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(folder.resolve("assets"))) {
+			for (Path file : files) {
+				names.add(file.getFileName().toString());
+			}
+		}
+
+		Collections.sort(names);
+		return names;
+	}
+
+	/**
+	 *
+	 * Calculates the SHA-256 hash of data.
+	 *
+	 * @param data The data
+	 *
+	 * @return The hash in hexadecimal
+	 *
+	 * @throws IOException If SHA-256 is not available
+	 */
+	private static String sha256(byte[] data) throws IOException {
+
+		try {
+			return Utils.toHexString(MessageDigest.getInstance("SHA-256").digest(data));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 *
+	 * Counts the occurrences of a string.
+	 *
+	 * @param text The text
+	 * @param part The string to count
+	 *
+	 * @return The number of occurrences
+	 */
+	private static int countOccurrences(String text, String part) {
+
+		int count = 0;
+		for (int index = text.indexOf(part); index >= 0; index = text.indexOf(part, index + part.length())) {
+			count++;
+		}
+
+		return count;
+	}
+
+	/**
+	 *
+	 * Calculates the Jaccard similarity of the characters like Utils before the
+	 * bitset calculation.
+	 *
+	 * @param str1 The first string
+	 * @param str2 The second string
+	 *
+	 * @return The Jaccard similarity, NaN if both strings are empty
+	 */
+	private static double baselineJaccardSimilarity(String str1, String str2) {
+
+		Set<Character> set1 = new HashSet<Character>();
+		Set<Character> set2 = new HashSet<Character>();
+		for (char c : str1.toCharArray()) {
+			set1.add(c);
+		}
+		for (char c : str2.toCharArray()) {
+			set2.add(c);
+		}
+
+		Set<Character> intersection = new HashSet<Character>(set1);
+		intersection.retainAll(set2);
+		Set<Character> union = new HashSet<Character>(set1);
+		union.addAll(set2);
+
+		return (double) intersection.size() / union.size();
+	}
+
+}